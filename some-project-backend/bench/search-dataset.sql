@@ -0,0 +1,75 @@
+-- Testdata for ytelsesmåling av fulltekstsøket (GET /api/search/posts).
+--
+-- Start applikasjonen én gang først, slik at tabellene, search_vector og GIN-indeksen finnes.
+-- Kjør deretter (antall innlegg/brukere kan overstyres):
+--
+--   psql -h localhost -U postgres -d social -v posts=5000000 -v users=50000 -f bench/search-dataset.sql
+--
+-- Ordene trekkes skjevt fra et ordforråd (noen ord er svært vanlige, de fleste sjeldne),
+-- slik at både brede og smale søk kan måles. Likes og kommentarer legges på ~10 % av innleggene.
+-- Alle genererte brukere har e-post på formen bench-N@example.com og kan slettes med:
+--   DELETE FROM users WHERE email LIKE 'bench-%@example.com';  (slett posts/likes/comments først)
+
+\if :{?posts} \else \set posts 1000000 \endif
+\if :{?users} \else \set users 10000 \endif
+
+\timing on
+
+CREATE TEMP TABLE bench_vocab AS
+SELECT string_to_array(
+  'hei ferie sommer vinter tur fjell hytte sol regn snø kaffe middag fotball trening løping ' ||
+  'konsert musikk film bok skole jobb møte prosjekt kode java spring postgres docker ' ||
+  'oslo bergen trondheim stavanger tromsø norge sverige danmark reise fly tog buss ' ||
+  'bursdag fest venner familie hund katt hage skog sjø båt fiske ski sykkel ' ||
+  'nyheter valg politikk økonomi teknologi mobil app nettside design bilde video ' ||
+  'oppskrift kake brød pizza taco vin øl te frokost lunsj kveld morgen helg mandag',
+  ' ') AS a;
+
+INSERT INTO users (id, email, password_hash, display_name, display_name_key, created_at)
+SELECT gen_random_uuid(),
+       'bench-' || i || '@example.com',
+       '{noop}bench',
+       'bench_user_' || i,
+       'bench_user_' || i,
+       now() - (random() * interval '3 years')
+FROM generate_series(1, :users) AS i;
+
+CREATE TEMP TABLE bench_users AS
+SELECT array_agg(id) AS ids FROM users WHERE email LIKE 'bench-%@example.com';
+
+-- Innlegg med 5–25 ord, spredt over de siste tre årene.
+-- power(random(), 3) gir skjev fordeling: ordene først i listen er mye vanligere enn de sist.
+INSERT INTO posts (id, author_id, content, created_at)
+SELECT gen_random_uuid(),
+       u.ids[1 + (i * 7919) % array_length(u.ids, 1)],
+       (SELECT string_agg(v.a[1 + floor(power(random(), 3) * array_length(v.a, 1))::int], ' ')
+          FROM bench_vocab v, generate_series(1, 5 + (i % 21)) AS k),
+       now() - (random() * interval '3 years')
+FROM generate_series(1, :posts) AS i, bench_users u;
+
+-- Likes på ~10 % av innleggene (1–50 per innlegg, de fleste få)
+INSERT INTO post_likes (post_id, user_id, created_at)
+SELECT p.id,
+       u.ids[1 + (abs(hashtext(p.id::text)) + g * 7919) % array_length(u.ids, 1)],
+       p.created_at + interval '1 hour'
+FROM (SELECT id, created_at, 1 + floor(power(random(), 4) * 50)::int AS n
+      FROM posts TABLESAMPLE BERNOULLI (10)) p
+CROSS JOIN LATERAL generate_series(1, p.n) AS g
+CROSS JOIN bench_users u
+ON CONFLICT DO NOTHING;
+
+-- Én kommentar på ~5 % av innleggene
+INSERT INTO comments (id, post_id, author_id, content, created_at)
+SELECT gen_random_uuid(), p.id,
+       u.ids[1 + floor(random() * array_length(u.ids, 1))::int],
+       'enig', p.created_at + interval '2 hours'
+FROM posts p TABLESAMPLE BERNOULLI (5), bench_users u;
+
+ANALYZE users;
+ANALYZE posts;
+ANALYZE post_likes;
+ANALYZE comments;
+
+-- Eksempel på måling (kjør med EXPLAIN (ANALYZE, BUFFERS) eller mot endepunktet med hey):
+--   hey -n 2000 -c 20 "http://localhost:8080/api/search/posts?q=hytte%20fjell&limit=20"
+--   hey -n 2000 -c 20 "http://localhost:8080/api/search/posts?q=kaffe&limit=20"
@@ -0,0 +1,47 @@
+#!/usr/bin/env bash
+# Måler effekten av @SingleFlight: samme hete kall med økende samtidighet.
+#
+# For hvert nivå sendes like mange requests mot samme URL (standard: første side av /api/popular).
+# Skriptet skriver ut requests/s fra hey, utførelser/s fra singleflight.executions og
+# databasetransaksjoner/s fra pg_stat_database. Med single-flight flater de to siste ut
+# når samtidigheten øker, mens requests/s fortsetter å stige.
+#
+#   bench/single-flight.sh                       # /api/popular?range=day&limit=10, gruppe "popular"
+#   URL=http://localhost:8080/api/posts/<id> NAME=post-snapshot bench/single-flight.sh
+#
+# Krever hey (https://github.com/rakyll/hey), curl og jq; psql er valgfritt.
+
+set -euo pipefail
+
+BASE=${BASE:-http://localhost:8080}
+URL=${URL:-$BASE/api/popular?range=day&limit=10}
+NAME=${NAME:-popular}
+REQUESTS=${REQUESTS:-5000}
+LEVELS=${LEVELS:-"1 5 10 25 50 100"}
+PGDB=${PGDB:-social}
+
+executions() {
+  curl -s "$BASE/actuator/metrics/singleflight.executions?tag=name:$NAME" \
+    | jq '[.measurements[] | select(.statistic == "COUNT") | .value] | first // 0'
+}
+
+commits() {
+  if command -v psql >/dev/null; then
+    psql -h "${PGHOST:-localhost}" -U "${PGUSER:-postgres}" -d "$PGDB" -Atc \
+      "SELECT xact_commit FROM pg_stat_database WHERE datname = '$PGDB'"
+  else
+    echo 0
+  fi
+}
+
+curl -s -o /dev/null "$URL" # varm opp (og registrer metrikken)
+
+printf "%-12s %-12s %-14s %-12s\n" concurrency requests/s executions/s db-tx/s
+for c in $LEVELS; do
+  e0=$(executions); t0=$(commits); s0=$(date +%s.%N)
+  rps=$(hey -n "$REQUESTS" -c "$c" "$URL" | awk '/Requests\/sec/ {print $2}')
+  s1=$(date +%s.%N); e1=$(executions); t1=$(commits)
+  printf "%-12s %-12.0f %-14.0f %-12.0f\n" "$c" "$rps" \
+    "$(echo "($e1 - $e0) / ($s1 - $s0)" | bc -l)" \
+    "$(echo "($t1 - $t0) / ($s1 - $s0)" | bc -l)"
+done
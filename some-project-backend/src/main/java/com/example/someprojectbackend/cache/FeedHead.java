@@ -0,0 +1,145 @@
+package com.example.someprojectbackend.cache;
+
+import com.example.someprojectbackend.db.BackgroundJob;
+import com.example.someprojectbackend.repo.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Hodet av den globale feeden i minnet: (createdAt, id, forfatter) for de nyeste innleggene.
+ * <p>
+ * Brukes til å svare på "hvor mange nye innlegg finnes etter denne cursoren?" uten databasekall.
+ * Indeksen vet hvor langt bakover den er komplett ({@code floor}); er cursoren eldre enn det,
+ * eller er indeksen ikke lastet, returnerer {@link #newerThan} null og kalleren spør databasen.
+ * <p>
+ * - Lastes ved oppstart med de {@code app.feed-head.size} nyeste innleggene.
+ * - Holdes oppdatert av {@link FeedHeadSubscriber} (nye og slettede innlegg). Når indeksen
+ *   er full, fjernes det eldste innlegget og {@code floor} flyttes frem.
+ * - ID-er sammenlignes usignert, som {@code uuid} i Postgres, så rekkefølgen er den samme
+ *   som i keyset-spørringene.
+ */
+@Component
+public class FeedHead {
+
+    private static final Logger log = LoggerFactory.getLogger(FeedHead.class);
+
+    /** Sorteringsnøkkel: nyeste først. */
+    record Key(Instant createdAt, UUID id) {
+    }
+
+    static final Comparator<Key> NEWEST_FIRST = Comparator
+            .comparing(Key::createdAt)
+            .thenComparing(Key::id, (a, b) -> {
+                int c = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+                return c != 0 ? c : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+            })
+            .reversed();
+
+    private final PostRepository posts;
+    private final int capacity;
+
+    /** Nøkkel → forfatter-ID, nyeste først. */
+    private final ConcurrentSkipListMap<Key, UUID> entries = new ConcurrentSkipListMap<>(NEWEST_FIRST);
+
+    /** Alle innlegg med nøkkel ≥ floor finnes i {@link #entries}; null = ikke lastet. */
+    private volatile Key floor;
+
+    /** Laveste mulige nøkkel: alle innlegg er i minnet. */
+    private static final Key EVERYTHING = new Key(Instant.MIN, new UUID(0, 0));
+
+    public FeedHead(PostRepository posts,
+                    @Value("${app.feed-head.size:2000}") int capacity) {
+        this.posts = posts;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Laster de nyeste innleggene. Kjøres når applikasjonen har startet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @BackgroundJob
+    public void load() {
+        var rows = posts.findHead(PageRequest.of(0, capacity));
+        synchronized (this) {
+            for (var r : rows) entries.putIfAbsent(new Key(r.getCreatedAt(), r.getId()), r.getAuthorId());
+            floor = rows.size() < capacity ? EVERYTHING : entries.lastKey();
+            trim();
+        }
+        log.info("Feed head loaded: {} posts", rows.size());
+    }
+
+    /**
+     * Registrerer et nytt innlegg. Innlegg eldre enn {@code floor} ignoreres (de er ikke i hodet).
+     */
+    public synchronized void add(UUID postId, UUID authorId, Instant createdAt) {
+        var key = new Key(createdAt, postId);
+        var f = floor;
+        if (f != null && NEWEST_FIRST.compare(key, f) > 0) return;
+        entries.put(key, authorId);
+        trim();
+    }
+
+    /**
+     * Fjerner et slettet innlegg.
+     */
+    public synchronized void remove(UUID postId) {
+        entries.entrySet().removeIf(e -> e.getKey().id().equals(postId));
+    }
+
+    /**
+     * Slår av indeksen til neste oppstart, f.eks. når en hendelse mangler tidspunkt.
+     * Spørsmål går da til databasen.
+     */
+    public synchronized void disable() {
+        floor = null;
+        entries.clear();
+    }
+
+    /**
+     * Innlegg som er nyere enn en cursor, nyeste først.
+     *
+     * @param createdAt cursorens tidspunkt
+     * @param id        cursorens innlegg-ID
+     * @param authorIds bare disse forfatterne, eller null for alle
+     * @param limit     maks antall ID-er
+     * @return ID-er, eller null hvis indeksen ikke kan svare (ikke lastet, eller cursoren er eldre enn hodet)
+     */
+    public List<UUID> newerThan(Instant createdAt, UUID id, Set<UUID> authorIds, int limit) {
+        var f = floor;
+        var cursor = new Key(createdAt, id);
+        if (f == null || NEWEST_FIRST.compare(cursor, f) > 0) return null;
+
+        var out = new ArrayList<UUID>(Math.min(limit, 16));
+        for (var e : entries.headMap(cursor, false).entrySet()) {
+            if (authorIds != null && !authorIds.contains(e.getValue())) continue;
+            out.add(e.getKey().id());
+            if (out.size() >= limit) break;
+        }
+        return out;
+    }
+
+    /** @return antall innlegg i minnet */
+    public int size() {
+        return entries.size();
+    }
+
+    private void trim() {
+        while (entries.size() > capacity) {
+            entries.pollLastEntry();
+            floor = entries.lastKey();
+        }
+    }
+}
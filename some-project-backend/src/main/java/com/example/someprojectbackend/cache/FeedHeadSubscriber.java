@@ -0,0 +1,33 @@
+package com.example.someprojectbackend.cache;
+
+import com.example.someprojectbackend.outbox.DomainEvent;
+import com.example.someprojectbackend.outbox.OutboxSubscriber;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Holder {@link FeedHead} oppdatert når innlegg opprettes eller slettes.
+ */
+@Component
+public class FeedHeadSubscriber implements OutboxSubscriber {
+
+    private final FeedHead head;
+
+    public FeedHeadSubscriber(FeedHead head) {
+        this.head = head;
+    }
+
+    @Override
+    public void handle(List<DomainEvent> events) {
+        for (DomainEvent e : events) {
+            if (e instanceof DomainEvent.PostCreated c) {
+                // Rader fra før createdAt kom med i hendelsen: indeksen kan ikke plassere innlegget
+                if (c.createdAt() == null) head.disable();
+                else head.add(c.postId(), c.authorId(), c.createdAt());
+            } else if (e instanceof DomainEvent.PostDeleted d) {
+                head.remove(d.postId());
+            }
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.someprojectbackend.cache;
+
+import com.example.someprojectbackend.db.DbPartition;
+import com.example.someprojectbackend.limit.ConcurrencyLimitFilter;
+import com.example.someprojectbackend.limit.RouteClass;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Forhåndshenter neste side av en feed mens klienten viser den forrige.
+ * <p>
+ * Ved uendelig scroll kommer forespørselen etter neste side nesten alltid like etter den
+ * forrige. Når en side har en neste-cursor, beregnes den neste siden derfor i bakgrunnen
+ * ({@code prefetchExecutor}) og legges i en kortlevd cache med nøkkel (feed, viewer, cursor,
+ * parametre). Neste forespørsel med den cursoren får siden rett fra minnet.
+ * <p>
+ * - Forhåndshentingen leser fra {@link DbPartition#JOBS}, ikke fra de interaktive poolene.
+ * - Under last ({@link ConcurrencyLimitFilter#utilization(RouteClass)} over
+ *   {@code app.prefetch.max-utilization}) startes ingen nye forhåndshentinger, og de som
+ *   står i kø kastes. En forespørsel som finner siden sin fortsatt i kø, tar den ut av
+ *   køen og henter selv.
+ * - Sidene lever i {@code app.prefetch.ttl-ms}; en side kan altså være så mye eldre enn
+ *   en nyhentet side. Hver side kan bare brukes én gang.
+ * <p>
+ * Metrikker: {@code prefetch.requests} (tag {@code feed}, {@code outcome} = hit/miss, bare
+ * forespørsler med cursor), {@code prefetch.hit.ratio}, {@code prefetch.shed} (forhåndshentinger
+ * som ble droppet pga. last eller full kø) og {@code prefetch.entries}.
+ */
+@Component
+public class PagePrefetcher {
+
+    private static final Logger log = LoggerFactory.getLogger(PagePrefetcher.class);
+
+    /** Nøkkel for én forhåndshentet side; {@code params} må ha verdi-likhet. */
+    private record Key(String feed, UUID viewerId, Object cursor, Object params) {
+    }
+
+    /** Én forhåndshenting. Den som først setter {@code claimed} (jobben eller forespørselen) henter siden. */
+    private static final class Entry {
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        final AtomicBoolean claimed = new AtomicBoolean();
+        final long expiresAt;
+
+        Entry(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final ThreadPoolTaskExecutor executor;
+    private final ConcurrencyLimitFilter limits;
+    private final TransactionTemplate tx;
+    private final MeterRegistry registry;
+    private final Clock clock;
+    private final boolean enabled;
+    private final long ttlMs;
+    private final long waitMs;
+    private final int maxEntries;
+    private final double maxUtilization;
+
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Counter> hits = new ConcurrentHashMap<>();
+    private final Map<String, Counter> misses = new ConcurrentHashMap<>();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder lookupCount = new LongAdder();
+    private final Counter shed;
+
+    public PagePrefetcher(@Qualifier("prefetchExecutor") ThreadPoolTaskExecutor prefetchExecutor,
+                          ConcurrencyLimitFilter limits,
+                          PlatformTransactionManager txManager,
+                          MeterRegistry registry,
+                          Clock clock,
+                          @Value("${app.prefetch.enabled:true}") boolean enabled,
+                          @Value("${app.prefetch.ttl-ms:15000}") long ttlMs,
+                          @Value("${app.prefetch.wait-ms:500}") long waitMs,
+                          @Value("${app.prefetch.max-entries:5000}") int maxEntries,
+                          @Value("${app.prefetch.max-utilization:0.5}") double maxUtilization) {
+        this.executor = prefetchExecutor;
+        this.limits = limits;
+        this.tx = new TransactionTemplate(txManager);
+        this.tx.setReadOnly(true);
+        this.registry = registry;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.ttlMs = ttlMs;
+        this.waitMs = waitMs;
+        this.maxEntries = maxEntries;
+        this.maxUtilization = maxUtilization;
+
+        this.shed = Counter.builder("prefetch.shed")
+                .description("Forhåndshentinger som ble droppet pga. last eller full kø")
+                .register(registry);
+        Gauge.builder("prefetch.entries", entries, ConcurrentHashMap::size)
+                .description("Forhåndshentede sider i minnet (inkl. pågående)")
+                .register(registry);
+        Gauge.builder("prefetch.hit.ratio", this, PagePrefetcher::hitRatio)
+                .description("Andel forespørsler med cursor som ble besvart fra forhåndshentingen")
+                .register(registry);
+    }
+
+    /**
+     * Henter en side: fra forhåndshentingen hvis den finnes, ellers med {@code loader}.
+     * Har siden en neste-cursor, startes forhåndshentingen av neste side.
+     * <p>
+     * {@code loader} kjøres i en read-only transaksjon (interaktivt: {@code READS};
+     * i bakgrunnen: {@code JOBS}), så kalleren skal ikke selv være {@code @Transactional}.
+     *
+     * @param feed     feedens navn (metrikk-tag og del av nøkkelen)
+     * @param viewerId innlogget bruker, eller null
+     * @param cursor   cursoren fra forespørselen, eller null for første side
+     * @param params   øvrige parametre siden avhenger av (limit, felt, ...), med verdi-likhet
+     * @param loader   henter siden for en cursor
+     * @param next     neste-cursor for en side, eller null
+     * @return siden
+     */
+    @SuppressWarnings("unchecked")
+    public <C, T> T page(String feed, UUID viewerId, C cursor, Object params,
+                         Function<C, T> loader, Function<T, C> next) {
+        T page = null;
+        if (cursor != null && enabled) {
+            page = (T) take(new Key(feed, viewerId, cursor, params));
+            (page != null ? counter(hits, feed, "hit") : counter(misses, feed, "miss")).increment();
+            lookupCount.increment();
+            if (page != null) hitCount.increment();
+        }
+        if (page == null) {
+            page = tx.execute(s -> loader.apply(cursor));
+        }
+        C nextCursor = page != null ? next.apply(page) : null;
+        if (nextCursor != null && enabled) {
+            schedule(new Key(feed, viewerId, nextCursor, params), () -> loader.apply(nextCursor));
+        }
+        return page;
+    }
+
+    /**
+     * Tar ut en forhåndshentet side. En side som fortsatt står i kø tas ut av køen (forespørselen
+     * henter selv); en som er under arbeid ventes på i inntil {@code app.prefetch.wait-ms}.
+     *
+     * @return siden, eller null
+     */
+    private Object take(Key key) {
+        var entry = entries.remove(key);
+        if (entry == null) return null;
+        if (entry.claimed.compareAndSet(false, true)) return null; // ikke startet
+        if (clock.millis() > entry.expiresAt) return null;
+        try {
+            return entry.result.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception ex) {
+            return null; // feilet, kastet eller for treg: hent på vanlig måte
+        }
+    }
+
+    private void schedule(Key key, Supplier<Object> load) {
+        if (overloaded()) {
+            shed.increment();
+            executor.getThreadPoolExecutor().getQueue().clear();
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            purgeExpired();
+            if (entries.size() >= maxEntries) {
+                shed.increment();
+                return;
+            }
+        }
+        var entry = new Entry(clock.millis() + ttlMs);
+        if (entries.putIfAbsent(key, entry) != null) return;
+        try {
+            executor.execute(() -> run(key, entry, load));
+        } catch (RejectedExecutionException ex) {
+            entries.remove(key, entry);
+            shed.increment();
+        }
+    }
+
+    private void run(Key key, Entry entry, Supplier<Object> load) {
+        if (!entry.claimed.compareAndSet(false, true)) return; // forespørselen kom først
+        if (overloaded() || clock.millis() > entry.expiresAt) {
+            entries.remove(key, entry);
+            entry.result.cancel(false);
+            shed.increment();
+            return;
+        }
+        try {
+            entry.result.complete(DbPartition.callAs(DbPartition.JOBS, () -> tx.execute(s -> load.get())));
+        } catch (RuntimeException ex) {
+            entries.remove(key, entry);
+            entry.result.completeExceptionally(ex);
+            log.debug("Forhåndshenting av {} feilet", key.feed(), ex);
+        }
+    }
+
+    private boolean overloaded() {
+        return limits.utilization(RouteClass.EXPENSIVE) > maxUtilization
+                || limits.utilization(RouteClass.CHEAP) > maxUtilization;
+    }
+
+    private void purgeExpired() {
+        long now = clock.millis();
+        entries.values().removeIf(e -> now > e.expiresAt);
+    }
+
+    private Counter counter(Map<String, Counter> byFeed, String feed, String outcome) {
+        return byFeed.computeIfAbsent(feed, f -> Counter.builder("prefetch.requests")
+                .tag("feed", f)
+                .tag("outcome", outcome)
+                .description("Forespørsler med cursor, etter om siden var forhåndshentet")
+                .register(registry));
+    }
+
+    private double hitRatio() {
+        long lookups = lookupCount.sum();
+        return lookups == 0 ? 0.0 : (double) hitCount.sum() / lookups;
+    }
+}
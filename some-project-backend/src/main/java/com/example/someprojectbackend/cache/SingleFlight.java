@@ -0,0 +1,33 @@
+package com.example.someprojectbackend.cache;
+
+import java.lang.annotation.*;
+
+/**
+ * Slår sammen samtidige kall til en metode med samme nøkkel ("single-flight").
+ * <p>
+ * Mens ett kall med en gitt nøkkel pågår, venter andre kall med samme nøkkel på det
+ * og får det samme resultatet (eller unntaket) i stedet for å gjøre jobben selv.
+ * Resultatet caches ikke etterpå; neste kall etter at det er ferdig kjører på nytt.
+ * <p>
+ * Returverdien deles mellom tråder og må derfor ikke endres av kallerne
+ * (records og {@code List.copyOf}/{@code toList()} er trygt). Aspektet ligger utenfor
+ * {@code @Transactional}, så ventende kall holder ingen databaseforbindelse.
+ *
+ * @see SingleFlightAspect
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SingleFlight {
+
+    /**
+     * Navn på gruppen (brukes i metrikkene); standard er {@code Klasse.metode}.
+     */
+    String value() default "";
+
+    /**
+     * SpEL-uttrykk over parameterne (f.eks. {@code "{#postId, #viewer?.id}"}) som gir nøkkelen.
+     * Standard er listen av alle argumentene, som bare passer når de har verdi-likhet.
+     */
+    String key() default "";
+}
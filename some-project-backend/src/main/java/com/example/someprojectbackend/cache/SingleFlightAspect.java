@@ -0,0 +1,66 @@
+package com.example.someprojectbackend.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.Ordered;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aspekt som implementerer {@link SingleFlight}.
+ * <p>
+ * Kjører rett innenfor {@link com.example.someprojectbackend.db.BackgroundJobAspect}
+ * og før {@code @Transactional}, slik at bare kallet som faktisk utføres åpner en transaksjon.
+ * Nøkkelen prefikses ikke med metoden; hver annotert metode har sin egen gruppe.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class SingleFlightAspect {
+
+    /** Nøkkel når uttrykket gir null. */
+    private static final Object NULL_KEY = new Object();
+
+    private final MeterRegistry registry;
+    private final SpelExpressionParser parser = new SpelExpressionParser();
+    private final ParameterNameDiscoverer names = new DefaultParameterNameDiscoverer();
+    private final ConcurrentHashMap<Method, Target> targets = new ConcurrentHashMap<>();
+
+    public SingleFlightAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /** Gruppe og nøkkeluttrykk for én annotert metode. */
+    private record Target(SingleFlightGroup group, Expression key) {
+    }
+
+    @Around("@annotation(singleFlight)")
+    public Object coalesce(ProceedingJoinPoint pjp, SingleFlight singleFlight) throws Throwable {
+        Method method = ((MethodSignature) pjp.getSignature()).getMethod();
+        Target target = targets.computeIfAbsent(method, m -> {
+            String name = singleFlight.value().isEmpty()
+                    ? m.getDeclaringClass().getSimpleName() + "." + m.getName()
+                    : singleFlight.value();
+            Expression key = singleFlight.key().isEmpty() ? null : parser.parseExpression(singleFlight.key());
+            return new Target(new SingleFlightGroup(name, registry), key);
+        });
+
+        Object[] args = pjp.getArgs();
+        Object key = target.key() == null
+                ? Arrays.asList(args.clone())
+                : target.key().getValue(new MethodBasedEvaluationContext(pjp.getTarget(), method, args, names));
+        return target.group().execute(key != null ? key : NULL_KEY, pjp::proceed);
+    }
+}
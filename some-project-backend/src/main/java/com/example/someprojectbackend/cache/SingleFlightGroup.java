@@ -0,0 +1,99 @@
+package com.example.someprojectbackend.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Én single-flight-gruppe: holder pågående kall per nøkkel.
+ * <p>
+ * Metrikker (tag {@code name}):
+ * - {@code singleflight.executions}: kall som faktisk ble utført
+ * - {@code singleflight.shared}: kall som fikk resultatet fra et annet kall
+ * - {@code singleflight.inflight}: antall nøkler som utføres akkurat nå
+ * - {@code singleflight.callers}: antall kallere per utførelse (samtidighet per nøkkel; max = varmeste nøkkel)
+ */
+public final class SingleFlightGroup {
+
+    /** Utførelse som kan kaste sjekkede unntak (f.eks. {@code ProceedingJoinPoint::proceed}). */
+    @FunctionalInterface
+    public interface Call<T> {
+        T run() throws Throwable;
+    }
+
+    private static final class Flight {
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        final AtomicInteger callers = new AtomicInteger(1);
+    }
+
+    private final ConcurrentHashMap<Object, Flight> flights = new ConcurrentHashMap<>();
+    private final Counter executions;
+    private final Counter shared;
+    private final DistributionSummary callers;
+
+    public SingleFlightGroup(String name, MeterRegistry registry) {
+        this.executions = Counter.builder("singleflight.executions")
+                .tag("name", name)
+                .description("Kall som faktisk ble utført")
+                .register(registry);
+        this.shared = Counter.builder("singleflight.shared")
+                .tag("name", name)
+                .description("Kall som fikk resultatet fra et samtidig kall med samme nøkkel")
+                .register(registry);
+        this.callers = DistributionSummary.builder("singleflight.callers")
+                .tag("name", name)
+                .description("Antall kallere som delte én utførelse")
+                .register(registry);
+        Gauge.builder("singleflight.inflight", flights, ConcurrentHashMap::size)
+                .tag("name", name)
+                .description("Nøkler som utføres akkurat nå")
+                .register(registry);
+    }
+
+    /**
+     * Utfører {@code call}, eller venter på et pågående kall med samme nøkkel.
+     *
+     * @param key  nøkkel (må ha verdi-likhet)
+     * @param call utførelsen
+     * @return resultatet
+     * @throws Throwable unntaket fra utførelsen (også for kallere som ventet)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Object key, Call<T> call) throws Throwable {
+        var mine = new Flight();
+        var existing = flights.putIfAbsent(key, mine);
+        if (existing != null) {
+            existing.callers.incrementAndGet();
+            shared.increment();
+            try {
+                return (T) existing.result.join();
+            } catch (CompletionException ex) {
+                throw ex.getCause();
+            }
+        }
+
+        executions.increment();
+        try {
+            T value = call.run();
+            mine.result.complete(value);
+            return value;
+        } catch (Throwable t) {
+            mine.result.completeExceptionally(t);
+            throw t;
+        } finally {
+            flights.remove(key, mine);
+            callers.record(mine.callers.get());
+        }
+    }
+
+    /** @return antall nøkler som utføres akkurat nå */
+    public int inFlight() {
+        return flights.size();
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.someprojectbackend.cache;
+
+import java.util.UUID;
+
+/**
+ * Kompakt sammendrag av en bruker, det DTO-ene trenger om en forfatter.
+ *
+ * @param id          bruker-ID
+ * @param displayName visningsnavn
+ * @param avatarKey   avatarnøkkel (kan være null)
+ * @param version     brukerens versjon ({@link VersionCounters#user(UUID)}) da sammendraget ble lest;
+ *                    øker når profilen endres, så to sammendrag med samme versjon er like
+ */
+public record UserSummary(UUID id, String displayName, String avatarKey, long version) {
+}
@@ -0,0 +1,113 @@
+package com.example.someprojectbackend.cache;
+
+import com.example.someprojectbackend.db.AfterCommit;
+import com.example.someprojectbackend.repo.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache i minnet for {@link UserSummary} (ID → visningsnavn, avatar, versjon).
+ * Versjonen er brukerens teller i {@link VersionCounters}, som økes sammen med {@link #invalidate(UUID)}.
+ * <p>
+ * Alle DTO-mappere henter forfatterinfo herfra i stedet for å gå via lazy {@code User}-proxyer.
+ * Feed- og kommentarspørringene trenger dermed bare {@code author_id}; manglende sammendrag
+ * for en side hentes i én spørring ({@link #getAll(Collection)}).
+ * <p>
+ * Oppføringer fjernes med {@link #invalidate(UUID)} når en bruker endres. Et sammendrag som
+ * ble lest fra databasen mens en invalidering pågikk, caches ikke (det kan være utdatert).
+ */
+@Component
+public class UserSummaryCache {
+
+    private final UserRepository users;
+    private final VersionCounters versions;
+    private final int maxEntries;
+    private final ConcurrentHashMap<UUID, UserSummary> cache = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public UserSummaryCache(UserRepository users,
+                            VersionCounters versions,
+                            @Value("${app.users.summary-cache-size:10000}") int maxEntries) {
+        this.users = users;
+        this.versions = versions;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @param id bruker-ID
+     * @return sammendrag, eller null hvis brukeren ikke finnes
+     */
+    public UserSummary get(UUID id) {
+        var hit = cache.get(id);
+        return hit != null ? hit : getAll(List.of(id)).get(id);
+    }
+
+    /**
+     * Henter sammendrag for flere brukere; de som mangler i cachen lastes i én spørring.
+     *
+     * @param ids bruker-IDer (duplikater er tillatt)
+     * @return sammendrag per ID (brukere som ikke finnes er utelatt)
+     */
+    public Map<UUID, UserSummary> getAll(Collection<UUID> ids) {
+        Map<UUID, UserSummary> result = new HashMap<>();
+        var missing = new LinkedHashSet<UUID>();
+        for (UUID id : ids) {
+            var hit = cache.get(id);
+            if (hit != null) result.put(id, hit);
+            else missing.add(id);
+        }
+        if (missing.isEmpty()) return result;
+
+        long seen = invalidations.get();
+        // Versjonene leses før raden: endres brukeren imens, blir versjonen for lav, aldri for høy
+        Map<UUID, Long> before = new HashMap<>();
+        for (UUID id : missing) before.put(id, versions.user(id));
+        var loaded = new ArrayList<UserSummary>(missing.size());
+        for (var row : users.findSummaries(missing)) {
+            loaded.add(new UserSummary(row.getId(), row.getDisplayName(), row.getAvatarKey(), before.get(row.getId())));
+        }
+        boolean fresh = invalidations.get() == seen;
+        for (var s : loaded) {
+            result.put(s.id(), s);
+            if (fresh) cache.put(s.id(), s);
+        }
+        trim();
+        return result;
+    }
+
+    /**
+     * Fjerner en bruker fra cachen etter at pågående transaksjon er committet.
+     *
+     * @param id bruker-ID
+     */
+    public void invalidate(UUID id) {
+        invalidations.incrementAndGet();
+        cache.remove(id);
+        AfterCommit.run(() -> {
+            invalidations.incrementAndGet();
+            cache.remove(id);
+        });
+    }
+
+    /** Fjerner vilkårlige oppføringer når cachen er over grensen. */
+    private void trim() {
+        int excess = cache.size() - maxEntries;
+        if (excess <= 0) return;
+        Iterator<UUID> it = cache.keySet().iterator();
+        while (excess-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
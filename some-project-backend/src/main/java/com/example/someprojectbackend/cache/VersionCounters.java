@@ -0,0 +1,97 @@
+package com.example.someprojectbackend.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Versjonstellere i minnet som ETag-er for feeds og profiler lages fra, uten å bygge svaret
+ * og uten databasekall.
+ * <p>
+ * - {@link #feeds()}: økes når et innlegg opprettes, slettes, likes/unlikes eller får en
+ *   kommentar, når en forfatter bytter avatar, og når visningstallene flushes.
+ * - {@link #user(UUID)}: økes når brukerens profil eller følgetall endres. Tellerne er
+ *   fordelt på et fast antall striper etter bruker-ID, så minnebruken er konstant; to brukere
+ *   på samme stripe gir bare et ekstra fullt svar.
+ * <p>
+ * Tellerne økes av {@link VersionsSubscriber}, som får alle hendelser på hver node, så en
+ * endring gjort på en annen node gir ny ETag her innen {@code app.outbox.poll-ms}; lenger kan et
+ * {@code 304} ikke være utdatert. Noden som gjør endringen, øker i tillegg direkte etter commit.
+ * <p>
+ * ETag-en inneholder et tilfeldig epoke per oppstart, så ETag-er fra før en omstart eller fra
+ * en annen node aldri matcher (en klient som bytter node får et fullt svar, aldri feil {@code 304}).
+ */
+@Component
+public class VersionCounters {
+
+    private static final int STRIPES = 4096;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36)
+            + Integer.toString(ThreadLocalRandom.current().nextInt(1 << 20), 36);
+    private final AtomicLong feeds = new AtomicLong();
+    private final AtomicLongArray users = new AtomicLongArray(STRIPES);
+
+    /** @return versjonen for alle innleggsfeeds */
+    public long feeds() {
+        return feeds.get();
+    }
+
+    /** Markerer at innhold i feedene er endret. */
+    public void bumpFeeds() {
+        feeds.incrementAndGet();
+    }
+
+    /**
+     * @param userId bruker-ID
+     * @return versjonen for brukerens profil og følgetall
+     */
+    public long user(UUID userId) {
+        return users.get(stripe(userId));
+    }
+
+    /**
+     * Markerer at brukerens profil eller følgetall er endret.
+     *
+     * @param userId bruker-ID
+     */
+    public void bumpUser(UUID userId) {
+        users.incrementAndGet(stripe(userId));
+    }
+
+    /**
+     * Lager en svak ETag.
+     *
+     * @param viewer innlogget bruker, eller null; tas med når svaret er personlig
+     * @param scope  hva svaret gjelder (f.eks. {@code "posts"})
+     * @param parts  versjoner og andre verdier svaret avhenger av
+     * @return ETag på formen {@code W/"..."}
+     */
+    public String etag(Principal viewer, String scope, long... parts) {
+        var sb = new StringBuilder("W/\"").append(scope).append('-').append(epoch);
+        for (long part : parts) sb.append('-').append(Long.toString(part, 36));
+        if (viewer != null) sb.append('-').append(hash(viewer.getName()));
+        return sb.append('"').toString();
+    }
+
+    private static int stripe(UUID id) {
+        long h = id.getMostSignificantBits() ^ id.getLeastSignificantBits();
+        return (int) (h ^ (h >>> 32)) & (STRIPES - 1);
+    }
+
+    private static String hash(String name) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(name.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.someprojectbackend.cache;
+
+import com.example.someprojectbackend.outbox.DomainEvent;
+import com.example.someprojectbackend.outbox.OutboxSubscriber;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Øker {@link VersionCounters} for domenehendelser, slik at ETag-ene for feeds og
+ * følgestatistikk endres etter commit. Ved {@link DomainEvent.UserUpdated} glemmes også
+ * brukerens sammendrag i {@link UserSummaryCache}.
+ * <p>
+ * Kjøres på hver node, så tellerne endres også der endringen ikke ble gjort.
+ */
+@Component
+public class VersionsSubscriber implements OutboxSubscriber {
+
+    private final VersionCounters versions;
+    private final UserSummaryCache summaries;
+
+    public VersionsSubscriber(VersionCounters versions, UserSummaryCache summaries) {
+        this.versions = versions;
+        this.summaries = summaries;
+    }
+
+    @Override
+    public void handle(List<DomainEvent> events) {
+        boolean feeds = false;
+        for (DomainEvent e : events) {
+            if (e instanceof DomainEvent.Followed f) {
+                versions.bumpUser(f.followerId());
+                versions.bumpUser(f.followeeId());
+            } else if (e instanceof DomainEvent.Unfollowed u) {
+                versions.bumpUser(u.followerId());
+                versions.bumpUser(u.followeeId());
+            } else if (e instanceof DomainEvent.UserUpdated u) {
+                versions.bumpUser(u.userId()); // før invalideringen, så nye sammendrag får ny versjon
+                summaries.invalidate(u.userId());
+                feeds = true; // avataren vises i feedene
+            } else {
+                feeds = true;
+            }
+        }
+        if (feeds) versions.bumpFeeds();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.someprojectbackend.config;
+
+import com.example.someprojectbackend.storage.BlobStore;
+import com.example.someprojectbackend.storage.LocalBlobStore;
+import com.example.someprojectbackend.storage.S3BlobStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.net.URI;
+import java.nio.file.Path;
+
+/**
+ * Konfigurasjonsklasse for blob-lageret.
+ * <p>
+ * Velges med {@code app.blobs.store}:
+ *  - {@code local} (standard): filer under opplastingskatalogen ({@code app.upload.dir})
+ *  - {@code s3}: S3-kompatibelt objektlager; sett {@code app.blobs.s3.endpoint}
+ *    for MinIO eller andre lokale stand-ins (path-style adressering brukes alltid)
+ */
+@Configuration
+public class BlobStoreConfig {
+
+    /**
+     * Lokalt blob-lager.
+     *
+     * @param uploadRoot rotkatalog for opplastinger (se {@link UploadConfig})
+     * @return lager under {@code {uploadRoot}/blobs}
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.blobs.store", havingValue = "local", matchIfMissing = true)
+    public BlobStore localBlobStore(Path uploadRoot) {
+        return new LocalBlobStore(uploadRoot);
+    }
+
+    /**
+     * S3-kompatibelt blob-lager.
+     *
+     * @param uploadRoot rotkatalog; {@code {uploadRoot}/blobs/tmp} brukes til spooling før opplasting
+     * @return lager mot konfigurert bucket
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.blobs.store", havingValue = "s3")
+    public BlobStore s3BlobStore(Path uploadRoot,
+                                 @Value("${app.blobs.s3.endpoint:}") String endpoint,
+                                 @Value("${app.blobs.s3.region:us-east-1}") String region,
+                                 @Value("${app.blobs.s3.bucket}") String bucket,
+                                 @Value("${app.blobs.s3.prefix:blobs/}") String prefix,
+                                 @Value("${app.blobs.s3.access-key:}") String accessKey,
+                                 @Value("${app.blobs.s3.secret-key:}") String secretKey,
+                                 @Value("${app.blobs.s3.public-url:}") String publicUrl,
+                                 @Value("${app.blobs.s3.part-size:8388608}") long partSize,
+                                 @Value("${app.blobs.s3.upload-threads:4}") int threads) {
+        var builder = S3Client.builder()
+                .httpClient(UrlConnectionHttpClient.create())
+                .region(Region.of(region))
+                .forcePathStyle(true)
+                .credentialsProvider(accessKey.isBlank()
+                        ? DefaultCredentialsProvider.builder().build()
+                        : StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)));
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return new S3BlobStore(builder.build(), bucket, prefix, publicUrl, partSize, threads,
+                uploadRoot.resolve("blobs").resolve("tmp"));
+    }
+}
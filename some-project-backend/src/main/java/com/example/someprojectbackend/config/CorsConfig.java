@@ -29,6 +29,7 @@ public class CorsConfig implements WebMvcConfigurer {
                 )
                 .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "HEAD")
                 .allowedHeaders("*")
+                .exposedHeaders("X-Next-Cursor", "Idempotent-Replayed", "Retry-After")
                 .allowCredentials(true)
                 .maxAge(3600);
     }
@@ -0,0 +1,133 @@
+package com.example.someprojectbackend.config;
+
+import com.example.someprojectbackend.db.DbPartition;
+import com.example.someprojectbackend.db.PartitionRoutingDataSource;
+import com.example.someprojectbackend.db.ReadYourWrites;
+import com.example.someprojectbackend.db.ReplicaSet;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Konfigurasjon av databasetilgang med separate connection-pools ("bulkheads").
+ * <p>
+ * I stedet for én felles Hikari-pool får hver {@link DbPartition} sin egen pool
+ * med egen størrelse, connection-timeout og statement_timeout. Poolene
+ * eksponeres som egne beans slik at Spring Boot registrerer Hikari-metrikker
+ * per pool ({@code hikaricp.connections.*{pool=reads|writes|jobs}}).
+ * <p>
+ * Innstillinger per partisjon (med standardverdier):
+ * <pre>
+ *   app.db.reads.pool-size=10          app.db.reads.connection-timeout-ms=1000
+ *   app.db.reads.statement-timeout-ms=5000
+ * </pre>
+ * og tilsvarende for {@code writes} og {@code jobs}.
+ * <p>
+ * Lese-replikaer konfigureres med en kommaseparert liste JDBC-URL-er i
+ * {@code app.db.replicas} (samme brukernavn/passord som primæren). Uten
+ * replikaer går alle lesinger til primærens {@code reads}-pool.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    private final DataSourceProperties properties;
+    private final Environment env;
+
+    public DataSourceConfig(DataSourceProperties properties, Environment env) {
+        this.properties = properties;
+        this.env = env;
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource readsDataSource() {
+        return pool(DbPartition.READS, 10, 1000, 5000);
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource writesDataSource() {
+        return pool(DbPartition.WRITES, 10, 2000, 5000);
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource jobsDataSource() {
+        return pool(DbPartition.JOBS, 3, 10000, 60000);
+    }
+
+    /**
+     * Lese-replikaer fra {@code app.db.replicas}, hver med sin egen pool.
+     *
+     * @return replikasett (tomt hvis ingen er konfigurert)
+     */
+    @Bean(destroyMethod = "close")
+    public ReplicaSet replicaSet() {
+        String[] urls = env.getProperty("app.db.replicas", String[].class, new String[0]);
+        var pools = Arrays.stream(urls)
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .map(url -> {
+                    var ds = pool(DbPartition.READS, 10, 1000, 5000);
+                    ds.setJdbcUrl(url);
+                    ds.setPoolName("replica-" + url.replaceAll("^.*//", ""));
+                    return ds;
+                })
+                .toList();
+        return new ReplicaSet(pools, env.getProperty("app.db.replica-max-lag-ms", Long.class, 10000L));
+    }
+
+    /**
+     * Primær {@link DataSource} som brukes av JPA/Hibernate.
+     * <p>
+     * {@link LazyConnectionDataSourceProxy} utsetter selve connection-hentingen
+     * til første SQL-setning, slik at transaksjonens read-only-flagg er satt
+     * når {@link PartitionRoutingDataSource} velger pool eller replika.
+     *
+     * @return rutende, lat datasource
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource readsDataSource,
+                                 HikariDataSource writesDataSource,
+                                 HikariDataSource jobsDataSource,
+                                 ReplicaSet replicaSet,
+                                 ReadYourWrites readYourWrites) {
+        var routing = new PartitionRoutingDataSource(Map.of(
+                DbPartition.READS, readsDataSource,
+                DbPartition.WRITES, writesDataSource,
+                DbPartition.JOBS, jobsDataSource
+        ), replicaSet, readYourWrites);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * Bygger en Hikari-pool for en partisjon basert på {@code spring.datasource.*}
+     * og partisjonens egne innstillinger.
+     */
+    private HikariDataSource pool(DbPartition partition,
+                                  int defaultSize,
+                                  long defaultConnectionTimeoutMs,
+                                  long defaultStatementTimeoutMs) {
+        String name = partition.name().toLowerCase(Locale.ROOT);
+        String prefix = "app.db." + name + ".";
+
+        HikariDataSource ds = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        ds.setPoolName(name);
+        ds.setMaximumPoolSize(env.getProperty(prefix + "pool-size", Integer.class, defaultSize));
+        ds.setConnectionTimeout(env.getProperty(prefix + "connection-timeout-ms", Long.class, defaultConnectionTimeoutMs));
+
+        long statementTimeout = env.getProperty(prefix + "statement-timeout-ms", Long.class, defaultStatementTimeoutMs);
+        ds.setConnectionInitSql("SET statement_timeout = " + statementTimeout);
+        return ds;
+    }
+}
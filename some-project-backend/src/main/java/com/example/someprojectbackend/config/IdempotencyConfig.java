@@ -0,0 +1,51 @@
+package com.example.someprojectbackend.config;
+
+import com.example.someprojectbackend.idempotency.IdempotencyStore;
+import com.example.someprojectbackend.idempotency.JdbcIdempotencyStore;
+import com.example.someprojectbackend.idempotency.MemoryIdempotencyStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Konfigurasjonsklasse for lageret bak {@code Idempotency-Key}.
+ * <p>
+ * Velges med {@code app.idempotency.store}:
+ *  - {@code memory} (standard): i minnet, begrenset av {@code app.idempotency.max-entries}
+ *  - {@code postgres}: tabellen {@code idempotency_keys}, for flere noder bak en lastbalanserer
+ */
+@Configuration
+public class IdempotencyConfig {
+
+    /**
+     * Lager i minnet.
+     *
+     * @return lager for én node
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.idempotency.store", havingValue = "memory", matchIfMissing = true)
+    public IdempotencyStore memoryIdempotencyStore(Clock clock,
+                                                   @Value("${app.idempotency.ttl-ms:86400000}") long ttlMs,
+                                                   @Value("${app.idempotency.max-entries:20000}") int maxEntries) {
+        return new MemoryIdempotencyStore(clock, Duration.ofMillis(ttlMs), maxEntries);
+    }
+
+    /**
+     * Lager i Postgres.
+     *
+     * @return lager delt mellom noder
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.idempotency.store", havingValue = "postgres")
+    public IdempotencyStore jdbcIdempotencyStore(JdbcTemplate jdbc,
+                                                 Clock clock,
+                                                 @Value("${app.idempotency.ttl-ms:86400000}") long ttlMs,
+                                                 @Value("${app.idempotency.lease-ms:30000}") long leaseMs) {
+        return new JdbcIdempotencyStore(jdbc, clock, Duration.ofMillis(ttlMs), Duration.ofMillis(leaseMs));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.someprojectbackend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Konfigurasjonsklasse for trådpooler som brukes til bildebehandling.
+ * <p>
+ * Bildekoding er CPU-tungt og skal ikke kjøre på request-trådene.
+ * Poolen er begrenset både i antall tråder og kølengde; når køen er full
+ * avvises nye jobber ({@link java.util.concurrent.RejectedExecutionException})
+ * i stedet for å hope seg opp i minnet.
+ */
+@Configuration
+public class ImageExecutorConfig {
+
+    /**
+     * Pool for nedskalering av avatarer ved opplasting.
+     *
+     * @param threads  antall tråder ({@code app.avatar.threads}, standard 2)
+     * @param capacity maks antall ventende jobber ({@code app.avatar.queue}, standard 32)
+     * @return begrenset executor
+     */
+    @Bean
+    public ThreadPoolTaskExecutor avatarExecutor(@Value("${app.avatar.threads:2}") int threads,
+                                                 @Value("${app.avatar.queue:32}") int capacity) {
+        var exec = new ThreadPoolTaskExecutor();
+        exec.setThreadNamePrefix("avatar-");
+        exec.setCorePoolSize(threads);
+        exec.setMaxPoolSize(threads);
+        exec.setQueueCapacity(capacity);
+        exec.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return exec;
+    }
+
+    /**
+     * Pool for on-demand nedskalering av bilder ({@code /files/...?w=}).
+     *
+     * @param threads  antall tråder ({@code app.files.renditions.threads}, standard 2)
+     * @param capacity maks antall ventende jobber ({@code app.files.renditions.queue}, standard 64)
+     * @return begrenset executor
+     */
+    @Bean
+    public ThreadPoolTaskExecutor renditionExecutor(@Value("${app.files.renditions.threads:2}") int threads,
+                                                    @Value("${app.files.renditions.queue:64}") int capacity) {
+        var exec = new ThreadPoolTaskExecutor();
+        exec.setThreadNamePrefix("rendition-");
+        exec.setCorePoolSize(threads);
+        exec.setMaxPoolSize(threads);
+        exec.setQueueCapacity(capacity);
+        exec.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return exec;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.someprojectbackend.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Konfigurasjonsklasse for binært svarformat.
+ * <p>
+ * Klienter som sender {@code Accept: application/cbor} får CBOR i stedet for JSON.
+ * Converteren bygges fra Spring Boots {@link Jackson2ObjectMapperBuilder}, så den har de
+ * samme modulene og innstillingene som JSON-converteren (bl.a.
+ * {@link com.example.someprojectbackend.web.json.FeedJsonModule}). JSON er fortsatt
+ * standard når klienten ikke ber om noe bestemt.
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * @param builder Spring Boots konfigurerte ObjectMapper-builder
+     * @return converter for {@code application/cbor}
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.someprojectbackend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Konfigurasjonsklasse for trådpoolen som forhåndshenter neste feed-side
+ * (se {@link com.example.someprojectbackend.cache.PagePrefetcher}).
+ * <p>
+ * Forhåndshenting er ren spekulasjon og skal aldri konkurrere med forespørsler: få tråder
+ * med lav prioritet, kort kø, og jobber som ikke får plass avvises i stedet for å vente.
+ * Spørringene går mot {@code JOBS}-poolen, så poolen bør ha færre tråder enn
+ * {@code app.db.jobs.pool-size}.
+ */
+@Configuration
+public class PrefetchConfig {
+
+    /**
+     * @param threads  antall tråder ({@code app.prefetch.threads}, standard 1)
+     * @param capacity maks antall ventende forhåndshentinger ({@code app.prefetch.queue}, standard 32)
+     * @return begrenset executor
+     */
+    @Bean
+    public ThreadPoolTaskExecutor prefetchExecutor(@Value("${app.prefetch.threads:1}") int threads,
+                                                   @Value("${app.prefetch.queue:32}") int capacity) {
+        var exec = new ThreadPoolTaskExecutor();
+        exec.setThreadNamePrefix("prefetch-");
+        exec.setThreadPriority(Thread.MIN_PRIORITY);
+        exec.setCorePoolSize(threads);
+        exec.setMaxPoolSize(threads);
+        exec.setQueueCapacity(capacity);
+        exec.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return exec;
+    }
+}
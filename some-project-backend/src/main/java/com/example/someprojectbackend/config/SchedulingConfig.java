@@ -0,0 +1,16 @@
+package com.example.someprojectbackend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Konfigurasjonsklasse som slår på Springs {@code @Scheduled}-støtte.
+ * <p>
+ * Brukes av periodiske bakgrunnsjobber (helsesjekk av replikaer,
+ * opprydding o.l.). Størrelsen på scheduler-poolen settes med
+ * {@code spring.task.scheduling.pool.size}.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
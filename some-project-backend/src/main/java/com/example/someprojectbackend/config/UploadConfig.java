@@ -16,6 +16,9 @@ import java.nio.file.Paths;
  *
  * Katalogen spesifiseres i application.properties/yml med:
  *   app.upload.dir=./uploads
+ *
+ * Dette er den eneste kilden til opplastingsroten; både blob-lageret
+ * og filserveren ({@code /files/**}) bruker denne beanen.
  */
 @Configuration
 public class UploadConfig {
@@ -27,7 +30,7 @@ public class UploadConfig {
      * @return normalisert absolutt sti til opplastingsmappen.
      */
     @Bean
-    public Path uploadRoot(@Value("${app.upload.dir}") String dir) {
+    public Path uploadRoot(@Value("${app.upload.dir:./uploads}") String dir) {
         return Paths.get(dir).toAbsolutePath().normalize();
     }
 }
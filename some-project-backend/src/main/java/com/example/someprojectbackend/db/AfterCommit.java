@@ -0,0 +1,33 @@
+package com.example.someprojectbackend.db;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hjelpemetode for å oppdatere in-memory-strukturer først når databaseendringen er committet.
+ * <p>
+ * Uten aktiv transaksjon kjøres oppgaven med en gang.
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    /**
+     * Kjører {@code task} etter commit av pågående transaksjon (eller med en gang).
+     *
+     * @param task oppgaven
+     */
+    public static void run(Runnable task) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+}
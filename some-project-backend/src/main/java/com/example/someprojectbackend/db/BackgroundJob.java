@@ -0,0 +1,18 @@
+package com.example.someprojectbackend.db;
+
+import java.lang.annotation.*;
+
+/**
+ * Markerer en metode (eller alle metoder i en klasse) som bakgrunnsjobb.
+ * <p>
+ * Databasekall som gjøres innenfor metoden rutes til
+ * {@link DbPartition#JOBS}-poolen, slik at jobber aldri konkurrerer
+ * med interaktive forespørsler om connections.
+ *
+ * @see BackgroundJobAspect
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface BackgroundJob {
+}
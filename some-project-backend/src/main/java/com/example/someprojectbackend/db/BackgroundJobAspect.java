@@ -0,0 +1,44 @@
+package com.example.someprojectbackend.db;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aspekt som ruter databasekall fra {@link BackgroundJob}-metoder
+ * til {@link DbPartition#JOBS}.
+ * <p>
+ * Kjører ytterst (før {@code @Transactional}), slik at partisjonen
+ * er valgt før transaksjonen henter sin connection.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class BackgroundJobAspect {
+
+    @Around("@annotation(com.example.someprojectbackend.db.BackgroundJob) "
+            + "|| @within(com.example.someprojectbackend.db.BackgroundJob)")
+    public Object routeToJobs(ProceedingJoinPoint pjp) throws Throwable {
+        try {
+            return DbPartition.callAs(DbPartition.JOBS, () -> {
+                try {
+                    return pjp.proceed();
+                } catch (Throwable t) {
+                    throw new WrappedThrowable(t);
+                }
+            });
+        } catch (WrappedThrowable w) {
+            throw w.getCause();
+        }
+    }
+
+    /** Transporterer sjekkede unntak gjennom {@link java.util.function.Supplier}. */
+    private static final class WrappedThrowable extends RuntimeException {
+        WrappedThrowable(Throwable cause) {
+            super(cause);
+        }
+    }
+}
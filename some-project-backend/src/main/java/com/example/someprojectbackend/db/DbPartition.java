@@ -0,0 +1,58 @@
+package com.example.someprojectbackend.db;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Partisjoner ("bulkheads") for databasetilgang.
+ * <p>
+ * Hver partisjon har sin egen connection-pool med egne timeouts,
+ * slik at en treg {@code /api/popular}-aggregering ikke kan holde
+ * alle connections mens likes og innlogging venter.
+ *
+ * - READS: interaktive lesninger ({@code @Transactional(readOnly = true)})
+ * - WRITES: interaktive skrivinger (alle andre transaksjoner)
+ * - JOBS: bakgrunnsjobber (metoder annotert med {@link BackgroundJob})
+ */
+public enum DbPartition {
+    READS,
+    WRITES,
+    JOBS;
+
+    /** Eksplisitt valgt partisjon for gjeldende tråd (overstyrer readOnly-flagget). */
+    private static final ThreadLocal<DbPartition> OVERRIDE = new ThreadLocal<>();
+
+    /**
+     * Finner partisjonen som gjeldende tråd skal bruke.
+     * <p>
+     * Eksplisitt valg (f.eks. fra {@link BackgroundJob}) vinner, ellers
+     * avgjøres det av om pågående transaksjon er read-only.
+     *
+     * @return partisjonen en ny connection skal hentes fra
+     */
+    public static DbPartition current() {
+        var explicit = OVERRIDE.get();
+        if (explicit != null) return explicit;
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? READS : WRITES;
+    }
+
+    /**
+     * Kjører en oppgave med en eksplisitt valgt partisjon.
+     * Forrige verdi gjenopprettes etterpå, slik at kall kan nøstes.
+     *
+     * @param partition partisjonen som skal brukes
+     * @param task      oppgaven
+     * @return resultatet fra oppgaven
+     */
+    public static <T> T callAs(DbPartition partition, Supplier<T> task) {
+        var previous = OVERRIDE.get();
+        OVERRIDE.set(partition);
+        try {
+            return task.get();
+        } finally {
+            if (previous == null) OVERRIDE.remove();
+            else OVERRIDE.set(previous);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.someprojectbackend.db;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link DataSource} som velger connection-pool ut fra {@link DbPartition#current()}.
+ * <p>
+ * Read-only-transaksjoner sendes til en lese-replika når det finnes en frisk
+ * replika og brukeren ikke nettopp har skrevet (se {@link ReadYourWrites}).
+ * Ellers brukes primærens pool for partisjonen.
+ * <p>
+ * Må pakkes inn i en {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * ellers hentes connection før Spring har registrert read-only-flagget for transaksjonen.
+ */
+public class PartitionRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReplicaSet replicas;
+    private final ReadYourWrites readYourWrites;
+
+    /**
+     * @param pools          én pool per partisjon; {@link DbPartition#WRITES} brukes som standard
+     * @param replicas       lese-replikaer (kan være tom)
+     * @param readYourWrites sporing av siste skriving per bruker
+     */
+    public PartitionRoutingDataSource(Map<DbPartition, DataSource> pools,
+                                      ReplicaSet replicas,
+                                      ReadYourWrites readYourWrites) {
+        this.replicas = replicas;
+        this.readYourWrites = readYourWrites;
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(pools.get(DbPartition.WRITES));
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return DbPartition.current();
+    }
+
+    @Override
+    protected DataSource determineTargetDataSource() {
+        var partition = DbPartition.current();
+
+        if (partition == DbPartition.READS && !replicas.isEmpty() && !readYourWrites.isPinned()) {
+            var replica = replicas.next();
+            if (replica != null) return replica;
+        }
+
+        if (partition == DbPartition.WRITES) {
+            readYourWrites.markWrite();
+            // Vinduet skal regnes fra commit, ikke fra første SQL-setning
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        readYourWrites.markWrite();
+                    }
+                });
+            }
+        }
+        return super.determineTargetDataSource();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.someprojectbackend.db;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holder styr på når hver bruker sist skrev til databasen.
+ * <p>
+ * Etter en skriving "pinnes" brukeren til primæren i et kort vindu
+ * ({@code app.db.read-your-writes-ms}), slik at de alltid ser sine egne
+ * endringer selv om replikaene henger litt etter.
+ * Brukeren identifiseres med principal-navnet fra Spring Security.
+ */
+@Component
+public class ReadYourWrites {
+
+    private final Map<String, Long> lastWrite = new ConcurrentHashMap<>();
+    private final long windowMillis;
+
+    public ReadYourWrites(@Value("${app.db.read-your-writes-ms:5000}") long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Registrerer at innlogget bruker (hvis noen) akkurat har skrevet.
+     */
+    public void markWrite() {
+        var user = currentUser();
+        if (user != null) {
+            lastWrite.put(user, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * @return true hvis innlogget bruker har skrevet innenfor vinduet
+     */
+    public boolean isPinned() {
+        var user = currentUser();
+        if (user == null) return false;
+        Long at = lastWrite.get(user);
+        return at != null && System.currentTimeMillis() - at < windowMillis;
+    }
+
+    /**
+     * Fjerner utløpte oppføringer slik at kartet ikke vokser ubegrenset.
+     */
+    public void evictExpired() {
+        long cutoff = System.currentTimeMillis() - windowMillis;
+        lastWrite.values().removeIf(at -> at < cutoff);
+    }
+
+    private static String currentUser() {
+        var auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return auth.getName();
+    }
+}
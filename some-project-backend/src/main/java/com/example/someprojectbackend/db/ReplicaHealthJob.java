@@ -0,0 +1,30 @@
+package com.example.someprojectbackend.db;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodisk vedlikehold av lese-rutingen.
+ *
+ *  - helsesjekk av replikaer (tilgjengelighet og replikeringsforsinkelse)
+ *  - opprydding av utløpte read-your-writes-oppføringer
+ */
+@Component
+public class ReplicaHealthJob {
+
+    private final ReplicaSet replicas;
+    private final ReadYourWrites readYourWrites;
+
+    public ReplicaHealthJob(ReplicaSet replicas, ReadYourWrites readYourWrites) {
+        this.replicas = replicas;
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Scheduled(fixedDelayString = "${app.db.replica-health-interval-ms:5000}")
+    public void run() {
+        if (!replicas.isEmpty()) {
+            replicas.checkHealth();
+        }
+        readYourWrites.evictExpired();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.someprojectbackend.db;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Et sett med lese-replikaer som velges med helsesjekket round-robin.
+ * <p>
+ * Hver replika har sin egen lille Hikari-pool. {@link #checkHealth()} kalles
+ * periodisk og markerer replikaer som utilgjengelige hvis de ikke svarer
+ * eller ligger mer enn {@code maxLagMillis} etter primæren. Er ingen
+ * replikaer friske, returnerer {@link #next()} null og lesingen går til primæren.
+ */
+public class ReplicaSet implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaSet.class);
+
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    /**
+     * @param pools        én pool per replika
+     * @param maxLagMillis maks tillatt replikeringsforsinkelse før replikaen tas ut
+     */
+    public ReplicaSet(List<HikariDataSource> pools, long maxLagMillis) {
+        this.replicas = pools.stream().map(Replica::new).toList();
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    /** @return true hvis det er konfigurert minst én replika */
+    public boolean isEmpty() {
+        return replicas.isEmpty();
+    }
+
+    /**
+     * Velger neste friske replika (round-robin).
+     *
+     * @return en replika-datasource, eller null hvis ingen er friske
+     */
+    public DataSource next() {
+        int n = replicas.size();
+        for (int i = 0; i < n; i++) {
+            var r = replicas.get(Math.floorMod(cursor.getAndIncrement(), n));
+            if (r.healthy) return r.pool;
+        }
+        return null;
+    }
+
+    /**
+     * Sjekker hver replika: svarer den, og hvor langt bak primæren er den?
+     * <p>
+     * Forsinkelsen måles med {@code pg_last_xact_replay_timestamp()}. Hvis
+     * primæren ikke har skrevet noe på en stund vil denne verdien bli gammel
+     * selv om replikaen er à jour, så en replika uten ventende WAL regnes alltid som frisk.
+     */
+    public void checkHealth() {
+        for (var r : replicas) {
+            boolean ok;
+            try (Connection c = r.pool.getConnection(); Statement st = c.createStatement()) {
+                st.setQueryTimeout(2);
+                try (ResultSet rs = st.executeQuery("""
+                        SELECT CASE
+                                 WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                                 ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                               END
+                        """)) {
+                    rs.next();
+                    ok = rs.getLong(1) <= maxLagMillis;
+                }
+            } catch (Exception ex) {
+                ok = false;
+            }
+            if (ok != r.healthy) {
+                log.warn("Replica {} is now {}", r.pool.getPoolName(), ok ? "healthy" : "unhealthy");
+            }
+            r.healthy = ok;
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(r -> r.pool.close());
+    }
+
+    private static final class Replica {
+        final HikariDataSource pool;
+        volatile boolean healthy = true;
+
+        Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+    }
+}
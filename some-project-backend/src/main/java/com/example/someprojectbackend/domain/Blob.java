@@ -0,0 +1,63 @@
+package com.example.someprojectbackend.domain;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Entitet som representerer en lagret blob i {@link com.example.someprojectbackend.storage.BlobStore}.
+ *
+ * Primærnøkkelen er SHA-256 av innholdet, slik at like filer deler én rad og én fil.
+ * {@code refCount} teller hvor mange steder bloben er i bruk (f.eks. avatarvarianter);
+ * når den når 0 settes {@code zeroSince}, og bloben slettes av
+ * {@link com.example.someprojectbackend.storage.BlobCollector} etter en karenstid.
+ *
+ * Radene oppdateres kun via atomiske spørringer i BlobRepository.
+ */
+@Entity
+@Table(
+        name = "blobs",
+        indexes = {
+                @Index(name = "idx_blobs_zero_since", columnList = "zero_since")
+        }
+)
+public class Blob {
+
+    /**
+     * SHA-256 av innholdet (hex).
+     */
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    /**
+     * Størrelse i bytes.
+     */
+    @Column(nullable = false)
+    private long size;
+
+    /**
+     * Antall referanser til bloben.
+     */
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    /**
+     * Tidspunkt da bloben ble lagret første gang.
+     */
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    /**
+     * Tidspunkt da siste referanse forsvant (null så lenge bloben er i bruk).
+     */
+    @Column(name = "zero_since")
+    private Instant zeroSince;
+
+    // --- Getters ---
+    public String getHash() { return hash; }
+    public long getSize() { return size; }
+    public int getRefCount() { return refCount; }
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getZeroSince() { return zeroSince; }
+}
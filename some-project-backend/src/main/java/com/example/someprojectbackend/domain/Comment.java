@@ -69,6 +69,8 @@ public class Comment {
     public UUID getId() { return id; }
     public Post getPost() { return post; }
     public User getAuthor() { return author; }
+    /** Forfatterens ID; leses fra proxyen uten å laste brukeren. */
+    public UUID getAuthorId() { return author.getId(); }
     public String getContent() { return content; }
     public Instant getCreatedAt() { return createdAt; }
 
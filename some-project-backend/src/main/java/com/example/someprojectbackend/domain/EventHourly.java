@@ -0,0 +1,69 @@
+package com.example.someprojectbackend.domain;
+
+import com.example.someprojectbackend.events.EventType;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Entitet med aggregerte analysehendelser per innlegg, time og type.
+ *
+ * Radene skrives kun av {@link com.example.someprojectbackend.events.EventCompactor}
+ * med en atomisk upsert som legger til tellingene fra et lukket loggsegment.
+ */
+@Entity
+@Table(
+        name = "event_hourly",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "ux_event_hourly_post_hour_type", columnNames = {"post_id", "hour_start", "type"})
+        },
+        indexes = {
+                @Index(name = "idx_event_hourly_hour_start", columnList = "hour_start")
+        }
+)
+public class EventHourly {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Innlegget hendelsene gjelder (ingen relasjon; hendelser kan komme etter at innlegget er slettet).
+     */
+    @Column(name = "post_id", nullable = false, columnDefinition = "uuid")
+    private UUID postId;
+
+    /**
+     * Starten på timen (UTC).
+     */
+    @Column(name = "hour_start", nullable = false)
+    private Instant hourStart;
+
+    /**
+     * Hendelsestype.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private EventType type;
+
+    /**
+     * Antall hendelser.
+     */
+    @Column(name = "event_count", nullable = false)
+    private long eventCount;
+
+    /**
+     * Sum av verdiene (f.eks. total dwell-tid i ms).
+     */
+    @Column(name = "value_sum", nullable = false)
+    private long valueSum;
+
+    // --- Getters ---
+    public Long getId() { return id; }
+    public UUID getPostId() { return postId; }
+    public Instant getHourStart() { return hourStart; }
+    public EventType getType() { return type; }
+    public long getEventCount() { return eventCount; }
+    public long getValueSum() { return valueSum; }
+}
@@ -0,0 +1,45 @@
+package com.example.someprojectbackend.domain;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Entitet som markerer at et segment i {@link com.example.someprojectbackend.events.EventLog}
+ * er rullet opp i {@code event_hourly}.
+ *
+ * Raden lagres i samme transaksjon som aggregatene, så et segment telles aldri to ganger
+ * selv om prosessen stopper før segmentfilen er slettet.
+ */
+@Entity
+@Table(name = "event_segments")
+public class EventSegment {
+
+    /**
+     * Segment-ID (opprettelsestidspunkt i ms).
+     */
+    @Id
+    private Long id;
+
+    /**
+     * Antall gyldige poster i segmentet.
+     */
+    @Column(name = "record_count", nullable = false)
+    private long recordCount;
+
+    /**
+     * Tidspunkt for opprullingen.
+     */
+    @Column(name = "compacted_at", nullable = false)
+    private Instant compactedAt;
+
+    // --- Getters ---
+    public Long getId() { return id; }
+    public long getRecordCount() { return recordCount; }
+    public Instant getCompactedAt() { return compactedAt; }
+
+    // --- Setters ---
+    public void setId(Long id) { this.id = id; }
+    public void setRecordCount(long recordCount) { this.recordCount = recordCount; }
+    public void setCompactedAt(Instant compactedAt) { this.compactedAt = compactedAt; }
+}
@@ -0,0 +1,73 @@
+package com.example.someprojectbackend.domain;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Entitet for et lagret svar på en forespørsel med {@code Idempotency-Key} ({@code idempotency_keys}).
+ *
+ * Brukes bare når {@code app.idempotency.store=postgres}; radene skrives og leses med SQL av
+ * {@link com.example.someprojectbackend.idempotency.JdbcIdempotencyStore}.
+ */
+@Entity
+@Table(
+        name = "idempotency_keys",
+        indexes = {
+                @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at")
+        }
+)
+public class IdempotencyRecord {
+
+    /**
+     * SHA-256 (hex) av bruker og nøkkel.
+     */
+    @Id
+    @Column(name = "key_hash", length = 64)
+    private String keyHash;
+
+    /**
+     * SHA-256 (hex) av metode, sti og body i den første forespørselen.
+     */
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    /**
+     * HTTP-status, eller null mens den første forespørselen pågår.
+     */
+    private Integer status;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(columnDefinition = "bytea")
+    private byte[] body;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    /**
+     * Når raden kan slettes. Mens forespørselen pågår er dette en kort lease, slik at nøkkelen
+     * blir ledig igjen hvis noden stopper midt i.
+     */
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    // --- Getters ---
+    public String getKeyHash() { return keyHash; }
+    public String getFingerprint() { return fingerprint; }
+    public Integer getStatus() { return status; }
+    public String getContentType() { return contentType; }
+    public byte[] getBody() { return body; }
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getExpiresAt() { return expiresAt; }
+
+    // --- Setters ---
+    public void setKeyHash(String keyHash) { this.keyHash = keyHash; }
+    public void setFingerprint(String fingerprint) { this.fingerprint = fingerprint; }
+    public void setStatus(Integer status) { this.status = status; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+    public void setBody(byte[] body) { this.body = body; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -0,0 +1,58 @@
+package com.example.someprojectbackend.domain;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Entitet for en domenehendelse i outboxen ({@code outbox_events}).
+ *
+ * Raden skrives i samme transaksjon som endringen. Hver node leser den selv, så den
+ * blir liggende en stund ({@code app.outbox.retention-ms}) og slettes deretter
+ * (se {@link com.example.someprojectbackend.outbox.OutboxDispatcher}).
+ */
+@Entity
+@Table(
+        name = "outbox_events",
+        indexes = {
+                @Index(name = "idx_outbox_events_created_at", columnList = "created_at")
+        }
+)
+public class OutboxEvent {
+
+    /**
+     * Løpenummer (gir rekkefølgen hendelsene leveres i).
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Hendelsestype (klassenavnet i {@link com.example.someprojectbackend.outbox.DomainEvent}).
+     */
+    @Column(nullable = false, length = 64)
+    private String type;
+
+    /**
+     * Hendelsen som JSON.
+     */
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    /**
+     * Tidspunkt hendelsen ble skrevet.
+     */
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    // --- Getters ---
+    public Long getId() { return id; }
+    public String getType() { return type; }
+    public String getPayload() { return payload; }
+    public Instant getCreatedAt() { return createdAt; }
+
+    // --- Setters ---
+    public void setType(String type) { this.type = type; }
+    public void setPayload(String payload) { this.payload = payload; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
@@ -19,10 +19,10 @@ import java.util.UUID;
         name = "posts",
         indexes = {
                 @Index(name = "idx_posts_created_at_id", columnList = "created_at,id"),
-                @Index(name = "idx_posts_author_id", columnList = "author_id")
+                @Index(name = "idx_posts_author_created_at_id", columnList = "author_id,created_at,id")
         }
 )
-public class Post {
+public class Post implements PostData {
 
     /**
      * Primærnøkkel for innlegget.
@@ -53,6 +53,13 @@ public class Post {
      */
     private String imageUrl;
 
+    /**
+     * Blob for bildet når det er lastet opp via {@code /api/uploads} (ellers null).
+     * Innlegget eier én referanse til bloben, som frigjøres når innlegget slettes.
+     */
+    @Column(name = "image_blob_hash", length = 64)
+    private String imageBlobHash;
+
     /**
      * Tidspunkt når innlegget ble opprettet.
      * Settes automatisk ved persistering.
@@ -64,12 +71,16 @@ public class Post {
     // --- Getters ---
     public UUID getId() { return id; }
     public User getAuthor() { return author; }
+    /** Forfatterens ID; leses fra proxyen uten å laste brukeren. */
+    public UUID getAuthorId() { return author.getId(); }
     public String getContent() { return content; }
     public String getImageUrl() { return imageUrl; }
+    public String getImageBlobHash() { return imageBlobHash; }
     public Instant getCreatedAt() { return createdAt; }
 
     // --- Setters ---
     public void setAuthor(User author) { this.author = author; }
     public void setContent(String content) { this.content = content; }
     public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+    public void setImageBlobHash(String imageBlobHash) { this.imageBlobHash = imageBlobHash; }
 }
@@ -0,0 +1,24 @@
+package com.example.someprojectbackend.domain;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Feltene et innlegg vises med i feeden.
+ * <p>
+ * Implementeres av {@link Post} og av projeksjonene feed-spørringene i
+ * {@code PostRepository} returnerer, slik at {@code PostHydrator} kan bygge DTO-er fra begge.
+ * Fra projeksjonene kan {@link #getContent()} være forkortet eller tom, avhengig av hvilke
+ * felt klienten har bedt om.
+ */
+public interface PostData {
+    UUID getId();
+
+    UUID getAuthorId();
+
+    String getContent();
+
+    String getImageUrl();
+
+    Instant getCreatedAt();
+}
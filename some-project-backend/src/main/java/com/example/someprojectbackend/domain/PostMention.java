@@ -0,0 +1,63 @@
+package com.example.someprojectbackend.domain;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Entitet som representerer at en {@link User} er omtalt ({@code @navn}) i et {@link Post}.
+ *
+ * Innleggets opprettelsestidspunkt kopieres inn, slik at omtale-feeden kan hentes rett
+ * fra indeksen (user_id, created_at, post_id) med keyset pagination.
+ */
+@Entity
+@Table(
+        name = "post_mentions",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uq_post_mention",
+                columnNames = {"post_id", "user_id"}
+        ),
+        indexes = {
+                @Index(name = "idx_post_mentions_user_created_at", columnList = "user_id, created_at DESC, post_id DESC")
+        }
+)
+public class PostMention {
+
+    /**
+     * Primærnøkkel (IDENTITY).
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Innlegget omtalen står i.
+     */
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "post_id", nullable = false, columnDefinition = "uuid")
+    private Post post;
+
+    /**
+     * Brukeren som er omtalt.
+     */
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false, columnDefinition = "uuid")
+    private User user;
+
+    /**
+     * Kopi av {@link Post#getCreatedAt()}.
+     */
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // --- Getters ---
+    public Long getId() { return id; }
+    public Post getPost() { return post; }
+    public User getUser() { return user; }
+    public Instant getCreatedAt() { return createdAt; }
+
+    // --- Setters ---
+    public void setPost(Post post) { this.post = post; }
+    public void setUser(User user) { this.user = user; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
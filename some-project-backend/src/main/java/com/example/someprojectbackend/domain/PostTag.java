@@ -0,0 +1,63 @@
+package com.example.someprojectbackend.domain;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Entitet som knytter en {@code #tagg} til et {@link Post}.
+ *
+ * Taggen lagres normalisert (små bokstaver, uten {@code #}). Innleggets opprettelsestidspunkt
+ * kopieres inn, slik at tagg-feeden kan hentes rett fra indeksen (tag, created_at, post_id)
+ * med keyset pagination, uten å sortere innlegg.
+ */
+@Entity
+@Table(
+        name = "post_tags",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uq_post_tag",
+                columnNames = {"post_id", "tag"}
+        ),
+        indexes = {
+                @Index(name = "idx_post_tags_tag_created_at", columnList = "tag, created_at DESC, post_id DESC")
+        }
+)
+public class PostTag {
+
+    /**
+     * Primærnøkkel (IDENTITY).
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Innlegget taggen hører til.
+     */
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "post_id", nullable = false, columnDefinition = "uuid")
+    private Post post;
+
+    /**
+     * Normalisert tagg.
+     */
+    @Column(nullable = false, length = 64)
+    private String tag;
+
+    /**
+     * Kopi av {@link Post#getCreatedAt()}.
+     */
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // --- Getters ---
+    public Long getId() { return id; }
+    public Post getPost() { return post; }
+    public String getTag() { return tag; }
+    public Instant getCreatedAt() { return createdAt; }
+
+    // --- Setters ---
+    public void setPost(Post post) { this.post = post; }
+    public void setTag(String tag) { this.tag = tag; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
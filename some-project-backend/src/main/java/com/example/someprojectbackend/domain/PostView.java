@@ -0,0 +1,55 @@
+package com.example.someprojectbackend.domain;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Entitet med HyperLogLog-registrene for unike visninger av et innlegg.
+ *
+ * Registrene lagres kompakt (se {@link com.example.someprojectbackend.views.HyperLogLog#toBytes()}),
+ * og estimatet lagres ved siden av, slik at feeds kan lese antallet uten å dekode registrene.
+ * Radene skrives kun av {@link com.example.someprojectbackend.views.ViewCounter}.
+ */
+@Entity
+@Table(name = "post_views")
+public class PostView {
+
+    /**
+     * ID til innlegget (ingen relasjon; raden slettes sammen med innlegget).
+     */
+    @Id
+    @Column(name = "post_id", columnDefinition = "uuid")
+    private UUID postId;
+
+    /**
+     * Serialiserte HyperLogLog-registre.
+     */
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] registers;
+
+    /**
+     * Estimert antall unike seere.
+     */
+    @Column(nullable = false)
+    private long estimate;
+
+    /**
+     * Sist oppdatert.
+     */
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    // --- Getters ---
+    public UUID getPostId() { return postId; }
+    public byte[] getRegisters() { return registers; }
+    public long getEstimate() { return estimate; }
+    public Instant getUpdatedAt() { return updatedAt; }
+
+    // --- Setters ---
+    public void setPostId(UUID postId) { this.postId = postId; }
+    public void setRegisters(byte[] registers) { this.registers = registers; }
+    public void setEstimate(long estimate) { this.estimate = estimate; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
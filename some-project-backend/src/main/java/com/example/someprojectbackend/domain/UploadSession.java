@@ -0,0 +1,92 @@
+package com.example.someprojectbackend.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Entitet som representerer en gjenopptakbar opplasting (f.eks. bilde til et innlegg).
+ *
+ * Klienten oppretter en sesjon med total størrelse, sender filen i biter
+ * med offset, og fullfører sesjonen. Mottatte bytes ligger i en delfil på disk;
+ * hvor mye som er mottatt er filens lengde, så sesjonen trenger ikke oppdateres per bit.
+ *
+ * Når sesjonen er fullført peker {@code blobHash} på lagret blob. Sesjonen eier da
+ * én referanse til bloben, som overføres til innlegget ved {@code POST /api/posts}.
+ * Sesjoner som ikke er brukt innen {@code expiresAt} ryddes bort.
+ */
+@Entity
+@Table(
+        name = "upload_sessions",
+        indexes = {
+                @Index(name = "idx_upload_sessions_expires_at", columnList = "expires_at")
+        }
+)
+public class UploadSession {
+
+    /**
+     * Primærnøkkel for sesjonen.
+     * Genereres automatisk som en UUID.
+     */
+    @Id
+    @GeneratedValue
+    @UuidGenerator
+    @Column(columnDefinition = "uuid")
+    private UUID id;
+
+    /**
+     * Brukeren som eier opplastingen.
+     */
+    @Column(name = "owner_id", nullable = false, columnDefinition = "uuid")
+    private UUID ownerId;
+
+    /**
+     * Forventet total størrelse i bytes.
+     */
+    @Column(nullable = false)
+    private long size;
+
+    /**
+     * MIME-type oppgitt av klienten.
+     */
+    @Column(name = "content_type", nullable = false, length = 100)
+    private String contentType;
+
+    /**
+     * SHA-256 til lagret blob (null til sesjonen er fullført).
+     */
+    @Column(name = "blob_hash", length = 64)
+    private String blobHash;
+
+    /**
+     * Tidspunkt da sesjonen ble opprettet.
+     */
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    /**
+     * Tidspunkt da sesjonen (og eventuell ubrukt blob-referanse) ryddes bort.
+     */
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    // --- Getters ---
+    public UUID getId() { return id; }
+    public UUID getOwnerId() { return ownerId; }
+    public long getSize() { return size; }
+    public String getContentType() { return contentType; }
+    public String getBlobHash() { return blobHash; }
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getExpiresAt() { return expiresAt; }
+
+    // --- Setters ---
+    public void setOwnerId(UUID ownerId) { this.ownerId = ownerId; }
+    public void setSize(long size) { this.size = size; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+    public void setBlobHash(String blobHash) { this.blobHash = blobHash; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+}
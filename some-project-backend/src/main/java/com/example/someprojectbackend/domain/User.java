@@ -7,6 +7,7 @@ import org.hibernate.annotations.UuidGenerator;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 /**
@@ -21,7 +22,8 @@ import java.util.UUID;
         name = "users",
         indexes = {
                 @Index(name = "ux_users_email", columnList = "email", unique = true),
-                @Index(name = "ux_users_display_name", columnList = "display_name", unique = true)
+                @Index(name = "ux_users_display_name", columnList = "display_name", unique = true),
+                @Index(name = "ux_users_display_name_key", columnList = "display_name_key", unique = true)
         }
 )
 public class User {
@@ -54,6 +56,14 @@ public class User {
     @Column(nullable = false, unique = true)
     private String displayName;
 
+    /**
+     * Normalisert visningsnavn (små bokstaver), se {@link #displayNameKey(String)}.
+     * Settes automatisk ved lagring og brukes til case-insensitivt oppslag via unik indeks.
+     * Nullable kun fordi eksisterende rader fylles ut ved oppstart (se UserDirectory).
+     */
+    @Column(name = "display_name_key")
+    private String displayNameKey;
+
     /**
      * Tidspunkt da brukeren ble opprettet.
      * Settes automatisk ved persistering.
@@ -83,11 +93,28 @@ public class User {
     @OneToMany(mappedBy = "author", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     private List<Post> posts;
 
+    /**
+     * Normaliserer et visningsnavn til oppslagsnøkkel.
+     *
+     * @param displayName visningsnavn
+     * @return nøkkel (små bokstaver, {@link Locale#ROOT})
+     */
+    public static String displayNameKey(String displayName) {
+        return displayName.toLowerCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void normalizeDisplayName() {
+        this.displayNameKey = displayNameKey(displayName);
+    }
+
     // --- Getters ---
     public UUID getId() { return id; }
     public String getEmail() { return email; }
     public String getPasswordHash() { return passwordHash; }
     public String getDisplayName() { return displayName; }
+    public String getDisplayNameKey() { return displayNameKey; }
     public String getAvatarKey() { return avatarKey; }
     public String getBio() { return bio; }
 
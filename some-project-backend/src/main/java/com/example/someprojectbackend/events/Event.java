@@ -0,0 +1,14 @@
+package com.example.someprojectbackend.events;
+
+import java.util.UUID;
+
+/**
+ * En analysehendelse slik den lagres i {@link EventLog}.
+ *
+ * @param type      hendelsestype
+ * @param postId    innlegget hendelsen gjelder
+ * @param value     verdi (dwell-tid i ms; 0 for andre typer)
+ * @param timestamp mottakstidspunkt (epoch ms)
+ */
+public record Event(EventType type, UUID postId, long value, long timestamp) {
+}
@@ -0,0 +1,116 @@
+package com.example.someprojectbackend.events;
+
+import com.example.someprojectbackend.db.BackgroundJob;
+import com.example.someprojectbackend.domain.EventSegment;
+import com.example.someprojectbackend.repo.EventSegmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Ruller lukkede segmenter i {@link EventLog} opp til timesaggregater i {@code event_hourly}.
+ * <p>
+ * Hvert segment leses sekvensielt og summeres i minnet per (innlegg, time, type); deretter
+ * skrives aggregatene med én batch-upsert og segmentet markeres som ferdig i
+ * {@code event_segments} i samme transaksjon. Først etter commit slettes filen. Segmentene
+ * behandles i rekkefølge, og jobben stopper ved første feil for å prøve igjen neste runde.
+ */
+@Component
+public class EventCompactor {
+
+    private static final Logger log = LoggerFactory.getLogger(EventCompactor.class);
+
+    private static final long HOUR_MS = 3_600_000L;
+
+    private static final String UPSERT = """
+            INSERT INTO event_hourly (post_id, hour_start, type, event_count, value_sum)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (post_id, hour_start, type) DO UPDATE
+              SET event_count = event_hourly.event_count + excluded.event_count,
+                  value_sum   = event_hourly.value_sum + excluded.value_sum
+            """;
+
+    private final EventLog eventLog;
+    private final EventSegmentRepository segments;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final Clock clock;
+
+    public EventCompactor(EventLog eventLog,
+                          EventSegmentRepository segments,
+                          JdbcTemplate jdbc,
+                          TransactionTemplate tx,
+                          Clock clock) {
+        this.eventLog = eventLog;
+        this.segments = segments;
+        this.jdbc = jdbc;
+        this.tx = tx;
+        this.clock = clock;
+    }
+
+    private record Key(UUID postId, long hourStart, EventType type) {
+    }
+
+    @Scheduled(fixedDelayString = "${app.events.compact-interval-ms:60000}",
+            initialDelayString = "${app.events.compact-interval-ms:60000}")
+    @BackgroundJob
+    public void compact() {
+        try {
+            for (long id : eventLog.closedSegments()) {
+                compact(id);
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not compact event log", ex);
+        }
+    }
+
+    private void compact(long id) throws IOException {
+        Path path = eventLog.segmentPath(id);
+        if (!segments.existsById(id)) {
+            long start = System.nanoTime();
+            Map<Key, long[]> totals = new HashMap<>();
+            long records = EventLog.read(path, e -> {
+                var key = new Key(e.postId(), e.timestamp() - Math.floorMod(e.timestamp(), HOUR_MS), e.type());
+                long[] t = totals.computeIfAbsent(key, k -> new long[2]);
+                t[0]++;
+                t[1] += e.value();
+            });
+
+            List<Object[]> rows = new ArrayList<>(totals.size());
+            totals.forEach((k, t) -> rows.add(new Object[]{
+                    k.postId(),
+                    OffsetDateTime.ofInstant(Instant.ofEpochMilli(k.hourStart()), ZoneOffset.UTC),
+                    k.type().name(),
+                    t[0],
+                    t[1]
+            }));
+            tx.executeWithoutResult(s -> {
+                jdbc.batchUpdate(UPSERT, rows);
+                var done = new EventSegment();
+                done.setId(id);
+                done.setRecordCount(records);
+                done.setCompactedAt(clock.instant());
+                segments.save(done);
+            });
+            log.info("Compacted event segment {}: {} records into {} rows in {} ms",
+                    id, records, rows.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+        Files.deleteIfExists(path);
+    }
+}
@@ -0,0 +1,366 @@
+package com.example.someprojectbackend.events;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only logg for analysehendelser, delt i minnemappede segmenter med fast størrelse.
+ * <p>
+ * Kall fra request-tråder legger hele batcher i en begrenset kø ({@link #append}); én
+ * skrivetråd tømmer køen og skriver postene rett inn i det aktive segmentet. Det er dermed
+ * aldri mer enn én skriver, og ingen låsing rundt selve skrivingen. Er køen full, avvises
+ * batchen i stedet for å blokkere requesten.
+ * <p>
+ * Segmentfil ({@code {app.events.dir}/<id>.seg}, {@code app.events.segment-bytes}). Katalogen skal
+ * ligge utenfor opplastingsroten, som serveres offentlig på {@code /files/**}:
+ * <pre>
+ *   header:  int magic, int versjon
+ *   post:    int lengde, int crc32c(payload), payload
+ *   payload: long tidspunkt, byte type, long+long postId, long verdi
+ * </pre>
+ * Lengden skrives sist, så en avbrutt skriving etterlater enten 0 (slutt på segmentet) eller en
+ * post med feil CRC. Ved oppstart leses det siste segmentet til første ugyldige post, og
+ * skrivingen fortsetter derfra. Segment-ID-ene er opprettelsestidspunktet i ms (strengt
+ * stigende), så de gjenbrukes ikke selv om katalogen tømmes.
+ * <p>
+ * {@code app.events.fsync}:
+ * - none: operativsystemet bestemmer når sidene skrives til disk
+ * - interval: {@code force()} høyst hvert {@code fsync-interval-ms} (standard)
+ * - always: {@code force()} etter hver runde før batchene bekreftes
+ * <p>
+ * Et segment lukkes når det er fullt eller eldre enn {@code segment-max-age-ms}; lukkede
+ * segmenter rulles opp og slettes av {@link EventCompactor}.
+ */
+@Component
+public class EventLog {
+
+    private static final Logger log = LoggerFactory.getLogger(EventLog.class);
+
+    /** Når dataene skal tvinges til disk. */
+    public enum Fsync { NONE, INTERVAL, ALWAYS }
+
+    static final int MAGIC = 0x45564c47; // "EVLG"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 8;
+    static final int RECORD_HEADER_BYTES = 8;
+    static final int PAYLOAD_BYTES = 8 + 1 + 16 + 8;
+    static final int RECORD_BYTES = RECORD_HEADER_BYTES + PAYLOAD_BYTES;
+
+    private static final String SUFFIX = ".seg";
+    private static final int MAX_DRAIN = 256;
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final Fsync fsync;
+    private final long fsyncIntervalMs;
+    private final long maxSegmentAgeMs;
+    private final Clock clock;
+
+    private final BlockingQueue<Batch> queue;
+    private final Thread writer;
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile boolean running = true;
+    private volatile long activeId;
+
+    // Tilstand som kun eies av skrivetråden (og konstruktøren før den startes)
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long openedAt;
+    private long lastForce;
+    private boolean unforced;
+    private final CRC32C crc = new CRC32C();
+
+    public EventLog(@Value("${app.events.dir:./events}") String dir,
+                    Clock clock,
+                    @Value("${app.events.segment-bytes:67108864}") int segmentBytes,
+                    @Value("${app.events.fsync:interval}") String fsync,
+                    @Value("${app.events.fsync-interval-ms:1000}") long fsyncIntervalMs,
+                    @Value("${app.events.segment-max-age-ms:600000}") long maxSegmentAgeMs,
+                    @Value("${app.events.queue-capacity:4096}") int queueCapacity) throws IOException {
+        if (segmentBytes < HEADER_BYTES + RECORD_BYTES) {
+            throw new IllegalArgumentException("app.events.segment-bytes is too small");
+        }
+        this.dir = Path.of(dir).toAbsolutePath().normalize();
+        this.clock = clock;
+        this.segmentBytes = segmentBytes;
+        this.fsync = Fsync.valueOf(fsync.trim().toUpperCase(Locale.ROOT));
+        this.fsyncIntervalMs = fsyncIntervalMs;
+        this.maxSegmentAgeMs = maxSegmentAgeMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Files.createDirectories(this.dir);
+        recover();
+
+        this.writer = new Thread(this::run, "event-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    private record Batch(List<Event> events, CompletableFuture<Void> done) {
+    }
+
+    /**
+     * Legger en batch i skrivekøen.
+     *
+     * @param events hendelser (skrives samlet, i rekkefølge)
+     * @return fullføres når batchen er skrevet (og tvunget til disk ved {@code fsync=always});
+     * feiler med {@link RejectedExecutionException} hvis køen er full
+     */
+    public CompletableFuture<Void> append(List<Event> events) {
+        var batch = new Batch(List.copyOf(events), new CompletableFuture<>());
+        if (!running || !queue.offer(batch)) {
+            rejected.add(events.size());
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Event log is full"));
+        }
+        return batch.done;
+    }
+
+    /** @return antall hendelser skrevet siden oppstart */
+    public long appendedCount() {
+        return appended.sum();
+    }
+
+    /** @return antall hendelser avvist fordi køen var full */
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return ID-ene til lukkede segmenter (eldst først); disse skrives aldri til igjen
+     */
+    public List<Long> closedSegments() throws IOException {
+        long active = activeId;
+        List<Long> ids = new ArrayList<>();
+        try (var files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                Long id = segmentId(p);
+                if (id != null && id < active) ids.add(id);
+            }
+        }
+        ids.sort(null);
+        return ids;
+    }
+
+    /**
+     * @param id segment-ID
+     * @return stien til segmentfilen
+     */
+    public Path segmentPath(long id) {
+        return dir.resolve(String.format("%020d%s", id, SUFFIX));
+    }
+
+    /**
+     * Stopper skrivetråden etter at køen er tømt, og tvinger siste data til disk.
+     */
+    @PreDestroy
+    public void close() {
+        running = false;
+        try {
+            writer.join(10_000);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // --- Lesing ---
+
+    /**
+     * Leser alle gyldige poster i et segment.
+     *
+     * @param segment  segmentfil
+     * @param consumer mottar hendelsene i rekkefølge (poster med ukjent type hoppes over)
+     * @return antall gyldige poster
+     * @throws IOException hvis filen ikke kan leses eller ikke er et segment
+     */
+    public static long read(Path segment, Consumer<Event> consumer) throws IOException {
+        try (var ch = FileChannel.open(segment, StandardOpenOption.READ)) {
+            var buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (buf.limit() < HEADER_BYTES || buf.getInt(0) != MAGIC) {
+                throw new IOException("Not an event segment: " + segment);
+            }
+            long[] count = {0};
+            scan(buf, new CRC32C(), e -> {
+                count[0]++;
+                if (e != null) consumer.accept(e);
+            });
+            return count[0];
+        }
+    }
+
+    /**
+     * Leser poster fra {@link #HEADER_BYTES} til første tomme eller ugyldige post.
+     *
+     * @return posisjonen etter siste gyldige post
+     */
+    private static int scan(ByteBuffer buf, CRC32C crc, Consumer<Event> consumer) {
+        int pos = HEADER_BYTES;
+        while (pos + RECORD_HEADER_BYTES <= buf.limit()) {
+            int length = buf.getInt(pos);
+            if (length <= 0 || length > buf.limit() - pos - RECORD_HEADER_BYTES) break;
+            crc.reset();
+            crc.update(buf.slice(pos + RECORD_HEADER_BYTES, length));
+            if ((int) crc.getValue() != buf.getInt(pos + 4)) break;
+            consumer.accept(length >= PAYLOAD_BYTES ? decode(buf, pos + RECORD_HEADER_BYTES) : null);
+            pos += RECORD_HEADER_BYTES + length;
+        }
+        return pos;
+    }
+
+    private static Event decode(ByteBuffer buf, int p) {
+        EventType type = EventType.fromCode(buf.get(p + 8));
+        if (type == null) return null;
+        return new Event(type, new UUID(buf.getLong(p + 9), buf.getLong(p + 17)), buf.getLong(p + 25), buf.getLong(p));
+    }
+
+    // --- Skriving (kun skrivetråden) ---
+
+    private void run() {
+        var batches = new ArrayList<Batch>(MAX_DRAIN);
+        while (running || !queue.isEmpty()) {
+            try {
+                Batch first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batches.add(first);
+                    queue.drainTo(batches, MAX_DRAIN - 1);
+                }
+                for (Batch b : batches) {
+                    for (Event e : b.events) write(e);
+                    appended.add(b.events.size());
+                }
+                long now = clock.millis();
+                if (unforced && (fsync == Fsync.ALWAYS
+                        || (fsync == Fsync.INTERVAL && now - lastForce >= fsyncIntervalMs))) {
+                    force();
+                }
+                if (buffer.position() > HEADER_BYTES && now - openedAt >= maxSegmentAgeMs) {
+                    roll();
+                }
+                for (Batch b : batches) b.done.complete(null);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (IOException | RuntimeException ex) {
+                log.error("Could not write to event log", ex);
+                for (Batch b : batches) b.done.completeExceptionally(ex);
+            }
+            batches.clear();
+        }
+        try {
+            if (unforced) force();
+            channel.close();
+        } catch (IOException ex) {
+            log.warn("Could not close event log", ex);
+        }
+    }
+
+    private void write(Event e) throws IOException {
+        if (buffer.remaining() < RECORD_BYTES) roll();
+        int p = buffer.position();
+        int payload = p + RECORD_HEADER_BYTES;
+        buffer.putLong(payload, e.timestamp());
+        buffer.put(payload + 8, e.type().code());
+        buffer.putLong(payload + 9, e.postId().getMostSignificantBits());
+        buffer.putLong(payload + 17, e.postId().getLeastSignificantBits());
+        buffer.putLong(payload + 25, e.value());
+        crc.reset();
+        crc.update(buffer.slice(payload, PAYLOAD_BYTES));
+        buffer.putInt(p + 4, (int) crc.getValue());
+        buffer.putInt(p, PAYLOAD_BYTES); // sist: gjør posten synlig for lesere
+        buffer.position(p + RECORD_BYTES);
+        unforced = true;
+    }
+
+    private void force() {
+        buffer.force();
+        lastForce = clock.millis();
+        unforced = false;
+    }
+
+    /** Lukker det aktive segmentet og åpner et nytt. */
+    private void roll() throws IOException {
+        if (unforced) force();
+        channel.close();
+        open(Math.max(clock.millis(), activeId + 1), true);
+    }
+
+    private void open(long id, boolean create) throws IOException {
+        Path path = segmentPath(id);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        if (create) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+        }
+        buffer.position(HEADER_BYTES);
+        openedAt = clock.millis();
+        activeId = id; // publiseres sist: eldre segmenter er nå lukket
+    }
+
+    /** Åpner siste segment og finner slutten på de gyldige postene, eller lager et nytt. */
+    private void recover() throws IOException {
+        long last = -1;
+        try (var files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                Long id = segmentId(p);
+                if (id != null) last = Math.max(last, id);
+            }
+        }
+        if (last < 0 || Files.size(segmentPath(last)) != segmentBytes) {
+            open(Math.max(clock.millis(), last + 1), true);
+            return;
+        }
+
+        open(last, false);
+        if (buffer.getInt(0) != MAGIC) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+        }
+        long[] records = {0};
+        int end = scan(buffer, crc, e -> records[0]++);
+        if (end + 4 <= segmentBytes && buffer.getInt(end) != 0) {
+            // Avbrutt skriving: nullstill resten så nye poster ikke blandes med gamle rester
+            log.warn("Event segment {} was truncated at offset {}", last, end);
+            int i = end;
+            for (; i + 8 <= segmentBytes; i += 8) buffer.putLong(i, 0);
+            for (; i < segmentBytes; i++) buffer.put(i, (byte) 0);
+            buffer.force();
+        }
+        buffer.position(end);
+        log.info("Event log resumed segment {} at offset {} ({} records)", last, end, records[0]);
+    }
+
+    private static Long segmentId(Path p) {
+        String name = p.getFileName().toString();
+        if (!name.endsWith(SUFFIX)) return null;
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.someprojectbackend.events;
+
+import java.util.Locale;
+
+/**
+ * Typer analysehendelser. Koden lagres i hver post i loggen og må aldri endres for en eksisterende type.
+ *
+ * - IMPRESSION: innlegget ble vist
+ * - DWELL: tid innlegget var synlig ({@code value} = millisekunder)
+ * - CLICK: klikk på en lenke i innlegget
+ */
+public enum EventType {
+    IMPRESSION(1),
+    DWELL(2),
+    CLICK(3);
+
+    private final byte code;
+
+    EventType(int code) {
+        this.code = (byte) code;
+    }
+
+    /** @return koden som skrives i loggen */
+    public byte code() {
+        return code;
+    }
+
+    /**
+     * @param code kode fra loggen
+     * @return typen, eller null hvis koden er ukjent (skrevet av en nyere versjon)
+     */
+    public static EventType fromCode(byte code) {
+        for (EventType t : values()) {
+            if (t.code == code) return t;
+        }
+        return null;
+    }
+
+    /**
+     * @param name navn fra API-et (uavhengig av store/små bokstaver)
+     * @return typen, eller null hvis navnet er ukjent
+     */
+    public static EventType parse(String name) {
+        if (name == null) return null;
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+}
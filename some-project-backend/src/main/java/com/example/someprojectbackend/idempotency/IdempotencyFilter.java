@@ -0,0 +1,249 @@
+package com.example.someprojectbackend.idempotency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Servlet-filter som gjør opprettelse av innlegg, kommentarer og likes trygt å prøve på nytt.
+ * <p>
+ * Sender klienten en {@code Idempotency-Key}-header, kjøres forespørselen bare én gang per
+ * (bruker, nøkkel). Vellykkede svar (2xx) lagres i {@link IdempotencyStore} og spilles av på
+ * nytt for senere forsøk med headeren {@code Idempotent-Replayed: true}. Samtidige duplikater
+ * venter på det første svaret ({@code app.idempotency.wait-ms}).
+ * <p>
+ * - Feilsvar lagres ikke; transaksjonen er rullet tilbake, så neste forsøk kjører på nytt.
+ * - Samme nøkkel med annen sti eller body gir {@code 422}.
+ * - Pågår den første fortsatt når ventetiden er ute, svares det {@code 409} med {@code Retry-After}.
+ * <p>
+ * Filteret kjører etter Spring Security, slik at nøkkelen kan knyttes til innlogget bruker.
+ * Forespørsler uten innlogging slippes gjennom uendret og avvises av controlleren.
+ */
+@Component
+@Order(0)
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    /** Headeren klienten sender. */
+    public static final String HEADER = "Idempotency-Key";
+
+    /** Headeren som markerer et avspilt svar. */
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final List<Pattern> PATHS = List.of(
+            Pattern.compile("/api/posts"),
+            Pattern.compile("/api/posts/[^/]+/comments"),
+            Pattern.compile("/api/posts/[^/]+/likes"));
+
+    private final IdempotencyStore store;
+    private final Duration wait;
+    private final int maxBodyBytes;
+    private final Map<IdempotencyStore.Outcome, Counter> outcomes = new EnumMap<>(IdempotencyStore.Outcome.class);
+
+    public IdempotencyFilter(IdempotencyStore store,
+                             MeterRegistry registry,
+                             @Value("${app.idempotency.wait-ms:10000}") long waitMs,
+                             @Value("${app.idempotency.max-body-bytes:65536}") int maxBodyBytes) {
+        this.store = store;
+        this.wait = Duration.ofMillis(waitMs);
+        this.maxBodyBytes = maxBodyBytes;
+        for (var outcome : IdempotencyStore.Outcome.values()) {
+            outcomes.put(outcome, Counter.builder("idempotency.requests")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .description("Forespørsler med Idempotency-Key per utfall")
+                    .register(registry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest req) {
+        if (!"POST".equals(req.getMethod()) || req.getHeader(HEADER) == null) return true;
+        String path = req.getRequestURI().substring(req.getContextPath().length());
+        return PATHS.stream().noneMatch(p -> p.matcher(path).matches());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req,
+                                    HttpServletResponse res,
+                                    FilterChain chain)
+            throws ServletException, IOException {
+
+        String user = currentUser();
+        if (user == null) {
+            chain.doFilter(req, res);
+            return;
+        }
+        String header = req.getHeader(HEADER);
+        if (header.isBlank() || header.length() > 255) {
+            error(res, HttpStatus.BAD_REQUEST, "invalid idempotency key");
+            return;
+        }
+        byte[] body = req.getInputStream().readNBytes(maxBodyBytes + 1);
+        if (body.length > maxBodyBytes) {
+            error(res, HttpStatus.PAYLOAD_TOO_LARGE, "body too large for idempotent request");
+            return;
+        }
+
+        String key = sha256(user, "\n", header);
+        String fingerprint = sha256(req.getMethod(), " ", req.getRequestURI(), "\n",
+                new String(body, StandardCharsets.UTF_8));
+
+        IdempotencyStore.Claim claim;
+        try {
+            claim = store.claim(key, fingerprint, wait);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("Interrupted while waiting for idempotent request", ex);
+        }
+        outcomes.get(claim.outcome()).increment();
+
+        switch (claim.outcome()) {
+            case REPLAY -> replay(res, claim.response());
+            case MISMATCH -> error(res, HttpStatus.UNPROCESSABLE_ENTITY, "idempotency key reused with a different request");
+            case IN_PROGRESS -> {
+                res.setHeader("Retry-After", "1");
+                error(res, HttpStatus.CONFLICT, "request with this idempotency key is in progress");
+            }
+            case ACQUIRED -> execute(new CachedBodyRequest(req, body), res, chain, key);
+        }
+    }
+
+    private void execute(HttpServletRequest req, HttpServletResponse res, FilterChain chain, String key)
+            throws ServletException, IOException {
+        var wrapper = new ContentCachingResponseWrapper(res);
+        boolean stored = false;
+        try {
+            chain.doFilter(req, wrapper);
+            int status = wrapper.getStatus();
+            if (status >= 200 && status < 300) {
+                store.complete(key, new IdempotencyStore.StoredResponse(
+                        status, wrapper.getContentType(), wrapper.getContentAsByteArray()));
+                stored = true;
+            }
+        } finally {
+            if (!stored) store.release(key);
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private static void replay(HttpServletResponse res, IdempotencyStore.StoredResponse stored) throws IOException {
+        res.setStatus(stored.status());
+        res.setHeader(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) res.setContentType(stored.contentType());
+        byte[] body = stored.body() != null ? stored.body() : new byte[0];
+        res.setContentLength(body.length);
+        res.getOutputStream().write(body);
+    }
+
+    private static void error(HttpServletResponse res, HttpStatus status, String message) throws IOException {
+        res.setStatus(status.value());
+        res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        res.getWriter().write("{ \"error\": \"" + message + "\" }");
+    }
+
+    private static String currentUser() {
+        var auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return auth.getName();
+    }
+
+    private static String sha256(String... parts) {
+        try {
+            var md = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) md.update(part.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(md.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /** Request med body som allerede er lest inn. */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest req, byte[] body) {
+            super(req);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            var in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
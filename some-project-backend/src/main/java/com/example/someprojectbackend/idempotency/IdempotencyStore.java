@@ -0,0 +1,75 @@
+package com.example.someprojectbackend.idempotency;
+
+import java.time.Duration;
+
+/**
+ * Lager for svar på forespørsler med {@code Idempotency-Key}.
+ * <p>
+ * Den første forespørselen med en nøkkel "tar" den ({@link Outcome#ACQUIRED}), kjører og
+ * lagrer svaret med {@link #complete}. Senere forespørsler med samme nøkkel får det lagrede
+ * svaret, og samtidige duplikater venter til det foreligger. Feiler den første, frigis nøkkelen
+ * med {@link #release} slik at neste forsøk kjører på nytt.
+ * <p>
+ * Implementasjoner: {@link MemoryIdempotencyStore} (én node) og {@link JdbcIdempotencyStore}
+ * (delt mellom noder via Postgres). Velges med {@code app.idempotency.store}.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Resultatet av å slå opp en nøkkel.
+     */
+    enum Outcome {
+        /** Nøkkelen er ny (eller frigitt); kalleren skal kjøre forespørselen. */
+        ACQUIRED,
+        /** Svaret finnes; kalleren skal sende {@link Claim#response()} på nytt. */
+        REPLAY,
+        /** Nøkkelen er brukt med en annen forespørsel (annen sti eller body). */
+        MISMATCH,
+        /** Første forespørsel kjører fortsatt etter at ventetiden gikk ut. */
+        IN_PROGRESS
+    }
+
+    /**
+     * @param outcome  utfall
+     * @param response lagret svar ved {@link Outcome#REPLAY}, ellers null
+     */
+    record Claim(Outcome outcome, StoredResponse response) {
+    }
+
+    /**
+     * Et lagret svar.
+     *
+     * @param status      HTTP-status
+     * @param contentType Content-Type (kan være null)
+     * @param body        body
+     */
+    record StoredResponse(int status, String contentType, byte[] body) {
+    }
+
+    /**
+     * Slår opp eller tar en nøkkel. Venter opptil {@code wait} hvis en annen forespørsel
+     * med samme nøkkel pågår.
+     *
+     * @param key         nøkkel (allerede knyttet til brukeren)
+     * @param fingerprint hash av metode, sti og body
+     * @param wait        maks ventetid på en pågående forespørsel
+     * @return utfallet
+     * @throws InterruptedException hvis tråden avbrytes mens den venter
+     */
+    Claim claim(String key, String fingerprint, Duration wait) throws InterruptedException;
+
+    /**
+     * Lagrer svaret for en nøkkel kalleren har tatt, og vekker ventende duplikater.
+     *
+     * @param key      nøkkel
+     * @param response svaret
+     */
+    void complete(String key, StoredResponse response);
+
+    /**
+     * Frigir en nøkkel kalleren har tatt uten å lagre noe svar.
+     *
+     * @param key nøkkel
+     */
+    void release(String key);
+}
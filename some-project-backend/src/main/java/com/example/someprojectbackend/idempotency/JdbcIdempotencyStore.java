@@ -0,0 +1,110 @@
+package com.example.someprojectbackend.idempotency;
+
+import com.example.someprojectbackend.db.BackgroundJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * {@link IdempotencyStore} i Postgres ({@code idempotency_keys}), delt mellom flere noder.
+ * <p>
+ * En nøkkel tas med {@code INSERT ... ON CONFLICT DO NOTHING}; raden har da ingen status og
+ * en kort lease i {@code expires_at}. Når svaret lagres, settes status, body og full TTL.
+ * Duplikater som treffer en pågående rad poller til den har status, leasen går ut eller
+ * ventetiden er brukt opp. Utløpte rader slettes av {@link #purgeExpired()}.
+ * <p>
+ * Hvert kall er en egen autocommit-setning mot {@code writes}-poolen, utenfor
+ * forespørselens egen transaksjon.
+ */
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcIdempotencyStore.class);
+
+    private static final long POLL_MS = 50;
+
+    private final JdbcTemplate jdbc;
+    private final Clock clock;
+    private final Duration ttl;
+    private final Duration lease;
+
+    private record Row(String fingerprint, Integer status, String contentType, byte[] body, Timestamp expiresAt) {
+    }
+
+    /**
+     * @param jdbc  JdbcTemplate
+     * @param clock klokke
+     * @param ttl   hvor lenge et svar kan spilles av på nytt
+     * @param lease hvor lenge en pågående forespørsel holder nøkkelen
+     */
+    public JdbcIdempotencyStore(JdbcTemplate jdbc, Clock clock, Duration ttl, Duration lease) {
+        this.jdbc = jdbc;
+        this.clock = clock;
+        this.ttl = ttl;
+        this.lease = lease;
+    }
+
+    @Override
+    public Claim claim(String key, String fingerprint, Duration wait) throws InterruptedException {
+        long deadline = System.nanoTime() + wait.toNanos();
+        while (true) {
+            Instant now = clock.instant();
+            int inserted = jdbc.update("""
+                    INSERT INTO idempotency_keys (key_hash, fingerprint, created_at, expires_at)
+                    VALUES (?, ?, ?, ?)
+                    ON CONFLICT (key_hash) DO NOTHING
+                    """, key, fingerprint, Timestamp.from(now), Timestamp.from(now.plus(lease)));
+            if (inserted == 1) return new Claim(Outcome.ACQUIRED, null);
+
+            var rows = jdbc.query("""
+                    SELECT fingerprint, status, content_type, body, expires_at
+                    FROM idempotency_keys WHERE key_hash = ?
+                    """, (rs, i) -> new Row(rs.getString(1), (Integer) rs.getObject(2), rs.getString(3),
+                    rs.getBytes(4), rs.getTimestamp(5)), key);
+            if (rows.isEmpty()) continue; // frigitt mellom insert og select
+
+            var row = rows.get(0);
+            if (!row.expiresAt().toInstant().isAfter(now)) {
+                // Utløpt svar eller forlatt lease: fjern og prøv å ta nøkkelen
+                jdbc.update("DELETE FROM idempotency_keys WHERE key_hash = ? AND expires_at = ?", key, row.expiresAt());
+                continue;
+            }
+            if (!row.fingerprint().equals(fingerprint)) return new Claim(Outcome.MISMATCH, null);
+            if (row.status() != null) {
+                return new Claim(Outcome.REPLAY, new StoredResponse(row.status(), row.contentType(), row.body()));
+            }
+            if (System.nanoTime() + POLL_MS * 1_000_000 > deadline) return new Claim(Outcome.IN_PROGRESS, null);
+            Thread.sleep(POLL_MS);
+        }
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response) {
+        jdbc.update("""
+                UPDATE idempotency_keys SET status = ?, content_type = ?, body = ?, expires_at = ?
+                WHERE key_hash = ?
+                """, response.status(), response.contentType(), response.body(),
+                Timestamp.from(clock.instant().plus(ttl)), key);
+    }
+
+    @Override
+    public void release(String key) {
+        jdbc.update("DELETE FROM idempotency_keys WHERE key_hash = ? AND status IS NULL", key);
+    }
+
+    /**
+     * Sletter utløpte svar og forlatte leaser.
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:600000}",
+            initialDelayString = "${app.idempotency.purge-interval-ms:600000}")
+    @BackgroundJob
+    public void purgeExpired() {
+        int n = jdbc.update("DELETE FROM idempotency_keys WHERE expires_at < ?", Timestamp.from(clock.instant()));
+        if (n > 0) log.info("Purged {} expired idempotency keys", n);
+    }
+}
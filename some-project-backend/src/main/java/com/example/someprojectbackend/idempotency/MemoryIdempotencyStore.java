@@ -0,0 +1,111 @@
+package com.example.someprojectbackend.idempotency;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@link IdempotencyStore} i minnet for én node.
+ * <p>
+ * Oppføringene ligger i innsettingsrekkefølge med samme TTL, så de utløpte ligger alltid
+ * først og fjernes ved hvert oppslag. Blir det flere enn {@code maxEntries}, kastes de eldste
+ * uansett alder. Ventende duplikater venter på en {@link CompletableFuture} per nøkkel;
+ * frigis nøkkelen, kanselleres den og en av dem tar over.
+ */
+public class MemoryIdempotencyStore implements IdempotencyStore {
+
+    private static final class Entry {
+        final String fingerprint;
+        final long expiresAt;
+        final CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+
+        Entry(String fingerprint, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final Clock clock;
+    private final long ttlMs;
+    private final int maxEntries;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    /**
+     * @param clock      klokke
+     * @param ttl        hvor lenge et svar kan spilles av på nytt
+     * @param maxEntries maks antall nøkler i minnet
+     */
+    public MemoryIdempotencyStore(Clock clock, Duration ttl, int maxEntries) {
+        this.clock = clock;
+        this.ttlMs = ttl.toMillis();
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public Claim claim(String key, String fingerprint, Duration wait) throws InterruptedException {
+        long deadline = System.nanoTime() + wait.toNanos();
+        while (true) {
+            Entry entry;
+            synchronized (this) {
+                long now = clock.millis();
+                evict(now);
+                entry = entries.get(key);
+                if (entry == null) {
+                    entries.put(key, new Entry(fingerprint, now + ttlMs));
+                    return new Claim(Outcome.ACQUIRED, null);
+                }
+            }
+            if (!entry.fingerprint.equals(fingerprint)) return new Claim(Outcome.MISMATCH, null);
+            try {
+                long remaining = deadline - System.nanoTime();
+                return new Claim(Outcome.REPLAY, entry.result.get(Math.max(0, remaining), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException ex) {
+                return new Claim(Outcome.IN_PROGRESS, null);
+            } catch (CancellationException | ExecutionException ex) {
+                // Frigitt; prøv å ta nøkkelen selv
+            }
+        }
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (entry != null) entry.result.complete(response);
+    }
+
+    @Override
+    public void release(String key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry == null || entry.result.isDone()) return;
+            entries.remove(key);
+        }
+        entry.result.cancel(false);
+    }
+
+    /** @return antall nøkler i minnet */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void evict(long now) {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            var eldest = it.next().getValue();
+            if (eldest.expiresAt > now && entries.size() < maxEntries) break;
+            it.remove();
+            eldest.result.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.someprojectbackend.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Servlet-filter for adaptiv samtidighetsbegrensning og "load shedding".
+ * <p>
+ * Når Postgres blir treg hoper tråder seg opp i service-laget og latensen
+ * eksploderer for alle. Dette filteret holder antall samtidige forespørsler
+ * per {@link RouteClass} under en grense som beregnes fortløpende fra
+ * observert latens ({@link GradientLimit}).
+ * <p>
+ * - Forespørsler over grensen avvises umiddelbart med 503 + Retry-After
+ *   i stedet for å bli lagt i kø.
+ * - Auth-ruter har egen grense og blir aldri skvist av feed/søk.
+ * - SSE-strømmer ({@code /api/stream/**}) er unntatt, siden de er langlevde.
+ * - Tilstanden eksponeres som Micrometer-metrikker
+ *   ({@code http.concurrency.limit}, {@code http.concurrency.inflight},
+ *   {@code http.concurrency.rejected}).
+ * <p>
+ * Filteret kjører før Spring Security, slik at avviste kall ikke koster
+ * et JWT-oppslag mot databasen.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Map<RouteClass, GradientLimit> limits = new EnumMap<>(RouteClass.class);
+    private final Map<RouteClass, Counter> rejected = new EnumMap<>(RouteClass.class);
+
+    public ConcurrencyLimitFilter(
+            MeterRegistry registry,
+            @Value("${app.limits.critical.initial:20}") int criticalInitial,
+            @Value("${app.limits.critical.max:100}") int criticalMax,
+            @Value("${app.limits.cheap.initial:50}") int cheapInitial,
+            @Value("${app.limits.cheap.max:200}") int cheapMax,
+            @Value("${app.limits.expensive.initial:10}") int expensiveInitial,
+            @Value("${app.limits.expensive.max:50}") int expensiveMax,
+            @Value("${app.limits.tolerance:1.5}") double tolerance) {
+
+        limits.put(RouteClass.CRITICAL, new GradientLimit(criticalInitial, 5, criticalMax, tolerance));
+        limits.put(RouteClass.CHEAP, new GradientLimit(cheapInitial, 5, cheapMax, tolerance));
+        limits.put(RouteClass.EXPENSIVE, new GradientLimit(expensiveInitial, 2, expensiveMax, tolerance));
+
+        for (var entry : limits.entrySet()) {
+            String tag = entry.getKey().name().toLowerCase();
+            GradientLimit limit = entry.getValue();
+            Gauge.builder("http.concurrency.limit", limit, GradientLimit::getLimit)
+                    .tag("class", tag)
+                    .description("Gjeldende adaptive samtidighetsgrense")
+                    .register(registry);
+            Gauge.builder("http.concurrency.inflight", limit, GradientLimit::getInFlight)
+                    .tag("class", tag)
+                    .description("Antall pågående forespørsler")
+                    .register(registry);
+            rejected.put(entry.getKey(), Counter.builder("http.concurrency.rejected")
+                    .tag("class", tag)
+                    .description("Forespørsler avvist med 503 pga. samtidighetsgrensen")
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Andel av grensen som er i bruk for en gitt klasse (0.0–1.0+).
+     * Kan brukes av bakgrunnsarbeid for å trekke seg tilbake under last.
+     *
+     * @param routeClass klassen det spørres om
+     * @return inFlight / limit
+     */
+    public double utilization(RouteClass routeClass) {
+        var limit = limits.get(routeClass);
+        return (double) limit.getInFlight() / Math.max(1, limit.getLimit());
+    }
+
+    /**
+     * SSE-strømmer og preflight-kall telles ikke.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest req) {
+        if ("OPTIONS".equals(req.getMethod())) return true;
+        String path = req.getRequestURI().substring(req.getContextPath().length());
+        return path.startsWith("/api/stream/") || path.startsWith("/actuator/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req,
+                                    HttpServletResponse res,
+                                    FilterChain chain)
+            throws ServletException, IOException {
+
+        var routeClass = RouteClass.of(req);
+        var limit = limits.get(routeClass);
+
+        if (!limit.tryAcquire()) {
+            rejected.get(routeClass).increment();
+            res.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            res.setHeader("Retry-After", "1");
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            res.getWriter().write("{ \"error\": \"overloaded\" }");
+            return;
+        }
+
+        long start = System.nanoTime();
+        var done = new AtomicBoolean();
+        boolean async = false;
+        try {
+            chain.doFilter(req, res);
+            if (req.isAsyncStarted()) {
+                // Asynkrone controllere (CompletableFuture o.l.) måles til de faktisk er ferdige
+                async = true;
+                req.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        complete(limit, done, start, res.getStatus() < 500);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                        complete(limit, done, start, false);
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                        complete(limit, done, start, false);
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            }
+        } catch (IOException | ServletException | RuntimeException ex) {
+            complete(limit, done, start, false);
+            throw ex;
+        } finally {
+            if (!async) {
+                complete(limit, done, start, res.getStatus() < 500);
+            }
+        }
+    }
+
+    /**
+     * Registrerer målingen nøyaktig én gang per forespørsel.
+     */
+    private static void complete(GradientLimit limit, AtomicBoolean done, long start, boolean succeeded) {
+        if (done.compareAndSet(false, true)) {
+            limit.onComplete(System.nanoTime() - start, succeeded);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.someprojectbackend.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptiv samtidighetsgrense basert på latens-gradient.
+ * <p>
+ * Algoritmen sammenligner en kortsiktig og en langsiktig glidende
+ * gjennomsnittslatens (EMA):
+ *
+ *  - gradient = (langsiktig * toleranse) / kortsiktig, begrenset til [0.5, 1.0]
+ *  - ny grense = grense * gradient + sqrt(grense)
+ *
+ * Når databasen blir treg øker kortsiktig latens, gradienten faller og
+ * grensen krymper. Når latensen er stabil vokser grensen sakte med
+ * "køleddet" sqrt(grense). Avviste/feilede kall gir en multiplikativ
+ * nedjustering (AIMD-stil), slik at grensen reagerer raskt på overlast.
+ * <p>
+ * Klassen er trådsikker: {@link #tryAcquire()} og {@link #release()} er
+ * låsefrie, mens selve grenseberegningen synkroniseres.
+ */
+public class GradientLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final double shortAlpha;
+    private final double longAlpha;
+
+    /** Antall forespørsler som pågår akkurat nå. */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /** Gjeldende grense (flyttall for jevn justering, avrundes ved bruk). */
+    private volatile double limit;
+
+    private double shortRtt;
+    private double longRtt;
+
+    /**
+     * @param initialLimit startgrense
+     * @param minLimit     laveste tillatte grense
+     * @param maxLimit     høyeste tillatte grense
+     * @param tolerance    hvor mye kortsiktig latens kan øke før grensen krymper (f.eks. 1.5)
+     */
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = 0.2;
+        this.shortAlpha = 2.0 / (10 + 1);
+        this.longAlpha = 2.0 / (600 + 1);
+        this.limit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+    }
+
+    /**
+     * Forsøker å reservere en plass. Returnerer umiddelbart (ingen kø).
+     *
+     * @return true hvis forespørselen kan slippes gjennom
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) return false;
+            if (inFlight.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    /**
+     * Frigjør en plass uten å registrere noen måling (f.eks. ved avbrudd).
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Frigjør en plass og oppdaterer grensen basert på observert latens.
+     *
+     * @param rttNanos  latens for forespørselen i nanosekunder
+     * @param succeeded false hvis forespørselen feilet (5xx/unntak)
+     */
+    public void onComplete(long rttNanos, boolean succeeded) {
+        int observedInFlight = inFlight.getAndDecrement();
+        update(rttNanos, observedInFlight, succeeded);
+    }
+
+    private synchronized void update(long rttNanos, int observedInFlight, boolean succeeded) {
+        double current = limit;
+
+        if (!succeeded) {
+            // Multiplikativ nedjustering ved feil
+            limit = clamp(current * 0.9);
+            return;
+        }
+
+        double rtt = rttNanos;
+        if (shortRtt == 0) {
+            shortRtt = rtt;
+            longRtt = rtt;
+        } else {
+            shortRtt = shortRtt + shortAlpha * (rtt - shortRtt);
+            longRtt = longRtt + longAlpha * (rtt - longRtt);
+        }
+
+        // Hvis baseline har drevet langt over nåværende latens, la den hente seg inn raskere
+        if (longRtt / shortRtt > 2.0) {
+            longRtt = longRtt * 0.95;
+        }
+
+        // Ikke voks når applikasjonen uansett ikke bruker grensen
+        if (observedInFlight < current / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double queueSize = Math.sqrt(current);
+        double next = current * gradient + queueSize;
+        next = current * (1 - smoothing) + next * smoothing;
+        limit = clamp(next);
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+
+    /** @return gjeldende grense (avrundet) */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /** @return antall pågående forespørsler */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
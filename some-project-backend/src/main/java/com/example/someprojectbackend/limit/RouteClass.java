@@ -0,0 +1,56 @@
+package com.example.someprojectbackend.limit;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.List;
+
+/**
+ * Klassifisering av HTTP-ruter for samtidighetsbegrensning.
+ * <p>
+ * Hver klasse får sin egen adaptive grense i {@link ConcurrencyLimitFilter},
+ * slik at trege og dyre spørringer (populær-feed, home-feed, søk) ikke
+ * kan spise opp kapasiteten til billige kall eller innlogging.
+ *
+ * - CRITICAL: autentisering – egen grense som aldri deles med de andre klassene
+ * - EXPENSIVE: aggregeringer og feeds som typisk gjør tunge databasespørringer
+ * - CHEAP: alt annet (enkeltoppslag, likes, kommentarer, filer)
+ */
+public enum RouteClass {
+    CRITICAL,
+    EXPENSIVE,
+    CHEAP;
+
+    /** Prefikser for ruter som alltid skal prioriteres. */
+    private static final List<String> CRITICAL_PREFIXES = List.of("/api/auth/");
+
+    /** Prefikser for ruter som regnes som dyre (gjelder kun GET). */
+    private static final List<String> EXPENSIVE_PREFIXES = List.of(
+            "/api/popular",
+            "/api/home",
+            "/api/users/search",
+            "/api/search/"
+    );
+
+    /** "Nye innlegg"-tellingen under dyre prefikser er billig (se {@code FeedHead}). */
+    private static final String CHEAP_SUFFIX = "/since";
+
+    /**
+     * Finner riktig klasse for en request basert på metode og sti.
+     *
+     * @param req HTTP-forespørsel
+     * @return klassen requesten hører til
+     */
+    public static RouteClass of(HttpServletRequest req) {
+        String path = req.getRequestURI().substring(req.getContextPath().length());
+
+        for (String prefix : CRITICAL_PREFIXES) {
+            if (path.startsWith(prefix)) return CRITICAL;
+        }
+        if ("GET".equals(req.getMethod()) && !path.endsWith(CHEAP_SUFFIX)) {
+            for (String prefix : EXPENSIVE_PREFIXES) {
+                if (path.startsWith(prefix)) return EXPENSIVE;
+            }
+        }
+        return CHEAP;
+    }
+}
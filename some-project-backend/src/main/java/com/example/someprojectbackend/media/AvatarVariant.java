@@ -0,0 +1,91 @@
+package com.example.someprojectbackend.media;
+
+/**
+ * Faste størrelser en avatar lagres i.
+ * <p>
+ * Ved opplasting skaleres bildet ned til alle variantene, og
+ * DTO-ene peker på den minste varianten som dekker visningsstørrelsen
+ * i frontend (inkludert 2x-skjermer):
+ *
+ *  - SMALL (48 px): søkeresultater (vises i 24 px)
+ *  - MEDIUM (96 px): innlegg og kommentarer (vises i 32–40 px)
+ *  - LARGE (256 px): profilkort og følgestatistikk (vises i 64 px)
+ * <p>
+ * {@code User.avatarKey} lagrer blob-hashene til variantene i enum-rekkefølge
+ * ({@code blob:{sha48},{sha96},{sha256}}), og URL-en til en variant er
+ * {@code /files/blobs/{sha}.jpg}. Eldre nøkler støttes fortsatt:
+ *  - innholdsadressert basenøkkel ({@code /files/avatars/{userId}/{sha256}}) → {@code {key}_{size}.jpg}
+ *  - enkeltfil med filendelse (fra før variantene fantes) → uendret
+ */
+public enum AvatarVariant {
+    SMALL(48),
+    MEDIUM(96),
+    LARGE(256);
+
+    /** Prefiks for nøkler som peker på blober i {@link com.example.someprojectbackend.storage.BlobStore}. */
+    public static final String BLOB_PREFIX = "blob:";
+
+    private final int size;
+
+    AvatarVariant(int size) {
+        this.size = size;
+    }
+
+    /** @return kantlengde i piksler */
+    public int size() {
+        return size;
+    }
+
+    /** @return filsuffiks for varianten, f.eks. {@code "_96.jpg"} */
+    public String suffix() {
+        return "_" + size + ".jpg";
+    }
+
+    /**
+     * Bygger URL til denne varianten for en gitt avatarnøkkel.
+     *
+     * @param avatarKey nøkkel lagret på brukeren (kan være null)
+     * @return URL til varianten, eller null hvis brukeren ikke har avatar
+     */
+    public String url(String avatarKey) {
+        if (avatarKey == null || avatarKey.isBlank()) return null;
+        if (avatarKey.startsWith(BLOB_PREFIX)) {
+            var hashes = blobHashes(avatarKey);
+            return hashes.length > ordinal() ? "/files/blobs/" + hashes[ordinal()] + ".jpg" : null;
+        }
+        if (isLegacy(avatarKey)) return avatarKey;
+        return avatarKey + suffix();
+    }
+
+    /**
+     * Bygger avatarnøkkel fra variantenes blob-hasher.
+     *
+     * @param hashes én hash per variant, i enum-rekkefølge
+     * @return nøkkel som kan lagres på brukeren
+     */
+    public static String blobKey(String... hashes) {
+        return BLOB_PREFIX + String.join(",", hashes);
+    }
+
+    /**
+     * Henter blob-hashene fra en nøkkel laget med {@link #blobKey(String...)}.
+     *
+     * @param avatarKey nøkkel lagret på brukeren
+     * @return hasher i enum-rekkefølge, eller tom array hvis nøkkelen ikke peker på blober
+     */
+    public static String[] blobHashes(String avatarKey) {
+        if (avatarKey == null || !avatarKey.startsWith(BLOB_PREFIX)) return new String[0];
+        return avatarKey.substring(BLOB_PREFIX.length()).split(",");
+    }
+
+    /**
+     * Eldre avatarer ble lagret som én fil med filendelse (f.eks. {@code avatar_123.png}).
+     *
+     * @param avatarKey nøkkel lagret på brukeren
+     * @return true hvis nøkkelen peker direkte på en fil
+     */
+    public static boolean isLegacy(String avatarKey) {
+        int slash = avatarKey.lastIndexOf('/');
+        return avatarKey.indexOf('.', slash + 1) >= 0;
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.someprojectbackend.media;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Hjelpemetoder for dekoding, nedskalering og koding av bilder.
+ * <p>
+ * Bruker kun JDK-ens {@code javax.imageio} (PNG, JPEG, GIF, BMP).
+ * Dimensjonene leses fra filheaderen før selve dekodingen, slik at
+ * "dekompresjonsbomber" (små filer med enorme dimensjoner) avvises
+ * uten å allokere pikselbufferet.
+ */
+public final class ImageResizer {
+
+    private ImageResizer() {
+    }
+
+    /**
+     * Leser bredde og høyde fra bildeheaderen uten å dekode pikslene.
+     *
+     * @param bytes bildedata
+     * @return {@code [bredde, høyde]}
+     * @throws IllegalArgumentException hvis formatet ikke støttes
+     * @throws IOException              ved lesefeil
+     */
+    public static int[] dimensions(byte[] bytes) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            return dimensions(in);
+        }
+    }
+
+    /**
+     * Leser bredde og høyde fra headeren til en bildefil uten å lese hele filen.
+     *
+     * @param file bildefil
+     * @return {@code [bredde, høyde]}
+     * @throws IllegalArgumentException hvis formatet ikke støttes
+     * @throws IOException              ved lesefeil
+     */
+    public static int[] dimensions(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            if (in == null) {
+                throw new IllegalArgumentException("Unsupported image format");
+            }
+            return dimensions(in);
+        }
+    }
+
+    /**
+     * Finner bildeformatet ut fra innholdet i filen (ikke filnavnet eller oppgitt type).
+     *
+     * @param file bildefil
+     * @return MIME-type, f.eks. {@code image/png}
+     * @throws IllegalArgumentException hvis formatet ikke støttes
+     * @throws IOException              ved lesefeil
+     */
+    public static String mimeType(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            var readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                String[] types = reader.getOriginatingProvider().getMIMETypes();
+                if (types == null || types.length == 0) {
+                    throw new IllegalArgumentException("Unsupported image format");
+                }
+                return types[0];
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static int[] dimensions(ImageInputStream in) throws IOException {
+        var readers = ImageIO.getImageReaders(in);
+        if (!readers.hasNext()) {
+            throw new IllegalArgumentException("Unsupported image format");
+        }
+        ImageReader reader = readers.next();
+        try {
+            reader.setInput(in, true, true);
+            return new int[]{reader.getWidth(0), reader.getHeight(0)};
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    /**
+     * Dekoder et bilde etter å ha sjekket at det ikke overstiger maks antall piksler.
+     *
+     * @param bytes     bildedata
+     * @param maxPixels maks bredde * høyde
+     * @return dekodet bilde
+     * @throws IllegalArgumentException hvis bildet er for stort eller ikke kan leses
+     * @throws IOException              ved lesefeil
+     */
+    public static BufferedImage decode(byte[] bytes, long maxPixels) throws IOException {
+        int[] wh = dimensions(bytes);
+        if ((long) wh[0] * wh[1] > maxPixels) {
+            throw new IllegalArgumentException("Image dimensions too large");
+        }
+        BufferedImage img = ImageIO.read(new ByteArrayInputStream(bytes));
+        if (img == null) {
+            throw new IllegalArgumentException("Unsupported image format");
+        }
+        return img;
+    }
+
+    /**
+     * Lager et kvadratisk utsnitt fra midten av bildet og skalerer det til {@code size} piksler.
+     * <p>
+     * Nedskaleringen gjøres i halveringssteg med bilineær interpolasjon,
+     * som gir nesten samme kvalitet som bikubisk til en brøkdel av prisen.
+     *
+     * @param src  kildebilde
+     * @param size ønsket kantlengde
+     * @return nytt RGB-bilde (uten alfakanal, klart for JPEG)
+     */
+    public static BufferedImage squareThumbnail(BufferedImage src, int size) {
+        int side = Math.min(src.getWidth(), src.getHeight());
+        int x = (src.getWidth() - side) / 2;
+        int y = (src.getHeight() - side) / 2;
+        BufferedImage current = flatten(src.getSubimage(x, y, side, side));
+
+        int w = side;
+        while (w / 2 >= size) {
+            w /= 2;
+            current = scale(current, w, w);
+        }
+        return (w == size) ? current : scale(current, size, size);
+    }
+
+    /**
+     * Skalerer et bilde ned slik at det passer innenfor {@code maxW} x {@code maxH},
+     * med bevart sideforhold. Bilder som allerede er mindre forstørres ikke.
+     *
+     * @param src  kildebilde
+     * @param maxW maks bredde
+     * @param maxH maks høyde ({@link Integer#MAX_VALUE} for kun å begrense bredden)
+     * @return nytt RGB-bilde (uten alfakanal, klart for JPEG)
+     */
+    public static BufferedImage fit(BufferedImage src, int maxW, int maxH) {
+        double scale = Math.min(1.0, Math.min((double) maxW / src.getWidth(), (double) maxH / src.getHeight()));
+        int tw = Math.max(1, (int) Math.round(src.getWidth() * scale));
+        int th = Math.max(1, (int) Math.round(src.getHeight() * scale));
+        BufferedImage current = flatten(src);
+
+        int w = current.getWidth();
+        int h = current.getHeight();
+        while (w / 2 >= tw && h / 2 >= th) {
+            w /= 2;
+            h /= 2;
+            current = scale(current, w, h);
+        }
+        return (w == tw && h == th) ? current : scale(current, tw, th);
+    }
+
+    /**
+     * Koder et bilde som JPEG med gitt kvalitet.
+     *
+     * @param img     bildet
+     * @param quality kvalitet 0.0–1.0
+     * @return JPEG-bytes
+     * @throws IOException ved kodingsfeil
+     */
+    public static byte[] encodeJpeg(BufferedImage img, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        var out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(img, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    /** Tegner bildet over på hvit bakgrunn som RGB (fjerner alfakanal). */
+    private static BufferedImage flatten(BufferedImage src) {
+        if (src.getType() == BufferedImage.TYPE_INT_RGB) return src;
+        var dst = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = dst.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, dst.getWidth(), dst.getHeight());
+            g.drawImage(src, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return dst;
+    }
+
+    private static BufferedImage scale(BufferedImage src, int w, int h) {
+        var dst = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = dst.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(src, 0, 0, w, h, null);
+        } finally {
+            g.dispose();
+        }
+        return dst;
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.someprojectbackend.media;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Liten LRU-cache med åpne {@link FileChannel}-er for filserveren.
+ * <p>
+ * Populære filer (avatarer i feeden) serveres tusenvis av ganger; i stedet for
+ * å åpne og lukke filen hver gang holdes et begrenset antall kanaler åpne.
+ * Posisjonsbaserte lesinger på en {@link FileChannel} er trådsikre, så én
+ * kanal kan deles av mange samtidige forespørsler.
+ * <p>
+ * Hver oppføring har en referanseteller: en kanal som kastes ut av cachen
+ * lukkes først når siste pågående forespørsel har kalt {@link #release(Entry)}.
+ * Endrede eller slettede filer oppdages via størrelse og endringstidspunkt.
+ */
+public class OpenFileCache {
+
+    private final int maxEntries;
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * @param maxEntries maks antall samtidig åpne filer
+     */
+    public OpenFileCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Henter (og reserverer) en åpen fil. Må følges av {@link #release(Entry)}.
+     *
+     * @param path absolutt sti til filen
+     * @return oppføringen, eller null hvis filen ikke finnes eller ikke er en vanlig fil
+     * @throws IOException ved I/O-feil
+     */
+    public Entry acquire(Path path) throws IOException {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException ex) {
+            invalidate(path);
+            return null;
+        }
+        if (!attrs.isRegularFile()) return null;
+
+        long size = attrs.size();
+        long modified = attrs.lastModifiedTime().toMillis();
+
+        synchronized (this) {
+            var existing = entries.get(path);
+            if (existing != null && existing.size == size && existing.lastModified == modified) {
+                existing.refs.incrementAndGet();
+                return existing;
+            }
+            if (existing != null) {
+                entries.remove(path);
+                existing.evict();
+            }
+        }
+
+        var channel = FileChannel.open(path, StandardOpenOption.READ);
+        var entry = new Entry(path, channel, size, modified);
+
+        synchronized (this) {
+            var raced = entries.get(path);
+            if (raced != null && raced.size == size && raced.lastModified == modified) {
+                // En annen tråd åpnet samme fil samtidig – bruk dens kanal
+                channel.close();
+                raced.refs.incrementAndGet();
+                return raced;
+            }
+            if (raced != null) {
+                raced.evict();
+            }
+            entry.refs.incrementAndGet();
+            entries.put(path, entry);
+            trim();
+        }
+        return entry;
+    }
+
+    /**
+     * Frigjør en oppføring hentet med {@link #acquire(Path)}.
+     *
+     * @param entry oppføringen
+     */
+    public void release(Entry entry) {
+        if (entry.refs.decrementAndGet() == 0 && entry.evicted) {
+            entry.closeQuietly();
+        }
+    }
+
+    /** @return antall åpne filer i cachen */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized void invalidate(Path path) {
+        var removed = entries.remove(path);
+        if (removed != null) removed.evict();
+    }
+
+    private void trim() {
+        Iterator<Map.Entry<Path, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            var eldest = it.next().getValue();
+            it.remove();
+            eldest.evict();
+        }
+    }
+
+    /**
+     * En åpen fil med metadata.
+     */
+    public static final class Entry {
+        private final Path path;
+        private final FileChannel channel;
+        private final long size;
+        private final long lastModified;
+        private final AtomicInteger refs = new AtomicInteger();
+        private volatile boolean evicted;
+        private volatile String contentHash;
+
+        private Entry(Path path, FileChannel channel, long size, long lastModified) {
+            this.path = path;
+            this.channel = channel;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        public Path path() { return path; }
+        public FileChannel channel() { return channel; }
+        public long size() { return size; }
+        public long lastModified() { return lastModified; }
+
+        /**
+         * SHA-256 av filinnholdet, beregnet første gang det trengs og deretter cachet.
+         *
+         * @return heksadesimal hash
+         * @throws IOException ved lesefeil
+         */
+        public String contentHash() throws IOException {
+            String h = contentHash;
+            if (h == null) {
+                try {
+                    var md = MessageDigest.getInstance("SHA-256");
+                    var buf = ByteBuffer.allocate(64 * 1024);
+                    long pos = 0;
+                    while (pos < size) {
+                        buf.clear();
+                        int n = channel.read(buf, pos);
+                        if (n < 0) break;
+                        buf.flip();
+                        md.update(buf);
+                        pos += n;
+                    }
+                    h = HexFormat.of().formatHex(md.digest());
+                    contentHash = h;
+                } catch (NoSuchAlgorithmException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+            return h;
+        }
+
+        private void evict() {
+            evicted = true;
+            if (refs.get() == 0) closeQuietly();
+        }
+
+        private void closeQuietly() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.someprojectbackend.media;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Cache for nedskalerte versjoner ("renditions") av opplastede bilder.
+ * <p>
+ * En rendition lages første gang den etterspørres ({@code /files/...?w=320}) og lagres
+ * på disk under {@code {uploadRoot}/renditions}. Cachen er begrenset i total størrelse;
+ * en indeks i minnet holder LRU-rekkefølgen, og de minst nylig brukte filene slettes
+ * når grensen overskrides. Indeksen bygges fra katalogen ved oppstart.
+ * <p>
+ * Bare bredder (og høyder) i {@code app.files.renditions.widths} er tillatt, så antall
+ * varianter per bilde er begrenset. Samtidige forespørsler etter samme rendition
+ * deler én jobb, og skaleringen kjøres på en egen begrenset trådpool.
+ */
+@Component
+public class RenditionCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RenditionCache.class);
+
+    /** Bredden feed-bilder hentes i (dekker visningsstørrelsen i frontend på 2x-skjermer). */
+    public static final int FEED_WIDTH = 1280;
+
+    /** Kilde for originalbildet; åpnes kun når en rendition faktisk må lages. */
+    @FunctionalInterface
+    public interface Source {
+        InputStream open() throws IOException;
+    }
+
+    private final Path dir;
+    private final long maxBytes;
+    private final long maxPixels;
+    private final long timeoutMs;
+    private final Set<Integer> widths;
+    private final ThreadPoolTaskExecutor executor;
+
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Path>> inflight = new ConcurrentHashMap<>();
+
+    public RenditionCache(Path uploadRoot,
+                          @Qualifier("renditionExecutor") ThreadPoolTaskExecutor renditionExecutor,
+                          @Value("${app.files.renditions.max-bytes:536870912}") long maxBytes,
+                          @Value("${app.files.renditions.widths:160,320,640,1280}") List<Integer> widths,
+                          @Value("${app.uploads.max-pixels:40000000}") long maxPixels,
+                          @Value("${app.files.renditions.timeout-ms:10000}") long timeoutMs) throws IOException {
+        this.dir = uploadRoot.resolve("renditions");
+        this.executor = renditionExecutor;
+        this.maxBytes = maxBytes;
+        this.widths = Set.copyOf(widths);
+        this.maxPixels = maxPixels;
+        this.timeoutMs = timeoutMs;
+        loadIndex();
+    }
+
+    /**
+     * @param w ønsket bredde
+     * @param h ønsket høyde, eller 0 for kun bredde
+     * @return true hvis størrelsen er i listen over tillatte
+     */
+    public boolean isAllowed(int w, int h) {
+        return widths.contains(w) && (h == 0 || widths.contains(h));
+    }
+
+    /**
+     * Henter en rendition fra cachen, eller lager den.
+     *
+     * @param key    stabil nøkkel for kildebildet (f.eks. blob-hash); kun [0-9a-f]
+     * @param w      maks bredde (må være tillatt)
+     * @param h      maks høyde, eller 0
+     * @param source kilde for originalbildet
+     * @return sti til JPEG-filen
+     * @throws java.util.concurrent.RejectedExecutionException hvis skaleringskøen er full
+     * @throws IllegalArgumentException                        hvis kilden ikke er et gyldig bilde
+     * @throws TimeoutException                               hvis skaleringen ikke ble ferdig i tide
+     * @throws IOException                                     ved lese-/skrivefeil
+     */
+    public Path get(String key, int w, int h, Source source) throws IOException, TimeoutException {
+        if (!isAllowed(w, h) || !key.matches("[0-9a-f]+")) {
+            throw new IllegalArgumentException("Rendition not allowed");
+        }
+        String name = key + "_" + w + "x" + h + ".jpg";
+        Path target = dir.resolve(name);
+
+        synchronized (this) {
+            if (index.get(name) != null && Files.exists(target)) return target;
+        }
+
+        var mine = new CompletableFuture<Path>();
+        var existing = inflight.putIfAbsent(name, mine);
+        if (existing == null) {
+            try {
+                executor.execute(() -> render(name, target, w, h, source, mine));
+            } catch (RuntimeException ex) {
+                inflight.remove(name, mine);
+                mine.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+        return await(existing != null ? existing : mine);
+    }
+
+    /**
+     * @return total størrelse på cachede filer i bytes
+     */
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    private void render(String name, Path target, int w, int h, Source source, CompletableFuture<Path> result) {
+        try {
+            byte[] bytes;
+            try (var in = source.open()) {
+                bytes = in.readAllBytes();
+            }
+            var img = ImageResizer.decode(bytes, maxPixels);
+            byte[] jpeg = ImageResizer.encodeJpeg(ImageResizer.fit(img, w, h == 0 ? Integer.MAX_VALUE : h), 0.82f);
+
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, "tmp_", ".jpg");
+            Files.write(tmp, jpeg);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            synchronized (this) {
+                Long previous = index.put(name, (long) jpeg.length);
+                totalBytes += jpeg.length - (previous != null ? previous : 0);
+                trim(name);
+            }
+            inflight.remove(name, result);
+            result.complete(target);
+        } catch (IOException | RuntimeException ex) {
+            inflight.remove(name, result);
+            result.completeExceptionally(ex);
+        }
+    }
+
+    private Path await(CompletableFuture<Path> future) throws IOException, TimeoutException {
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for rendition");
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException io) throw io;
+            if (cause instanceof RuntimeException re) throw re;
+            throw new IOException(cause);
+        }
+    }
+
+    /** Sletter de minst nylig brukte filene til cachen er under grensen (aldri den nettopp lagde). */
+    private void trim(String keep) {
+        Iterator<Map.Entry<String, Long>> it = index.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            var eldest = it.next();
+            if (eldest.getKey().equals(keep)) continue;
+            it.remove();
+            totalBytes -= eldest.getValue();
+            try {
+                Files.deleteIfExists(dir.resolve(eldest.getKey()));
+            } catch (IOException ex) {
+                log.warn("Could not delete rendition {}", eldest.getKey(), ex);
+            }
+        }
+    }
+
+    /** Bygger indeksen fra katalogen; eldst endrede filer regnes som minst nylig brukt. */
+    private void loadIndex() throws IOException {
+        if (!Files.isDirectory(dir)) return;
+        List<Path> files;
+        try (var stream = Files.list(dir)) {
+            files = stream.filter(Files::isRegularFile).toList();
+        }
+        List<Map.Entry<Path, BasicFileAttributes>> found = new ArrayList<>();
+        for (Path p : files) {
+            if (p.getFileName().toString().startsWith("tmp_")) {
+                Files.deleteIfExists(p); // rester etter avbrutt skalering
+            } else {
+                found.add(Map.entry(p, Files.readAttributes(p, BasicFileAttributes.class)));
+            }
+        }
+        found.sort(Comparator.comparing(e -> e.getValue().lastModifiedTime()));
+        synchronized (this) {
+            for (var e : found) {
+                index.put(e.getKey().getFileName().toString(), e.getValue().size());
+                totalBytes += e.getValue().size();
+            }
+            trim(null);
+        }
+    }
+
+    /**
+     * Lager URL til en rendition av et bilde som serveres fra {@code /files/}.
+     *
+     * @param imageUrl bildets URL (kan være null eller en ekstern URL)
+     * @param width    ønsket bredde (bør være i listen over tillatte)
+     * @return URL med {@code ?w=}, eller {@code imageUrl} uendret hvis bildet ikke ligger under /files/
+     */
+    public static String url(String imageUrl, int width) {
+        if (imageUrl == null || !imageUrl.startsWith("/files/") || imageUrl.contains("?")) return imageUrl;
+        return imageUrl + "?w=" + width;
+    }
+}
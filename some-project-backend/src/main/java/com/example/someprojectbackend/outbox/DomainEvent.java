@@ -0,0 +1,50 @@
+package com.example.someprojectbackend.outbox;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Domenehendelser som skrives til outboxen i samme transaksjon som endringen de beskriver.
+ * <p>
+ * Hendelsene serialiseres som JSON med klassenavnet som type, så feltene må bare
+ * utvides bakoverkompatibelt (nye felt kan være null i gamle rader).
+ */
+public sealed interface DomainEvent {
+
+    /** Et nytt innlegg er publisert ({@code createdAt} er null i rader skrevet før feltet fantes). */
+    record PostCreated(UUID postId, UUID authorId, List<String> tags, Instant createdAt) implements DomainEvent {
+    }
+
+    /** En bruker har likt et innlegg (kun når liken faktisk ble lagret). */
+    record PostLiked(UUID postId, UUID userId) implements DomainEvent {
+    }
+
+    /** En bruker har fjernet sin like. */
+    record PostUnliked(UUID postId, UUID userId) implements DomainEvent {
+    }
+
+    /** En kommentar er lagt til. */
+    record CommentAdded(UUID postId, UUID commentId, UUID authorId) implements DomainEvent {
+    }
+
+    /** Et innlegg er slettet. */
+    record PostDeleted(UUID postId, UUID authorId) implements DomainEvent {
+    }
+
+    /** En bruker har begynt å følge en annen. */
+    record Followed(UUID followerId, UUID followeeId) implements DomainEvent {
+    }
+
+    /** En bruker har sluttet å følge en annen. */
+    record Unfollowed(UUID followerId, UUID followeeId) implements DomainEvent {
+    }
+
+    /** En bruker er registrert eller har fått ny bio/avatar (navn og avatar slik de er etter endringen). */
+    record UserUpdated(UUID userId, String displayName, String avatarKey) implements DomainEvent {
+    }
+
+    /** En node har skrevet visningstall for {@code posts} innlegg til {@code post_views}. */
+    record ViewsFlushed(int posts) implements DomainEvent {
+    }
+}
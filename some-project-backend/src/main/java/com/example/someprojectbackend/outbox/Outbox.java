@@ -0,0 +1,102 @@
+package com.example.someprojectbackend.outbox;
+
+import com.example.someprojectbackend.db.AfterCommit;
+import com.example.someprojectbackend.domain.OutboxEvent;
+import com.example.someprojectbackend.repo.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Skriver domenehendelser til outboxen ({@code outbox_events}).
+ * <p>
+ * {@link #publish} må kalles inne i transaksjonen som gjør endringen; hendelsen blir dermed
+ * lagret hvis og bare hvis endringen committes. Etter commit vekkes {@link OutboxDispatcher},
+ * så mottakerne normalt får hendelsen i løpet av millisekunder.
+ */
+@Component
+public class Outbox {
+
+    private static final Map<String, Class<? extends DomainEvent>> TYPES = new HashMap<>();
+
+    static {
+        for (Class<?> c : DomainEvent.class.getPermittedSubclasses()) {
+            TYPES.put(c.getSimpleName(), c.asSubclass(DomainEvent.class));
+        }
+    }
+
+    private final OutboxEventRepository repo;
+    private final ObjectMapper mapper;
+    private final Clock clock;
+    private final Semaphore signal = new Semaphore(0);
+
+    public Outbox(OutboxEventRepository repo, ObjectMapper mapper, Clock clock) {
+        this.repo = repo;
+        this.mapper = mapper;
+        this.clock = clock;
+    }
+
+    /**
+     * Lagrer en hendelse i pågående transaksjon.
+     *
+     * @param event hendelsen
+     * @throws org.springframework.transaction.IllegalTransactionStateException uten aktiv transaksjon
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(DomainEvent event) {
+        var row = new OutboxEvent();
+        row.setType(event.getClass().getSimpleName());
+        row.setPayload(encode(event));
+        row.setCreatedAt(clock.instant());
+        repo.save(row);
+        AfterCommit.run(this::wake);
+    }
+
+    /**
+     * Leser hendelsen i en outbox-rad.
+     *
+     * @param row raden
+     * @return hendelsen
+     * @throws IllegalArgumentException hvis typen er ukjent eller JSON-en er ugyldig
+     */
+    DomainEvent decode(OutboxEvent row) {
+        var type = TYPES.get(row.getType());
+        if (type == null) throw new IllegalArgumentException("Unknown outbox event type " + row.getType());
+        try {
+            return mapper.readValue(row.getPayload(), type);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Invalid outbox payload " + row.getId(), ex);
+        }
+    }
+
+    private String encode(DomainEvent event) {
+        try {
+            return mapper.writeValueAsString(event);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize " + event, ex);
+        }
+    }
+
+    /** Signaliserer at det finnes nye hendelser. */
+    void wake() {
+        if (signal.availablePermits() == 0) signal.release();
+    }
+
+    /**
+     * Venter til {@link #wake()} kalles eller tiden går ut.
+     *
+     * @param timeoutMs maks ventetid
+     */
+    void await(long timeoutMs) throws InterruptedException {
+        signal.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS);
+        signal.drainPermits();
+    }
+}
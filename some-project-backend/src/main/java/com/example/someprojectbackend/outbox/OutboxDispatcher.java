@@ -0,0 +1,269 @@
+package com.example.someprojectbackend.outbox;
+
+import com.example.someprojectbackend.db.DbPartition;
+import com.example.someprojectbackend.domain.OutboxEvent;
+import com.example.someprojectbackend.repo.OutboxEventRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Leverer hendelser fra outboxen til alle {@link OutboxSubscriber}-bønner på hver node.
+ * <p>
+ * En egen tråd per node leser rader etter nodens eget høyeste løpenummer, uten å låse noe,
+ * i batcher ({@code app.outbox.batch-size}). Løpenummer kan committes i annen rekkefølge enn
+ * de tildeles; hull under høyeste løpenummer huskes og leses på nytt til raden dukker opp
+ * eller {@code app.outbox.gap-ms} har gått (transaksjonen ble rullet tilbake).
+ * <p>
+ * Hver mottaker får sine hendelser som én liste. Feiler den, beholdes hendelsene for den
+ * mottakeren og leveres på nytt med eksponentiell backoff, sammen med alt som kommer etterpå,
+ * så rekkefølgen holder; de andre mottakerne påvirkes ikke. Etter {@code app.outbox.max-attempts}
+ * forsøk (eller {@link #MAX_BACKLOG} ventende hendelser) logges hendelsene og gis opp. Køen ligger
+ * i minnet: ved omstart lastes tilstanden uansett på nytt fra databasen.
+ * <p>
+ * Radene slettes etter {@code app.outbox.retention-ms}, så alle noder rekker å lese dem.
+ * Tråden vekkes etter hver lokal commit som skrev hendelser, og ellers hvert
+ * {@code app.outbox.poll-ms}; det er dermed forsinkelsen før andre noder ser en hendelse.
+ * Databasekall går mot {@link DbPartition#JOBS}.
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+
+    private static final Duration CLEANUP_INTERVAL = Duration.ofMinutes(1);
+
+    /** Øvre grense for antall hull som huskes (beskytter mot store sprang i sekvensen). */
+    static final int MAX_GAPS = 10_000;
+
+    /** Øvre grense for hendelser som venter på en mottaker som feiler. */
+    static final int MAX_BACKLOG = 100_000;
+
+    private final Outbox outbox;
+    private final OutboxEventRepository repo;
+    private final Map<OutboxSubscriber, Backlog> subscribers = new LinkedHashMap<>();
+    private final Clock clock;
+    private final int batchSize;
+    private final long pollMs;
+    private final Duration gapWait;
+    private final int maxAttempts;
+    private final Duration retention;
+
+    /** Høyeste løpenummer noden har lest (kun dispatcher-tråden etter {@link #start()}). */
+    private long highWater = -1;
+    /** Løpenummer under {@link #highWater} som ikke var committet da noden leste forbi dem. */
+    private final Map<Long, Instant> gaps = new TreeMap<>();
+    private Instant nextCleanup = Instant.MIN;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public OutboxDispatcher(Outbox outbox,
+                            OutboxEventRepository repo,
+                            List<OutboxSubscriber> subscribers,
+                            Clock clock,
+                            @Value("${app.outbox.batch-size:200}") int batchSize,
+                            @Value("${app.outbox.poll-ms:1000}") long pollMs,
+                            @Value("${app.outbox.gap-ms:60000}") long gapMs,
+                            @Value("${app.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${app.outbox.retention-ms:600000}") long retentionMs) {
+        this.outbox = outbox;
+        this.repo = repo;
+        for (var subscriber : subscribers) this.subscribers.put(subscriber, new Backlog());
+        this.clock = clock;
+        this.batchSize = batchSize;
+        this.pollMs = pollMs;
+        this.gapWait = Duration.ofMillis(gapMs);
+        this.maxAttempts = maxAttempts;
+        this.retention = Duration.ofMillis(retentionMs);
+    }
+
+    /**
+     * Starter tråden. Kjøres før de andre oppstartslytterne, så hendelser som committes mens
+     * cachene lastes fra databasen, blir levert til dem etterpå.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void start() {
+        if (running) return;
+        DbPartition.callAs(DbPartition.JOBS, this::markStart);
+        running = true;
+        thread = new Thread(this::run, "outbox-dispatcher");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Outbox dispatcher started at event {} with subscribers {}", highWater,
+                subscribers.keySet().stream().map(OutboxSubscriber::name).toList());
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(5_000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                int n;
+                do {
+                    n = DbPartition.callAs(DbPartition.JOBS, this::drainOnce);
+                } while (running && n == batchSize);
+                DbPartition.callAs(DbPartition.JOBS, this::cleanup);
+                outbox.await(pollMs);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Outbox dispatch failed", ex);
+                try {
+                    Thread.sleep(pollMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Setter startpunktet for nodens lesing til høyeste løpenummer. Det som er committet før
+     * dette, er med i tilstanden som lastes ved oppstart; løpenummer rett under som ikke finnes
+     * ennå, kan tilhøre pågående transaksjoner og behandles som hull.
+     *
+     * @return høyeste løpenummer
+     */
+    long markStart() {
+        long max = repo.maxId();
+        long from = Math.max(0, max - batchSize);
+        Set<Long> seen = new HashSet<>(repo.findIdsAfter(from));
+        var now = clock.instant();
+        gaps.clear();
+        for (long id = from + 1; id < max; id++) {
+            if (!seen.contains(id)) gaps.put(id, now);
+        }
+        highWater = max;
+        return max;
+    }
+
+    /**
+     * Leser nye hendelser og leverer dem, og prøver mottakere som har feilet på nytt når
+     * backoffen er ute.
+     *
+     * @return antall rader etter høyeste løpenummer som ble lest
+     */
+    int drainOnce() {
+        var now = clock.instant();
+        gaps.values().removeIf(since -> !now.isBefore(since.plus(gapWait)));
+
+        List<OutboxEvent> rows = new ArrayList<>();
+        if (!gaps.isEmpty()) rows.addAll(repo.findAllById(gaps.keySet()));
+        var fresh = repo.findByIdGreaterThanOrderByIdAsc(highWater, PageRequest.of(0, batchSize));
+        rows.addAll(fresh);
+        rows.sort(Comparator.comparing(OutboxEvent::getId));
+
+        List<DomainEvent> events = new ArrayList<>(rows.size());
+        for (var row : rows) {
+            long id = row.getId();
+            if (id > highWater) {
+                for (long gap = highWater + 1; gap < id && gaps.size() < MAX_GAPS; gap++) gaps.put(gap, now);
+                highWater = id;
+            } else {
+                gaps.remove(id);
+            }
+            try {
+                events.add(outbox.decode(row));
+            } catch (IllegalArgumentException ex) {
+                log.error("Skipping unreadable outbox event {}", id, ex);
+            }
+        }
+
+        subscribers.forEach((subscriber, backlog) -> deliver(subscriber, backlog, events, now));
+        return fresh.size();
+    }
+
+    /**
+     * Leverer til én mottaker. Har den hendelser som venter, kommer de nye bak dem,
+     * og ingenting leveres før backoffen er ute.
+     */
+    private void deliver(OutboxSubscriber subscriber, Backlog backlog, List<DomainEvent> events, Instant now) {
+        if (backlog.events.isEmpty() && events.isEmpty()) return;
+        backlog.events.addAll(events);
+        if (now.isBefore(backlog.retryAt)) return;
+        try {
+            subscriber.handle(List.copyOf(backlog.events));
+            backlog.clear();
+        } catch (RuntimeException ex) {
+            backlog.attempts++;
+            if (backlog.attempts >= maxAttempts || backlog.events.size() > MAX_BACKLOG) {
+                log.error("Giving up {} outbox events for {} after {} attempts",
+                        backlog.events.size(), subscriber.name(), backlog.attempts, ex);
+                backlog.clear();
+            } else {
+                backlog.retryAt = now.plus(backoff(backlog.attempts));
+                log.warn("Outbox subscriber {} failed for {} events (attempt {}), retrying at {}",
+                        subscriber.name(), backlog.events.size(), backlog.attempts, backlog.retryAt, ex);
+            }
+        }
+    }
+
+    /**
+     * Sletter hendelser eldre enn {@code app.outbox.retention-ms}, høyst én gang i minuttet.
+     *
+     * @return antall slettede rader
+     */
+    int cleanup() {
+        var now = clock.instant();
+        if (now.isBefore(nextCleanup)) return 0;
+        nextCleanup = now.plus(CLEANUP_INTERVAL);
+        var cutoff = now.minus(retention);
+        int n = repo.deleteCreatedBefore(cutoff);
+        if (n > 0) log.debug("Deleted {} outbox events older than {}", n, cutoff);
+        return n;
+    }
+
+    private Duration backoff(int attempts) {
+        long ms = pollMs << Math.min(attempts, 20);
+        return ms > MAX_BACKOFF.toMillis() ? MAX_BACKOFF : Duration.ofMillis(ms);
+    }
+
+    /** Hendelser som venter på en mottaker som har feilet (kun dispatcher-tråden). */
+    private static final class Backlog {
+        final List<DomainEvent> events = new ArrayList<>();
+        int attempts;
+        Instant retryAt = Instant.MIN;
+
+        void clear() {
+            events.clear();
+            attempts = 0;
+            retryAt = Instant.MIN;
+        }
+    }
+}
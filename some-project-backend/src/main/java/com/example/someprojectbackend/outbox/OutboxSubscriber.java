@@ -0,0 +1,29 @@
+package com.example.someprojectbackend.outbox;
+
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+
+/**
+ * Mottaker av domenehendelser fra {@link OutboxDispatcher}.
+ * <p>
+ * Hendelsene leveres på hver node, så tilstand i minnet (cacher, søkeindeks, SSE) holdes
+ * oppdatert også der endringen ikke ble gjort. Feiler {@link #handle}, leveres de samme
+ * hendelsene på nytt senere (kun til mottakeren som feilet), og nyere hendelser venter bak
+ * dem. Mottakere bør derfor tåle duplikater.
+ */
+public interface OutboxSubscriber {
+
+    /**
+     * Behandler en batch med hendelser i rekkefølgen de ble skrevet.
+     * Mottakeren plukker ut typene den bryr seg om.
+     *
+     * @param events hendelsene
+     */
+    void handle(List<DomainEvent> events);
+
+    /** @return stabilt navn som brukes i loggene */
+    default String name() {
+        return ClassUtils.getUserClass(getClass()).getSimpleName();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.someprojectbackend.repo;
+
+import com.example.someprojectbackend.domain.Blob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository for {@link Blob}-entiteten.
+ *
+ * Referansetellingen endres kun med atomiske SQL-setninger, slik at
+ * samtidige opplastinger av samme innhold ikke overskriver hverandre.
+ */
+public interface BlobRepository extends JpaRepository<Blob, String> {
+
+    /**
+     * Legger til én referanse; oppretter raden hvis bloben er ny.
+     *
+     * @param hash SHA-256 (hex)
+     * @param size størrelse i bytes
+     * @param now  nåtid
+     */
+    @Modifying
+    @Query(value = """
+            insert into blobs (hash, size, ref_count, created_at, zero_since)
+            values (:hash, :size, 1, :now, null)
+            on conflict (hash) do update
+               set ref_count = blobs.ref_count + 1,
+                   zero_since = null
+            """, nativeQuery = true)
+    void retain(@Param("hash") String hash, @Param("size") long size, @Param("now") Instant now);
+
+    /**
+     * Fjerner én referanse. Setter {@code zero_since} når siste referanse forsvinner.
+     *
+     * @param hash SHA-256 (hex)
+     * @param now  nåtid
+     * @return antall oppdaterte rader (0 hvis bloben ikke finnes eller allerede er på 0)
+     */
+    @Modifying
+    @Query(value = """
+            update blobs
+               set ref_count = ref_count - 1,
+                   zero_since = case when ref_count = 1 then :now else null end
+             where hash = :hash and ref_count > 0
+            """, nativeQuery = true)
+    int release(@Param("hash") String hash, @Param("now") Instant now);
+
+    /**
+     * Finner blober uten referanser som har vært ubrukt siden før {@code cutoff}.
+     *
+     * @param cutoff grense for karenstid
+     * @param limit  maks antall
+     * @return hasher
+     */
+    @Query(value = """
+            select hash from blobs
+             where ref_count = 0 and zero_since < :cutoff
+             order by zero_since
+             limit :limit
+            """, nativeQuery = true)
+    List<String> findCollectable(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
+
+    /**
+     * Låser en blob for sletting hvis den fortsatt er ubrukt.
+     * Samtidige {@link #retain} på samme hash venter til slettetransaksjonen er ferdig.
+     *
+     * @param hash   SHA-256 (hex)
+     * @param cutoff grense for karenstid
+     * @return hashen hvis raden ble låst, ellers tom liste
+     */
+    @Query(value = """
+            select hash from blobs
+             where hash = :hash and ref_count = 0 and zero_since < :cutoff
+             for update skip locked
+            """, nativeQuery = true)
+    List<String> lockCollectable(@Param("hash") String hash, @Param("cutoff") Instant cutoff);
+}
@@ -28,6 +28,15 @@ public interface CommentRepository extends JpaRepository<Comment, UUID> {
      */
     long countByPost_Id(UUID postId);
 
+    /**
+     * Teller kommentarer for flere innlegg i én spørring.
+     *
+     * @param postIds innlegg-ID-er
+     * @return én rad per innlegg som har minst én kommentar
+     */
+    @Query("select c.post.id as postId, count(c) as count from Comment c where c.post.id in :postIds group by c.post.id")
+    List<PostCountRow> countByPostIds(List<UUID> postIds);
+
     /**
      * Henter kommentarer til et innlegg med keyset pagination
      * (brukes for "infinite scroll" eller "load more").
@@ -0,0 +1,10 @@
+package com.example.someprojectbackend.repo;
+
+import com.example.someprojectbackend.domain.EventSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository for {@link EventSegment}-entiteten (opprullede loggsegmenter).
+ */
+public interface EventSegmentRepository extends JpaRepository<EventSegment, Long> {
+}
@@ -0,0 +1,49 @@
+package com.example.someprojectbackend.repo;
+
+import com.example.someprojectbackend.domain.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository for {@link OutboxEvent}-entiteten (outboxen for domenehendelser).
+ */
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Leser hendelser etter et løpenummer, uten å låse (hver node leser alle).
+     *
+     * @param id   siste løpenummer noden har sett
+     * @param page maks antall rader
+     * @return hendelser i løpenummerrekkefølge
+     */
+    List<OutboxEvent> findByIdGreaterThanOrderByIdAsc(long id, Pageable page);
+
+    /** @return høyeste løpenummer i outboxen, eller 0 hvis den er tom */
+    @Query("select coalesce(max(e.id), 0) from OutboxEvent e")
+    long maxId();
+
+    /**
+     * @param id nedre grense (eksklusiv)
+     * @return løpenummer over grensen
+     */
+    @Query("select e.id from OutboxEvent e where e.id > :id")
+    List<Long> findIdsAfter(@Param("id") long id);
+
+    /**
+     * Sletter gamle hendelser.
+     *
+     * @param cutoff hendelser skrevet før dette slettes
+     * @return antall slettede rader
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from OutboxEvent e where e.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,12 @@
+package com.example.someprojectbackend.repo;
+
+import java.util.UUID;
+
+/**
+ * Projeksjon for antall (likes eller kommentarer) per innlegg, brukt av batch-spørringene.
+ */
+public interface PostCountRow {
+    UUID getPostId();
+
+    long getCount();
+}
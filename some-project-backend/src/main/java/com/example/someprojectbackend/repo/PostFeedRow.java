@@ -0,0 +1,10 @@
+package com.example.someprojectbackend.repo;
+
+import com.example.someprojectbackend.domain.PostData;
+
+/**
+ * Projeksjon for feed-spørringene i {@link PostRepository}: bare kolonnene feeden viser,
+ * med innholdet forkortet i SQL til lengden klienten trenger.
+ */
+public interface PostFeedRow extends PostData {
+}
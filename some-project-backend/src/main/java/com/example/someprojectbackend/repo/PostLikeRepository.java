@@ -41,8 +41,9 @@ public interface PostLikeRepository extends JpaRepository<PostLike, Long> {
      *
      * @param postId ID til innlegget
      * @param userId ID til brukeren
+     * @return antall slettede likes (0 eller 1)
      */
-    void deleteByPost_IdAndUser_Id(UUID postId, UUID userId);
+    long deleteByPost_IdAndUser_Id(UUID postId, UUID userId);
 
     /**
      * Sletter alle likes knyttet til et bestemt innlegg i én bulk-operasjon.
@@ -65,4 +66,13 @@ public interface PostLikeRepository extends JpaRepository<PostLike, Long> {
      */
     @Query("select pl.post.id from PostLike pl where pl.user.id = :userId and pl.post.id in :postIds")
     List<UUID> findLikedPostIds(UUID userId, List<UUID> postIds);
+
+    /**
+     * Teller likes for flere innlegg i én spørring.
+     *
+     * @param postIds innlegg-ID-er
+     * @return én rad per innlegg som har minst én like
+     */
+    @Query("select pl.post.id as postId, count(pl) as count from PostLike pl where pl.post.id in :postIds group by pl.post.id")
+    List<PostCountRow> countByPostIds(List<UUID> postIds);
 }
@@ -0,0 +1,65 @@
+package com.example.someprojectbackend.repo;
+
+import com.example.someprojectbackend.domain.Post;
+import com.example.someprojectbackend.domain.PostMention;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for {@link PostMention}-entiteten.
+ *
+ * Omtale-feeden leses med keyset pagination rett fra indeksen (user_id, created_at, post_id).
+ */
+public interface PostMentionRepository extends JpaRepository<PostMention, Long> {
+
+    /**
+     * Henter første side med innlegg der en bruker er omtalt (nyeste først).
+     *
+     * @param userId   ID til den omtalte brukeren
+     * @param pageable pagineringsinfo
+     * @return liste av innlegg
+     */
+    @Query("""
+            select m.post from PostMention m
+            where m.user.id = :userId
+            order by m.createdAt desc, m.post.id desc
+            """)
+    List<Post> findFirstPageByUser(UUID userId, Pageable pageable);
+
+    /**
+     * Henter neste side med innlegg der en bruker er omtalt, etter en gitt cursor.
+     *
+     * @param userId    ID til den omtalte brukeren
+     * @param createdAt tidspunkt for siste post i forrige side
+     * @param id        id til siste post i forrige side
+     * @param pageable  pagineringsinfo
+     * @return liste av innlegg
+     */
+    @Query("""
+            select m.post from PostMention m
+            where m.user.id = :userId
+              and (m.createdAt < :createdAt
+                   or (m.createdAt = :createdAt and m.post.id < :id))
+            order by m.createdAt desc, m.post.id desc
+            """)
+    List<Post> findPageAfterByUser(UUID userId, Instant createdAt, UUID id, Pageable pageable);
+
+    /**
+     * Sletter alle omtaler knyttet til et innlegg i én bulk-operasjon.
+     *
+     * @param postId ID til innlegget
+     * @return antall slettede rader
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Transactional
+    @Query("delete from PostMention m where m.post.id = :postId")
+    int bulkDeleteByPostId(@Param("postId") UUID postId);
+}
@@ -33,8 +33,7 @@ public interface PostPopularRepository extends JpaRepository<Post, UUID> {
         Instant getCreatedAt();
         String getContent();
         String getImageUrl();
-        String getAuthor();          // users.display_name
-        String getAuthorAvatarUrl(); // users.avatar_key
+        UUID getAuthorId();          // posts.author_id (navn/avatar fra UserSummaryCache)
         long getLikeCount();
         long getCommentCount();
         long getScore();             // (likes * 2 + comments)
@@ -47,21 +46,20 @@ public interface PostPopularRepository extends JpaRepository<Post, UUID> {
      *
      * @param since bare innlegg nyere enn denne tidsverdien tas med
      * @param limit maks antall resultater
+     * @param contentLength maks antall tegn av innholdet som hentes (0 = ikke noe innhold)
      * @return liste av {@link PopularRow}-projeksjoner
      */
     @Query(value = """
         SELECT
           p.id                          AS id,
           p.created_at                  AS createdAt,
-          p.content                     AS content,
+          SUBSTRING(p.content, 1, :contentLength) AS content,
           p.image_url                   AS imageUrl,
-          u.display_name                AS author,
-          u.avatar_key                  AS authorAvatarUrl,
+          p.author_id                   AS authorId,
           COALESCE(l.like_count, 0)     AS likeCount,
           COALESCE(cm.comment_count, 0) AS commentCount,
           (COALESCE(l.like_count,0)*2 + COALESCE(cm.comment_count,0)) AS score
         FROM posts p
-        JOIN users u ON u.id = p.author_id
         LEFT JOIN (
           SELECT post_id, COUNT(*)::bigint AS like_count
           FROM post_likes
@@ -78,7 +76,8 @@ public interface PostPopularRepository extends JpaRepository<Post, UUID> {
         """, nativeQuery = true)
     List<PopularRow> findPopularFirst(
             @Param("since") Instant since,
-            @Param("limit") int limit
+            @Param("limit") int limit,
+            @Param("contentLength") int contentLength
     );
 
     /**
@@ -96,21 +95,20 @@ public interface PostPopularRepository extends JpaRepository<Post, UUID> {
      * @param cursorCreatedAt opprettelsestidspunkt til siste rad i forrige resultat
      * @param cursorId ID til siste rad i forrige resultat
      * @param limit maks antall resultater
+     * @param contentLength maks antall tegn av innholdet som hentes (0 = ikke noe innhold)
      * @return liste av {@link PopularRow}-projeksjoner
      */
     @Query(value = """
         SELECT
           p.id                          AS id,
           p.created_at                  AS createdAt,
-          p.content                     AS content,
+          SUBSTRING(p.content, 1, :contentLength) AS content,
           p.image_url                   AS imageUrl,
-          u.display_name                AS author,
-          u.avatar_key                  AS authorAvatarUrl,
+          p.author_id                   AS authorId,
           COALESCE(l.like_count, 0)     AS likeCount,
           COALESCE(cm.comment_count, 0) AS commentCount,
           (COALESCE(l.like_count,0)*2 + COALESCE(cm.comment_count,0)) AS score
         FROM posts p
-        JOIN users u ON u.id = p.author_id
         LEFT JOIN (
           SELECT post_id, COUNT(*)::bigint AS like_count
           FROM post_likes
@@ -138,6 +136,7 @@ public interface PostPopularRepository extends JpaRepository<Post, UUID> {
             @Param("cursorScore") long cursorScore,
             @Param("cursorCreatedAt") Instant cursorCreatedAt,
             @Param("cursorId") UUID cursorId,
-            @Param("limit") int limit
+            @Param("limit") int limit,
+            @Param("contentLength") int contentLength
     );
 }
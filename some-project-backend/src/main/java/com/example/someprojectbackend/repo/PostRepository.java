@@ -4,8 +4,11 @@ import com.example.someprojectbackend.domain.Post;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -15,22 +18,37 @@ import java.util.UUID;
  * Inneholder metoder for å hente feed av innlegg
  * (globale, per forfatter eller per forfatterliste),
  * implementert med keyset pagination for effektiv "infinite scroll".
+ * Feedene returneres som {@link PostFeedRow}-projeksjoner i stedet for entiteter.
  */
 public interface PostRepository extends JpaRepository<Post, UUID> {
 
     /**
      * Henter første side med innlegg, sortert etter opprettelsestidspunkt (nyeste først).
-     * Bruker JOIN FETCH for å hente forfatter samtidig (unngår N+1).
+     * Forfatteren hentes ikke; navn og avatar kommer fra {@code UserSummaryCache}.
+     * <p>
+     * Feed-spørringene henter bare kolonnene feeden viser, og innholdet forkortes i SQL
+     * til {@code contentLength} tegn når klienten har bedt om færre felt ({@code ?fields=}).
      *
+     * @param contentLength maks antall tegn av innholdet som hentes (0 = ikke noe innhold)
      * @param pageable pagineringsinfo (begrensning/størrelse)
-     * @return liste av innlegg
+     * @return liste av innlegg ({@link PostFeedRow})
      */
     @Query("""
-            select p from Post p
-            join fetch p.author
+            select p.id as id, p.author.id as authorId, p.createdAt as createdAt,
+                   p.imageUrl as imageUrl, substring(p.content, 1, :contentLength) as content
+            from Post p
             order by p.createdAt desc, p.id desc
             """)
-    List<Post> findFirstPage(Pageable pageable);
+    List<PostFeedRow> findFirstPage(int contentLength, Pageable pageable);
+
+    /**
+     * Filtrerer en mengde ID-er ned til innleggene som finnes.
+     *
+     * @param ids innlegg-ID-er
+     * @return ID-ene som finnes
+     */
+    @Query("select p.id from Post p where p.id in :ids")
+    List<UUID> findExistingIds(Collection<UUID> ids);
 
     /**
      * Henter neste side med innlegg etter en gitt "cursor" (createdAt + id).
@@ -38,66 +56,76 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
      *
      * @param createdAt tidspunkt for siste post i forrige side
      * @param id id til siste post i forrige side
+     * @param contentLength maks antall tegn av innholdet som hentes (0 = ikke noe innhold)
      * @param pageable pagineringsinfo
-     * @return liste av innlegg
+     * @return liste av innlegg ({@link PostFeedRow})
      */
     @Query("""
-            select p from Post p
-            join fetch p.author
+            select p.id as id, p.author.id as authorId, p.createdAt as createdAt,
+                   p.imageUrl as imageUrl, substring(p.content, 1, :contentLength) as content
+            from Post p
             where (p.createdAt < :createdAt)
                or (p.createdAt = :createdAt and p.id < :id)
             order by p.createdAt desc, p.id desc
             """)
-    List<Post> findPageAfter(Instant createdAt, UUID id, Pageable pageable);
+    List<PostFeedRow> findPageAfter(Instant createdAt, UUID id, int contentLength, Pageable pageable);
 
     /**
      * Henter første side med innlegg skrevet av en bestemt forfatter.
      *
-     * @param displayName visningsnavnet til forfatteren
+     * @param authorId ID til forfatteren
+     * @param contentLength maks antall tegn av innholdet som hentes (0 = ikke noe innhold)
      * @param pageable pagineringsinfo
-     * @return liste av innlegg
+     * @return liste av innlegg ({@link PostFeedRow})
      */
     @Query("""
-            select p from Post p
-            join fetch p.author a
-            where a.displayName = :displayName
+            select p.id as id, p.author.id as authorId, p.createdAt as createdAt,
+                   p.imageUrl as imageUrl, substring(p.content, 1, :contentLength) as content
+            from Post p
+            where p.author.id = :authorId
             order by p.createdAt desc, p.id desc
             """)
-    List<Post> findFirstPageByAuthor(String displayName, Pageable pageable);
+    List<PostFeedRow> findFirstPageByAuthor(UUID authorId, int contentLength, Pageable pageable);
 
     /**
      * Henter neste side med innlegg skrevet av en bestemt forfatter, etter en gitt cursor.
      *
-     * @param displayName visningsnavnet til forfatteren
+     * @param authorId ID til forfatteren
      * @param createdAt tidspunkt for siste post i forrige side
      * @param id id til siste post i forrige side
+     * @param contentLength maks antall tegn av innholdet som hentes (0 = ikke noe innhold)
      * @param pageable pagineringsinfo
-     * @return liste av innlegg
+     * @return liste av innlegg ({@link PostFeedRow})
      */
     @Query("""
-            select p from Post p
-            join fetch p.author a
-            where a.displayName = :displayName
+            select p.id as id, p.author.id as authorId, p.createdAt as createdAt,
+                   p.imageUrl as imageUrl, substring(p.content, 1, :contentLength) as content
+            from Post p
+            where p.author.id = :authorId
               and (p.createdAt < :createdAt
                    or (p.createdAt = :createdAt and p.id < :id))
             order by p.createdAt desc, p.id desc
             """)
-    List<Post> findPageAfterByAuthor(String displayName, Instant createdAt, UUID id, Pageable pageable);
+    List<PostFeedRow> findPageAfterByAuthor(UUID authorId, Instant createdAt, UUID id, int contentLength,
+                                              Pageable pageable);
 
     /**
      * Henter første side med innlegg skrevet av en liste med forfattere.
      * Brukes typisk til å hente feed for en bruker (følgede brukere).
      *
      * @param authorIds liste av forfatter-IDer
+     * @param contentLength maks antall tegn av innholdet som hentes (0 = ikke noe innhold)
      * @param pageable pagineringsinfo
-     * @return liste av innlegg
+     * @return liste av innlegg ({@link PostFeedRow})
      */
     @Query("""
-            select p from Post p
+            select p.id as id, p.author.id as authorId, p.createdAt as createdAt,
+                   p.imageUrl as imageUrl, substring(p.content, 1, :contentLength) as content
+            from Post p
             where p.author.id in :authorIds
             order by p.createdAt desc, p.id desc
             """)
-    List<Post> findFirstPageByAuthorIds(List<UUID> authorIds, Pageable pageable);
+    List<PostFeedRow> findFirstPageByAuthorIds(List<UUID> authorIds, int contentLength, Pageable pageable);
 
     /**
      * Henter neste side med innlegg skrevet av en liste med forfattere, etter en gitt cursor.
@@ -105,20 +133,92 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
      * @param authorIds liste av forfatter-IDer
      * @param cursorCreatedAt tidspunkt for siste post i forrige side
      * @param cursorId id til siste post i forrige side
+     * @param contentLength maks antall tegn av innholdet som hentes (0 = ikke noe innhold)
      * @param pageable pagineringsinfo
-     * @return liste av innlegg
+     * @return liste av innlegg ({@link PostFeedRow})
      */
     @Query("""
-            select p from Post p
+            select p.id as id, p.author.id as authorId, p.createdAt as createdAt,
+                   p.imageUrl as imageUrl, substring(p.content, 1, :contentLength) as content
+            from Post p
             where p.author.id in :authorIds
               and (p.createdAt < :cursorCreatedAt
                    or (p.createdAt = :cursorCreatedAt and p.id < :cursorId))
             order by p.createdAt desc, p.id desc
             """)
-    List<Post> findPageAfterByAuthorIds(
+    List<PostFeedRow> findPageAfterByAuthorIds(
             List<UUID> authorIds,
             Instant cursorCreatedAt,
             UUID cursorId,
+            int contentLength,
             Pageable pageable
     );
+
+    /**
+     * Projeksjon for hodet av feeden (se {@code FeedHead}).
+     */
+    interface HeadRow {
+        UUID getId();
+        UUID getAuthorId();
+        Instant getCreatedAt();
+    }
+
+    /**
+     * Henter de nyeste innleggene uten innhold, til å fylle {@code FeedHead} ved oppstart.
+     *
+     * @param pageable antall innlegg
+     * @return nyeste innlegg først
+     */
+    @Transactional(readOnly = true)
+    @Query("""
+            select p.id as id, p.author.id as authorId, p.createdAt as createdAt
+            from Post p
+            order by p.createdAt desc, p.id desc
+            """)
+    List<HeadRow> findHead(Pageable pageable);
+
+    /**
+     * Henter ID-ene til innlegg som er nyere enn en cursor, nyeste først, med øvre grense.
+     * <p>
+     * Radsammenligningen {@code (created_at, id) > (...)} med bare {@code id} i utvalget gir en
+     * index-only scan baklengs over {@code idx_posts_created_at_id} som stopper etter {@code limit} rader.
+     *
+     * @param createdAt cursorens tidspunkt
+     * @param id        cursorens innlegg-ID
+     * @param limit     maks antall ID-er
+     * @return ID-er, nyeste først
+     */
+    @Transactional(readOnly = true)
+    @Query(value = """
+            select p.id from posts p
+            where (p.created_at, p.id) > (:createdAt, :id)
+            order by p.created_at desc, p.id desc
+            limit :limit
+            """, nativeQuery = true)
+    List<UUID> findIdsNewerThan(@Param("createdAt") Instant createdAt,
+                                @Param("id") UUID id,
+                                @Param("limit") int limit);
+
+    /**
+     * Som {@link #findIdsNewerThan(Instant, UUID, int)}, men bare for en liste forfattere
+     * (index-only over {@code idx_posts_author_created_at_id}).
+     *
+     * @param authorIds forfatter-ID-er
+     * @param createdAt cursorens tidspunkt
+     * @param id        cursorens innlegg-ID
+     * @param limit     maks antall ID-er
+     * @return ID-er, nyeste først
+     */
+    @Transactional(readOnly = true)
+    @Query(value = """
+            select p.id from posts p
+            where p.author_id in (:authorIds)
+              and (p.created_at, p.id) > (:createdAt, :id)
+            order by p.created_at desc, p.id desc
+            limit :limit
+            """, nativeQuery = true)
+    List<UUID> findIdsNewerThanByAuthorIds(@Param("authorIds") Collection<UUID> authorIds,
+                                           @Param("createdAt") Instant createdAt,
+                                           @Param("id") UUID id,
+                                           @Param("limit") int limit);
 }
@@ -0,0 +1,126 @@
+package com.example.someprojectbackend.repo;
+
+import com.example.someprojectbackend.domain.Post;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for fulltekstsøk i innlegg.
+ * <p>
+ * Søker i {@code posts.search_vector} (generert tsvector-kolonne med GIN-indeks, se
+ * {@code PostSearchSchema}). Treffene rangeres med
+ * <pre>
+ *   rank = ts_rank_cd(vektor, søk) * 4
+ *        + ln(1 + likes*2 + kommentarer) * 0.5
+ *        + epoch(created_at) / 86400 * 0.05
+ * </pre>
+ * Siste ledd gir ferskhet uten å avhenge av "nå" (én dag nyere veier 0.05), slik at
+ * rangen til et innlegg ikke endrer seg mellom to sider. Som i populær-feeden brukes
+ * likes/kommentarer slik de er når siden hentes.
+ * <p>
+ * For å holde spørringen rask på store tabeller rangeres bare de {@code :candidates}
+ * nyeste treffene.
+ */
+@Repository
+public interface PostSearchRepository extends JpaRepository<Post, UUID> {
+
+    /**
+     * Projeksjon for søketreff.
+     */
+    interface SearchRow {
+        UUID getId();
+        Instant getCreatedAt();
+        double getRank();
+    }
+
+    /**
+     * Henter første side med søketreff.
+     *
+     * @param q          søkestreng (websearch-syntaks: ord, "frase", -utelat, or)
+     * @param candidates maks antall (nyeste) treff som rangeres
+     * @param limit      maks antall resultater
+     * @return treff sortert etter rank, createdAt og id (synkende)
+     */
+    @Transactional(readOnly = true)
+    @Query(value = """
+        WITH q AS (SELECT websearch_to_tsquery('simple', :q) AS query),
+        candidates AS (
+          SELECT p.id, p.created_at, p.search_vector
+          FROM posts p, q
+          WHERE p.search_vector @@ q.query
+          ORDER BY p.created_at DESC
+          LIMIT :candidates
+        ),
+        ranked AS (
+          SELECT c.id, c.created_at,
+                 (ts_rank_cd(c.search_vector, q.query, 32) * 4
+                  + ln(1 + COALESCE(l.n, 0) * 2 + COALESCE(cm.n, 0)) * 0.5
+                  + extract(epoch FROM c.created_at) / 86400 * 0.05)::float8 AS rank
+          FROM candidates c
+          CROSS JOIN q
+          LEFT JOIN LATERAL (SELECT COUNT(*) AS n FROM post_likes pl WHERE pl.post_id = c.id) l ON true
+          LEFT JOIN LATERAL (SELECT COUNT(*) AS n FROM comments x WHERE x.post_id = c.id) cm ON true
+        )
+        SELECT id AS id, created_at AS createdAt, rank AS rank
+        FROM ranked
+        ORDER BY rank DESC, created_at DESC, id DESC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<SearchRow> searchFirst(@Param("q") String q,
+                                @Param("candidates") int candidates,
+                                @Param("limit") int limit);
+
+    /**
+     * Henter neste side med søketreff etter en cursor (rank, createdAt, id).
+     *
+     * @param q               søkestreng
+     * @param candidates      maks antall (nyeste) treff som rangeres
+     * @param cursorRank      rank til siste treff i forrige side
+     * @param cursorCreatedAt createdAt til siste treff i forrige side
+     * @param cursorId        id til siste treff i forrige side
+     * @param limit           maks antall resultater
+     * @return treff etter cursoren
+     */
+    @Transactional(readOnly = true)
+    @Query(value = """
+        WITH q AS (SELECT websearch_to_tsquery('simple', :q) AS query),
+        candidates AS (
+          SELECT p.id, p.created_at, p.search_vector
+          FROM posts p, q
+          WHERE p.search_vector @@ q.query
+          ORDER BY p.created_at DESC
+          LIMIT :candidates
+        ),
+        ranked AS (
+          SELECT c.id, c.created_at,
+                 (ts_rank_cd(c.search_vector, q.query, 32) * 4
+                  + ln(1 + COALESCE(l.n, 0) * 2 + COALESCE(cm.n, 0)) * 0.5
+                  + extract(epoch FROM c.created_at) / 86400 * 0.05)::float8 AS rank
+          FROM candidates c
+          CROSS JOIN q
+          LEFT JOIN LATERAL (SELECT COUNT(*) AS n FROM post_likes pl WHERE pl.post_id = c.id) l ON true
+          LEFT JOIN LATERAL (SELECT COUNT(*) AS n FROM comments x WHERE x.post_id = c.id) cm ON true
+        )
+        SELECT id AS id, created_at AS createdAt, rank AS rank
+        FROM ranked
+        WHERE rank < :cursorRank
+           OR (rank = :cursorRank
+               AND (created_at < :cursorCreatedAt
+                    OR (created_at = :cursorCreatedAt AND id < :cursorId)))
+        ORDER BY rank DESC, created_at DESC, id DESC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<SearchRow> searchAfter(@Param("q") String q,
+                                @Param("candidates") int candidates,
+                                @Param("cursorRank") double cursorRank,
+                                @Param("cursorCreatedAt") Instant cursorCreatedAt,
+                                @Param("cursorId") UUID cursorId,
+                                @Param("limit") int limit);
+}
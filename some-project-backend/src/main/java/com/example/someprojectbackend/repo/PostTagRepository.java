@@ -0,0 +1,65 @@
+package com.example.someprojectbackend.repo;
+
+import com.example.someprojectbackend.domain.Post;
+import com.example.someprojectbackend.domain.PostTag;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for {@link PostTag}-entiteten.
+ *
+ * Tagg-feeden leses med keyset pagination rett fra indeksen (tag, created_at, post_id).
+ */
+public interface PostTagRepository extends JpaRepository<PostTag, Long> {
+
+    /**
+     * Henter første side med innlegg med en gitt tagg (nyeste først).
+     *
+     * @param tag      normalisert tagg
+     * @param pageable pagineringsinfo
+     * @return liste av innlegg
+     */
+    @Query("""
+            select t.post from PostTag t
+            where t.tag = :tag
+            order by t.createdAt desc, t.post.id desc
+            """)
+    List<Post> findFirstPageByTag(String tag, Pageable pageable);
+
+    /**
+     * Henter neste side med innlegg med en gitt tagg, etter en gitt cursor.
+     *
+     * @param tag       normalisert tagg
+     * @param createdAt tidspunkt for siste post i forrige side
+     * @param id        id til siste post i forrige side
+     * @param pageable  pagineringsinfo
+     * @return liste av innlegg
+     */
+    @Query("""
+            select t.post from PostTag t
+            where t.tag = :tag
+              and (t.createdAt < :createdAt
+                   or (t.createdAt = :createdAt and t.post.id < :id))
+            order by t.createdAt desc, t.post.id desc
+            """)
+    List<Post> findPageAfterByTag(String tag, Instant createdAt, UUID id, Pageable pageable);
+
+    /**
+     * Sletter alle tagger knyttet til et innlegg i én bulk-operasjon.
+     *
+     * @param postId ID til innlegget
+     * @return antall slettede rader
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Transactional
+    @Query("delete from PostTag t where t.post.id = :postId")
+    int bulkDeleteByPostId(@Param("postId") UUID postId);
+}
@@ -0,0 +1,51 @@
+package com.example.someprojectbackend.repo;
+
+import com.example.someprojectbackend.domain.PostView;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for {@link PostView}-entiteten (unike visninger per innlegg).
+ */
+public interface PostViewRepository extends JpaRepository<PostView, UUID> {
+
+    /**
+     * Henter estimert antall unike seere for flere innlegg i én spørring.
+     *
+     * @param postIds innlegg-ID-er
+     * @return én rad per innlegg som har visninger
+     */
+    @Transactional(readOnly = true)
+    @Query("select v.postId as postId, v.estimate as count from PostView v where v.postId in :postIds")
+    List<PostCountRow> findEstimates(Collection<UUID> postIds);
+
+    /**
+     * Henter og låser radene for flere innlegg (for å slå sammen registre uten tapte oppdateringer).
+     *
+     * @param postIds innlegg-ID-er
+     * @return radene som finnes
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select v from PostView v where v.postId in :postIds")
+    List<PostView> lockAll(Collection<UUID> postIds);
+
+    /**
+     * Sletter visningene til et innlegg (brukes når innlegget slettes).
+     *
+     * @param postId ID til innlegget
+     * @return antall slettede rader
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Transactional
+    @Query("delete from PostView v where v.postId = :postId")
+    int bulkDeleteByPostId(@Param("postId") UUID postId);
+}
@@ -0,0 +1,54 @@
+package com.example.someprojectbackend.repo;
+
+import com.example.someprojectbackend.domain.UploadSession;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for {@link UploadSession}-entiteten.
+ */
+public interface UploadSessionRepository extends JpaRepository<UploadSession, UUID> {
+
+    /**
+     * Henter utløpte sesjoner (både ufullstendige og fullførte som aldri ble brukt).
+     *
+     * @param now      nåtid
+     * @param pageable maks antall
+     * @return utløpte sesjoner, eldste først
+     */
+    @Query("select s from UploadSession s where s.expiresAt < :now order by s.expiresAt")
+    List<UploadSession> findExpired(Instant now, Pageable pageable);
+
+    /**
+     * Sletter en sesjon hvis den fortsatt er utløpt. Ble den brukt av et innlegg i mellomtiden,
+     * er raden borte og ingenting slettes.
+     *
+     * @param id  sesjons-ID
+     * @param now nåtid
+     * @return antall slettede rader (0 eller 1)
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from UploadSession s where s.id = :id and s.expiresAt < :now")
+    int deleteExpired(@Param("id") UUID id, @Param("now") Instant now);
+
+    /**
+     * Sletter en sesjon som ikke er utløpt (når den knyttes til et innlegg).
+     *
+     * @param id  sesjons-ID
+     * @param now nåtid
+     * @return antall slettede rader (0 hvis den er utløpt eller allerede slettet)
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from UploadSession s where s.id = :id and s.expiresAt >= :now")
+    int deleteUnexpired(@Param("id") UUID id, @Param("now") Instant now);
+}
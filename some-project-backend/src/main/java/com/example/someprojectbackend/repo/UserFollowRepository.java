@@ -29,8 +29,9 @@ public interface UserFollowRepository extends JpaRepository<UserFollow, Long> {
      *
      * @param followerId ID til brukeren som følger
      * @param followeeId ID til brukeren som blir fulgt
+     * @return antall slettede relasjoner (0 eller 1)
      */
-    void deleteByFollower_IdAndFollowee_Id(UUID followerId, UUID followeeId);
+    long deleteByFollower_IdAndFollowee_Id(UUID followerId, UUID followeeId);
 
     /**
      * Teller hvor mange brukere en gitt bruker følger.
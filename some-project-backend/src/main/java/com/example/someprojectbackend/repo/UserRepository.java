@@ -3,9 +3,13 @@ package com.example.someprojectbackend.repo;
 import com.example.someprojectbackend.domain.User;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -14,6 +18,7 @@ import java.util.UUID;
  * Repository for {@link User}-entiteten.
  *
  * Brukes til oppslag, validering og søk på brukere.
+ * Spørremetodene er read-only-transaksjoner, slik at de rutes til lese-poolen.
  */
 public interface UserRepository extends JpaRepository<User, UUID> {
 
@@ -23,6 +28,7 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      * @param email e-postadresse
      * @return Optional med bruker hvis funnet
      */
+    @Transactional(readOnly = true)
     Optional<User> findByEmail(String email);
 
     /**
@@ -31,16 +37,135 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      * @param email e-postadresse
      * @return true hvis brukeren finnes, ellers false
      */
+    @Transactional(readOnly = true)
     boolean existsByEmail(String email);
 
     /**
-     * Henter en bruker basert på visningsnavn (case-insensitivt).
+     * Slår opp bruker-ID fra normalisert visningsnavn (bruker den unike indeksen på display_name_key).
      *
-     * @param displayName visningsnavn å lete etter
-     * @return Optional med bruker hvis funnet
+     * @param key normalisert visningsnavn, se {@link User#displayNameKey(String)}
+     * @return Optional med ID hvis funnet
+     */
+    @Transactional(readOnly = true)
+    @Query("select u.id from User u where u.displayNameKey = :key")
+    Optional<UUID> findIdByDisplayNameKey(@Param("key") String key);
+
+    /**
+     * Sjekker om et normalisert visningsnavn er i bruk.
+     *
+     * @param key normalisert visningsnavn, se {@link User#displayNameKey(String)}
+     * @return true hvis en bruker har nøkkelen
+     */
+    @Transactional(readOnly = true)
+    boolean existsByDisplayNameKey(String key);
+
+    /**
+     * Projeksjon for å bygge navnekatalogen (og fylle ut manglende nøkler).
+     */
+    interface DirectoryRow {
+        UUID getId();
+
+        String getDisplayName();
+
+        String getDisplayNameKey();
+
+        Instant getCreatedAt();
+    }
+
+    /**
+     * Henter ID, visningsnavn og lagret nøkkel for alle brukere.
+     *
+     * @return én rad per bruker
+     */
+    @Transactional(readOnly = true)
+    @Query("""
+        select u.id as id, u.displayName as displayName, u.displayNameKey as displayNameKey, u.createdAt as createdAt
+        from User u
+    """)
+    List<DirectoryRow> findAllForDirectory();
+
+    /**
+     * Projeksjon for {@link com.example.someprojectbackend.cache.UserSummaryCache}.
+     */
+    interface SummaryRow {
+        UUID getId();
+
+        String getDisplayName();
+
+        String getAvatarKey();
+    }
+
+    /**
+     * Henter sammendrag (navn og avatar) for flere brukere i én spørring.
+     *
+     * @param ids bruker-IDer
+     * @return én rad per bruker som finnes
+     */
+    @Transactional(readOnly = true)
+    @Query("select u.id as id, u.displayName as displayName, u.avatarKey as avatarKey from User u where u.id in :ids")
+    List<SummaryRow> findSummaries(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Projeksjon med det et avatarbytte eller en profilendring trenger.
+     */
+    interface AvatarRow {
+        String getDisplayName();
+
+        String getAvatarKey();
+    }
+
+    /**
+     * Leser navn og nåværende avatar og låser raden til transaksjonen er ferdig,
+     * så to samtidige avatarbytter ikke frigjør samme gamle avatar, og profilendringene
+     * publiserer {@code UserUpdated} med navn og avatar i commit-rekkefølge.
+     * Må kalles i en skrivetransaksjon.
+     *
+     * @param id bruker-ID
+     * @return Optional med raden hvis brukeren finnes
+     */
+    @Query(value = """
+            select display_name as "displayName", avatar_key as "avatarKey"
+            from users where id = :id
+            for update
+            """, nativeQuery = true)
+    Optional<AvatarRow> lockProfile(@Param("id") UUID id);
+
+    /**
+     * Setter kun avatar-kolonnen; resten av raden (bio o.l.) endres ikke.
+     *
+     * @param id  bruker-ID
+     * @param key ny avatarnøkkel
+     * @return antall oppdaterte rader
+     */
+    @Modifying
+    @Transactional
+    @Query("update User u set u.avatarKey = :key where u.id = :id")
+    int updateAvatarKey(@Param("id") UUID id, @Param("key") String key);
+
+    /**
+     * Setter kun bio-kolonnen, så en samtidig avatarbytte ikke overskrives.
+     *
+     * @param id  bruker-ID
+     * @param bio ny bio
+     * @return antall oppdaterte rader
+     */
+    @Modifying
+    @Transactional
+    @Query("update User u set u.bio = :bio where u.id = :id")
+    int updateBio(@Param("id") UUID id, @Param("bio") String bio);
+
+    /**
+     * Setter {@code display_name_key} for én bruker (utfylling ved oppstart, se UserDirectory).
+     * Nøkkelen beregnes i Java med {@link User#displayNameKey(String)}, som ved lagring og oppslag.
+     *
+     * @param id  bruker-ID
+     * @param key normalisert visningsnavn
+     * @return antall oppdaterte rader
      */
-    @Query("select u from User u where lower(u.displayName) = lower(:dn)")
-    Optional<User> findByDisplayNameCaseInsensitive(@Param("dn") String displayName);
+    @Modifying
+    @Transactional
+    @Query("update User u set u.displayNameKey = :key where u.id = :id")
+    int updateDisplayNameKey(@Param("id") UUID id, @Param("key") String key);
 
     /**
      * Søker etter brukere basert på delvis match i displayName (case-insensitivt).
@@ -50,10 +175,52 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      * @param page pagineringsinformasjon
      * @return liste med brukere som matcher
      */
+    @Transactional(readOnly = true)
     @Query("""
         select u from User u
         where lower(u.displayName) like lower(concat('%', :q, '%'))
         order by u.displayName asc
     """)
     List<User> searchByDisplayName(String q, Pageable page);
+
+    /**
+     * Projeksjon med det søkeindeksen trenger per bruker.
+     */
+    interface SearchIndexRow {
+        UUID getId();
+
+        String getDisplayName();
+
+        String getAvatarKey();
+
+        long getFollowers();
+    }
+
+    /**
+     * Henter alle brukere med antall følgere, for å bygge søkeindeksen ved oppstart.
+     *
+     * @return én rad per bruker
+     */
+    @Transactional(readOnly = true)
+    @Query("""
+        select u.id as id, u.displayName as displayName, u.avatarKey as avatarKey, count(f.id) as followers
+        from User u left join UserFollow f on f.followee = u
+        group by u.id, u.displayName, u.avatarKey
+    """)
+    List<SearchIndexRow> findAllForSearchIndex();
+
+    /**
+     * Som {@link #findAllForSearchIndex()}, for utvalgte brukere.
+     *
+     * @param ids bruker-IDer
+     * @return én rad per bruker som finnes
+     */
+    @Transactional(readOnly = true)
+    @Query("""
+        select u.id as id, u.displayName as displayName, u.avatarKey as avatarKey, count(f.id) as followers
+        from User u left join UserFollow f on f.followee = u
+        where u.id in :ids
+        group by u.id, u.displayName, u.avatarKey
+    """)
+    List<SearchIndexRow> findForSearchIndex(@Param("ids") Collection<UUID> ids);
 }
@@ -0,0 +1,40 @@
+package com.example.someprojectbackend.search;
+
+import com.example.someprojectbackend.db.BackgroundJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Oppretter databaseobjektene fulltekstsøket trenger, som Hibernate ({@code ddl-auto: update})
+ * ikke kan lage selv.
+ * <p>
+ * {@code posts.search_vector} er en generert kolonne, så Postgres holder den oppdatert ved
+ * hver insert og update av {@code content}. Konfigurasjonen {@code simple} (ingen stemming
+ * eller stoppord) passer for innlegg på blandede språk. Setningene er idempotente.
+ */
+@Component
+public class PostSearchSchema {
+
+    private static final Logger log = LoggerFactory.getLogger(PostSearchSchema.class);
+
+    private final JdbcTemplate jdbc;
+
+    public PostSearchSchema(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @BackgroundJob
+    public void ensureSchema() {
+        jdbc.execute("""
+                ALTER TABLE posts ADD COLUMN IF NOT EXISTS search_vector tsvector
+                  GENERATED ALWAYS AS (to_tsvector('simple', coalesce(content, ''))) STORED
+                """);
+        jdbc.execute("CREATE INDEX IF NOT EXISTS idx_posts_search_vector ON posts USING gin (search_vector)");
+        log.info("Post search schema ready");
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.someprojectbackend.search;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Trekker ut {@code #tagger} og {@code @omtaler} fra innholdet i et innlegg i én gjennomgang.
+ * <p>
+ * Regler:
+ * - {@code #} eller {@code @} må stå først eller etter et tegn som ikke er del av et ord
+ *   (så {@code e@post.no} og {@code a#b} ikke teller)
+ * - tagger består av bokstaver, sifre og {@code _}
+ * - omtaler kan i tillegg inneholde {@code .} og {@code -}, men ikke slutte på dem
+ *   (så "@kari." blir "kari")
+ * - tagger normaliseres til små bokstaver; omtaler returneres som skrevet
+ *   og slås opp case-insensitivt mot visningsnavn
+ * - lengre enn {@link #MAX_LENGTH} tegn forkastes, og maks {@link #MAX_PER_POST} av hver per innlegg
+ */
+public final class TagScanner {
+
+    /** Maks lengde på én tagg eller omtale (uten prefiks). */
+    public static final int MAX_LENGTH = 64;
+
+    /** Maks antall tagger (og omtaler) som lagres per innlegg. */
+    public static final int MAX_PER_POST = 20;
+
+    /**
+     * Resultatet av en skanning.
+     *
+     * @param tags     normaliserte tagger (uten {@code #}), i rekkefølgen de dukket opp
+     * @param mentions omtalte navn (uten {@code @}), i rekkefølgen de dukket opp
+     */
+    public record Result(Set<String> tags, Set<String> mentions) {
+    }
+
+    private TagScanner() {
+    }
+
+    /**
+     * @param content innholdet i innlegget (kan være null)
+     * @return tagger og omtaler
+     */
+    public static Result scan(String content) {
+        var tags = new LinkedHashSet<String>();
+        var mentions = new LinkedHashSet<String>();
+        if (content == null) return new Result(tags, mentions);
+
+        int n = content.length();
+        int i = 0;
+        while (i < n) {
+            char c = content.charAt(i);
+            boolean boundary = i == 0 || !isWordChar(content.charAt(i - 1));
+            if ((c == '#' || c == '@') && boundary) {
+                boolean mention = c == '@';
+                int start = i + 1;
+                int end = start;
+                while (end < n && (isWordChar(content.charAt(end))
+                        || (mention && (content.charAt(end) == '.' || content.charAt(end) == '-')))) {
+                    end++;
+                }
+                int stop = end;
+                if (mention) {
+                    while (stop > start && (content.charAt(stop - 1) == '.' || content.charAt(stop - 1) == '-')) stop--;
+                }
+                int len = stop - start;
+                if (len > 0 && len <= MAX_LENGTH) {
+                    String token = content.substring(start, stop);
+                    if (mention) {
+                        if (mentions.size() < MAX_PER_POST) mentions.add(token);
+                    } else if (tags.size() < MAX_PER_POST) {
+                        tags.add(token.toLowerCase(Locale.ROOT));
+                    }
+                }
+                i = Math.max(end, i + 1);
+            } else {
+                i++;
+            }
+        }
+        return new Result(tags, mentions);
+    }
+
+    /**
+     * Normaliserer en tagg slik den lagres (uten {@code #}, små bokstaver).
+     *
+     * @param tag tagg fra URL eller input
+     * @return normalisert tagg
+     */
+    public static String normalizeTag(String tag) {
+        String t = tag.trim();
+        if (t.startsWith("#")) t = t.substring(1);
+        return t.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.someprojectbackend.search;
+
+import com.example.someprojectbackend.db.BackgroundJob;
+import com.example.someprojectbackend.domain.User;
+import com.example.someprojectbackend.repo.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Katalog i minnet mellom normalisert visningsnavn og bruker-ID (begge veier).
+ * <p>
+ * Profilsider, følg/avfølg og innlegg per forfatter slår opp brukeren fra navnet i URL-en.
+ * Katalogen gjør dette uten databasekall; deretter søkes det på ID. Ved bom
+ * (f.eks. før katalogen er lastet) brukes den unike indeksen på {@code display_name_key},
+ * og resultatet legges i katalogen.
+ * <p>
+ * Holdes oppdatert ved registrering og navnebytte via {@link #put(UUID, String)}.
+ */
+@Component
+public class UserDirectory {
+
+    private static final Logger log = LoggerFactory.getLogger(UserDirectory.class);
+
+    private final UserRepository users;
+    private final TransactionTemplate tx;
+    private final ConcurrentHashMap<String, UUID> idByKey = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, String> keyById = new ConcurrentHashMap<>();
+
+    public UserDirectory(UserRepository users, TransactionTemplate tx) {
+        this.users = users;
+        this.tx = tx;
+    }
+
+    /**
+     * Fyller ut manglende (eller avvikende) {@code display_name_key} og laster katalogen.
+     * Kjøres når applikasjonen har startet.
+     * <p>
+     * Den gamle unike indeksen på {@code display_name} skiller på store og små bokstaver, så
+     * eldre data kan ha f.eks. både "Ola" og "ola". Slike kollisjoner finnes før utfyllingen:
+     * brukeren som allerede har nøkkelen (ellers den eldste) får den, de andre rapporteres og
+     * står uten nøkkel (de kan ikke slås opp på navn før de har fått et unikt navn).
+     * Oppstarten feiler aldri på dette.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @BackgroundJob
+    public void load() {
+        var rows = users.findAllForDirectory();
+
+        Map<String, List<UserRepository.DirectoryRow>> byKey = new HashMap<>();
+        for (var r : rows) {
+            byKey.computeIfAbsent(User.displayNameKey(r.getDisplayName()), k -> new ArrayList<>()).add(r);
+        }
+
+        Map<UUID, String> backfill = new HashMap<>();
+        int collisions = 0;
+        for (var e : byKey.entrySet()) {
+            var owners = e.getValue();
+            if (owners.size() > 1) {
+                String key = e.getKey();
+                owners.sort(Comparator.comparing((UserRepository.DirectoryRow r) -> !key.equals(r.getDisplayNameKey()))
+                        .thenComparing(UserRepository.DirectoryRow::getCreatedAt)
+                        .thenComparing(UserRepository.DirectoryRow::getId));
+                collisions += owners.size() - 1;
+                log.error("Display name key '{}' is shared by {} users; keeping {} ({}), rename the others: {}",
+                        e.getKey(), owners.size(), owners.get(0).getId(), owners.get(0).getDisplayName(),
+                        owners.subList(1, owners.size()).stream()
+                                .map(r -> r.getId() + " (" + r.getDisplayName() + ")").toList());
+            }
+            var owner = owners.get(0);
+            if (!e.getKey().equals(owner.getDisplayNameKey())) backfill.put(owner.getId(), e.getKey());
+            put(owner.getId(), owner.getDisplayName());
+        }
+
+        if (!backfill.isEmpty()) {
+            try {
+                tx.executeWithoutResult(t -> backfill.forEach(users::updateDisplayNameKey));
+            } catch (DataAccessException ex) {
+                log.error("Could not backfill {} display name keys; lookups fall back to the directory", backfill.size(), ex);
+            }
+        }
+        log.info("User directory loaded: {} users ({} keys backfilled, {} name collisions)",
+                rows.size(), backfill.size(), collisions);
+    }
+
+    /**
+     * Slår opp bruker-ID fra visningsnavn (case-insensitivt).
+     *
+     * @param displayName visningsnavn
+     * @return Optional med ID hvis brukeren finnes
+     */
+    public Optional<UUID> resolve(String displayName) {
+        if (displayName == null || displayName.isBlank()) return Optional.empty();
+        String key = User.displayNameKey(displayName.trim());
+        UUID id = idByKey.get(key);
+        if (id != null) return Optional.of(id);
+
+        var found = users.findIdByDisplayNameKey(key);
+        found.ifPresent(uid -> put(uid, key));
+        return found;
+    }
+
+    /**
+     * Registrerer en bruker, eller oppdaterer navnet etter et navnebytte (gammel nøkkel fjernes).
+     *
+     * @param id          bruker-ID
+     * @param displayName nåværende visningsnavn
+     */
+    public synchronized void put(UUID id, String displayName) {
+        String key = User.displayNameKey(displayName);
+        String previous = keyById.put(id, key);
+        if (previous != null && !previous.equals(key)) {
+            idByKey.remove(previous, id);
+        }
+        idByKey.put(key, id);
+    }
+}
@@ -0,0 +1,385 @@
+package com.example.someprojectbackend.search;
+
+import com.example.someprojectbackend.db.BackgroundJob;
+import com.example.someprojectbackend.repo.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory n-gram-indeks over visningsnavn for autocomplete i brukersøket.
+ * <p>
+ * Hvert navn (små bokstaver) brytes opp i bigrammer og trigrammer; hvert gram peker på en
+ * sortert {@code int[]}-liste med dokumentnumre. Et søk på 2 tegn slår opp bigrammet,
+ * lengre søk snitter postinglistene til alle trigrammene i søket (minste liste først) og
+ * verifiserer treffene med {@code contains}. Ingen spørring går til Postgres.
+ * <p>
+ * Rangering: navn som starter med søket først, deretter flest følgere, deretter navn og id.
+ * Paginering skjer med en keyset-cursor over den samme rekkefølgen.
+ * <p>
+ * Indeksen bygges ved oppstart og holdes oppdatert ved registrering, navne-/avatarendring
+ * og følg/avfølg. Til den er ferdig bygget ({@link #isReady()}) må kaller bruke databasen.
+ * Endringer som kommer mens indeksen bygges, overskrives ikke av den eldre raden fra
+ * oppstartsspørringen; de berørte brukerne leses på nytt til slutt (se {@link #rebuild()}).
+ */
+@Component
+public class UserSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSearchIndex.class);
+
+    private final UserRepository users;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Dokumenter (indeksert på dokumentnummer)
+    private UUID[] ids = new UUID[1024];
+    private String[] names = new String[1024];
+    private String[] lowerNames = new String[1024];
+    private String[] avatarKeys = new String[1024];
+    private int[] followers = new int[1024];
+    private int docCount;
+    private final Map<UUID, Integer> docOf = new HashMap<>();
+
+    // Gram → sorterte dokumentnumre
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    /** Maks antall runder med å lese berørte brukere på nytt etter oppstartsspørringen. */
+    private static final int MAX_REREAD_ROUNDS = 3;
+
+    /** Brukere endret mens {@link #rebuild()} pågår; null ellers. Beskyttes av write-låsen. */
+    private Set<UUID> touched;
+
+    private volatile boolean ready;
+
+    public UserSearchIndex(UserRepository users) {
+        this.users = users;
+    }
+
+    /**
+     * Et søketreff.
+     *
+     * @param id          bruker-ID
+     * @param displayName visningsnavn
+     * @param avatarKey   avatarnøkkel (kan være null)
+     */
+    public record Hit(UUID id, String displayName, String avatarKey) {
+    }
+
+    /**
+     * En side med søketreff.
+     *
+     * @param hits       treff i rangert rekkefølge
+     * @param nextCursor cursor for neste side, eller null hvis dette er siste side
+     */
+    public record Page(List<Hit> hits, String nextCursor) {
+    }
+
+    /** @return true når indeksen er ferdig bygget og kan besvare søk */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Bygger indeksen fra databasen. Kjøres på oppstartstråden når applikasjonen har startet
+     * ({@link BackgroundJob} velger kun jobs-poolen); serveren tar imot forespørsler imens,
+     * og søk går til databasen til {@link #isReady()} er true.
+     * <p>
+     * Brukere som endres ({@link #upsert}, {@link #adjustFollowers}) etter at spørringen startet,
+     * hoppes over i resultatet, siden raden kan være eldre enn endringen. De leses på nytt
+     * etterpå; hendelsene kommer etter commit, så den nye lesingen ser minst like ny tilstand.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @BackgroundJob
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            touched = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        var rows = users.findAllForSearchIndex();
+        apply(rows);
+        for (int round = 0; ; round++) {
+            Set<UUID> reread;
+            lock.writeLock().lock();
+            try {
+                if (touched.isEmpty() || round == MAX_REREAD_ROUNDS) {
+                    touched = null;
+                    ready = true;
+                    break;
+                }
+                reread = touched;
+                touched = new HashSet<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            apply(users.findForSearchIndex(reread));
+        }
+        log.info("User search index built: {} users in {} ms", rows.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** Legger inn rader fra databasen, unntatt brukere som er endret siden lesingen startet. */
+    private void apply(List<UserRepository.SearchIndexRow> rows) {
+        lock.writeLock().lock();
+        try {
+            for (var r : rows) {
+                if (touched != null && touched.contains(r.getId())) continue;
+                upsert(r.getId(), r.getDisplayName(), r.getAvatarKey(), (int) r.getFollowers());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Legger til eller oppdaterer en bruker (registrering, nytt navn eller ny avatar).
+     *
+     * @param id          bruker-ID
+     * @param displayName visningsnavn
+     * @param avatarKey   avatarnøkkel (kan være null)
+     */
+    public void upsert(UUID id, String displayName, String avatarKey) {
+        lock.writeLock().lock();
+        try {
+            if (touched != null) touched.add(id);
+            Integer doc = docOf.get(id);
+            upsert(id, displayName, avatarKey, doc != null ? followers[doc] : 0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Justerer antall følgere for en bruker.
+     *
+     * @param id    bruker-ID
+     * @param delta endring (+1 ved følg, -1 ved avfølg)
+     */
+    public void adjustFollowers(UUID id, int delta) {
+        lock.writeLock().lock();
+        try {
+            if (touched != null) touched.add(id);
+            Integer doc = docOf.get(id);
+            if (doc != null) followers[doc] = Math.max(0, followers[doc] + delta);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Søker etter brukere hvis visningsnavn inneholder {@code q} (case-insensitivt).
+     *
+     * @param q      søkestreng (minst 2 tegn)
+     * @param limit  maks antall treff
+     * @param cursor cursor fra forrige side, eller null
+     * @return rangerte treff
+     */
+    public Page search(String q, int limit, String cursor) {
+        String query = q.toLowerCase(Locale.ROOT);
+        if (query.length() < 2) return new Page(List.of(), null);
+        Key after = cursor != null ? Key.decode(cursor) : null;
+
+        lock.readLock().lock();
+        try {
+            int[] candidates = candidates(query);
+
+            // Behold de (limit + 1) beste treffene etter cursoren; heapen har det dårligste øverst
+            var heap = new PriorityQueue<Key>(limit + 1, Comparator.<Key>naturalOrder().reversed());
+            for (int doc : candidates) {
+                String name = lowerNames[doc];
+                if (name == null || !name.contains(query)) continue;
+                var key = new Key(name.startsWith(query), followers[doc], name, ids[doc], doc);
+                if (after != null && key.compareTo(after) <= 0) continue;
+                if (heap.size() <= limit) {
+                    heap.add(key);
+                } else if (key.compareTo(heap.peek()) < 0) {
+                    heap.poll();
+                    heap.add(key);
+                }
+            }
+
+            var keys = new ArrayList<>(heap);
+            keys.sort(Comparator.naturalOrder());
+            String next = null;
+            if (keys.size() > limit) {
+                keys.remove(limit);
+                next = keys.get(limit - 1).encode();
+            }
+            var hits = new ArrayList<Hit>(keys.size());
+            for (var k : keys) {
+                hits.add(new Hit(ids[k.doc], names[k.doc], avatarKeys[k.doc]));
+            }
+            return new Page(hits, next);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Intern vedlikehold ---
+
+    private void upsert(UUID id, String displayName, String avatarKey, int followerCount) {
+        lock.writeLock().lock();
+        try {
+            String lower = displayName.toLowerCase(Locale.ROOT);
+            Integer existing = docOf.get(id);
+            int doc;
+            if (existing != null) {
+                doc = existing;
+                if (!lower.equals(lowerNames[doc])) {
+                    for (long g : grams(lowerNames[doc])) {
+                        var p = postings.get(g);
+                        if (p != null) p.remove(doc);
+                    }
+                    for (long g : grams(lower)) postings.computeIfAbsent(g, k -> new Postings()).add(doc);
+                }
+            } else {
+                doc = docCount++;
+                ensureCapacity(docCount);
+                ids[doc] = id;
+                docOf.put(id, doc);
+                for (long g : grams(lower)) postings.computeIfAbsent(g, k -> new Postings()).add(doc);
+            }
+            names[doc] = displayName;
+            lowerNames[doc] = lower;
+            avatarKeys[doc] = avatarKey;
+            followers[doc] = followerCount;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int[] candidates(String query) {
+        long[] grams = query.length() == 2 ? new long[]{bigram(query, 0)} : trigrams(query);
+        Postings[] lists = new Postings[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            lists[i] = postings.get(grams[i]);
+            if (lists[i] == null || lists[i].size == 0) return new int[0];
+        }
+        Arrays.sort(lists, Comparator.comparingInt(p -> p.size));
+
+        int[] result = Arrays.copyOf(lists[0].docs, lists[0].size);
+        int n = result.length;
+        for (int i = 1; i < lists.length && n > 0; i++) {
+            n = intersect(result, n, lists[i]);
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    /** Snitter {@code acc[0..n)} med en postingliste in-place; returnerer ny lengde. */
+    private static int intersect(int[] acc, int n, Postings other) {
+        int out = 0;
+        int j = 0;
+        for (int i = 0; i < n && j < other.size; i++) {
+            int doc = acc[i];
+            while (j < other.size && other.docs[j] < doc) j++;
+            if (j < other.size && other.docs[j] == doc) acc[out++] = doc;
+        }
+        return out;
+    }
+
+    private void ensureCapacity(int size) {
+        if (size <= ids.length) return;
+        int cap = Math.max(size, ids.length * 2);
+        ids = Arrays.copyOf(ids, cap);
+        names = Arrays.copyOf(names, cap);
+        lowerNames = Arrays.copyOf(lowerNames, cap);
+        avatarKeys = Arrays.copyOf(avatarKeys, cap);
+        followers = Arrays.copyOf(followers, cap);
+    }
+
+    /** Alle distinkte bigrammer og trigrammer i et navn. */
+    private static long[] grams(String s) {
+        var out = new long[Math.max(0, s.length() - 1) + Math.max(0, s.length() - 2)];
+        int n = 0;
+        for (int i = 0; i + 2 <= s.length(); i++) out[n++] = bigram(s, i);
+        for (int i = 0; i + 3 <= s.length(); i++) out[n++] = trigram(s, i);
+        return Arrays.stream(out, 0, n).distinct().toArray();
+    }
+
+    private static long[] trigrams(String s) {
+        var out = new long[s.length() - 2];
+        for (int i = 0; i + 3 <= s.length(); i++) out[i] = trigram(s, i);
+        return Arrays.stream(out).distinct().toArray();
+    }
+
+    private static long bigram(String s, int i) {
+        return (1L << 48) | ((long) s.charAt(i) << 16) | s.charAt(i + 1);
+    }
+
+    private static long trigram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    /** Sortert, voksende liste med dokumentnumre. */
+    private static final class Postings {
+        int[] docs = new int[4];
+        int size;
+
+        void add(int doc) {
+            int pos = Arrays.binarySearch(docs, 0, size, doc);
+            if (pos >= 0) return;
+            pos = -pos - 1;
+            if (size == docs.length) docs = Arrays.copyOf(docs, size * 2);
+            System.arraycopy(docs, pos, docs, pos + 1, size - pos);
+            docs[pos] = doc;
+            size++;
+        }
+
+        void remove(int doc) {
+            int pos = Arrays.binarySearch(docs, 0, size, doc);
+            if (pos < 0) return;
+            System.arraycopy(docs, pos + 1, docs, pos, size - pos - 1);
+            size--;
+        }
+    }
+
+    /**
+     * Rangeringsnøkkel; "mindre" betyr bedre treff. Brukes også som cursor.
+     */
+    private record Key(boolean prefix, int followers, String name, UUID id, int doc) implements Comparable<Key> {
+
+        private static final Comparator<Key> ORDER = Comparator
+                .comparing((Key k) -> !k.prefix)
+                .thenComparing(Key::followers, Comparator.reverseOrder())
+                .thenComparing(Key::name)
+                .thenComparing(Key::id);
+
+        @Override
+        public int compareTo(Key o) {
+            return ORDER.compare(this, o);
+        }
+
+        String encode() {
+            String raw = (prefix ? "1" : "0") + ":" + followers + ":" + id + ":" + name;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Key decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] parts = raw.split(":", 4);
+                return new Key("1".equals(parts[0]), Integer.parseInt(parts[1]), parts[3], UUID.fromString(parts[2]), -1);
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException ex) {
+                throw new IllegalArgumentException("Invalid cursor", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.someprojectbackend.search;
+
+import com.example.someprojectbackend.outbox.DomainEvent;
+import com.example.someprojectbackend.outbox.OutboxSubscriber;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Holder følgertallene i {@link UserSearchIndex} oppdatert ved følg og avfølg, og legger nye
+ * og endrede brukere inn i indeksen og {@link UserDirectory} på hver node.
+ */
+@Component
+public class UserSearchSubscriber implements OutboxSubscriber {
+
+    private final UserSearchIndex index;
+    private final UserDirectory directory;
+
+    public UserSearchSubscriber(UserSearchIndex index, UserDirectory directory) {
+        this.index = index;
+        this.directory = directory;
+    }
+
+    @Override
+    public void handle(List<DomainEvent> events) {
+        for (DomainEvent e : events) {
+            if (e instanceof DomainEvent.Followed f) index.adjustFollowers(f.followeeId(), 1);
+            else if (e instanceof DomainEvent.Unfollowed u) index.adjustFollowers(u.followeeId(), -1);
+            else if (e instanceof DomainEvent.UserUpdated u) {
+                index.upsert(u.userId(), u.displayName(), u.avatarKey());
+                directory.put(u.userId(), u.displayName());
+            }
+        }
+    }
+}
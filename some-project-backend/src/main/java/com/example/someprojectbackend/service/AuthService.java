@@ -1,11 +1,17 @@
 package com.example.someprojectbackend.service;
 
+import com.example.someprojectbackend.db.AfterCommit;
 import com.example.someprojectbackend.domain.User;
+import com.example.someprojectbackend.outbox.DomainEvent;
+import com.example.someprojectbackend.outbox.Outbox;
 import com.example.someprojectbackend.repo.UserRepository;
+import com.example.someprojectbackend.search.UserDirectory;
+import com.example.someprojectbackend.search.UserSearchIndex;
 import com.example.someprojectbackend.web.dto.auth.AuthUserDto;
 import com.example.someprojectbackend.web.dto.auth.RegisterRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service-klasse for autentisering og registrering av brukere.
@@ -19,29 +25,42 @@ import org.springframework.stereotype.Service;
 public class AuthService {
     private final UserRepository users;
     private final PasswordEncoder encoder;
+    private final UserSearchIndex searchIndex;
+    private final UserDirectory directory;
+    private final Outbox outbox;
 
-    public AuthService(UserRepository users, PasswordEncoder encoder) {
+    public AuthService(UserRepository users, PasswordEncoder encoder,
+                       UserSearchIndex searchIndex, UserDirectory directory, Outbox outbox) {
         this.users = users;
         this.encoder = encoder;
+        this.searchIndex = searchIndex;
+        this.directory = directory;
+        this.outbox = outbox;
     }
 
     /**
      * Registrerer en ny bruker i systemet.
      * <p>
-     * - Sjekker om e-post allerede finnes
+     * - Sjekker om e-post eller visningsnavn allerede finnes
      * - Oppretter en ny {@link User}
      * - Hasher passordet med {@link PasswordEncoder}
-     * - Lagrer brukeren i databasen
+     * - Lagrer brukeren i databasen og publiserer {@link DomainEvent.UserUpdated}, så den
+     *   legges i søkeindeksen og navnekatalogen på alle noder (på denne med en gang etter commit)
      * - Returnerer en DTO med basisinfo
      *
      * @param req registreringsforespørsel (email, displayName, password)
      * @return {@link AuthUserDto} med id, email og displayName
-     * @throws IllegalStateException hvis e-post allerede er registrert
+     * @throws IllegalStateException hvis e-post allerede er registrert, eller visningsnavnet
+     *                               (uten hensyn til store/små bokstaver) er tatt
      */
+    @Transactional
     public AuthUserDto register(RegisterRequest req) {
         if (users.existsByEmail(req.email())) {
             throw new IllegalStateException("Email already registered");
         }
+        if (users.existsByDisplayNameKey(User.displayNameKey(req.displayName()))) {
+            throw new IllegalStateException("Display name already taken");
+        }
 
         var u = new User();
         u.setEmail(req.email().toLowerCase());
@@ -49,6 +68,11 @@ public class AuthService {
         u.setPasswordHash(encoder.encode(req.password()));
 
         var saved = users.save(u);
+        outbox.publish(new DomainEvent.UserUpdated(saved.getId(), saved.getDisplayName(), saved.getAvatarKey()));
+        AfterCommit.run(() -> {
+            searchIndex.upsert(saved.getId(), saved.getDisplayName(), saved.getAvatarKey());
+            directory.put(saved.getId(), saved.getDisplayName());
+        });
         return new AuthUserDto(saved.getId().toString(), saved.getEmail(), saved.getDisplayName());
     }
 
@@ -0,0 +1,187 @@
+package com.example.someprojectbackend.service;
+
+import com.example.someprojectbackend.cache.UserSummaryCache;
+import com.example.someprojectbackend.cache.VersionCounters;
+import com.example.someprojectbackend.domain.User;
+import com.example.someprojectbackend.media.AvatarVariant;
+import com.example.someprojectbackend.media.ImageResizer;
+import com.example.someprojectbackend.outbox.DomainEvent;
+import com.example.someprojectbackend.outbox.Outbox;
+import com.example.someprojectbackend.repo.UserRepository;
+import com.example.someprojectbackend.search.UserSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Service-klasse for behandling av avatarer.
+ * <p>
+ * Flyt ved opplasting:
+ *  - request-tråden sjekker filstørrelse og bildedimensjoner (kun header)
+ *  - selve dekodingen og nedskaleringen til {@link AvatarVariant}-størrelsene
+ *    kjøres på {@code avatarExecutor}
+ *  - hver variant lagres som en blob via {@link BlobService} (innholdsadressert,
+ *    så URL-ene aldri endrer innhold og like bilder lagres én gang)
+ *  - kun brukerens {@code avatarKey} oppdateres (målrettet update, ikke hele entiteten)
+ *    og referansene til forrige avatar frigjøres
+ *  - {@link DomainEvent.UserUpdated} publiseres i samme transaksjon, så cachene og
+ *    ETag-tellerne oppdateres på alle noder; denne noden oppdaterer sine med en gang
+ */
+@Service
+public class AvatarService {
+
+    private static final Logger log = LoggerFactory.getLogger(AvatarService.class);
+
+    private final UserRepository users;
+    private final BlobService blobs;
+    private final UserSearchIndex searchIndex;
+    private final UserSummaryCache summaries;
+    private final VersionCounters versions;
+    private final ThreadPoolTaskExecutor executor;
+    private final TransactionTemplate tx;
+    private final Outbox outbox;
+    private final Path uploadRoot;
+    private final long maxBytes;
+    private final long maxPixels;
+
+    public AvatarService(UserRepository users,
+                         BlobService blobs,
+                         UserSearchIndex searchIndex,
+                         UserSummaryCache summaries,
+                         VersionCounters versions,
+                         @Qualifier("avatarExecutor") ThreadPoolTaskExecutor avatarExecutor,
+                         TransactionTemplate tx,
+                         Outbox outbox,
+                         Path uploadRoot,
+                         @Value("${app.avatar.max-bytes:5242880}") long maxBytes,
+                         @Value("${app.avatar.max-pixels:25000000}") long maxPixels) {
+        this.users = users;
+        this.blobs = blobs;
+        this.searchIndex = searchIndex;
+        this.summaries = summaries;
+        this.versions = versions;
+        this.executor = avatarExecutor;
+        this.tx = tx;
+        this.outbox = outbox;
+        this.uploadRoot = uploadRoot;
+        this.maxBytes = maxBytes;
+        this.maxPixels = maxPixels;
+    }
+
+    /**
+     * Validerer en opplastet avatar og starter asynkron behandling.
+     *
+     * @param user  brukeren avataren tilhører
+     * @param bytes innholdet i opplastet fil
+     * @return future med ny avatarnøkkel når alle varianter er lagret
+     * @throws ResponseStatusException 413 hvis filen/bildet er for stort,
+     *                                 400 hvis formatet ikke støttes,
+     *                                 503 hvis behandlingskøen er full
+     */
+    public CompletableFuture<String> upload(User user, byte[] bytes) {
+        if (bytes.length > maxBytes) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "Avatar too large");
+        }
+        try {
+            int[] wh = ImageResizer.dimensions(bytes);
+            if ((long) wh[0] * wh[1] > maxPixels) {
+                throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "Avatar dimensions too large");
+            }
+        } catch (IllegalArgumentException | IOException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported image");
+        }
+
+        UUID userId = user.getId();
+        try {
+            return CompletableFuture.supplyAsync(() -> process(userId, bytes), executor);
+        } catch (RejectedExecutionException ex) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Avatar processing busy");
+        }
+    }
+
+    /**
+     * Dekoder, skalerer og lagrer alle varianter, og bytter deretter brukerens avatar.
+     * Kjøres på {@code avatarExecutor}.
+     */
+    private String process(UUID userId, byte[] bytes) {
+        List<String> stored = new ArrayList<>();
+        try {
+            var img = ImageResizer.decode(bytes, maxPixels);
+            for (var variant : AvatarVariant.values()) {
+                byte[] jpeg = ImageResizer.encodeJpeg(ImageResizer.squareThumbnail(img, variant.size()), 0.85f);
+                stored.add(blobs.store(new ByteArrayInputStream(jpeg), "image/jpeg"));
+            }
+
+            String newKey = AvatarVariant.blobKey(stored.toArray(String[]::new));
+            // Kun avatar-kolonnen oppdateres: vi er utenfor request-transaksjonen, og en samtidig
+            // endring av bio o.l. skal ikke overskrives med en utdatert entitet
+            var previous = tx.execute(t -> {
+                var row = users.lockProfile(userId).orElseThrow();
+                users.updateAvatarKey(userId, newKey);
+                outbox.publish(new DomainEvent.UserUpdated(userId, row.getDisplayName(), newKey));
+                return row;
+            });
+            String oldKey = previous.getAvatarKey();
+            stored.clear();
+            // Denne noden med en gang (svaret kan følges av en ny lesing hit); de andre via outboxen
+            searchIndex.upsert(userId, previous.getDisplayName(), newKey);
+            versions.bumpUser(userId); // før invalideringen, så nye sammendrag får ny versjon
+            summaries.invalidate(userId);
+            versions.bumpFeeds();
+
+            if (oldKey != null) {
+                releaseOld(oldKey);
+            }
+            return newKey;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            // Feilet vi før brukeren ble lagret, frigjøres variantene som allerede er lagret
+            stored.forEach(blobs::release);
+        }
+    }
+
+    /**
+     * Frigjør en tidligere avatar: blob-referanser, eller filene for eldre nøkler.
+     * Samme bilde lastet opp på nytt gir samme blober; referansene ble da økt før de frigjøres her.
+     */
+    private void releaseOld(String avatarKey) {
+        if (avatarKey.startsWith(AvatarVariant.BLOB_PREFIX)) {
+            for (String hash : AvatarVariant.blobHashes(avatarKey)) {
+                blobs.release(hash);
+            }
+            return;
+        }
+        if (!avatarKey.startsWith("/files/")) return;
+        Path base = uploadRoot.resolve(avatarKey.substring("/files/".length())).normalize();
+        if (!base.startsWith(uploadRoot)) return;
+        try {
+            if (AvatarVariant.isLegacy(avatarKey)) {
+                Files.deleteIfExists(base);
+            } else {
+                for (var variant : AvatarVariant.values()) {
+                    Files.deleteIfExists(base.resolveSibling(base.getFileName() + variant.suffix()));
+                }
+            }
+        } catch (IOException ex) {
+            log.warn("Could not delete old avatar files for {}", avatarKey, ex);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.someprojectbackend.service;
+
+import com.example.someprojectbackend.repo.BlobRepository;
+import com.example.someprojectbackend.storage.BlobStore;
+import com.example.someprojectbackend.storage.StagedBlob;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Clock;
+
+/**
+ * Service-klasse for lagring av blober med referansetelling.
+ * <p>
+ * Rekkefølgen ved lagring er viktig for at oppryddingen ({@link com.example.someprojectbackend.storage.BlobCollector})
+ * aldri skal slette en blob som er i ferd med å bli brukt:
+ *  1. innholdet strømmes til en midlertidig fil mens SHA-256 beregnes
+ *  2. referansen registreres i egen transaksjon (venter hvis bloben er låst for sletting)
+ *  3. filen gjøres permanent – hvis den ble slettet i mellomtiden, skrives den på nytt
+ */
+@Service
+public class BlobService {
+
+    private final BlobStore store;
+    private final BlobRepository blobs;
+    private final TransactionTemplate tx;
+    private final Clock clock;
+
+    public BlobService(BlobStore store, BlobRepository blobs, TransactionTemplate tx, Clock clock) {
+        this.store = store;
+        this.blobs = blobs;
+        this.tx = tx;
+        this.clock = clock;
+    }
+
+    /**
+     * Lagrer innhold og legger til én referanse.
+     * Er innholdet lagret fra før, gjenbrukes eksisterende blob.
+     *
+     * @param in          innhold (lukkes ikke)
+     * @param contentType MIME-type
+     * @return SHA-256 (hex) til bloben
+     * @throws IOException ved lagringsfeil
+     */
+    public String store(InputStream in, String contentType) throws IOException {
+        try (var staged = store.stage(in, contentType)) {
+            return store(staged);
+        }
+    }
+
+    /**
+     * Lagrer en blob som allerede ligger i en midlertidig fil (f.eks. en fullført
+     * gjenopptakbar opplasting) og legger til én referanse.
+     * Filen kan ligge hvor som helst (lageret kopierer den ved behov); kaller lukker {@code staged}.
+     *
+     * @param staged fil med ferdig beregnet hash
+     * @return SHA-256 (hex) til bloben
+     * @throws IOException ved lagringsfeil
+     */
+    public String store(StagedBlob staged) throws IOException {
+        tx.executeWithoutResult(s -> blobs.retain(staged.hash(), staged.size(), clock.instant()));
+        try {
+            store.commit(staged);
+        } catch (IOException | RuntimeException ex) {
+            release(staged.hash());
+            throw ex;
+        }
+        return staged.hash();
+    }
+
+    /**
+     * Fjerner én referanse. Bloben slettes av oppryddingsjobben når den har vært
+     * uten referanser lenger enn karenstiden.
+     *
+     * @param hash SHA-256 (hex)
+     */
+    public void release(String hash) {
+        tx.executeWithoutResult(s -> blobs.release(hash, clock.instant()));
+    }
+}
@@ -1,15 +1,24 @@
 package com.example.someprojectbackend.service;
 
+import com.example.someprojectbackend.cache.SingleFlight;
+import com.example.someprojectbackend.cache.VersionCounters;
+import com.example.someprojectbackend.db.AfterCommit;
 import com.example.someprojectbackend.domain.User;
 import com.example.someprojectbackend.domain.UserFollow;
+import com.example.someprojectbackend.media.AvatarVariant;
+import com.example.someprojectbackend.outbox.DomainEvent;
+import com.example.someprojectbackend.outbox.Outbox;
 import com.example.someprojectbackend.repo.UserFollowRepository;
 import com.example.someprojectbackend.repo.UserRepository;
+import com.example.someprojectbackend.search.UserDirectory;
 import com.example.someprojectbackend.web.dto.user.FollowStatsDto;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.UUID;
+
 /**
  * Service-klasse for å håndtere "følg"-relasjoner mellom brukere.
  *
@@ -22,10 +31,25 @@ import org.springframework.web.server.ResponseStatusException;
 public class FollowService {
     private final UserRepository users;
     private final UserFollowRepository follows;
+    private final UserDirectory directory;
+    private final Outbox outbox;
+    private final VersionCounters versions;
 
-    public FollowService(UserRepository users, UserFollowRepository follows) {
+    public FollowService(UserRepository users, UserFollowRepository follows,
+                         UserDirectory directory, Outbox outbox, VersionCounters versions) {
         this.users = users;
         this.follows = follows;
+        this.directory = directory;
+        this.outbox = outbox;
+        this.versions = versions;
+    }
+
+    /**
+     * Slår opp ID-en til brukeren med gitt visningsnavn, eller kaster 404.
+     */
+    private UUID resolve(String displayName) {
+        return directory.resolve(displayName)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
     }
 
     /**
@@ -33,25 +57,27 @@ public class FollowService {
      *
      * - Kaster 404 hvis target-bruker ikke finnes
      * - Kaster 400 hvis man prøver å følge seg selv
-     * - Oppretter kun relasjonen hvis den ikke allerede finnes
+     * - Oppretter kun relasjonen hvis den ikke allerede finnes (og publiserer da {@link DomainEvent.Followed})
      *
      * @param follower brukeren som følger
      * @param targetDisplayName display name til brukeren som skal følges
      */
     @Transactional
     public void follow(User follower, String targetDisplayName) {
-        var target = users.findByDisplayNameCaseInsensitive(targetDisplayName)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        UUID targetId = resolve(targetDisplayName);
 
-        if (follower.getId().equals(target.getId())) {
+        if (follower.getId().equals(targetId)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot follow yourself");
         }
 
-        if (!follows.existsByFollower_IdAndFollowee_Id(follower.getId(), target.getId())) {
+        if (!follows.existsByFollower_IdAndFollowee_Id(follower.getId(), targetId)) {
             var uf = new UserFollow();
             uf.setFollower(follower);
-            uf.setFollowee(target);
+            uf.setFollowee(users.getReferenceById(targetId));
             follows.save(uf);
+            outbox.publish(new DomainEvent.Followed(follower.getId(), targetId));
+            // Denne noden med en gang, så neste revalidering av follow-stats ser endringen; de andre via outboxen
+            AfterCommit.run(() -> bumpBoth(follower.getId(), targetId));
         }
     }
 
@@ -59,28 +85,38 @@ public class FollowService {
      * Sletter en "følge"-relasjon fra {@code follower} til brukeren med {@code targetDisplayName}.
      *
      * - Kaster 404 hvis target-bruker ikke finnes
+     * - Publiserer {@link DomainEvent.Unfollowed} hvis relasjonen fantes
      *
      * @param follower brukeren som slutter å følge
      * @param targetDisplayName display name til brukeren som skal unfølges
      */
     @Transactional
     public void unfollow(User follower, String targetDisplayName) {
-        var target = users.findByDisplayNameCaseInsensitive(targetDisplayName)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        UUID targetId = resolve(targetDisplayName);
+
+        if (follows.deleteByFollower_IdAndFollowee_Id(follower.getId(), targetId) > 0) {
+            outbox.publish(new DomainEvent.Unfollowed(follower.getId(), targetId));
+            AfterCommit.run(() -> bumpBoth(follower.getId(), targetId));
+        }
+    }
 
-        follows.deleteByFollower_IdAndFollowee_Id(follower.getId(), target.getId());
+    private void bumpBoth(UUID followerId, UUID followeeId) {
+        versions.bumpUser(followerId);
+        versions.bumpUser(followeeId);
     }
 
     /**
      * Henter følgestatistikk for en gitt bruker.
+     * Samtidige kall for samme bruker og viewer deler én utførelse.
      *
      * @param viewer brukeren som ser på profilen (kan være null hvis ikke innlogget)
      * @param displayName display name til brukeren vi henter statistikk for
      * @return {@link FollowStatsDto} med displayName, avatar, antall følgere, antall følgede, og flagg for "følger jeg?"
      */
+    @SingleFlight(value = "follow-stats", key = "{#viewer?.id, #displayName}")
     @Transactional(readOnly = true)
     public FollowStatsDto getStats(User viewer, String displayName) {
-        var u = users.findByDisplayNameCaseInsensitive(displayName)
+        var u = users.findById(resolve(displayName))
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
 
         long followers = follows.countByFollowee_Id(u.getId()); // antall følgere
@@ -88,6 +124,7 @@ public class FollowService {
         boolean followingByMe = viewer != null
                 && follows.existsByFollower_IdAndFollowee_Id(viewer.getId(), u.getId());
 
-        return new FollowStatsDto(u.getDisplayName(), u.getAvatarKey(), followers, following, followingByMe);
+        return new FollowStatsDto(u.getDisplayName(), AvatarVariant.LARGE.url(u.getAvatarKey()),
+                followers, following, followingByMe);
     }
 }
@@ -1,12 +1,20 @@
 package com.example.someprojectbackend.service;
 
+import com.example.someprojectbackend.cache.PagePrefetcher;
+import com.example.someprojectbackend.cache.SingleFlight;
+import com.example.someprojectbackend.cache.UserSummary;
+import com.example.someprojectbackend.cache.UserSummaryCache;
+import com.example.someprojectbackend.media.AvatarVariant;
+import com.example.someprojectbackend.media.RenditionCache;
 import com.example.someprojectbackend.repo.PostLikeRepository;
 import com.example.someprojectbackend.repo.PostPopularRepository;
+import com.example.someprojectbackend.views.ViewCounter;
 import com.example.someprojectbackend.web.dto.popular.PopularCursorDto;
 import com.example.someprojectbackend.web.dto.popular.PopularPostsPageDto;
 import com.example.someprojectbackend.web.dto.post.PostDto;
+import com.example.someprojectbackend.web.dto.post.PostFields;
+import com.example.someprojectbackend.web.dto.post.PostFields.Field;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Clock;
 import java.time.Duration;
@@ -25,13 +33,22 @@ import java.util.*;
 public class PopularService {
     private final PostPopularRepository popularRepo;
     private final PostLikeRepository likeRepo;
+    private final UserSummaryCache summaries;
+    private final ViewCounter views;
+    private final PagePrefetcher prefetcher;
     private final Clock clock;
 
     public PopularService(PostPopularRepository popularRepo,
                           PostLikeRepository likeRepo,
+                          UserSummaryCache summaries,
+                          ViewCounter views,
+                          PagePrefetcher prefetcher,
                           Clock clock) {
         this.popularRepo = popularRepo;
         this.likeRepo = likeRepo;
+        this.summaries = summaries;
+        this.views = views;
+        this.prefetcher = prefetcher;
         this.clock = clock;
     }
 
@@ -56,6 +73,10 @@ public class PopularService {
      * - Likes teller dobbelt, kommentarer teller én.
      * - Bruker keyset pagination for effektiv "infinite scroll".
      * - Returnerer {@link PostDto}-objekter med flagg for om viewer har likt innlegget.
+     * - Samtidige kall med like argumenter deler én utførelse ({@link SingleFlight}).
+     * - Neste side forhåndshentes i bakgrunnen ({@link PagePrefetcher}).
+     * - Innholdet kortes ned i SQL, og visninger, forfattere og likt-av-meg slås bare opp
+     *   når de er med i {@code fields}. Tellerne trengs uansett til scoren.
      *
      * @param range tidsvindu (day/24h eller week/7d)
      * @param limit maks antall poster (1–50)
@@ -63,25 +84,43 @@ public class PopularService {
      * @param cursorCreatedAt tidspunkt til siste post i forrige side
      * @param cursorId id til siste post i forrige side
      * @param viewerId id til brukeren som ser feeden (kan være null)
+     * @param fields feltene klienten har bedt om
      * @return {@link PopularPostsPageDto} med innlegg + eventuell neste cursor
      */
-    @Transactional(readOnly = true)
+    @SingleFlight("popular")
     public PopularPostsPageDto listPopular(String range,
                                            int limit,
                                            Long cursorScore,
                                            Instant cursorCreatedAt,
                                            UUID cursorId,
-                                           UUID viewerId) {
+                                           UUID viewerId,
+                                           PostFields fields) {
 
         int safeLimit = Math.max(1, Math.min(limit, 50));
+        String window = (range == null ? "day" : range).toLowerCase(Locale.ROOT);
+        PopularCursorDto cursor = (cursorScore == null || cursorCreatedAt == null || cursorId == null)
+                ? null
+                : new PopularCursorDto(cursorScore, cursorCreatedAt, cursorId);
+        return prefetcher.page("popular", viewerId, cursor, List.of(window, safeLimit, fields),
+                c -> loadPopular(window, safeLimit, c, viewerId, fields), PopularPostsPageDto::nextCursor);
+    }
+
+    /**
+     * Henter én side (kalles i en read-only transaksjon fra {@link PagePrefetcher}).
+     */
+    private PopularPostsPageDto loadPopular(String range,
+                                            int safeLimit,
+                                            PopularCursorDto cursor,
+                                            UUID viewerId,
+                                            PostFields fields) {
         Instant since = sinceForRange(range);
         int fetch = safeLimit + 1; // hent én ekstra for å vite om det finnes neste side
 
         // Første side eller etter en cursor
-        List<PostPopularRepository.PopularRow> rows =
-                (cursorScore == null || cursorCreatedAt == null || cursorId == null)
-                        ? popularRepo.findPopularFirst(since, fetch)
-                        : popularRepo.findPopularAfter(since, cursorScore, cursorCreatedAt, cursorId, fetch);
+        List<PostPopularRepository.PopularRow> rows = (cursor == null)
+                ? popularRepo.findPopularFirst(since, fetch, fields.contentLength())
+                : popularRepo.findPopularAfter(since, cursor.score(), cursor.createdAt(), cursor.id(), fetch,
+                        fields.contentLength());
 
         // Bygg cursor hvis vi fikk mer enn limit
         PopularCursorDto next = null;
@@ -92,27 +131,34 @@ public class PopularService {
 
         // Hent hvilke innlegg viewer har likt
         final List<UUID> ids = rows.stream().map(PostPopularRepository.PopularRow::getId).toList();
-        final Set<UUID> likedIds = (viewerId != null && !ids.isEmpty())
+        final Set<UUID> likedIds = (viewerId != null && !ids.isEmpty() && fields.has(Field.LIKED_BY_ME))
                 ? new HashSet<>(likeRepo.findLikedPostIds(viewerId, ids))
                 : Collections.emptySet();
 
         final boolean hasViewer = (viewerId != null);
+        final Map<UUID, Long> viewCounts = fields.has(Field.VIEW_COUNT) ? views.estimates(ids) : Map.of();
+        final Map<UUID, UserSummary> authors = fields.needsAuthor()
+                ? summaries.getAll(rows.stream().map(PostPopularRepository.PopularRow::getAuthorId).toList())
+                : Map.of();
 
         // Map database-rader til PostDto
-        var posts = rows.stream().map(r ->
-                new PostDto(
-                        r.getId(),
-                        r.getAuthor(),
-                        r.getAuthorAvatarUrl(),
-                        r.getContent(),
-                        r.getImageUrl(),
-                        r.getCreatedAt(),
-                        r.getLikeCount(),
-                        r.getCommentCount(),
-                        hasViewer && likedIds.contains(r.getId())
-                )
-        ).toList();
+        var posts = rows.stream().map(r -> {
+            var author = authors.get(r.getAuthorId());
+            return new PostDto(
+                    r.getId(),
+                    author != null ? author.displayName() : null,
+                    author != null ? AvatarVariant.MEDIUM.url(author.avatarKey()) : null,
+                    r.getContent(),
+                    r.getImageUrl(),
+                    RenditionCache.url(r.getImageUrl(), RenditionCache.FEED_WIDTH),
+                    r.getCreatedAt(),
+                    r.getLikeCount(),
+                    r.getCommentCount(),
+                    viewCounts.getOrDefault(r.getId(), 0L),
+                    hasViewer && likedIds.contains(r.getId())
+            );
+        }).toList();
 
-        return new PopularPostsPageDto(posts, next);
+        return new PopularPostsPageDto(posts, next, fields);
     }
 }
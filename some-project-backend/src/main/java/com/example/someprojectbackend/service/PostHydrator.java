@@ -0,0 +1,94 @@
+package com.example.someprojectbackend.service;
+
+import com.example.someprojectbackend.cache.UserSummary;
+import com.example.someprojectbackend.cache.UserSummaryCache;
+import com.example.someprojectbackend.domain.PostData;
+import com.example.someprojectbackend.repo.CommentRepository;
+import com.example.someprojectbackend.repo.PostCountRow;
+import com.example.someprojectbackend.repo.PostLikeRepository;
+import com.example.someprojectbackend.views.ViewCounter;
+import com.example.someprojectbackend.web.dto.post.PostDto;
+import com.example.someprojectbackend.web.dto.post.PostFields;
+import com.example.someprojectbackend.web.dto.post.PostFields.Field;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Bygger {@link PostDto}-er for en hel side med innlegg i et fast antall spørringer.
+ * <p>
+ * I stedet for tre spørringer per innlegg (likes, kommentarer, likt av meg) hentes
+ * antall likes, antall kommentarer, unike visninger og viewerens likes samlet for alle innleggene,
+ * og forfatterne fra {@link UserSummaryCache}.
+ * <p>
+ * Med {@link PostFields} hoppes oppslagene for felt klienten ikke har bedt om over helt;
+ * tallene i DTO-en er da 0 og forfatteren {@code null}, men de skrives ikke ut.
+ */
+@Component
+public class PostHydrator {
+
+    private final PostLikeRepository likeRepo;
+    private final CommentRepository commentRepo;
+    private final UserSummaryCache summaries;
+    private final ViewCounter views;
+
+    public PostHydrator(PostLikeRepository likeRepo,
+                        CommentRepository commentRepo,
+                        UserSummaryCache summaries,
+                        ViewCounter views) {
+        this.likeRepo = likeRepo;
+        this.commentRepo = commentRepo;
+        this.summaries = summaries;
+        this.views = views;
+    }
+
+    /**
+     * @param posts    innleggene, i ønsket rekkefølge
+     * @param viewerId innlogget bruker (kan være null)
+     * @return DTO-er i samme rekkefølge
+     */
+    public List<PostDto> hydrate(List<? extends PostData> posts, UUID viewerId) {
+        return hydrate(posts, viewerId, PostFields.ALL);
+    }
+
+    /**
+     * @param posts    innleggene, i ønsket rekkefølge
+     * @param viewerId innlogget bruker (kan være null)
+     * @param fields   feltene som skal med; bare disse slås opp
+     * @return DTO-er i samme rekkefølge
+     */
+    public List<PostDto> hydrate(List<? extends PostData> posts, UUID viewerId, PostFields fields) {
+        if (posts.isEmpty()) return List.of();
+
+        List<UUID> ids = posts.stream().map(PostData::getId).toList();
+        Map<UUID, Long> likes = fields.has(Field.LIKE_COUNT) ? toMap(likeRepo.countByPostIds(ids)) : Map.of();
+        Map<UUID, Long> comments = fields.has(Field.COMMENT_COUNT) ? toMap(commentRepo.countByPostIds(ids)) : Map.of();
+        Map<UUID, Long> viewCounts = fields.has(Field.VIEW_COUNT) ? views.estimates(ids) : Map.of();
+        Set<UUID> liked = viewerId != null && fields.has(Field.LIKED_BY_ME)
+                ? new HashSet<>(likeRepo.findLikedPostIds(viewerId, ids))
+                : Set.of();
+        var authors = fields.needsAuthor()
+                ? summaries.getAll(posts.stream().map(PostData::getAuthorId).toList())
+                : Map.<UUID, UserSummary>of();
+
+        return posts.stream().map(p -> PostDto.from(
+                p,
+                authors.get(p.getAuthorId()),
+                likes.getOrDefault(p.getId(), 0L),
+                comments.getOrDefault(p.getId(), 0L),
+                viewCounts.getOrDefault(p.getId(), 0L),
+                liked.contains(p.getId())
+        )).toList();
+    }
+
+    private static Map<UUID, Long> toMap(List<PostCountRow> rows) {
+        Map<UUID, Long> map = new HashMap<>(rows.size() * 2);
+        for (var r : rows) map.put(r.getPostId(), r.getCount());
+        return map;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.someprojectbackend.service;
+
+import com.example.someprojectbackend.domain.Post;
+import com.example.someprojectbackend.repo.PostRepository;
+import com.example.someprojectbackend.repo.PostSearchRepository;
+import com.example.someprojectbackend.web.dto.search.SearchCursorDto;
+import com.example.someprojectbackend.web.dto.search.SearchPostsPageDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service-klasse for fulltekstsøk i innlegg.
+ * <p>
+ * Søket og rangeringen gjøres i Postgres ({@link PostSearchRepository}); her hentes innleggene
+ * for treffene og bygges til DTO-er med {@link PostHydrator}.
+ * Støtter keyset pagination med cursor (rank + createdAt + id).
+ */
+@Service
+public class PostSearchService {
+
+    /** Maks lengde på søkestrengen. */
+    private static final int MAX_QUERY_LENGTH = 200;
+
+    private final PostSearchRepository searchRepo;
+    private final PostRepository postRepo;
+    private final PostHydrator hydrator;
+    private final int candidates;
+
+    public PostSearchService(PostSearchRepository searchRepo,
+                             PostRepository postRepo,
+                             PostHydrator hydrator,
+                             @Value("${app.search.max-candidates:2000}") int candidates) {
+        this.searchRepo = searchRepo;
+        this.postRepo = postRepo;
+        this.hydrator = hydrator;
+        this.candidates = candidates;
+    }
+
+    /**
+     * Søker i innhold og returnerer en side med rangerte treff.
+     *
+     * @param q               søkestreng (min 2 tegn)
+     * @param limit           maks antall treff (1–50)
+     * @param cursorRank      rank til siste treff fra forrige side (null for første side)
+     * @param cursorCreatedAt tidspunkt til siste treff fra forrige side
+     * @param cursorId        id til siste treff fra forrige side
+     * @param viewerId        innlogget bruker (kan være null)
+     * @return en side med treff + eventuell neste cursor
+     */
+    @Transactional(readOnly = true)
+    public SearchPostsPageDto search(String q,
+                                     int limit,
+                                     Double cursorRank,
+                                     Instant cursorCreatedAt,
+                                     UUID cursorId,
+                                     UUID viewerId) {
+        String query = q == null ? "" : q.trim();
+        if (query.length() < 2) return new SearchPostsPageDto(List.of(), null);
+        if (query.length() > MAX_QUERY_LENGTH) query = query.substring(0, MAX_QUERY_LENGTH);
+
+        int safeLimit = Math.max(1, Math.min(limit, 50));
+        int fetch = safeLimit + 1;
+
+        var rows = new ArrayList<>((cursorRank == null || cursorCreatedAt == null || cursorId == null)
+                ? searchRepo.searchFirst(query, candidates, fetch)
+                : searchRepo.searchAfter(query, candidates, cursorRank, cursorCreatedAt, cursorId, fetch));
+
+        SearchCursorDto next = null;
+        if (rows.size() > safeLimit) {
+            rows.remove(rows.size() - 1);
+            var last = rows.get(rows.size() - 1);
+            next = new SearchCursorDto(last.getRank(), last.getCreatedAt(), last.getId());
+        }
+
+        List<UUID> ids = rows.stream().map(PostSearchRepository.SearchRow::getId).toList();
+        Map<UUID, Post> byId = postRepo.findAllById(ids).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        // Behold rekkefølgen fra rangeringen (et innlegg kan være slettet i mellomtiden)
+        List<Post> posts = ids.stream().map(byId::get).filter(p -> p != null).toList();
+
+        return new SearchPostsPageDto(hydrator.hydrate(posts, viewerId), next);
+    }
+}
@@ -1,18 +1,38 @@
 package com.example.someprojectbackend.service;
 
+import com.example.someprojectbackend.cache.FeedHead;
+import com.example.someprojectbackend.cache.PagePrefetcher;
+import com.example.someprojectbackend.cache.SingleFlight;
+import com.example.someprojectbackend.cache.UserSummaryCache;
+import com.example.someprojectbackend.cache.VersionCounters;
+import com.example.someprojectbackend.db.AfterCommit;
 import com.example.someprojectbackend.domain.Comment;
 import com.example.someprojectbackend.domain.Post;
 import com.example.someprojectbackend.domain.PostLike;
+import com.example.someprojectbackend.domain.PostMention;
+import com.example.someprojectbackend.domain.PostTag;
 import com.example.someprojectbackend.domain.User;
+import com.example.someprojectbackend.outbox.DomainEvent;
+import com.example.someprojectbackend.outbox.Outbox;
 import com.example.someprojectbackend.repo.CommentRepository;
 import com.example.someprojectbackend.repo.PostLikeRepository;
+import com.example.someprojectbackend.repo.PostFeedRow;
+import com.example.someprojectbackend.repo.PostMentionRepository;
 import com.example.someprojectbackend.repo.PostRepository;
+import com.example.someprojectbackend.repo.PostTagRepository;
+import com.example.someprojectbackend.repo.PostViewRepository;
 import com.example.someprojectbackend.repo.UserFollowRepository;
+import com.example.someprojectbackend.repo.UserRepository;
+import com.example.someprojectbackend.search.TagScanner;
+import com.example.someprojectbackend.search.UserDirectory;
+import com.example.someprojectbackend.views.ViewCounter;
 import com.example.someprojectbackend.web.dto.comment.CommentDto;
 import com.example.someprojectbackend.web.dto.comment.CommentsPageDto;
 import com.example.someprojectbackend.web.dto.common.CursorDto;
 import com.example.someprojectbackend.web.dto.post.CreatePostRequest;
+import com.example.someprojectbackend.web.dto.post.NewPostsDto;
 import com.example.someprojectbackend.web.dto.post.PostDto;
+import com.example.someprojectbackend.web.dto.post.PostFields;
 import com.example.someprojectbackend.web.dto.post.PostsPageDto;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
@@ -20,7 +40,12 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -39,83 +64,261 @@ public class PostService {
     private final PostLikeRepository likeRepo;
     private final CommentRepository commentRepo;
     private final UserFollowRepository followRepo;
+    private final PostTagRepository tagRepo;
+    private final PostMentionRepository mentionRepo;
+    private final UserRepository userRepo;
+    private final UploadService uploads;
+    private final BlobService blobs;
+    private final UserDirectory directory;
+    private final UserSummaryCache summaries;
+    private final PostHydrator hydrator;
+    private final PostViewRepository viewRepo;
+    private final ViewCounter views;
+    private final Outbox outbox;
+    private final PagePrefetcher prefetcher;
+    private final FeedHead head;
+    private final VersionCounters versions;
 
     public PostService(PostRepository postRepo,
                        PostLikeRepository likeRepo,
                        CommentRepository commentRepo,
-                       UserFollowRepository followRepo) {
+                       UserFollowRepository followRepo,
+                       PostTagRepository tagRepo,
+                       PostMentionRepository mentionRepo,
+                       UserRepository userRepo,
+                       UploadService uploads,
+                       BlobService blobs,
+                       UserDirectory directory,
+                       UserSummaryCache summaries,
+                       PostHydrator hydrator,
+                       PostViewRepository viewRepo,
+                       ViewCounter views,
+                       Outbox outbox,
+                       PagePrefetcher prefetcher,
+                       FeedHead head,
+                       VersionCounters versions) {
         this.postRepo = postRepo;
         this.likeRepo = likeRepo;
         this.commentRepo = commentRepo;
         this.followRepo = followRepo;
+        this.tagRepo = tagRepo;
+        this.mentionRepo = mentionRepo;
+        this.userRepo = userRepo;
+        this.uploads = uploads;
+        this.blobs = blobs;
+        this.directory = directory;
+        this.summaries = summaries;
+        this.hydrator = hydrator;
+        this.viewRepo = viewRepo;
+        this.views = views;
+        this.outbox = outbox;
+        this.prefetcher = prefetcher;
+        this.head = head;
+        this.versions = versions;
     }
 
     /**
-     * Mapper et {@link Post} til et {@link PostDto} med antall likes, kommentarer
+     * Mapper et {@link Post} til et {@link PostDto} med antall likes, kommentarer, visninger
      * og flagg for om viewer har likt det.
      */
     private PostDto toDtoWithCounts(Post p, User viewer) {
         long likes = likeRepo.countByPost_Id(p.getId());
         long comments = commentRepo.countByPost_Id(p.getId());
         boolean likedByMe = (viewer != null) && likeRepo.existsByPost_IdAndUser_Id(p.getId(), viewer.getId());
-        return PostDto.from(p, likes, comments, likedByMe);
+        return PostDto.from(p, summaries.get(p.getAuthorId()), likes, comments, views.estimate(p.getId()), likedByMe);
+    }
+
+    /**
+     * Mapper en side med innlegg med samlede spørringer (se {@link PostHydrator}).
+     */
+    private List<PostDto> toDtos(List<Post> posts, User viewer) {
+        return hydrator.hydrate(posts, viewer != null ? viewer.getId() : null);
+    }
+
+    /**
+     * Som {@link #toDtos(List, User)}, men henter bare det {@code fields} trenger.
+     */
+    private List<PostDto> toDtos(List<PostFeedRow> rows, User viewer, PostFields fields) {
+        return hydrator.hydrate(rows, viewer != null ? viewer.getId() : null, fields);
     }
 
     /**
      * Henter global feed (alle innlegg), med keyset pagination.
+     * Neste side forhåndshentes i bakgrunnen (se {@link PagePrefetcher}).
      *
      * @param limit maks antall innlegg
      * @param cursor startpunkt (createdAt + id) eller null for første side
      * @param viewer innlogget bruker (kan være null)
+     * @param fields feltene klienten har bedt om; styrer både spørringen og oppslagene
      */
-    @Transactional(readOnly = true)
-    public PostsPageDto list(int limit, CursorDto cursor, User viewer) {
+    public PostsPageDto list(int limit, CursorDto cursor, User viewer, PostFields fields) {
+        return prefetcher.page("posts", viewer != null ? viewer.getId() : null, cursor, List.of(limit, fields),
+                c -> loadList(limit, c, viewer, fields), PostsPageDto::nextCursor);
+    }
+
+    /**
+     * Henter én side av den globale feeden (kalles i en read-only transaksjon fra {@link PagePrefetcher}).
+     */
+    private PostsPageDto loadList(int limit, CursorDto cursor, User viewer, PostFields fields) {
         var pageReq = PageRequest.of(0, limit + 1);
-        List<Post> rows = (cursor == null)
-                ? postRepo.findFirstPage(pageReq)
-                : postRepo.findPageAfter(cursor.createdAt(), cursor.id(), pageReq);
+        List<PostFeedRow> rows = new ArrayList<>((cursor == null)
+                ? postRepo.findFirstPage(fields.contentLength(), pageReq)
+                : postRepo.findPageAfter(cursor.createdAt(), cursor.id(), fields.contentLength(), pageReq));
 
         CursorDto next = null;
         if (rows.size() > limit) {
             var nextPost = rows.remove(rows.size() - 1);
             next = new CursorDto(nextPost.getCreatedAt(), nextPost.getId());
         }
-        return new PostsPageDto(rows.stream().map(p -> toDtoWithCounts(p, viewer)).toList(), next);
+        return new PostsPageDto(toDtos(rows, viewer, fields), next, fields);
+    }
+
+    /**
+     * Teller innlegg som er nyere enn en cursor (for "nye innlegg"-merket), høyst {@link NewPostsDto#CAP}.
+     * Besvares fra {@link FeedHead} når cursoren er innenfor hodet av feeden, ellers med en
+     * index-only spørring som stopper etter {@code CAP + 1} rader.
+     *
+     * @param cursor  toppen av klientens feed (createdAt + id)
+     * @param withIds om ID-ene skal med i svaret
+     */
+    public NewPostsDto countSince(CursorDto cursor, boolean withIds) {
+        var ids = head.newerThan(cursor.createdAt(), cursor.id(), null, NewPostsDto.CAP + 1);
+        if (ids == null) {
+            ids = postRepo.findIdsNewerThan(cursor.createdAt(), cursor.id(), NewPostsDto.CAP + 1);
+        }
+        return NewPostsDto.of(ids, withIds);
     }
 
     /**
      * Oppretter et nytt innlegg.
+     * Er {@code uploadId} satt, knyttes den fullførte opplastingen til innlegget som bilde.
+     * {@code #tagger} og {@code @omtaler} i innholdet lagres i {@code post_tags}/{@code post_mentions}.
+     * Publiserer {@link DomainEvent.PostCreated}.
      */
     @Transactional
     public PostDto create(CreatePostRequest req, User author) {
         var p = new Post();
         p.setAuthor(author);
         p.setContent(req.content());
-        p.setImageUrl(req.imageUrl());
-        p = postRepo.save(p);
+        if (req.uploadId() != null) {
+            var image = uploads.attach(req.uploadId(), author);
+            p.setImageUrl(image.url());
+            p.setImageBlobHash(image.blobHash());
+        } else {
+            p.setImageUrl(req.imageUrl());
+        }
+        p = postRepo.saveAndFlush(p); // createdAt trengs for taggene
+        var tags = saveTagsAndMentions(p);
+        outbox.publish(new DomainEvent.PostCreated(p.getId(), author.getId(), tags, p.getCreatedAt()));
+        // Denne noden med en gang, så forfatterens neste revalidering ser innlegget; de andre via outboxen
+        AfterCommit.run(versions::bumpFeeds);
         return toDtoWithCounts(p, author);
     }
 
+    /**
+     * Trekker ut tagger og omtaler fra innholdet og lagrer dem.
+     * Omtaler av navn som ikke finnes ignoreres.
+     *
+     * @return de normaliserte taggene
+     */
+    private List<String> saveTagsAndMentions(Post p) {
+        var scanned = TagScanner.scan(p.getContent());
+
+        var tags = new ArrayList<PostTag>(scanned.tags().size());
+        for (String tag : scanned.tags()) {
+            var t = new PostTag();
+            t.setPost(p);
+            t.setTag(tag);
+            t.setCreatedAt(p.getCreatedAt());
+            tags.add(t);
+        }
+        tagRepo.saveAll(tags);
+
+        var mentioned = new LinkedHashSet<UUID>();
+        for (String name : scanned.mentions()) {
+            directory.resolve(name).ifPresent(mentioned::add);
+        }
+        var mentions = new ArrayList<PostMention>(mentioned.size());
+        for (UUID userId : mentioned) {
+            var m = new PostMention();
+            m.setPost(p);
+            m.setUser(userRepo.getReferenceById(userId));
+            m.setCreatedAt(p.getCreatedAt());
+            mentions.add(m);
+        }
+        mentionRepo.saveAll(mentions);
+        return List.copyOf(scanned.tags());
+    }
+
     /**
      * Henter innlegg skrevet av en bestemt forfatter.
+     * Navnet slås opp i {@link UserDirectory}; spørringen søker deretter på forfatter-ID.
+     */
+    @Transactional(readOnly = true)
+    public PostsPageDto listByAuthor(String displayName, int limit, CursorDto cursor, User viewer, PostFields fields) {
+        var authorId = directory.resolve(displayName).orElse(null);
+        if (authorId == null) return new PostsPageDto(List.of(), null, fields);
+
+        var pageReq = PageRequest.of(0, limit + 1);
+        List<PostFeedRow> rows = new ArrayList<>((cursor == null)
+                ? postRepo.findFirstPageByAuthor(authorId, fields.contentLength(), pageReq)
+                : postRepo.findPageAfterByAuthor(authorId, cursor.createdAt(), cursor.id(), fields.contentLength(), pageReq));
+
+        CursorDto next = null;
+        if (rows.size() > limit) {
+            var nextPost = rows.remove(rows.size() - 1);
+            next = new CursorDto(nextPost.getCreatedAt(), nextPost.getId());
+        }
+        return new PostsPageDto(toDtos(rows, viewer, fields), next, fields);
+    }
+
+    /**
+     * Henter innlegg med en gitt {@code #tagg}, nyeste først.
      */
     @Transactional(readOnly = true)
-    public PostsPageDto listByAuthor(String displayName, int limit, CursorDto cursor, User viewer) {
+    public PostsPageDto listByTag(String tag, int limit, CursorDto cursor, User viewer) {
+        String normalized = TagScanner.normalizeTag(tag);
+        if (normalized.isEmpty() || normalized.length() > TagScanner.MAX_LENGTH) {
+            return new PostsPageDto(List.of(), null);
+        }
+
+        var pageReq = PageRequest.of(0, limit + 1);
+        List<Post> rows = new ArrayList<>((cursor == null)
+                ? tagRepo.findFirstPageByTag(normalized, pageReq)
+                : tagRepo.findPageAfterByTag(normalized, cursor.createdAt(), cursor.id(), pageReq));
+
+        CursorDto next = null;
+        if (rows.size() > limit) {
+            var nextPost = rows.remove(rows.size() - 1);
+            next = new CursorDto(nextPost.getCreatedAt(), nextPost.getId());
+        }
+        return new PostsPageDto(toDtos(rows, viewer), next);
+    }
+
+    /**
+     * Henter innlegg der en bruker er omtalt ({@code @navn}), nyeste først.
+     */
+    @Transactional(readOnly = true)
+    public PostsPageDto listMentions(String displayName, int limit, CursorDto cursor, User viewer) {
+        var userId = directory.resolve(displayName).orElse(null);
+        if (userId == null) return new PostsPageDto(List.of(), null);
+
         var pageReq = PageRequest.of(0, limit + 1);
-        List<Post> rows = (cursor == null)
-                ? postRepo.findFirstPageByAuthor(displayName, pageReq)
-                : postRepo.findPageAfterByAuthor(displayName, cursor.createdAt(), cursor.id(), pageReq);
+        List<Post> rows = new ArrayList<>((cursor == null)
+                ? mentionRepo.findFirstPageByUser(userId, pageReq)
+                : mentionRepo.findPageAfterByUser(userId, cursor.createdAt(), cursor.id(), pageReq));
 
         CursorDto next = null;
         if (rows.size() > limit) {
             var nextPost = rows.remove(rows.size() - 1);
             next = new CursorDto(nextPost.getCreatedAt(), nextPost.getId());
         }
-        return new PostsPageDto(rows.stream().map(p -> toDtoWithCounts(p, viewer)).toList(), next);
+        return new PostsPageDto(toDtos(rows, viewer), next);
     }
 
     /**
      * Liker et innlegg (oppretter {@link PostLike} hvis det ikke allerede finnes).
+     * Publiserer {@link DomainEvent.PostLiked} når liken er ny.
      */
     @Transactional
     public PostDto like(UUID postId, User user) {
@@ -125,22 +328,29 @@ public class PostService {
             like.setPost(post);
             like.setUser(user);
             likeRepo.save(like);
+            outbox.publish(new DomainEvent.PostLiked(postId, user.getId()));
+            AfterCommit.run(versions::bumpFeeds);
         }
         return toDtoWithCounts(post, user);
     }
 
     /**
      * Unliker et innlegg (sletter {@link PostLike}).
+     * Publiserer {@link DomainEvent.PostUnliked} når en like faktisk ble fjernet.
      */
     @Transactional
     public PostDto unlike(UUID postId, User user) {
         var post = postRepo.findById(postId).orElseThrow();
-        likeRepo.deleteByPost_IdAndUser_Id(postId, user.getId());
+        if (likeRepo.deleteByPost_IdAndUser_Id(postId, user.getId()) > 0) {
+            outbox.publish(new DomainEvent.PostUnliked(postId, user.getId()));
+            AfterCommit.run(versions::bumpFeeds);
+        }
         return toDtoWithCounts(post, user);
     }
 
     /**
      * Legger til en kommentar på et innlegg.
+     * Publiserer {@link DomainEvent.CommentAdded}.
      */
     @Transactional
     public CommentDto addComment(UUID postId, String content, User author) {
@@ -152,7 +362,9 @@ public class PostService {
         c.setContent(content);
 
         c = commentRepo.saveAndFlush(c);
-        return CommentDto.from(c);
+        outbox.publish(new DomainEvent.CommentAdded(postId, c.getId(), author.getId()));
+        AfterCommit.run(versions::bumpFeeds);
+        return CommentDto.from(c, summaries.get(author.getId()));
     }
 
     /**
@@ -171,28 +383,54 @@ public class PostService {
             var nextC = rows.remove(rows.size() - 1);
             next = new CursorDto(nextC.getCreatedAt(), nextC.getId());
         }
-        return new CommentsPageDto(rows.stream().map(CommentDto::from).toList(), next);
+        var authors = summaries.getAll(rows.stream().map(Comment::getAuthorId).toList());
+        return new CommentsPageDto(rows.stream().map(c -> CommentDto.from(c, authors.get(c.getAuthorId()))).toList(), next);
     }
 
     /**
      * Henter snapshot av et enkelt innlegg (inkl. counts og viewer-info).
+     * Samtidige kall for samme innlegg og viewer deler én utførelse.
      */
+    @SingleFlight(value = "post-snapshot", key = "{#postId, #viewer?.id}")
     @Transactional(readOnly = true)
     public PostDto snapshot(UUID postId, User viewer) {
-        var post = postRepo.findById(postId).orElseThrow();
+        var post = postRepo.findById(postId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
         return toDtoWithCounts(post, viewer);
     }
 
+    /**
+     * Henter flere innlegg på ID med tellere og viewer-info i et fast antall spørringer
+     * (innleggene, deretter likes, kommentarer og likt av meg samlet i {@link PostHydrator}).
+     *
+     * @param ids    ID-er i ønsket rekkefølge (duplikater tillatt)
+     * @param viewer innlogget bruker (kan være null)
+     * @return ett element per ID; {@code null} der innlegget ikke finnes
+     */
+    @Transactional(readOnly = true)
+    public List<PostDto> batchGet(List<UUID> ids, User viewer) {
+        var unique = new LinkedHashSet<>(ids);
+        unique.remove(null);
+        var found = postRepo.findAllById(unique);
+        var dtos = hydrator.hydrate(found, viewer != null ? viewer.getId() : null);
+        Map<UUID, PostDto> byId = new HashMap<>(dtos.size() * 2);
+        for (var dto : dtos) byId.put(dto.id(), dto);
+
+        List<PostDto> out = new ArrayList<>(ids.size());
+        for (UUID id : ids) out.add(byId.get(id));
+        return out;
+    }
+
     /**
      * Sletter et innlegg dersom requester er eier (eller admin).
-     * Sletter også likes og kommentarer knyttet til innlegget.
+     * Sletter også likes og kommentarer knyttet til innlegget, og publiserer {@link DomainEvent.PostDeleted}.
      */
     @Transactional
     public void deletePost(UUID postId, User requester) {
         var post = postRepo.findById(postId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
 
-        boolean isOwner = requester != null && post.getAuthor().getId().equals(requester.getId());
+        boolean isOwner = requester != null && post.getAuthorId().equals(requester.getId());
         boolean isAdmin = false;
         if (!isOwner && !isAdmin) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not allowed to delete this post");
@@ -200,34 +438,65 @@ public class PostService {
 
         likeRepo.bulkDeleteByPostId(postId);
         commentRepo.bulkDeleteByPostId(postId);
+        tagRepo.bulkDeleteByPostId(postId);
+        mentionRepo.bulkDeleteByPostId(postId);
+        viewRepo.bulkDeleteByPostId(postId);
 
+        if (post.getImageBlobHash() != null) {
+            blobs.release(post.getImageBlobHash());
+        }
         postRepo.delete(post);
+        outbox.publish(new DomainEvent.PostDeleted(postId, post.getAuthorId()));
+        AfterCommit.run(versions::bumpFeeds);
     }
 
     /**
      * Henter feed for innlogget bruker (basert på følger-relasjoner).
+     * Neste side forhåndshentes i bakgrunnen (se {@link PagePrefetcher}).
      */
-    @Transactional(readOnly = true)
-    public PostsPageDto listHome(User viewer, int limit, CursorDto cursor) {
+    public PostsPageDto listHome(User viewer, int limit, CursorDto cursor, PostFields fields) {
         if (viewer == null) {
-            return new PostsPageDto(List.of(), null);
+            return new PostsPageDto(List.of(), null, fields);
         }
+        return prefetcher.page("home", viewer.getId(), cursor, List.of(limit, fields),
+                c -> loadHome(viewer, limit, c, fields), PostsPageDto::nextCursor);
+    }
 
+    /**
+     * Som {@link #countSince(CursorDto, boolean)}, men for home-feeden (innlegg fra følgede brukere).
+     */
+    @Transactional(readOnly = true)
+    public NewPostsDto countSinceHome(User viewer, CursorDto cursor, boolean withIds) {
+        if (viewer == null) return NewPostsDto.of(List.of(), withIds);
+        var followeeIds = followRepo.findFolloweeIdsByFollowerId(viewer.getId());
+        if (followeeIds.isEmpty()) return NewPostsDto.of(List.of(), withIds);
+
+        var ids = head.newerThan(cursor.createdAt(), cursor.id(), new HashSet<>(followeeIds), NewPostsDto.CAP + 1);
+        if (ids == null) {
+            ids = postRepo.findIdsNewerThanByAuthorIds(followeeIds, cursor.createdAt(), cursor.id(), NewPostsDto.CAP + 1);
+        }
+        return NewPostsDto.of(ids, withIds);
+    }
+
+    /**
+     * Henter én side av home-feeden (kalles i en read-only transaksjon fra {@link PagePrefetcher}).
+     */
+    private PostsPageDto loadHome(User viewer, int limit, CursorDto cursor, PostFields fields) {
         var followeeIds = followRepo.findFolloweeIdsByFollowerId(viewer.getId());
         if (followeeIds.isEmpty()) {
-            return new PostsPageDto(List.of(), null);
+            return new PostsPageDto(List.of(), null, fields);
         }
 
         var pageReq = PageRequest.of(0, Math.min(Math.max(limit, 1), 50) + 1);
-        List<Post> rows = (cursor == null)
-                ? postRepo.findFirstPageByAuthorIds(followeeIds, pageReq)
-                : postRepo.findPageAfterByAuthorIds(followeeIds, cursor.createdAt(), cursor.id(), pageReq);
+        List<PostFeedRow> rows = (cursor == null)
+                ? postRepo.findFirstPageByAuthorIds(followeeIds, fields.contentLength(), pageReq)
+                : postRepo.findPageAfterByAuthorIds(followeeIds, cursor.createdAt(), cursor.id(), fields.contentLength(), pageReq);
 
         var next = (rows.size() > limit)
                 ? new CursorDto(rows.get(limit).getCreatedAt(), rows.get(limit).getId())
                 : null;
 
         if (next != null) rows = rows.subList(0, limit);
-        return new PostsPageDto(rows.stream().map(p -> toDtoWithCounts(p, viewer)).toList(), next);
+        return new PostsPageDto(toDtos(rows, viewer, fields), next, fields);
     }
 }
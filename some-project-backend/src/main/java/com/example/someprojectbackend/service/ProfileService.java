@@ -0,0 +1,55 @@
+package com.example.someprojectbackend.service;
+
+import com.example.someprojectbackend.cache.UserSummaryCache;
+import com.example.someprojectbackend.cache.VersionCounters;
+import com.example.someprojectbackend.db.AfterCommit;
+import com.example.someprojectbackend.outbox.DomainEvent;
+import com.example.someprojectbackend.outbox.Outbox;
+import com.example.someprojectbackend.repo.UserRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+/**
+ * Service-klasse for endringer i brukerprofilen (bio). Avatarer håndteres av {@link AvatarService}.
+ * <p>
+ * Endringer publiserer {@link DomainEvent.UserUpdated}, så sammendrag og ETag-tellere
+ * oppdateres på alle noder.
+ */
+@Service
+public class ProfileService {
+
+    private final UserRepository users;
+    private final Outbox outbox;
+    private final UserSummaryCache summaries;
+    private final VersionCounters versions;
+
+    public ProfileService(UserRepository users, Outbox outbox,
+                          UserSummaryCache summaries, VersionCounters versions) {
+        this.users = users;
+        this.outbox = outbox;
+        this.summaries = summaries;
+        this.versions = versions;
+    }
+
+    /**
+     * Setter brukerens bio. Kun bio-kolonnen skrives, så en avatar som byttes samtidig
+     * (på {@code avatarExecutor}) ikke overskrives; raden låses så hendelsen får gjeldende avatar.
+     *
+     * @param userId bruker-ID
+     * @param bio    ny bio (allerede trimmet og avkortet)
+     * @throws java.util.NoSuchElementException hvis brukeren ikke finnes
+     */
+    @Transactional
+    public void updateBio(UUID userId, String bio) {
+        var row = users.lockProfile(userId).orElseThrow();
+        users.updateBio(userId, bio);
+        outbox.publish(new DomainEvent.UserUpdated(userId, row.getDisplayName(), row.getAvatarKey()));
+        // Denne noden med en gang (svaret kan følges av en ny lesing hit); de andre via outboxen
+        AfterCommit.run(() -> {
+            versions.bumpUser(userId); // før invalideringen, så nye sammendrag får ny versjon
+            summaries.invalidate(userId);
+        });
+    }
+}
@@ -0,0 +1,425 @@
+package com.example.someprojectbackend.service;
+
+import com.example.someprojectbackend.db.BackgroundJob;
+import com.example.someprojectbackend.db.DbPartition;
+import com.example.someprojectbackend.domain.UploadSession;
+import com.example.someprojectbackend.domain.User;
+import com.example.someprojectbackend.media.ImageResizer;
+import com.example.someprojectbackend.repo.UploadSessionRepository;
+import com.example.someprojectbackend.storage.StagedBlob;
+import com.example.someprojectbackend.web.dto.upload.UploadSessionDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service-klasse for gjenopptakbare opplastinger av bilder til innlegg.
+ * <p>
+ * Flyt:
+ *  1. {@link #create} oppretter en sesjon og en tom delfil
+ *  2. {@link #append} skriver en bit på oppgitt offset; offset må være lik antall mottatte bytes,
+ *     så en klient som mister forbindelsen spør om status og fortsetter der den slapp
+ *  3. {@link #complete} validerer bildet og lagrer det som blob via {@link BlobService}
+ *  4. {@link #attach} (kalt fra {@link PostService}) overfører blob-referansen til innlegget
+ * <p>
+ * Bitene skrives med {@link FileChannel} og SHA-256 oppdateres fortløpende i minnet,
+ * så fullføringen trenger ikke lese filen på nytt. Etter omstart (eller hvis tilstanden
+ * er ute av synk) beregnes hashen fra filen i stedet.
+ * <p>
+ * Sesjoner som ikke er fullført og brukt innen {@code app.uploads.ttl-ms} slettes av
+ * {@link #collectExpired()}.
+ * <p>
+ * Delfilene ligger i {@code app.uploads.partial-dir}, utenfor opplastingsroten som serveres
+ * på {@code /files/**}, så uferdige opplastinger aldri kan hentes av andre.
+ */
+@Service
+public class UploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadService.class);
+
+    /** Støttede bildetyper og filendelsen de serveres med. */
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/jpeg", "jpg",
+            "image/png", "png",
+            "image/gif", "gif");
+
+    private final UploadSessionRepository sessions;
+    private final BlobService blobs;
+    private final TransactionTemplate tx;
+    private final Clock clock;
+    private final Path partialDir;
+    private final long maxBytes;
+    private final long chunkSize;
+    private final long maxPixels;
+    private final Duration ttl;
+
+    /** Løpende hash per aktiv sesjon. Låses per sesjon, så biter til samme sesjon skrives i rekkefølge. */
+    private final ConcurrentHashMap<UUID, ChunkState> states = new ConcurrentHashMap<>();
+
+    public UploadService(UploadSessionRepository sessions,
+                         BlobService blobs,
+                         TransactionTemplate tx,
+                         Clock clock,
+                         @Value("${app.uploads.partial-dir:./partial}") String partialDir,
+                         @Value("${app.uploads.max-bytes:20971520}") long maxBytes,
+                         @Value("${app.uploads.chunk-bytes:4194304}") long chunkSize,
+                         @Value("${app.uploads.max-pixels:40000000}") long maxPixels,
+                         @Value("${app.uploads.ttl-ms:86400000}") long ttlMs) {
+        this.sessions = sessions;
+        this.blobs = blobs;
+        this.tx = tx;
+        this.clock = clock;
+        this.partialDir = Path.of(partialDir).toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+        this.chunkSize = chunkSize;
+        this.maxPixels = maxPixels;
+        this.ttl = Duration.ofMillis(ttlMs);
+    }
+
+    /**
+     * Oppretter en ny opplastingssesjon.
+     *
+     * @param owner       innlogget bruker
+     * @param size        total størrelse i bytes
+     * @param contentType MIME-type
+     * @return sesjonen
+     * @throws ResponseStatusException 413 hvis filen er for stor, 415 hvis typen ikke støttes
+     */
+    public UploadSessionDto create(User owner, long size, String contentType) {
+        if (size <= 0 || size > maxBytes) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "Upload size must be 1.." + maxBytes);
+        }
+        if (contentType == null || !EXTENSIONS.containsKey(contentType)) {
+            throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Unsupported content type");
+        }
+
+        var s = new UploadSession();
+        s.setOwnerId(owner.getId());
+        s.setSize(size);
+        s.setContentType(contentType);
+        s.setExpiresAt(clock.instant().plus(ttl));
+        s = sessions.save(s);
+
+        try {
+            Files.createDirectories(partialDir);
+            Files.createFile(partFile(s.getId()));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return toDto(s, 0);
+    }
+
+    /**
+     * Henter status for en sesjon (brukes for å finne riktig offset etter et brudd).
+     *
+     * @param id   sesjons-ID
+     * @param user innlogget bruker
+     * @return status
+     */
+    public UploadSessionDto status(UUID id, User user) {
+        var s = load(id, user);
+        return toDto(s, received(s));
+    }
+
+    /**
+     * Skriver en bit til sesjonen.
+     *
+     * @param id     sesjons-ID
+     * @param user   innlogget bruker
+     * @param offset posisjonen biten starter på (må være lik antall mottatte bytes)
+     * @param body   innholdet i biten (maks {@code app.uploads.chunk-bytes})
+     * @return status etter skrivingen
+     * @throws ResponseStatusException 409 ved feil offset eller fullført sesjon,
+     *                                 413 hvis biten er for stor eller går forbi oppgitt størrelse
+     * @throws IOException             ved lese-/skrivefeil
+     */
+    public UploadSessionDto append(UUID id, User user, long offset, InputStream body) throws IOException {
+        var state = stateFor(id, user);
+        synchronized (state) {
+            // Sesjonen leses på nytt under låsen: en bit som kommer etter (eller samtidig med)
+            // complete() skal få 409, ikke finne delfilen borte
+            var s = loadLocked(id, user, state);
+            if (s.getBlobHash() != null) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload already completed");
+            }
+            FileChannel opened;
+            try {
+                opened = FileChannel.open(partFile(id), StandardOpenOption.WRITE);
+            } catch (NoSuchFileException ex) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload is no longer open");
+            }
+            try (FileChannel ch = opened) {
+                long start = ch.size();
+                if (offset != start) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT, "Offset mismatch, expected " + start);
+                }
+                if (state.hashedUpTo != start) {
+                    // Tilstanden hører ikke til denne filen (omstart e.l.) – hash beregnes ved fullføring
+                    state.digest = null;
+                }
+
+                long limit = Math.min(chunkSize, s.getSize() - start);
+                long pos = start;
+                ReadableByteChannel src = Channels.newChannel(body);
+                ByteBuffer buf = ByteBuffer.allocate(64 * 1024);
+                try {
+                    while (src.read(buf) >= 0) {
+                        if (pos + buf.position() - start > limit) {
+                            ch.truncate(start);
+                            state.digest = null;
+                            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "Chunk too large");
+                        }
+                        buf.flip();
+                        var written = buf.duplicate();
+                        while (buf.hasRemaining()) {
+                            pos += ch.write(buf, pos);
+                        }
+                        if (state.digest != null) state.digest.update(written);
+                        buf.clear();
+                    }
+                } finally {
+                    // Det som er skrevet (også ved brudd midt i biten) er gyldig og kan fortsettes fra
+                    ch.force(false);
+                    state.hashedUpTo = state.digest != null ? pos : -1;
+                }
+                return toDto(s, pos);
+            }
+        }
+    }
+
+    /**
+     * Fullfører en sesjon: sjekker at hele filen er mottatt og er et gyldig bilde,
+     * og lagrer den som blob. Idempotent – et nytt kall returnerer samme resultat.
+     *
+     * @param id   sesjons-ID
+     * @param user innlogget bruker
+     * @return status med URL til bildet
+     * @throws ResponseStatusException 409 hvis filen ikke er komplett,
+     *                                 400 hvis den ikke er et gyldig bilde,
+     *                                 415 hvis innholdet ikke er av oppgitt type
+     * @throws IOException             ved lese-/skrivefeil
+     */
+    public UploadSessionDto complete(UUID id, User user) throws IOException {
+        var state = stateFor(id, user);
+        synchronized (state) {
+            var s = loadLocked(id, user, state);
+            if (s.getBlobHash() != null) {
+                return toDto(s, s.getSize());
+            }
+
+            Path part = partFile(id);
+            long received = Files.size(part);
+            if (received != s.getSize()) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Upload incomplete: " + received + " of " + s.getSize() + " bytes");
+            }
+            try {
+                // Oppgitt type bestemmer filendelsen bildet serveres med, så innholdet må stemme
+                if (!ImageResizer.mimeType(part).equals(s.getContentType())) {
+                    throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                            "Content is not " + s.getContentType());
+                }
+                int[] wh = ImageResizer.dimensions(part);
+                if ((long) wh[0] * wh[1] > maxPixels) {
+                    throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "Image dimensions too large");
+                }
+            } catch (IllegalArgumentException ex) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported image");
+            }
+
+            String hash = (state.digest != null && state.hashedUpTo == received)
+                    ? HexFormat.of().formatHex(state.digest.digest())
+                    : sha256(part);
+            state.digest = null; // digest() nullstiller tilstanden
+
+            // Delfilen beholdes hvis lagringen feiler, så klienten kan prøve å fullføre på nytt
+            blobs.store(new StagedBlob(hash, received, s.getContentType(), part));
+            Files.deleteIfExists(part);
+
+            s.setBlobHash(hash);
+            s.setExpiresAt(clock.instant().plus(ttl));
+            s = sessions.save(s);
+            states.remove(id);
+            return toDto(s, s.getSize());
+        }
+    }
+
+    /**
+     * Knytter en fullført opplasting til et innlegg. Sesjonen slettes, og
+     * blob-referansen den eide tilhører nå innlegget.
+     * Må kalles i transaksjonen som lagrer innlegget.
+     * <p>
+     * Slettingen krever at sesjonen ikke er utløpt, så enten vinner innlegget eller
+     * {@link #collectExpired()} – aldri begge (da ville referansen blitt frigjort to ganger).
+     *
+     * @param id   sesjons-ID
+     * @param user innlogget bruker
+     * @return blob-hash og URL for bildet
+     * @throws ResponseStatusException 404 hvis sesjonen ikke finnes, 409 hvis den ikke er fullført,
+     *                                 410 hvis den er utløpt
+     */
+    public AttachedUpload attach(UUID id, User user) {
+        var s = sessions.findById(id)
+                .filter(x -> x.getOwnerId().equals(user.getId()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload not found"));
+        if (s.getBlobHash() == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload not completed");
+        }
+        if (sessions.deleteUnexpired(id, clock.instant()) == 0) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Upload expired");
+        }
+        return new AttachedUpload(s.getBlobHash(), url(s));
+    }
+
+    /**
+     * Sletter utløpte sesjoner: delfiler for ufullstendige opplastinger,
+     * og blob-referansen for fullførte opplastinger som aldri ble brukt.
+     * Referansen frigjøres bare når raden faktisk ble slettet her; er sesjonen
+     * knyttet til et innlegg i mellomtiden, eier innlegget referansen.
+     */
+    @Scheduled(fixedDelayString = "${app.uploads.gc-interval-ms:600000}",
+            initialDelayString = "${app.uploads.gc-interval-ms:600000}")
+    @BackgroundJob
+    public void collectExpired() {
+        var now = clock.instant();
+        var expired = sessions.findExpired(now, PageRequest.of(0, 500));
+        for (var s : expired) {
+            try {
+                tx.executeWithoutResult(t -> {
+                    if (sessions.deleteExpired(s.getId(), now) == 1 && s.getBlobHash() != null) {
+                        blobs.release(s.getBlobHash());
+                    }
+                });
+                states.remove(s.getId());
+                Files.deleteIfExists(partFile(s.getId()));
+            } catch (IOException | RuntimeException ex) {
+                log.warn("Could not collect upload session {}", s.getId(), ex);
+            }
+        }
+        if (!expired.isEmpty()) {
+            log.info("Collected {} expired upload sessions", expired.size());
+        }
+    }
+
+    /**
+     * Resultat av {@link #attach}.
+     *
+     * @param blobHash blob som innlegget nå refererer til
+     * @param url      URL til bildet
+     */
+    public record AttachedUpload(String blobHash, String url) {
+    }
+
+    /**
+     * Finner tilstanden for en sesjon. Sesjonen sjekkes først, så forespørsler mot ukjente
+     * eller andres ID-er ikke legger igjen tilstand i {@link #states}.
+     */
+    private ChunkState stateFor(UUID id, User user) {
+        load(id, user);
+        return states.computeIfAbsent(id, k -> new ChunkState());
+    }
+
+    /**
+     * Leser sesjonen under tilstandens lås. Er den borte (slettet etter {@link #stateFor}),
+     * fjernes tilstanden igjen.
+     */
+    private UploadSession loadLocked(UUID id, User user, ChunkState state) {
+        try {
+            return load(id, user);
+        } catch (ResponseStatusException ex) {
+            states.remove(id, state);
+            throw ex;
+        }
+    }
+
+    /**
+     * Henter en sesjon fra primæren (den kan være opprettet for et øyeblikk siden,
+     * og skal ikke leses fra en replika som henger etter).
+     */
+    private UploadSession load(UUID id, User user) {
+        var s = DbPartition.callAs(DbPartition.WRITES, () -> sessions.findById(id))
+                .filter(x -> x.getOwnerId().equals(user.getId()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload not found"));
+        if (s.getExpiresAt().isBefore(clock.instant())) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Upload expired");
+        }
+        return s;
+    }
+
+    private long received(UploadSession s) {
+        if (s.getBlobHash() != null) return s.getSize();
+        try {
+            return Files.size(partFile(s.getId()));
+        } catch (IOException ex) {
+            return 0;
+        }
+    }
+
+    private UploadSessionDto toDto(UploadSession s, long offset) {
+        boolean complete = s.getBlobHash() != null;
+        return new UploadSessionDto(s.getId(), s.getSize(), offset, complete,
+                complete ? url(s) : null, chunkSize, s.getExpiresAt());
+    }
+
+    private static String url(UploadSession s) {
+        return "/files/blobs/" + s.getBlobHash() + "." + EXTENSIONS.get(s.getContentType());
+    }
+
+    private Path partFile(UUID id) {
+        return partialDir.resolve(id + ".part");
+    }
+
+    private static String sha256(Path file) throws IOException {
+        try {
+            var md = MessageDigest.getInstance("SHA-256");
+            try (var in = Files.newInputStream(file)) {
+                byte[] buf = new byte[64 * 1024];
+                int n;
+                while ((n = in.read(buf)) > 0) md.update(buf, 0, n);
+            }
+            return HexFormat.of().formatHex(md.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /** Løpende hash for en sesjon; {@code digest == null} betyr at hashen må beregnes fra filen. */
+    private static final class ChunkState {
+        MessageDigest digest;
+        long hashedUpTo;
+
+        ChunkState() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.someprojectbackend.sse;
+
+import com.example.someprojectbackend.domain.Post;
+import com.example.someprojectbackend.outbox.DomainEvent;
+import com.example.someprojectbackend.outbox.OutboxSubscriber;
+import com.example.someprojectbackend.repo.PostRepository;
+import com.example.someprojectbackend.service.PostHydrator;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Sender innleggshendelser fra outboxen til SSE-klientene via {@link PostSseHub}.
+ * <p>
+ * Alle innlegg som er endret i en batch (nye, likes, kommentarer) hentes på nytt samlet
+ * og sendes som ett "post"-event hver, uansett hvor mange hendelser de hadde. Innholdet
+ * er uten seerinfo ({@code likedByMe = false}), siden det går til alle klienter.
+ */
+@Component
+public class PostSseSubscriber implements OutboxSubscriber {
+
+    private final PostSseHub hub;
+    private final PostRepository posts;
+    private final PostHydrator hydrator;
+
+    public PostSseSubscriber(PostSseHub hub, PostRepository posts, PostHydrator hydrator) {
+        this.hub = hub;
+        this.posts = posts;
+        this.hydrator = hydrator;
+    }
+
+    @Override
+    public void handle(List<DomainEvent> events) {
+        Set<UUID> changed = new LinkedHashSet<>();
+        Set<UUID> deleted = new HashSet<>();
+        for (DomainEvent e : events) {
+            if (e instanceof DomainEvent.PostCreated c) changed.add(c.postId());
+            else if (e instanceof DomainEvent.PostLiked l) changed.add(l.postId());
+            else if (e instanceof DomainEvent.PostUnliked u) changed.add(u.postId());
+            else if (e instanceof DomainEvent.CommentAdded c) changed.add(c.postId());
+            else if (e instanceof DomainEvent.PostDeleted d) deleted.add(d.postId());
+        }
+        changed.removeAll(deleted);
+
+        if (!changed.isEmpty()) {
+            Map<UUID, Post> found = new HashMap<>();
+            for (Post p : posts.findAllById(changed)) found.put(p.getId(), p);
+            List<Post> ordered = new ArrayList<>(found.size());
+            for (UUID id : changed) {
+                if (found.containsKey(id)) ordered.add(found.get(id));
+            }
+            hydrator.hydrate(ordered, null).forEach(hub::broadcastPost);
+        }
+        deleted.forEach(hub::broadcastPostDeleted);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.someprojectbackend.storage;
+
+import com.example.someprojectbackend.db.BackgroundJob;
+import com.example.someprojectbackend.repo.BlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Periodisk opprydding av blober uten referanser.
+ * <p>
+ * En blob slettes først når den har hatt {@code ref_count = 0} lenger enn karenstiden
+ * ({@code app.blobs.gc-grace-ms}). Hver blob slettes i egen transaksjon som låser raden,
+ * slik at en samtidig opplasting av samme innhold venter til slettingen er ferdig
+ * og deretter lagrer filen på nytt.
+ */
+@Component
+public class BlobCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(BlobCollector.class);
+
+    private final BlobStore store;
+    private final BlobRepository blobs;
+    private final TransactionTemplate tx;
+    private final Clock clock;
+    private final Duration grace;
+    private final int batchSize;
+
+    public BlobCollector(BlobStore store,
+                         BlobRepository blobs,
+                         TransactionTemplate tx,
+                         Clock clock,
+                         @Value("${app.blobs.gc-grace-ms:3600000}") long graceMs,
+                         @Value("${app.blobs.gc-batch-size:500}") int batchSize) {
+        this.store = store;
+        this.blobs = blobs;
+        this.tx = tx;
+        this.clock = clock;
+        this.grace = Duration.ofMillis(graceMs);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${app.blobs.gc-interval-ms:600000}",
+            initialDelayString = "${app.blobs.gc-interval-ms:600000}")
+    @BackgroundJob
+    public void collect() {
+        var cutoff = clock.instant().minus(grace);
+        int deleted = 0;
+        for (String hash : blobs.findCollectable(cutoff, batchSize)) {
+            try {
+                Boolean removed = tx.execute(s -> {
+                    if (blobs.lockCollectable(hash, cutoff).isEmpty()) return false;
+                    try {
+                        store.delete(hash);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                    blobs.deleteById(hash);
+                    return true;
+                });
+                if (Boolean.TRUE.equals(removed)) deleted++;
+            } catch (RuntimeException ex) {
+                log.warn("Could not collect blob {}", hash, ex);
+            }
+        }
+        if (deleted > 0) {
+            log.info("Collected {} unreferenced blobs", deleted);
+        }
+    }
+}
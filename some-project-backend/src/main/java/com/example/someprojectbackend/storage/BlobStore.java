@@ -0,0 +1,103 @@
+package com.example.someprojectbackend.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+
+/**
+ * Innholdsadressert lager for opplastede filer.
+ * <p>
+ * En blob identifiseres av SHA-256 av innholdet, slik at like filer kun lagres én gang.
+ * Lagring skjer i to steg:
+ *  - {@link #stage(InputStream, String)} strømmer innholdet til en midlertidig fil
+ *    og beregner hashen underveis (filen holdes aldri i minnet)
+ *  - {@link #commit(StagedBlob)} flytter/laster opp filen til sin endelige plass,
+ *    eller forkaster den hvis en blob med samme hash allerede finnes
+ * <p>
+ * Mellom de to stegene registrerer {@link com.example.someprojectbackend.service.BlobService}
+ * referansen i databasen, slik at opprydding av ubrukte blober ikke kan slette
+ * en blob som er i ferd med å bli tatt i bruk igjen.
+ * <p>
+ * Lageret vet ingenting om referanser; det er BlobService sitt ansvar.
+ */
+public interface BlobStore {
+
+    /**
+     * Strømmer innholdet til en midlertidig fil og beregner SHA-256.
+     *
+     * @param in          innholdet (lukkes ikke)
+     * @param contentType MIME-type som lagres sammen med bloben der lageret støtter det
+     * @return midlertidig blob som må lukkes etter {@link #commit(StagedBlob)}
+     * @throws IOException ved skrivefeil
+     */
+    StagedBlob stage(InputStream in, String contentType) throws IOException;
+
+    /**
+     * Gjør en midlertidig blob permanent. Idempotent: finnes bloben fra før, skjer ingenting.
+     *
+     * @param blob blob fra {@link #stage(InputStream, String)}
+     * @throws IOException ved skrive-/opplastingsfeil
+     */
+    void commit(StagedBlob blob) throws IOException;
+
+    /**
+     * Åpner innholdet i en blob.
+     *
+     * @param hash SHA-256 (hex)
+     * @return strøm som må lukkes av kaller
+     * @throws java.nio.file.NoSuchFileException hvis bloben ikke finnes
+     * @throws IOException                       ved lesefeil
+     */
+    InputStream open(String hash) throws IOException;
+
+    /**
+     * @param hash SHA-256 (hex)
+     * @return true hvis bloben finnes
+     * @throws IOException ved feil mot lageret
+     */
+    boolean exists(String hash) throws IOException;
+
+    /**
+     * Sletter en blob. Ingen feil hvis den ikke finnes.
+     *
+     * @param hash SHA-256 (hex)
+     * @throws IOException ved feil mot lageret
+     */
+    void delete(String hash) throws IOException;
+
+    /**
+     * Lokal fil for bloben, slik at filserveren kan sende den uten kopiering.
+     *
+     * @param hash SHA-256 (hex)
+     * @return sti til filen, eller null hvis lageret ikke er lokalt
+     */
+    default Path localPath(String hash) {
+        return null;
+    }
+
+    /**
+     * Offentlig adresse klienter kan hente bloben fra direkte (brukes til redirect).
+     *
+     * @param hash SHA-256 (hex)
+     * @return URI, eller null hvis bloben bare kan leses via {@link #open(String)}
+     */
+    default URI publicUri(String hash) {
+        return null;
+    }
+
+    /**
+     * Sjekker at en streng er en gyldig blob-hash (64 små hex-tegn).
+     *
+     * @param hash kandidat
+     * @return true hvis gyldig
+     */
+    static boolean isValidHash(String hash) {
+        if (hash == null || hash.length() != 64) return false;
+        for (int i = 0; i < 64; i++) {
+            char c = hash.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) return false;
+        }
+        return true;
+    }
+}
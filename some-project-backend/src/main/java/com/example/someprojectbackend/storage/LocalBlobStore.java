@@ -0,0 +1,86 @@
+package com.example.someprojectbackend.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * {@link BlobStore} på lokalt filsystem.
+ * <p>
+ * Blober lagres under {@code {root}/blobs/ab/cd/abcd…} (to nivåer med 256 kataloger hver),
+ * slik at ingen katalog får mer enn noen tusen filer selv med millioner av blober.
+ * Midlertidige filer skrives til {@code {root}/blobs/tmp} på samme filsystem,
+ * så den endelige plasseringen er en atomisk rename. Filer som ligger et annet sted
+ * (f.eks. delfiler fra gjenopptakbare opplastinger, som kan ligge på et annet volum)
+ * kopieres til {@code tmp} først.
+ */
+public class LocalBlobStore implements BlobStore {
+
+    private final Path blobs;
+    private final Path tmp;
+
+    /**
+     * @param uploadRoot rotkatalog for opplastinger
+     */
+    public LocalBlobStore(Path uploadRoot) {
+        this.blobs = uploadRoot.resolve("blobs");
+        this.tmp = blobs.resolve("tmp");
+    }
+
+    @Override
+    public StagedBlob stage(InputStream in, String contentType) throws IOException {
+        return StagedBlob.spool(in, tmp, contentType);
+    }
+
+    @Override
+    public void commit(StagedBlob blob) throws IOException {
+        Path target = pathFor(blob.hash());
+        if (Files.exists(target)) return; // samme innhold finnes allerede
+        Files.createDirectories(target.getParent());
+        Path source = blob.file();
+        Path copy = null;
+        if (!source.toAbsolutePath().normalize().startsWith(tmp.toAbsolutePath().normalize())) {
+            Files.createDirectories(tmp);
+            copy = Files.createTempFile(tmp, "blob_", ".tmp");
+            Files.copy(source, copy, StandardCopyOption.REPLACE_EXISTING);
+            source = copy;
+        }
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException ignored) {
+            // en annen opplasting av samme innhold vant kappløpet
+        } finally {
+            if (copy != null) Files.deleteIfExists(copy);
+        }
+    }
+
+    @Override
+    public InputStream open(String hash) throws IOException {
+        return Files.newInputStream(pathFor(hash));
+    }
+
+    @Override
+    public boolean exists(String hash) {
+        return Files.exists(pathFor(hash));
+    }
+
+    @Override
+    public void delete(String hash) throws IOException {
+        Files.deleteIfExists(pathFor(hash));
+    }
+
+    @Override
+    public Path localPath(String hash) {
+        return pathFor(hash);
+    }
+
+    private Path pathFor(String hash) {
+        if (!BlobStore.isValidHash(hash)) {
+            throw new IllegalArgumentException("Invalid blob hash");
+        }
+        return blobs.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.someprojectbackend.storage;
+
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link BlobStore} mot et S3-kompatibelt objektlager (AWS S3, MinIO o.l.).
+ * <p>
+ * Innholdet spooles først til en lokal midlertidig fil mens hashen beregnes
+ * (nøkkelen er ikke kjent før hele filen er lest). Deretter:
+ *  - finnes objektet allerede (HEAD), lastes ingenting opp
+ *  - små filer lastes opp med én PUT
+ *  - store filer deles i deler på {@code partSize} bytes som lastes opp parallelt
+ *    (multipart upload) på en egen pool; feiler en del avbrytes hele opplastingen
+ * <p>
+ * Objekter lagres med {@code Cache-Control: immutable}, siden innholdet aldri endres.
+ */
+public class S3BlobStore implements BlobStore, AutoCloseable {
+
+    /** S3 krever minst 5 MiB per del (unntatt siste). */
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    private final S3Client s3;
+    private final String bucket;
+    private final String prefix;
+    private final String publicBaseUrl;
+    private final long partSize;
+    private final Path tmpDir;
+    private final ExecutorService uploads;
+
+    /**
+     * @param s3            klient (endpoint og path-style settes av kaller)
+     * @param bucket        bucket-navn
+     * @param prefix        nøkkelprefiks, f.eks. {@code "blobs/"}
+     * @param publicBaseUrl offentlig base-URL for direkte nedlasting, eller tom for å gå via appen
+     * @param partSize      størrelse per del i multipart upload
+     * @param threads       antall parallelle delopplastinger
+     * @param tmpDir        lokal katalog for spooling
+     */
+    public S3BlobStore(S3Client s3, String bucket, String prefix, String publicBaseUrl,
+                       long partSize, int threads, Path tmpDir) {
+        this.s3 = s3;
+        this.bucket = bucket;
+        this.prefix = prefix;
+        this.publicBaseUrl = publicBaseUrl == null || publicBaseUrl.isBlank()
+                ? null
+                : publicBaseUrl.replaceAll("/+$", "");
+        this.partSize = Math.max(MIN_PART_SIZE, partSize);
+        this.tmpDir = tmpDir;
+
+        var counter = new AtomicInteger();
+        this.uploads = Executors.newFixedThreadPool(threads, r -> {
+            var t = new Thread(r, "s3-upload-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    public StagedBlob stage(InputStream in, String contentType) throws IOException {
+        return StagedBlob.spool(in, tmpDir, contentType);
+    }
+
+    @Override
+    public void commit(StagedBlob blob) throws IOException {
+        if (exists(blob.hash())) return;
+        try {
+            if (blob.size() <= partSize) {
+                s3.putObject(PutObjectRequest.builder()
+                                .bucket(bucket)
+                                .key(key(blob.hash()))
+                                .contentType(blob.contentType())
+                                .cacheControl("public, max-age=31536000, immutable")
+                                .build(),
+                        RequestBody.fromFile(blob.file()));
+            } else {
+                multipartUpload(blob);
+            }
+        } catch (S3Exception ex) {
+            throw new IOException("S3 upload failed for blob " + blob.hash(), ex);
+        }
+    }
+
+    @Override
+    public InputStream open(String hash) throws IOException {
+        try {
+            return s3.getObject(GetObjectRequest.builder().bucket(bucket).key(key(hash)).build());
+        } catch (NoSuchKeyException ex) {
+            throw new NoSuchFileException(hash);
+        } catch (S3Exception ex) {
+            throw new IOException("S3 read failed for blob " + hash, ex);
+        }
+    }
+
+    @Override
+    public boolean exists(String hash) throws IOException {
+        try {
+            s3.headObject(HeadObjectRequest.builder().bucket(bucket).key(key(hash)).build());
+            return true;
+        } catch (NoSuchKeyException ex) {
+            return false;
+        } catch (S3Exception ex) {
+            if (ex.statusCode() == 404) return false;
+            throw new IOException("S3 HEAD failed for blob " + hash, ex);
+        }
+    }
+
+    @Override
+    public void delete(String hash) throws IOException {
+        try {
+            s3.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key(hash)).build());
+        } catch (S3Exception ex) {
+            throw new IOException("S3 delete failed for blob " + hash, ex);
+        }
+    }
+
+    @Override
+    public URI publicUri(String hash) {
+        return publicBaseUrl == null ? null : URI.create(publicBaseUrl + "/" + key(hash));
+    }
+
+    @Override
+    public void close() {
+        uploads.shutdown();
+        s3.close();
+    }
+
+    /**
+     * Laster opp filen i deler parallelt. Hver del leses fra filen først når
+     * den skal sendes, så minnebruken er begrenset til trådantall * delstørrelse.
+     */
+    private void multipartUpload(StagedBlob blob) throws IOException {
+        String key = key(blob.hash());
+        String uploadId = s3.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentType(blob.contentType())
+                .cacheControl("public, max-age=31536000, immutable")
+                .build()).uploadId();
+
+        int parts = (int) ((blob.size() + partSize - 1) / partSize);
+        List<Future<CompletedPart>> futures = new ArrayList<>(parts);
+        try (FileChannel channel = FileChannel.open(blob.file(), StandardOpenOption.READ)) {
+            for (int i = 0; i < parts; i++) {
+                int partNumber = i + 1;
+                long offset = i * partSize;
+                int length = (int) Math.min(partSize, blob.size() - offset);
+                futures.add(uploads.submit(() -> uploadPart(channel, key, uploadId, partNumber, offset, length)));
+            }
+
+            List<CompletedPart> completed = new ArrayList<>(parts);
+            for (var f : futures) {
+                completed.add(f.get());
+            }
+
+            s3.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completed).build())
+                    .build());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            futures.forEach(f -> f.cancel(true));
+            abort(key, uploadId);
+            throw new InterruptedIOException("Multipart upload interrupted");
+        } catch (ExecutionException | RuntimeException | IOException ex) {
+            futures.forEach(f -> f.cancel(true));
+            abort(key, uploadId);
+            Throwable cause = ex instanceof ExecutionException ? ex.getCause() : ex;
+            throw new IOException("Multipart upload failed for blob " + blob.hash(), cause);
+        }
+    }
+
+    private CompletedPart uploadPart(FileChannel channel, String key, String uploadId,
+                                     int partNumber, long offset, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, offset + buf.position()) < 0) {
+                throw new IOException("Unexpected end of staged blob");
+            }
+        }
+        buf.flip();
+        String etag = s3.uploadPart(UploadPartRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .uploadId(uploadId)
+                        .partNumber(partNumber)
+                        .contentLength((long) length)
+                        .build(),
+                RequestBody.fromByteBuffer(buf)).eTag();
+        return CompletedPart.builder().partNumber(partNumber).eTag(etag).build();
+    }
+
+    private void abort(String key, String uploadId) {
+        try {
+            s3.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucket).key(key).uploadId(uploadId).build());
+        } catch (S3Exception ignored) {
+            // ufullstendige deler ryddes av bucketens livssyklusregel
+        }
+    }
+
+    private String key(String hash) {
+        if (!BlobStore.isValidHash(hash)) {
+            throw new IllegalArgumentException("Invalid blob hash");
+        }
+        return prefix + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.someprojectbackend.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * En blob som er skrevet til en midlertidig fil, men ennå ikke lagret permanent.
+ * <p>
+ * {@link #close()} sletter den midlertidige filen hvis den fortsatt finnes
+ * (f.eks. når bloben fantes fra før, eller commit feilet).
+ *
+ * @param hash        SHA-256 av innholdet (hex)
+ * @param size        antall bytes
+ * @param contentType MIME-type
+ * @param file        midlertidig fil
+ */
+public record StagedBlob(String hash, long size, String contentType, Path file) implements Closeable {
+
+    /**
+     * Kopierer en strøm til en ny midlertidig fil og beregner SHA-256 underveis.
+     *
+     * @param in          innhold
+     * @param tmpDir      katalog for midlertidige filer (opprettes ved behov)
+     * @param contentType MIME-type
+     * @return midlertidig blob
+     * @throws IOException ved skrivefeil
+     */
+    public static StagedBlob spool(InputStream in, Path tmpDir, String contentType) throws IOException {
+        Files.createDirectories(tmpDir);
+        Path tmp = Files.createTempFile(tmpDir, "blob_", ".tmp");
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            long size;
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(tmp), md)) {
+                size = in.transferTo(out);
+            }
+            return new StagedBlob(HexFormat.of().formatHex(md.digest()), size, contentType, tmp);
+        } catch (NoSuchAlgorithmException ex) {
+            Files.deleteIfExists(tmp);
+            throw new IllegalStateException(ex);
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(tmp);
+            throw ex;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        Files.deleteIfExists(file);
+    }
+}
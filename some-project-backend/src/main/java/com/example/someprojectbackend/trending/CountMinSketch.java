@@ -0,0 +1,128 @@
+package com.example.someprojectbackend.trending;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Count-Min Sketch: omtrentlig telling av hendelser per nøkkel i fast minne.
+ * <p>
+ * {@code depth} rader med {@code width} tellere; en nøkkel teller i én celle per rad,
+ * og estimatet er minimum over radene. Estimatet er aldri for lavt, og med sannsynlighet
+ * {@code 1 - (1/2)^depth} høyst {@code 2 * total / width} for høyt.
+ * Minnebruken er {@code depth * width * 4} bytes uansett antall ulike nøkler.
+ */
+public final class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final int[] counts;
+    private long total;
+
+    /**
+     * @param depth antall rader (hashfunksjoner)
+     * @param width antall tellere per rad
+     */
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1) throw new IllegalArgumentException("depth and width must be positive");
+        this.depth = depth;
+        this.width = width;
+        this.counts = new int[depth * width];
+    }
+
+    /**
+     * Teller {@code n} forekomster av en nøkkel.
+     *
+     * @param key nøkkel
+     * @param n   antall (positivt)
+     */
+    public void add(String key, int n) {
+        long h = hash(key);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        for (int row = 0; row < depth; row++) {
+            int cell = row * width + index(h1 + row * h2);
+            counts[cell] = saturatingAdd(counts[cell], n);
+        }
+        total += n;
+    }
+
+    /**
+     * @param key nøkkel
+     * @return estimert antall (aldri lavere enn det faktiske)
+     */
+    public int estimate(String key) {
+        long h = hash(key);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counts[row * width + index(h1 + row * h2)]);
+        }
+        return min;
+    }
+
+    /** @return summen av alle tellinger */
+    public long total() {
+        return total;
+    }
+
+    /** Nullstiller alle tellere. */
+    public void clear() {
+        Arrays.fill(counts, 0);
+        total = 0;
+    }
+
+    /**
+     * Skriver tellerne (for checkpoint).
+     *
+     * @param out mål
+     * @throws IOException ved skrivefeil
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(depth);
+        out.writeInt(width);
+        out.writeLong(total);
+        for (int c : counts) out.writeInt(c);
+    }
+
+    /**
+     * Leser tellere skrevet med {@link #writeTo(DataOutput)} inn i denne sketchen.
+     *
+     * @param in kilde
+     * @throws IOException hvis dimensjonene ikke stemmer eller ved lesefeil
+     */
+    public void readFrom(DataInput in) throws IOException {
+        int d = in.readInt();
+        int w = in.readInt();
+        if (d != depth || w != width) throw new IOException("Sketch dimensions changed");
+        total = in.readLong();
+        for (int i = 0; i < counts.length; i++) counts[i] = in.readInt();
+    }
+
+    private int index(int h) {
+        return (h & Integer.MAX_VALUE) % width;
+    }
+
+    private static int saturatingAdd(int a, int b) {
+        long sum = (long) a + b;
+        return sum > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) sum;
+    }
+
+    /** 64-bit FNV-1a over UTF-8, etterfulgt av en avalanche-mix (to uavhengige 32-bit-halvdeler). */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= (b & 0xff);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
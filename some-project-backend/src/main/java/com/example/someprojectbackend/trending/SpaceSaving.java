@@ -0,0 +1,125 @@
+package com.example.someprojectbackend.trending;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving (Metwally m.fl.): finner de hyppigste nøklene ("heavy hitters") i en strøm
+ * med høyst {@code capacity} tellere.
+ * <p>
+ * Er tabellen full, tar en ny nøkkel over telleren med lavest verdi og arver den
+ * (som øvre feilgrense). Enhver nøkkel med mer enn {@code total / capacity} forekomster
+ * er garantert med. Utskifting finner minimum med et lineært søk, som er billig for
+ * de små kapasitetene som brukes her (noen hundre).
+ */
+public final class SpaceSaving {
+
+    /**
+     * En sporet nøkkel.
+     *
+     * @param key   nøkkel
+     * @param count estimert antall (øvre grense)
+     * @param error hvor mye av {@code count} som kan være arvet fra en fortrengt nøkkel
+     */
+    public record Entry(String key, long count, long error) {
+    }
+
+    private final int capacity;
+    private final Map<String, long[]> counters; // key → {count, error}
+
+    /**
+     * @param capacity maks antall sporede nøkler
+     */
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive");
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Teller {@code n} forekomster av en nøkkel.
+     *
+     * @param key nøkkel
+     * @param n   antall (positivt)
+     */
+    public void add(String key, long n) {
+        long[] c = counters.get(key);
+        if (c != null) {
+            c[0] += n;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new long[]{n, 0});
+            return;
+        }
+        String minKey = null;
+        long min = Long.MAX_VALUE;
+        for (var e : counters.entrySet()) {
+            if (e.getValue()[0] < min) {
+                min = e.getValue()[0];
+                minKey = e.getKey();
+            }
+        }
+        counters.remove(minKey);
+        counters.put(key, new long[]{min + n, min});
+    }
+
+    /**
+     * @param k maks antall
+     * @return de {@code k} nøklene med høyest estimat, høyest først
+     */
+    public List<Entry> top(int k) {
+        var all = new ArrayList<Entry>(counters.size());
+        counters.forEach((key, c) -> all.add(new Entry(key, c[0], c[1])));
+        all.sort(Comparator.comparingLong(Entry::count).reversed().thenComparing(Entry::key));
+        return all.size() > k ? new ArrayList<>(all.subList(0, k)) : all;
+    }
+
+    /** @return antall sporede nøkler */
+    public int size() {
+        return counters.size();
+    }
+
+    /** Fjerner alle tellere. */
+    public void clear() {
+        counters.clear();
+    }
+
+    /**
+     * Skriver tellerne (for checkpoint).
+     *
+     * @param out mål
+     * @throws IOException ved skrivefeil
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(counters.size());
+        for (var e : counters.entrySet()) {
+            out.writeUTF(e.getKey());
+            out.writeLong(e.getValue()[0]);
+            out.writeLong(e.getValue()[1]);
+        }
+    }
+
+    /**
+     * Leser tellere skrevet med {@link #writeTo(DataOutput)} (erstatter innholdet).
+     *
+     * @param in kilde
+     * @throws IOException ved lesefeil
+     */
+    public void readFrom(DataInput in) throws IOException {
+        counters.clear();
+        int n = in.readInt();
+        for (int i = 0; i < n; i++) {
+            String key = in.readUTF();
+            long count = in.readLong();
+            long error = in.readLong();
+            if (counters.size() < capacity) counters.put(key, new long[]{count, error});
+        }
+    }
+}
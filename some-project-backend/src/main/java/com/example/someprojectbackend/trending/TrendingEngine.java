@@ -0,0 +1,248 @@
+package com.example.someprojectbackend.trending;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Strømmende motor for trendende {@code #tagger}.
+ * <p>
+ * Tiden deles i slices ({@code app.trending.slice-ms}, standard 10 min). Hver slice har en
+ * {@link CountMinSketch} (telling per tagg i fast minne) og en {@link SpaceSaving}-tracker
+ * (de hyppigste taggene i slicen). Slicene ligger i en ring som dekker trendvinduet
+ * ({@code window-slices}, standard 1 t) pluss baseline-vinduet før det ({@code baseline-slices},
+ * standard 24 t). Minnebruken avhenger dermed bare av konfigurasjonen, ikke av antall ulike tagger.
+ * <p>
+ * Jevnlig ({@code refresh-ms}) rangeres kandidatene (toppene fra slicene i trendvinduet):
+ * <pre>
+ *   recent   = antall i trendvinduet
+ *   expected = antall i baseline skalert til vinduets lengde
+ *   velocity = (recent + 1) / (expected + 1)
+ *   score    = (recent - expected) / sqrt(expected + 1)
+ * </pre>
+ * Resultatet legges i et ferdig snapshot, så {@link #top(int)} svarer fra minnet i konstant tid.
+ * Tilstanden skrives til disk jevnlig og ved nedstenging ({@code app.trending.checkpoint}, utenfor
+ * den offentlige opplastingsroten), og leses inn igjen ved oppstart.
+ */
+@Component
+public class TrendingEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(TrendingEngine.class);
+
+    private static final int CHECKPOINT_MAGIC = 0x54524e44; // "TRND"
+    private static final int CHECKPOINT_VERSION = 1;
+
+    /** Maks antall trender i snapshotet. */
+    private static final int MAX_TRENDS = 50;
+
+    /**
+     * En trendende tagg.
+     *
+     * @param tag      normalisert tagg
+     * @param count    estimert antall i trendvinduet
+     * @param velocity forhold mellom nåværende og forventet rate (1.0 = som vanlig)
+     */
+    public record Trend(String tag, long count, double velocity) {
+    }
+
+    private static final class Slice {
+        long id = -1;
+        final CountMinSketch sketch;
+        final SpaceSaving top;
+
+        Slice(int depth, int width, int topK) {
+            this.sketch = new CountMinSketch(depth, width);
+            this.top = new SpaceSaving(topK);
+        }
+
+        void reset(long newId) {
+            id = newId;
+            sketch.clear();
+            top.clear();
+        }
+    }
+
+    private final Clock clock;
+    private final Path checkpoint;
+    private final long sliceMs;
+    private final int windowSlices;
+    private final int baselineSlices;
+    private final int topK;
+    private final int minCount;
+    private final Slice[] ring;
+
+    private volatile List<Trend> snapshot = List.of();
+
+    public TrendingEngine(Clock clock,
+                          @Value("${app.trending.checkpoint:./state/trending.bin}") String checkpoint,
+                          @Value("${app.trending.slice-ms:600000}") long sliceMs,
+                          @Value("${app.trending.window-slices:6}") int windowSlices,
+                          @Value("${app.trending.baseline-slices:144}") int baselineSlices,
+                          @Value("${app.trending.sketch-depth:4}") int depth,
+                          @Value("${app.trending.sketch-width:1024}") int width,
+                          @Value("${app.trending.top-k:100}") int topK,
+                          @Value("${app.trending.min-count:3}") int minCount) {
+        this.clock = clock;
+        this.checkpoint = Path.of(checkpoint).toAbsolutePath().normalize();
+        this.sliceMs = sliceMs;
+        this.windowSlices = windowSlices;
+        this.baselineSlices = baselineSlices;
+        this.topK = topK;
+        this.minCount = minCount;
+        this.ring = new Slice[windowSlices + baselineSlices];
+        for (int i = 0; i < ring.length; i++) ring[i] = new Slice(depth, width, topK);
+        restore();
+        refresh();
+    }
+
+    /**
+     * Registrerer taggene fra et nytt innlegg.
+     *
+     * @param tags normaliserte tagger
+     */
+    public synchronized void record(Collection<String> tags) {
+        if (tags.isEmpty()) return;
+        var slice = slice(clock.millis() / sliceMs);
+        for (String tag : tags) {
+            slice.sketch.add(tag, 1);
+            slice.top.add(tag, 1);
+        }
+    }
+
+    /**
+     * @param limit maks antall
+     * @return de mest trendende taggene, sterkest først
+     */
+    public List<Trend> top(int limit) {
+        var current = snapshot;
+        return current.size() > limit ? current.subList(0, limit) : current;
+    }
+
+    /**
+     * Rangerer kandidatene på nytt og bytter snapshot.
+     */
+    @Scheduled(fixedDelayString = "${app.trending.refresh-ms:15000}", initialDelayString = "${app.trending.refresh-ms:15000}")
+    public void refresh() {
+        List<Trend> trends;
+        synchronized (this) {
+            long now = clock.millis() / sliceMs;
+            long windowStart = now - windowSlices + 1;
+            long baselineStart = windowStart - baselineSlices;
+
+            var candidates = new LinkedHashSet<String>();
+            for (long id = windowStart; id <= now; id++) {
+                var s = existing(id);
+                if (s != null) s.top.top(topK).forEach(e -> candidates.add(e.key()));
+            }
+
+            var scored = new ArrayList<Scored>(candidates.size());
+            double scale = (double) windowSlices / baselineSlices;
+            for (String tag : candidates) {
+                long recent = sum(tag, windowStart, now);
+                if (recent < minCount) continue;
+                double expected = sum(tag, baselineStart, windowStart - 1) * scale;
+                double velocity = (recent + 1) / (expected + 1);
+                double score = (recent - expected) / Math.sqrt(expected + 1);
+                scored.add(new Scored(new Trend(tag, recent, velocity), score));
+            }
+            scored.sort(Comparator.comparingDouble(Scored::score).reversed()
+                    .thenComparing(s -> s.trend().tag()));
+            trends = scored.stream().limit(MAX_TRENDS).map(Scored::trend).toList();
+        }
+        snapshot = trends;
+    }
+
+    private record Scored(Trend trend, double score) {
+    }
+
+    /**
+     * Skriver tilstanden til disk. Serialiseres i minnet under låsen og skrives utenfor den.
+     */
+    @Scheduled(fixedDelayString = "${app.trending.checkpoint-ms:60000}", initialDelayString = "${app.trending.checkpoint-ms:60000}")
+    @PreDestroy
+    public void checkpoint() {
+        try {
+            var bytes = new ByteArrayOutputStream();
+            synchronized (this) {
+                var out = new DataOutputStream(bytes);
+                out.writeInt(CHECKPOINT_MAGIC);
+                out.writeInt(CHECKPOINT_VERSION);
+                out.writeLong(sliceMs);
+                out.writeInt(ring.length);
+                for (var s : ring) {
+                    out.writeLong(s.id);
+                    s.sketch.writeTo(out);
+                    s.top.writeTo(out);
+                }
+                out.flush();
+            }
+            Files.createDirectories(checkpoint.getParent());
+            Path tmp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+            Files.write(tmp, bytes.toByteArray());
+            Files.move(tmp, checkpoint, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            log.warn("Could not write trending checkpoint {}", checkpoint, ex);
+        }
+    }
+
+    /** Leser siste checkpoint, hvis det finnes og ble skrevet med samme konfigurasjon. */
+    private synchronized void restore() {
+        if (!Files.isRegularFile(checkpoint)) return;
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpoint)))) {
+            if (in.readInt() != CHECKPOINT_MAGIC || in.readInt() != CHECKPOINT_VERSION
+                    || in.readLong() != sliceMs || in.readInt() != ring.length) {
+                log.info("Ignoring trending checkpoint written with a different configuration");
+                return;
+            }
+            for (var s : ring) {
+                s.id = in.readLong();
+                s.sketch.readFrom(in);
+                s.top.readFrom(in);
+            }
+            log.info("Restored trending state from {}", checkpoint);
+        } catch (IOException ex) {
+            log.warn("Could not read trending checkpoint {}; starting empty", checkpoint, ex);
+            for (var s : ring) s.reset(-1);
+        }
+    }
+
+    /** Slicen for et slice-nummer; gjenbrukes (nullstilles) når ringen har gått rundt. */
+    private Slice slice(long id) {
+        var s = ring[(int) Math.floorMod(id, (long) ring.length)];
+        if (s.id != id) s.reset(id);
+        return s;
+    }
+
+    /** Slicen for et slice-nummer, eller null hvis den er overskrevet eller aldri brukt. */
+    private Slice existing(long id) {
+        var s = ring[(int) Math.floorMod(id, (long) ring.length)];
+        return s.id == id ? s : null;
+    }
+
+    private long sum(String tag, long fromId, long toId) {
+        long total = 0;
+        for (long id = fromId; id <= toId; id++) {
+            var s = existing(id);
+            if (s != null) total += s.sketch.estimate(tag);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.someprojectbackend.trending;
+
+import com.example.someprojectbackend.outbox.DomainEvent;
+import com.example.someprojectbackend.outbox.OutboxSubscriber;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Teller taggene i nye innlegg i {@link TrendingEngine}.
+ */
+@Component
+public class TrendingSubscriber implements OutboxSubscriber {
+
+    private final TrendingEngine trending;
+
+    public TrendingSubscriber(TrendingEngine trending) {
+        this.trending = trending;
+    }
+
+    @Override
+    public void handle(List<DomainEvent> events) {
+        for (DomainEvent e : events) {
+            if (e instanceof DomainEvent.PostCreated c && c.tags() != null && !c.tags().isEmpty()) {
+                trending.record(c.tags());
+            }
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.someprojectbackend.views;
+
+import com.example.someprojectbackend.db.BackgroundJob;
+import com.example.someprojectbackend.domain.PostView;
+import com.example.someprojectbackend.outbox.DomainEvent;
+import com.example.someprojectbackend.outbox.Outbox;
+import com.example.someprojectbackend.repo.PostRepository;
+import com.example.someprojectbackend.repo.PostViewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Teller unike visninger per innlegg med en {@link HyperLogLog} per innlegg.
+ * <p>
+ * Visninger registreres i minnet ({@link #record}) uten databasekall. En bakgrunnsjobb
+ * ({@link #flush()}) slår jevnlig sammen registrene med det som ligger i {@code post_views}
+ * (union av to HLL-er er eksakt det samme som én HLL over begge mengdene), lagrer dem
+ * kompakt sammen med estimatet og fjerner innlegg som ikke er sett på en stund fra minnet.
+ * <p>
+ * Antall innlegg i minnet er begrenset ({@code app.views.max-in-memory}); er grensen nådd,
+ * droppes visninger for nye innlegg til neste flush har ryddet. Tallene er derfor et
+ * estimat (~1,6 % standardfeil) og kan ligge litt etter til neste flush.
+ */
+@Component
+public class ViewCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(ViewCounter.class);
+
+    private final PostRepository posts;
+    private final PostViewRepository views;
+    private final TransactionTemplate tx;
+    private final Outbox outbox;
+    private final Clock clock;
+    private final int maxInMemory;
+    private final int batchSize;
+    private final long idleMs;
+
+    private final ConcurrentHashMap<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+
+    public ViewCounter(PostRepository posts,
+                       PostViewRepository views,
+                       TransactionTemplate tx,
+                       Outbox outbox,
+                       Clock clock,
+                       @Value("${app.views.max-in-memory:100000}") int maxInMemory,
+                       @Value("${app.views.flush-batch-size:500}") int batchSize,
+                       @Value("${app.views.idle-ms:600000}") long idleMs) {
+        this.posts = posts;
+        this.views = views;
+        this.tx = tx;
+        this.outbox = outbox;
+        this.clock = clock;
+        this.maxInMemory = maxInMemory;
+        this.batchSize = batchSize;
+        this.idleMs = idleMs;
+    }
+
+    /** Registrene for ett innlegg i minnet. Alle felt beskyttes av {@code synchronized (entry)}. */
+    private static final class Entry {
+        HyperLogLog hll = new HyperLogLog();
+        boolean dirty;
+        boolean merged; // true når registrene inneholder det som ligger i databasen
+        boolean removed; // fjernet fra mapet; en ny oppføring må lages
+        long lastSeen;
+    }
+
+    /**
+     * Registrerer at en seer har sett et innlegg.
+     *
+     * @param postId     innlegg-ID (ukjente ID-er forkastes ved flush)
+     * @param viewerHash 64-bits hash av seeren (se {@link HyperLogLog#hash(long, long)})
+     */
+    public void record(UUID postId, long viewerHash) {
+        while (true) {
+            Entry e = entries.get(postId);
+            if (e == null) {
+                if (entries.size() >= maxInMemory) {
+                    dropped.increment();
+                    return;
+                }
+                e = entries.computeIfAbsent(postId, k -> new Entry());
+            }
+            synchronized (e) {
+                if (e.removed) continue;
+                if (e.hll.add(viewerHash)) e.dirty = true;
+                e.lastSeen = clock.millis();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Estimert antall unike seere for flere innlegg: det største av databasens og
+     * minnets estimat (minnet kan inneholde visninger som ikke er flushet ennå).
+     *
+     * @param postIds innlegg-ID-er
+     * @return estimat per innlegg (innlegg uten visninger mangler i mapet)
+     */
+    public Map<UUID, Long> estimates(Collection<UUID> postIds) {
+        if (postIds.isEmpty()) return Map.of();
+        Map<UUID, Long> out = new HashMap<>(postIds.size() * 2);
+        for (var r : views.findEstimates(postIds)) out.put(r.getPostId(), r.getCount());
+        for (UUID id : postIds) {
+            Entry e = entries.get(id);
+            if (e == null) continue;
+            long mem;
+            synchronized (e) {
+                mem = e.hll.estimate();
+            }
+            out.merge(id, mem, Math::max);
+        }
+        return out;
+    }
+
+    /**
+     * @param postId innlegg-ID
+     * @return estimert antall unike seere
+     */
+    public long estimate(UUID postId) {
+        return estimates(List.of(postId)).getOrDefault(postId, 0L);
+    }
+
+    /**
+     * Glemmer registrene i minnet for et slettet innlegg (raden i databasen slettes av kaller).
+     */
+    public void forget(UUID postId) {
+        remove(postId);
+    }
+
+    /**
+     * Slår sammen endrede registre med databasen og rydder i minnet.
+     * Hver skrevne batch publiserer {@link DomainEvent.ViewsFlushed}, så feed-versjonen
+     * ({@link com.example.someprojectbackend.cache.VersionCounters}) økes på alle noder og
+     * ETag-ene for feedene ligger maks ett flush-intervall (pluss {@code app.outbox.poll-ms})
+     * etter visningstallene.
+     */
+    @Scheduled(fixedDelayString = "${app.views.flush-ms:30000}",
+            initialDelayString = "${app.views.flush-ms:30000}")
+    @BackgroundJob
+    public void flush() {
+        List<UUID> dirty = new ArrayList<>();
+        entries.forEach((id, e) -> {
+            synchronized (e) {
+                if (e.dirty) dirty.add(id);
+            }
+        });
+        int written = 0;
+        for (int i = 0; i < dirty.size(); i += batchSize) {
+            try {
+                written += flushBatch(dirty.subList(i, Math.min(i + batchSize, dirty.size())));
+            } catch (RuntimeException ex) {
+                log.warn("Could not flush view counts", ex);
+            }
+        }
+        evictIdle();
+
+        long lost = dropped.sumThenReset();
+        if (written > 0 || lost > 0) {
+            log.info("Flushed view counts for {} posts ({} in memory, {} views dropped)", written, entries.size(), lost);
+        }
+    }
+
+    private int flushBatch(List<UUID> ids) {
+        // Ta en kopi av registrene og nullstill dirty; nye visninger under skrivingen markerer på nytt
+        Map<UUID, HyperLogLog> snapshot = new HashMap<>(ids.size() * 2);
+        for (UUID id : ids) {
+            Entry e = entries.get(id);
+            if (e == null) continue;
+            synchronized (e) {
+                snapshot.put(id, HyperLogLog.fromBytes(e.hll.toBytes()));
+                e.dirty = false;
+            }
+        }
+
+        Map<UUID, HyperLogLog> stored;
+        try {
+            stored = tx.execute(s -> write(snapshot));
+        } catch (RuntimeException ex) {
+            for (UUID id : snapshot.keySet()) markDirty(id);
+            throw ex;
+        }
+
+        // Innlegg som er slettet (eller aldri fantes) glemmes
+        for (UUID id : snapshot.keySet()) {
+            if (!stored.containsKey(id)) remove(id);
+        }
+        // Minnet får unionen med databasen, slik at estimatet herfra er komplett
+        stored.forEach((id, merged) -> {
+            Entry e = entries.get(id);
+            if (e == null) return;
+            synchronized (e) {
+                merged.merge(e.hll);
+                e.hll = merged;
+                e.merged = true;
+            }
+        });
+        return stored.size();
+    }
+
+    private Map<UUID, HyperLogLog> write(Map<UUID, HyperLogLog> snapshot) {
+        var existing = new HashSet<>(posts.findExistingIds(snapshot.keySet()));
+        Map<UUID, PostView> rows = views.lockAll(existing).stream()
+                .collect(Collectors.toMap(PostView::getPostId, Function.identity()));
+        var now = clock.instant();
+
+        Map<UUID, HyperLogLog> out = new HashMap<>(existing.size() * 2);
+        List<PostView> changed = new ArrayList<>(existing.size());
+        for (UUID id : existing) {
+            HyperLogLog hll = snapshot.get(id);
+            PostView row = rows.get(id);
+            if (row == null) {
+                row = new PostView();
+                row.setPostId(id);
+            } else {
+                HyperLogLog db = HyperLogLog.fromBytes(row.getRegisters());
+                db.merge(hll);
+                hll = db;
+            }
+            row.setRegisters(hll.toBytes());
+            row.setEstimate(hll.estimate());
+            row.setUpdatedAt(now);
+            changed.add(row);
+            out.put(id, hll);
+        }
+        views.saveAll(changed);
+        if (!changed.isEmpty()) outbox.publish(new DomainEvent.ViewsFlushed(changed.size()));
+        return out;
+    }
+
+    private void markDirty(UUID id) {
+        Entry e = entries.get(id);
+        if (e == null) return;
+        synchronized (e) {
+            e.dirty = true;
+        }
+    }
+
+    /** Fjerner flushede innlegg som ikke er sett innen {@code app.views.idle-ms}. */
+    private void evictIdle() {
+        long cutoff = clock.millis() - idleMs;
+        entries.forEach((id, e) -> {
+            synchronized (e) {
+                if (!e.dirty && e.merged && e.lastSeen < cutoff) {
+                    e.removed = true;
+                    entries.remove(id, e);
+                }
+            }
+        });
+    }
+
+    private void remove(UUID id) {
+        Entry e = entries.remove(id);
+        if (e == null) return;
+        synchronized (e) {
+            e.removed = true;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.someprojectbackend.views;
+
+import com.example.someprojectbackend.outbox.DomainEvent;
+import com.example.someprojectbackend.outbox.OutboxSubscriber;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Glemmer visningsregistrene i minnet for slettede innlegg.
+ */
+@Component
+public class ViewsSubscriber implements OutboxSubscriber {
+
+    private final ViewCounter views;
+
+    public ViewsSubscriber(ViewCounter views) {
+        this.views = views;
+    }
+
+    @Override
+    public void handle(List<DomainEvent> events) {
+        for (DomainEvent e : events) {
+            if (e instanceof DomainEvent.PostDeleted d) views.forget(d.postId());
+        }
+    }
+}
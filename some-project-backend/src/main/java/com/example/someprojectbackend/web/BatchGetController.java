@@ -0,0 +1,95 @@
+package com.example.someprojectbackend.web;
+
+import com.example.someprojectbackend.cache.UserSummaryCache;
+import com.example.someprojectbackend.domain.User;
+import com.example.someprojectbackend.repo.UserRepository;
+import com.example.someprojectbackend.service.PostService;
+import com.example.someprojectbackend.web.dto.common.BatchGetRequest;
+import com.example.someprojectbackend.web.dto.post.PostsBatchDto;
+import com.example.someprojectbackend.web.dto.user.UserSummaryDto;
+import com.example.someprojectbackend.web.dto.user.UsersBatchDto;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * REST-controller for batch-oppslag av innlegg og brukere på ID.
+ * <p>
+ * Brukes av klienter som bygger opp en visning fra ID-er de allerede har (etter en
+ * SSE-resync, varsellister o.l.) i stedet for ett kall per ID. Svaret har ett element per
+ * ID i samme rekkefølge som requesten; ID-er som ikke finnes gir {@code null}, ikke feil.
+ */
+@RestController
+@RequestMapping("/api")
+public class BatchGetController {
+
+    private static final int MAX_IDS = 100;
+
+    private final PostService posts;
+    private final UserSummaryCache summaries;
+    private final UserRepository users;
+
+    public BatchGetController(PostService posts, UserSummaryCache summaries, UserRepository users) {
+        this.posts = posts;
+        this.summaries = summaries;
+        this.users = users;
+    }
+
+    /**
+     * Henter innlegg med antall likes, kommentarer, visninger og likt-av-meg.
+     * <p>
+     * POST /api/posts:batchGet
+     */
+    @PostMapping(value = "/posts:batchGet",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public PostsBatchDto posts(@RequestBody BatchGetRequest req, Principal principal) {
+        var ids = ids(req);
+        if (ids.isEmpty()) return new PostsBatchDto(List.of());
+        return new PostsBatchDto(posts.batchGet(ids, current(principal)));
+    }
+
+    /**
+     * Henter brukersammendrag (navn og avatar), fra cachen der de finnes.
+     * <p>
+     * POST /api/users:batchGet
+     */
+    @PostMapping(value = "/users:batchGet",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public UsersBatchDto users(@RequestBody BatchGetRequest req) {
+        var ids = ids(req);
+        var found = summaries.getAll(ids.stream().filter(id -> id != null).toList());
+        var out = new ArrayList<UserSummaryDto>(ids.size());
+        for (UUID id : ids) {
+            var s = id != null ? found.get(id) : null;
+            out.add(s != null ? UserSummaryDto.from(s) : null);
+        }
+        return new UsersBatchDto(out);
+    }
+
+    private static List<UUID> ids(BatchGetRequest req) {
+        if (req == null || req.ids() == null) return List.of();
+        if (req.ids().size() > MAX_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_IDS + " ids per request");
+        }
+        return req.ids();
+    }
+
+    /**
+     * Henter innlogget bruker fra {@link Principal}, eller null hvis ikke logget inn.
+     */
+    private User current(Principal principal) {
+        if (principal == null) return null;
+        return users.findByEmail(principal.getName()).orElse(null);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.someprojectbackend.web;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Hjelpemetode for betingede GET-kall ({@code If-None-Match} → 304).
+ * <p>
+ * Controlleren lager ETag-en fra {@link com.example.someprojectbackend.cache.VersionCounters}
+ * før svaret bygges, og returnerer {@code null} hvis klienten allerede har gjeldende versjon:
+ * <pre>{@code
+ * if (ConditionalGet.notModified(request, etag, CACHE)) return null;
+ * }</pre>
+ */
+final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * Setter {@code Cache-Control}, {@code Vary} og {@code ETag}, og sjekker {@code If-None-Match}.
+     *
+     * @param request      forespørselen
+     * @param etag         gjeldende ETag
+     * @param cacheControl cache-policy for ruten
+     * @return true hvis svaret skal være 304 (status er da satt)
+     */
+    static boolean notModified(ServletWebRequest request, String etag, CacheControl cacheControl) {
+        var res = request.getResponse();
+        if (res != null) {
+            res.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+            res.addHeader(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION + ", " + HttpHeaders.ACCEPT);
+        }
+        return request.checkNotModified(etag);
+    }
+}
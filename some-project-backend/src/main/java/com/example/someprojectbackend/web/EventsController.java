@@ -0,0 +1,81 @@
+package com.example.someprojectbackend.web;
+
+import com.example.someprojectbackend.events.Event;
+import com.example.someprojectbackend.events.EventLog;
+import com.example.someprojectbackend.events.EventType;
+import com.example.someprojectbackend.web.dto.event.EventDto;
+import com.example.someprojectbackend.web.dto.event.EventsRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * REST-controller for analysehendelser (visninger, dwell-tid, lenkeklikk).
+ * <p>
+ * Hendelsene skrives til {@link EventLog} på disk, ikke til databasen; de rulles opp
+ * til timesaggregater i bakgrunnen. Tidspunktet settes av serveren.
+ */
+@RestController
+@RequestMapping("/api")
+public class EventsController {
+
+    private static final int MAX_EVENTS = 500;
+    private static final long MAX_DWELL_MS = 3_600_000L;
+    private static final long WRITE_TIMEOUT_MS = 5_000L;
+
+    private final EventLog eventLog;
+    private final Clock clock;
+
+    public EventsController(EventLog eventLog, Clock clock) {
+        this.eventLog = eventLog;
+        this.clock = clock;
+    }
+
+    /**
+     * Tar imot en batch med hendelser.
+     * <p>
+     * POST /api/events → 202 når batchen er skrevet til loggen, 503 hvis loggen er overbelastet
+     */
+    @PostMapping(value = "/events", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Void> ingest(@RequestBody EventsRequest req) {
+        if (req == null || req.events() == null || req.events().isEmpty()) {
+            return ResponseEntity.accepted().build();
+        }
+        if (req.events().size() > MAX_EVENTS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_EVENTS + " events per request");
+        }
+
+        long now = clock.millis();
+        List<Event> events = new ArrayList<>(req.events().size());
+        for (EventDto e : req.events()) {
+            EventType type = EventType.parse(e.type());
+            if (type == null || e.postId() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid event");
+            }
+            long value = type == EventType.DWELL && e.value() != null
+                    ? Math.max(0, Math.min(e.value(), MAX_DWELL_MS))
+                    : 0;
+            events.add(new Event(type, e.postId(), value, now));
+        }
+
+        try {
+            eventLog.append(events).get(WRITE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            return ResponseEntity.accepted().build();
+        } catch (ExecutionException | TimeoutException ex) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted");
+        }
+    }
+}
@@ -3,19 +3,20 @@ package com.example.someprojectbackend.web;
 import com.example.someprojectbackend.repo.UserRepository;
 import com.example.someprojectbackend.security.JwtUtil;
 import com.example.someprojectbackend.domain.User;
+import com.example.someprojectbackend.media.AvatarVariant;
+import com.example.someprojectbackend.service.AvatarService;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST-controller for filopplastinger.
  * <p>
  * For nå støttes kun avatar-opplasting.
- * Filene lagres under "./uploads/avatars/{userId}/".
+ * Avatarer skaleres til faste varianter og lagres som blober (se {@link com.example.someprojectbackend.service.BlobService}).
  */
 @RestController
 @RequestMapping("/api/files")
@@ -23,10 +24,12 @@ public class FileController {
 
     private final JwtUtil jwtUtil;
     private final UserRepository users;
+    private final AvatarService avatars;
 
-    public FileController(JwtUtil jwtUtil, UserRepository users) {
+    public FileController(JwtUtil jwtUtil, UserRepository users, AvatarService avatars) {
         this.jwtUtil = jwtUtil;
         this.users = users;
+        this.avatars = avatars;
     }
 
     /**
@@ -35,21 +38,22 @@ public class FileController {
      * POST /api/files/avatar
      * <p>
      * - Krever Authorization-header ("Bearer <token>").
-     * - Filer lagres under "./uploads/avatars/{userId}/".
-     * - Filnavn genereres som "avatar_<timestamp>.png".
-     * - Relativ sti lagres i databasen på brukeren.
+     * - Størrelse og dimensjoner sjekkes før bildet dekodes.
+     * - Nedskalering til 48/96/256 px skjer asynkront på en egen trådpool,
+     *   så request-tråden frigjøres mens bildet behandles.
+     * - Variantene lagres som innholdsadresserte blober, og forrige avatar frigjøres.
      *
      * @param file       selve bildefilen (multipart/form-data)
      * @param authHeader Authorization-header med JWT
-     * @return JSON med nøkkelen "avatarPath"
-     * @throws IOException hvis filskriving feiler
+     * @return JSON med nøkkelen "avatarPath" (URL til største variant)
+     * @throws IOException hvis filen ikke kan leses
      */
     @PostMapping(
             value = "/avatar",
             consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
             produces = MediaType.APPLICATION_JSON_VALUE
     )
-    public String uploadAvatar(
+    public CompletableFuture<String> uploadAvatar(
             @RequestPart("file") MultipartFile file,
             @RequestHeader("Authorization") String authHeader) throws IOException {
 
@@ -57,17 +61,7 @@ public class FileController {
         User user = users.findByEmail(email).orElseThrow(() ->
                 new IllegalArgumentException("User not found for email " + email));
 
-        Path uploadDir = Path.of("uploads", "avatars", user.getId().toString());
-        Files.createDirectories(uploadDir);
-
-        String filename = "avatar_" + System.currentTimeMillis() + ".png";
-        Path filePath = uploadDir.resolve(filename);
-
-        file.transferTo(filePath);
-
-        user.setAvatarKey("/files/avatars/" + user.getId() + "/" + filename);
-        users.save(user);
-
-        return "{ \"avatarPath\": \"" + user.getAvatarKey() + "\" }";
+        return avatars.upload(user, file.getBytes())
+                .thenApply(key -> "{ \"avatarPath\": \"" + AvatarVariant.LARGE.url(key) + "\" }");
     }
 }
@@ -0,0 +1,349 @@
+package com.example.someprojectbackend.web;
+
+import com.example.someprojectbackend.media.OpenFileCache;
+import com.example.someprojectbackend.media.RenditionCache;
+import com.example.someprojectbackend.storage.BlobStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * Controller som serverer opplastede filer fra uploadDir på {@code /files/**}.
+ * <p>
+ * Erstatter Springs standard resource-handler med en dedikert sti som:
+ *  - bruker Tomcats sendfile (kjernen kopierer direkte fra fil til socket)
+ *    når den er tilgjengelig, ellers {@code FileChannel.transferTo}
+ *  - støtter {@code Range}/{@code If-Range} (enkelt byteintervall) med 206-svar
+ *  - setter sterke ETags basert på innholds-hash og svarer 304 på {@code If-None-Match}
+ *  - sender {@code Cache-Control: immutable} for innholdsadresserte filer
+ *    (filnavn som starter med en SHA-256), slik at klienter aldri revaliderer dem
+ *  - holder en liten cache med åpne filer ({@link OpenFileCache})
+ * <p>
+ * Blober nås på {@code /files/blobs/{sha256}.{ext}}; endelsen bestemmer kun Content-Type.
+ * Med lokalt lager serveres filen direkte, med eksternt lager (S3) sendes klienten
+ * videre til objektets offentlige adresse, eller innholdet strømmes gjennom appen.
+ * <p>
+ * Eldre avatarer under opplastingsroten nås på sin relative sti,
+ * f.eks. ./uploads/avatars/x/abc_96.jpg → http://localhost:8080/files/avatars/x/abc_96.jpg.
+ * Kun {@code avatars/} og {@code blobs/} serveres; alt annet under roten (renditions,
+ * midlertidige filer) gir 404.
+ * <p>
+ * Bilder kan hentes nedskalert med {@code ?w=320} (og valgfritt {@code &h=}); kun størrelser
+ * i {@code app.files.renditions.widths} er tillatt. Se {@link RenditionCache}.
+ */
+@RestController
+public class FileServingController {
+
+    /** Filnavn som starter med en SHA-256 er innholdsadresserte og endres aldri. */
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("^([0-9a-f]{64}(?:_\\d+)?)(?:\\..*)?$");
+
+    /** Under denne størrelsen lønner det seg ikke å be Tomcat om sendfile. */
+    private static final long SENDFILE_MIN_BYTES = 16 * 1024;
+
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String REVALIDATE = "public, no-cache";
+
+    private static final Pattern BLOB_NAME = Pattern.compile("^blobs/([0-9a-f]{64})(\\.[a-z0-9]+)?$");
+
+    /** Eneste katalog under roten som serveres direkte fra filsystemet. */
+    private static final String AVATARS = "avatars/";
+
+    private final Path root;
+    private final BlobStore blobs;
+    private final RenditionCache renditions;
+    private final OpenFileCache files;
+
+    public FileServingController(Path uploadRoot,
+                                 BlobStore blobs,
+                                 RenditionCache renditions,
+                                 @Value("${app.files.open-cache-size:256}") int openCacheSize) {
+        this.root = uploadRoot;
+        this.blobs = blobs;
+        this.renditions = renditions;
+        this.files = new OpenFileCache(openCacheSize);
+    }
+
+    /**
+     * Serverer en fil.
+     * <p>
+     * GET/HEAD /files/**
+     *
+     * @param req HTTP-forespørsel
+     * @param res HTTP-respons (skrives direkte)
+     * @throws IOException ved I/O-feil
+     */
+    @RequestMapping(value = "/files/**", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serve(HttpServletRequest req, HttpServletResponse res) throws IOException {
+        String prefix = req.getContextPath() + "/files/";
+        // Stidekoding, ikke skjemadekoding: '+' er et vanlig tegn i filnavn
+        String relative = UriUtils.decode(req.getRequestURI().substring(prefix.length()), StandardCharsets.UTF_8);
+        String name = relative.substring(relative.lastIndexOf('/') + 1);
+
+        int w = intParam(req, "w");
+        int h = intParam(req, "h");
+        boolean rendition = w != 0 || h != 0;
+        if (rendition && (!renditions.isAllowed(w, h) || !contentType(name).startsWith("image/"))) {
+            res.sendError(HttpStatus.BAD_REQUEST.value(), "Unsupported image size");
+            return;
+        }
+
+        Path path;
+        String etagBase = null; // satt for innholdsadresserte filer (kan caches for alltid)
+        String key;
+        RenditionCache.Source source;
+        if (relative.startsWith("blobs/")) {
+            var blob = BLOB_NAME.matcher(relative);
+            if (!blob.matches()) {
+                res.sendError(HttpStatus.NOT_FOUND.value());
+                return;
+            }
+            String hash = blob.group(1);
+            path = blobs.localPath(hash);
+            if (path == null && !rendition) {
+                serveRemote(hash, name, req, res);
+                return;
+            }
+            etagBase = hash;
+            key = hash;
+            Path local = path;
+            source = local != null ? () -> Files.newInputStream(local) : () -> blobs.open(hash);
+        } else {
+            path = root.resolve(relative).normalize();
+            if (!relative.startsWith(AVATARS) || !path.startsWith(root.resolve(AVATARS))) {
+                res.sendError(HttpStatus.NOT_FOUND.value());
+                return;
+            }
+            var matcher = CONTENT_ADDRESSED.matcher(name);
+            if (matcher.matches()) etagBase = matcher.group(1);
+            key = rendition ? versionKey(path) : null;
+            Path local = path;
+            source = () -> Files.newInputStream(local);
+        }
+
+        if (rendition) {
+            if (key == null) {
+                res.sendError(HttpStatus.NOT_FOUND.value());
+                return;
+            }
+            try {
+                path = renditions.get(key, w, h, source);
+            } catch (RejectedExecutionException | TimeoutException ex) {
+                res.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                res.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+                return;
+            } catch (NoSuchFileException ex) {
+                res.sendError(HttpStatus.NOT_FOUND.value());
+                return;
+            } catch (IllegalArgumentException ex) {
+                res.sendError(HttpStatus.BAD_REQUEST.value(), "Unsupported image");
+                return;
+            }
+            if (etagBase != null) etagBase += "_" + w + "x" + h;
+            name = path.getFileName().toString();
+        }
+
+        serveFile(path, name, etagBase, req, res);
+    }
+
+    /**
+     * Sender en lokal fil med ETag, Range-støtte og sendfile.
+     *
+     * @param etagBase innholdsadressert ETag (filen endres aldri), eller null for å hashe innholdet
+     */
+    private void serveFile(Path path, String name, String etagBase,
+                           HttpServletRequest req, HttpServletResponse res) throws IOException {
+        var entry = files.acquire(path);
+        if (entry == null) {
+            res.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        try {
+            boolean immutable = etagBase != null;
+            String etag = "\"" + (immutable ? etagBase : entry.contentHash()) + "\"";
+
+            res.setHeader(HttpHeaders.ETAG, etag);
+            res.setHeader(HttpHeaders.CACHE_CONTROL, immutable ? IMMUTABLE : REVALIDATE);
+            res.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+            if (matchesEtag(req.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+                res.setStatus(HttpStatus.NOT_MODIFIED.value());
+                return;
+            }
+
+            res.setContentType(contentType(name));
+
+            long size = entry.size();
+            long start = 0;
+            long end = size; // eksklusiv
+
+            String range = req.getHeader(HttpHeaders.RANGE);
+            String ifRange = req.getHeader(HttpHeaders.IF_RANGE);
+            if (range != null && (ifRange == null || ifRange.equals(etag))) {
+                long[] r = parseRange(range, size);
+                if (r == null) {
+                    res.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    res.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    return;
+                }
+                if (r.length == 2) {
+                    start = r[0];
+                    end = r[1];
+                    res.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                    res.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + size);
+                }
+            }
+
+            long length = end - start;
+            res.setContentLengthLong(length);
+            if ("HEAD".equals(req.getMethod()) || length == 0) return;
+
+            if (length >= SENDFILE_MIN_BYTES
+                    && Boolean.TRUE.equals(req.getAttribute("org.apache.tomcat.sendfile.support"))) {
+                // Tomcat overtar: filen sendes fra kjernen etter at servleten har returnert
+                req.setAttribute("org.apache.tomcat.sendfile.filename", path.toString());
+                req.setAttribute("org.apache.tomcat.sendfile.start", start);
+                req.setAttribute("org.apache.tomcat.sendfile.end", end);
+                return;
+            }
+
+            WritableByteChannel out = Channels.newChannel(res.getOutputStream());
+            long pos = start;
+            while (pos < end) {
+                long n = entry.channel().transferTo(pos, end - pos, out);
+                if (n <= 0) break;
+                pos += n;
+            }
+        } finally {
+            files.release(entry);
+        }
+    }
+
+    /**
+     * Serverer en blob fra et eksternt lager: redirect til offentlig adresse
+     * hvis lageret har en, ellers strømmes innholdet gjennom appen.
+     */
+    private void serveRemote(String hash, String name, HttpServletRequest req, HttpServletResponse res)
+            throws IOException {
+        String etag = "\"" + hash + "\"";
+        res.setHeader(HttpHeaders.ETAG, etag);
+        res.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE);
+        if (matchesEtag(req.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            res.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        var uri = blobs.publicUri(hash);
+        if (uri != null) {
+            res.setStatus(HttpStatus.FOUND.value());
+            res.setHeader(HttpHeaders.LOCATION, uri.toString());
+            return;
+        }
+
+        if (!blobs.exists(hash)) {
+            res.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        res.setContentType(contentType(name));
+        if ("HEAD".equals(req.getMethod())) return;
+        try (var in = blobs.open(hash)) {
+            in.transferTo(res.getOutputStream());
+        }
+    }
+
+    /** Nøkkel for renditions av filer som ikke er innholdsadresserte: endres når filen endres. */
+    private static String versionKey(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) return null;
+        var attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        try {
+            var md = MessageDigest.getInstance("SHA-256");
+            md.update((path + ":" + attrs.size() + ":" + attrs.lastModifiedTime().toMillis())
+                    .getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(md.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static int intParam(HttpServletRequest req, String name) {
+        String v = req.getParameter(name);
+        if (v == null || v.isBlank()) return 0;
+        try {
+            return Integer.parseInt(v.trim());
+        } catch (NumberFormatException ex) {
+            return -1; // aldri tillatt
+        }
+    }
+
+    private static String contentType(String name) {
+        return MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+    }
+
+    /**
+     * Sjekker om en If-None-Match-header matcher ETag-en (støtter lister og "*").
+     */
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.startsWith("W/")) c = c.substring(2);
+            if (c.equals("*") || c.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Tolker en Range-header med ett byteintervall.
+     *
+     * @return {@code [start, endExclusive]}; tom array hvis headeren skal ignoreres
+     *         (ukjent enhet eller flere intervaller); null hvis intervallet ikke kan oppfylles
+     */
+    private static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) return new long[0];
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) return new long[0];
+        try {
+            String a = spec.substring(0, dash).trim();
+            String b = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (a.isEmpty()) {
+                // "bytes=-500" → siste 500 bytes
+                long suffix = Long.parseLong(b);
+                if (suffix <= 0) return null;
+                start = Math.max(0, size - suffix);
+                end = size;
+            } else {
+                start = Long.parseLong(a);
+                end = b.isEmpty() ? size : Math.min(size, Long.parseLong(b) + 1);
+            }
+            if (start >= size || start >= end) return null;
+            return new long[]{start, end};
+        } catch (NumberFormatException ex) {
+            return new long[0];
+        }
+    }
+}
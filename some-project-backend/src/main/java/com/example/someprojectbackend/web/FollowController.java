@@ -1,16 +1,23 @@
 package com.example.someprojectbackend.web;
 
+import com.example.someprojectbackend.cache.VersionCounters;
 import com.example.someprojectbackend.domain.User;
 import com.example.someprojectbackend.repo.UserRepository;
+import com.example.someprojectbackend.search.UserDirectory;
 import com.example.someprojectbackend.service.FollowService;
 import com.example.someprojectbackend.service.PostService;
 import com.example.someprojectbackend.web.dto.common.CursorDto;
 import com.example.someprojectbackend.web.dto.user.FollowStatsDto;
+import com.example.someprojectbackend.web.dto.post.NewPostsDto;
+import com.example.someprojectbackend.web.dto.post.PostFields;
 import com.example.someprojectbackend.web.dto.post.PostsPageDto;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.security.Principal;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.UUID;
 
@@ -25,14 +32,23 @@ import java.util.UUID;
 @RestController
 @RequestMapping("/api")
 public class FollowController {
+    /** Følgetall: alltid revalider, men vis gammel versjon mens det skjer. */
+    private static final CacheControl STATS_CACHE =
+            CacheControl.maxAge(Duration.ZERO).cachePrivate().staleWhileRevalidate(Duration.ofSeconds(10));
+
     private final FollowService followService;
     private final PostService postService;
     private final UserRepository users;
+    private final UserDirectory directory;
+    private final VersionCounters versions;
 
-    public FollowController(FollowService followService, PostService postService, UserRepository users) {
+    public FollowController(FollowService followService, PostService postService, UserRepository users,
+                            UserDirectory directory, VersionCounters versions) {
         this.followService = followService;
         this.postService = postService;
         this.users = users;
+        this.directory = directory;
+        this.versions = versions;
     }
 
     /**
@@ -77,10 +93,16 @@ public class FollowController {
      *
      * @param displayName brukeren vi henter statistikk for
      * @param principal   innlogget bruker (kan være null, men brukes til "followingByMe"-flagget)
+     * @param request     for {@code If-None-Match}; 304 uten databasekall når følgetallene er uendret
      * @return DTO med followers, following og "followingByMe"
      */
     @GetMapping(value = "/users/{displayName}/follow-stats", produces = MediaType.APPLICATION_JSON_VALUE)
-    public FollowStatsDto stats(@PathVariable String displayName, Principal principal) {
+    public FollowStatsDto stats(@PathVariable String displayName, Principal principal, ServletWebRequest request) {
+        var id = directory.resolve(displayName).orElse(null);
+        if (id != null && ConditionalGet.notModified(request,
+                versions.etag(principal, "follow-stats", versions.user(id)), STATS_CACHE)) {
+            return null;
+        }
         var me = current(principal);
         return followService.getStats(me, displayName);
     }
@@ -96,18 +118,40 @@ public class FollowController {
      * @param limit           maks antall innlegg
      * @param cursorCreatedAt tidspunkt for siste post fra forrige side (valgfritt)
      * @param cursorId        id til siste post fra forrige side (valgfritt)
+     * @param fields          innleggsfelt som skal hentes og skrives ut (valgfritt, se {@link PostFields})
      * @param principal       innlogget bruker
      * @return feed-side med innlegg
      */
-    @GetMapping(value = "/home", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping(value = "/home", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
     public PostsPageDto home(@RequestParam(defaultValue = "10") int limit,
                              @RequestParam(required = false) String cursorCreatedAt,
                              @RequestParam(required = false) UUID cursorId,
+                             @RequestParam(required = false) String fields,
                              Principal principal) {
+        var selected = PostFields.parse(fields);
         var me = current(principal);
         var cursor = (cursorCreatedAt != null && cursorId != null)
                 ? new CursorDto(Instant.parse(cursorCreatedAt), cursorId)
                 : null;
-        return postService.listHome(me, limit, cursor);
+        return postService.listHome(me, limit, cursor, selected);
+    }
+
+    /**
+     * Antall nye innlegg i home-feeden etter toppen av klientens feed (høyst 99).
+     * <p>
+     * GET /api/home/since?createdAt=...&id=...&ids=false
+     *
+     * @param createdAt tidspunkt til øverste innlegg klienten har
+     * @param id        id til øverste innlegg klienten har
+     * @param ids       om ID-ene til de nye innleggene skal med
+     * @param principal innlogget bruker
+     * @return antall (og evt. ID-er) nye innlegg
+     */
+    @GetMapping(value = "/home/since", produces = MediaType.APPLICATION_JSON_VALUE)
+    public NewPostsDto homeSince(@RequestParam String createdAt,
+                                 @RequestParam UUID id,
+                                 @RequestParam(defaultValue = "false") boolean ids,
+                                 Principal principal) {
+        return postService.countSinceHome(current(principal), new CursorDto(Instant.parse(createdAt), id), ids);
     }
 }
@@ -0,0 +1,63 @@
+package com.example.someprojectbackend.web;
+
+import com.example.someprojectbackend.views.HyperLogLog;
+import com.example.someprojectbackend.views.ViewCounter;
+import com.example.someprojectbackend.web.dto.view.ImpressionsRequest;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.HashSet;
+import java.util.UUID;
+
+/**
+ * REST-controller for visninger ("impressions") av innlegg.
+ * <p>
+ * Visningene telles unikt per seer i {@link ViewCounter}; kallet gjør ingen databasekall.
+ * Innloggede brukere identifiseres med kontoen, anonyme med IP-adresse og User-Agent.
+ */
+@RestController
+@RequestMapping("/api")
+public class ImpressionsController {
+
+    private static final int MAX_POSTS = 100;
+
+    private final ViewCounter views;
+
+    public ImpressionsController(ViewCounter views) {
+        this.views = views;
+    }
+
+    /**
+     * Registrerer at seeren har sett en eller flere innlegg.
+     * <p>
+     * POST /api/impressions
+     */
+    @PostMapping(value = "/impressions", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void record(@RequestBody ImpressionsRequest req, Principal principal, HttpServletRequest request) {
+        if (req == null || req.postIds() == null || req.postIds().isEmpty()) return;
+        if (req.postIds().size() > MAX_POSTS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_POSTS + " posts per request");
+        }
+        long viewer = viewerHash(principal, request);
+        for (UUID postId : new HashSet<>(req.postIds())) {
+            if (postId != null) views.record(postId, viewer);
+        }
+    }
+
+    /**
+     * Stabil 64-bits hash av seeren.
+     */
+    private static long viewerHash(Principal principal, HttpServletRequest request) {
+        String key = principal != null
+                ? "u:" + principal.getName()
+                : "a:" + request.getRemoteAddr() + "|" + request.getHeader("User-Agent");
+        UUID id = UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8));
+        return HyperLogLog.hash(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+}
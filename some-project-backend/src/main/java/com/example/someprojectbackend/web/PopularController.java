@@ -1,14 +1,20 @@
 // src/main/java/com/example/someprojectbackend/web/PopularController.java
 package com.example.someprojectbackend.web;
 
+import com.example.someprojectbackend.cache.VersionCounters;
 import com.example.someprojectbackend.domain.User;
 import com.example.someprojectbackend.repo.UserRepository;
 import com.example.someprojectbackend.service.PopularService;
 import com.example.someprojectbackend.web.dto.popular.PopularPostsPageDto;
+import com.example.someprojectbackend.web.dto.post.PostFields;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.security.Principal;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.UUID;
 
@@ -23,12 +29,23 @@ import java.util.UUID;
 @RequestMapping("/api")
 public class PopularController {
 
+    /** Populære innlegg endres sakte; kort friskhet og lang stale-while-revalidate. */
+    private static final CacheControl POPULAR_CACHE =
+            CacheControl.maxAge(Duration.ofSeconds(10)).cachePrivate().staleWhileRevalidate(Duration.ofSeconds(60));
+
+    /** Tidsvinduet glir; ETag-en byttes minst så ofte. */
+    private static final long WINDOW_BUCKET_MS = 60_000;
+
     private final PopularService popular;
     private final UserRepository users;
+    private final VersionCounters versions;
+    private final Clock clock;
 
-    public PopularController(PopularService popular, UserRepository users) {
+    public PopularController(PopularService popular, UserRepository users, VersionCounters versions, Clock clock) {
         this.popular = popular;
         this.users = users;
+        this.versions = versions;
+        this.clock = clock;
     }
 
     /**
@@ -49,24 +66,32 @@ public class PopularController {
      * - range: tidsvindu ("day"/"24h" eller "week"/"7d"), default = "day"
      * - limit: maks antall innlegg (1–50, default 10)
      * - cursorScore, cursorCreatedAt, cursorId: brukes for keyset pagination
+     * - fields: kommaseparerte innleggsfelt (se {@link PostFields}); default = alle
      *
      * @param range           tidsvindu (day eller week)
      * @param limit           maks antall resultater
      * @param cursorScore     score til siste post fra forrige side
      * @param cursorCreatedAt tidspunkt til siste post fra forrige side
      * @param cursorId        id til siste post fra forrige side
+     * @param fields          innleggsfelt som skal hentes og skrives ut (valgfritt)
      * @param principal       innlogget bruker (kan være null)
+     * @param request         for {@code If-None-Match}; 304 uten databasekall når feed-versjonen er uendret
      * @return en side med populære innlegg + cursor til neste side
      */
-    @GetMapping(value = "/popular", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping(value = "/popular", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
     public PopularPostsPageDto popular(
             @RequestParam(defaultValue = "day") String range,
             @RequestParam(defaultValue = "10") int limit,
             @RequestParam(required = false) Long cursorScore,
             @RequestParam(required = false) String cursorCreatedAt,
             @RequestParam(required = false) UUID cursorId,
-            Principal principal
+            @RequestParam(required = false) String fields,
+            Principal principal,
+            ServletWebRequest request
     ) {
+        var selected = PostFields.parse(fields);
+        String etag = versions.etag(principal, "popular", versions.feeds(), clock.millis() / WINDOW_BUCKET_MS);
+        if (ConditionalGet.notModified(request, etag, POPULAR_CACHE)) return null;
         Instant createdAt = (cursorCreatedAt != null ? Instant.parse(cursorCreatedAt) : null);
         return popular.listPopular(
                 range,
@@ -74,7 +99,8 @@ public class PopularController {
                 cursorScore,
                 createdAt,
                 cursorId,
-                viewerId(principal)
+                viewerId(principal),
+                selected
         );
     }
 }
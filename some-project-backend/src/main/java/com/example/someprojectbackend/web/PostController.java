@@ -1,5 +1,6 @@
 package com.example.someprojectbackend.web;
 
+import com.example.someprojectbackend.cache.VersionCounters;
 import com.example.someprojectbackend.domain.User;
 import com.example.someprojectbackend.repo.UserRepository;
 import com.example.someprojectbackend.service.PostService;
@@ -9,13 +10,18 @@ import com.example.someprojectbackend.web.dto.comment.CommentsPageDto;
 import com.example.someprojectbackend.web.dto.comment.CreateCommentRequest;
 import com.example.someprojectbackend.web.dto.common.CursorDto;
 import com.example.someprojectbackend.web.dto.post.CreatePostRequest;
+import com.example.someprojectbackend.web.dto.post.NewPostsDto;
 import com.example.someprojectbackend.web.dto.post.PostDto;
+import com.example.someprojectbackend.web.dto.post.PostFields;
 import com.example.someprojectbackend.web.dto.post.PostsPageDto;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.security.Principal;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.UUID;
 
@@ -27,19 +33,29 @@ import java.util.UUID;
  * - likes/unlikes
  * - kommentarer
  * - SSE-stream for sanntidsoppdateringer
+ * <p>
+ * Endringene sendes ikke til SSE-klientene herfra; tjenesten skriver domenehendelser til
+ * outboxen, og {@link com.example.someprojectbackend.sse.PostSseSubscriber} sender dem etter commit.
  */
 @RestController
 @RequestMapping("/api")
 public class PostController {
 
+    /** Global feed: alltid revalider, men vis gammel side mens det skjer. */
+    private static final CacheControl FEED_CACHE =
+            CacheControl.maxAge(Duration.ZERO).cachePrivate().staleWhileRevalidate(Duration.ofSeconds(10));
+
     private final PostService service;
     private final PostSseHub hub;
     private final UserRepository userRepository;
+    private final VersionCounters versions;
 
-    public PostController(PostService service, PostSseHub hub, UserRepository userRepository) {
+    public PostController(PostService service, PostSseHub hub, UserRepository userRepository,
+                          VersionCounters versions) {
         this.service = service;
         this.hub = hub;
         this.userRepository = userRepository;
+        this.versions = versions;
     }
 
     /**
@@ -55,17 +71,39 @@ public class PostController {
      * Henter global feed av innlegg med keyset pagination.
      * <p>
      * GET /api/posts
+     * <p>
+     * Svarer 304 uten databasekall når {@code If-None-Match} matcher feed-versjonen
+     * (se {@link VersionCounters}). {@code fields} velger hvilke innleggsfelt som hentes og
+     * skrives ut (se {@link PostFields}).
      */
-    @GetMapping(value = "/posts", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping(value = "/posts", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
     public PostsPageDto list(@RequestParam(defaultValue = "10") int limit,
                              @RequestParam(required = false) String cursorCreatedAt,
                              @RequestParam(required = false) UUID cursorId,
-                             Principal principal) {
+                             @RequestParam(required = false) String fields,
+                             Principal principal,
+                             ServletWebRequest request) {
+        var selected = PostFields.parse(fields);
+        String etag = versions.etag(principal, "posts", versions.feeds());
+        if (ConditionalGet.notModified(request, etag, FEED_CACHE)) return null;
         CursorDto cursor = (cursorCreatedAt != null && cursorId != null)
                 ? new CursorDto(Instant.parse(cursorCreatedAt), cursorId)
                 : null;
         int safeLimit = Math.max(1, Math.min(limit, 50));
-        return service.list(safeLimit, cursor, current(principal));
+        return service.list(safeLimit, cursor, current(principal), selected);
+    }
+
+    /**
+     * Antall innlegg som er nyere enn toppen av klientens feed (høyst 99, {@code more} = "99+").
+     * Erstatter polling av {@code GET /api/posts} for "nye innlegg"-merket.
+     * <p>
+     * GET /api/posts/since?createdAt=...&id=...&ids=false
+     */
+    @GetMapping(value = "/posts/since", produces = MediaType.APPLICATION_JSON_VALUE)
+    public NewPostsDto since(@RequestParam String createdAt,
+                             @RequestParam UUID id,
+                             @RequestParam(defaultValue = "false") boolean ids) {
+        return service.countSince(new CursorDto(Instant.parse(createdAt), id), ids);
     }
 
     /**
@@ -76,10 +114,17 @@ public class PostController {
     @PostMapping(value = "/posts", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public PostDto create(@RequestBody CreatePostRequest req, Principal principal) {
         if (principal == null) throw new RuntimeException("Authentication required");
-        var user = current(principal);
-        var dto = service.create(req, user);
-        hub.broadcastPost(dto);
-        return dto;
+        return service.create(req, current(principal));
+    }
+
+    /**
+     * Henter ett innlegg med antall likes, kommentarer og visninger.
+     * <p>
+     * GET /api/posts/{postId}
+     */
+    @GetMapping(value = "/posts/{postId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public PostDto get(@PathVariable UUID postId, Principal principal) {
+        return service.snapshot(postId, current(principal));
     }
 
     /**
@@ -87,17 +132,55 @@ public class PostController {
      * <p>
      * GET /api/users/{displayName}/posts
      */
-    @GetMapping(value = "/users/{displayName}/posts", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping(value = "/users/{displayName}/posts", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
     public PostsPageDto listByUser(@PathVariable String displayName,
                                    @RequestParam(defaultValue = "10") int limit,
                                    @RequestParam(required = false) String cursorCreatedAt,
                                    @RequestParam(required = false) UUID cursorId,
+                                   @RequestParam(required = false) String fields,
                                    Principal principal) {
+        var selected = PostFields.parse(fields);
+        CursorDto cursor = (cursorCreatedAt != null && cursorId != null)
+                ? new CursorDto(Instant.parse(cursorCreatedAt), cursorId)
+                : null;
+        int safeLimit = Math.max(1, Math.min(limit, 50));
+        return service.listByAuthor(displayName, safeLimit, cursor, current(principal), selected);
+    }
+
+    /**
+     * Henter innlegg med en gitt tagg ({@code #tagg}).
+     * <p>
+     * GET /api/tags/{tag}/posts
+     */
+    @GetMapping(value = "/tags/{tag}/posts", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public PostsPageDto listByTag(@PathVariable String tag,
+                                  @RequestParam(defaultValue = "10") int limit,
+                                  @RequestParam(required = false) String cursorCreatedAt,
+                                  @RequestParam(required = false) UUID cursorId,
+                                  Principal principal) {
         CursorDto cursor = (cursorCreatedAt != null && cursorId != null)
                 ? new CursorDto(Instant.parse(cursorCreatedAt), cursorId)
                 : null;
         int safeLimit = Math.max(1, Math.min(limit, 50));
-        return service.listByAuthor(displayName, safeLimit, cursor, current(principal));
+        return service.listByTag(tag, safeLimit, cursor, current(principal));
+    }
+
+    /**
+     * Henter innlegg der en bestemt bruker er omtalt ({@code @navn}).
+     * <p>
+     * GET /api/users/{displayName}/mentions
+     */
+    @GetMapping(value = "/users/{displayName}/mentions", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public PostsPageDto listMentions(@PathVariable String displayName,
+                                     @RequestParam(defaultValue = "10") int limit,
+                                     @RequestParam(required = false) String cursorCreatedAt,
+                                     @RequestParam(required = false) UUID cursorId,
+                                     Principal principal) {
+        CursorDto cursor = (cursorCreatedAt != null && cursorId != null)
+                ? new CursorDto(Instant.parse(cursorCreatedAt), cursorId)
+                : null;
+        int safeLimit = Math.max(1, Math.min(limit, 50));
+        return service.listMentions(displayName, safeLimit, cursor, current(principal));
     }
 
     // --- Likes ---
@@ -109,13 +192,7 @@ public class PostController {
      */
     @PostMapping(value = "/posts/{postId}/likes", produces = MediaType.APPLICATION_JSON_VALUE)
     public PostDto like(@PathVariable UUID postId, Principal principal) {
-        var user = current(principal);
-        var dto = service.like(postId, user);
-        try {
-            hub.broadcastPost(dto);
-        } catch (Exception ignored) {
-        }
-        return dto;
+        return service.like(postId, current(principal));
     }
 
     /**
@@ -125,13 +202,7 @@ public class PostController {
      */
     @DeleteMapping(value = "/posts/{postId}/likes", produces = MediaType.APPLICATION_JSON_VALUE)
     public PostDto unlike(@PathVariable UUID postId, Principal principal) {
-        var user = current(principal);
-        var dto = service.unlike(postId, user);
-        try {
-            hub.broadcastPost(dto);
-        } catch (Exception ignored) {
-        }
-        return dto;
+        return service.unlike(postId, current(principal));
     }
 
     // --- Comments ---
@@ -148,14 +219,7 @@ public class PostController {
                                  @RequestBody CreateCommentRequest req,
                                  Principal principal) {
         if (principal == null) throw new RuntimeException("Authentication required");
-        var user = current(principal);
-
-        var comment = service.addComment(postId, req.content(), user);
-
-        var freshPost = service.snapshot(postId, user);
-        hub.broadcastPost(freshPost);
-
-        return comment;
+        return service.addComment(postId, req.content(), current(principal));
     }
 
     /**
@@ -163,7 +227,7 @@ public class PostController {
      * <p>
      * GET /api/posts/{postId}/comments
      */
-    @GetMapping(value = "/posts/{postId}/comments", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping(value = "/posts/{postId}/comments", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
     public CommentsPageDto listComments(@PathVariable UUID postId,
                                         @RequestParam(defaultValue = "10") int limit,
                                         @RequestParam(required = false) String cursorCreatedAt,
@@ -197,11 +261,6 @@ public class PostController {
     @DeleteMapping(value = "/posts/{postId}")
     public void delete(@PathVariable UUID postId, Principal principal) {
         if (principal == null) throw new RuntimeException("Authentication required");
-        var user = current(principal);
-        service.deletePost(postId, user);
-        try {
-            hub.broadcastPostDeleted(postId);
-        } catch (Exception ignored) {
-        }
+        service.deletePost(postId, current(principal));
     }
 }
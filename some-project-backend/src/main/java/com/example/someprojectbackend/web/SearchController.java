@@ -0,0 +1,71 @@
+package com.example.someprojectbackend.web;
+
+import com.example.someprojectbackend.domain.User;
+import com.example.someprojectbackend.repo.UserRepository;
+import com.example.someprojectbackend.service.PostSearchService;
+import com.example.someprojectbackend.web.dto.search.SearchPostsPageDto;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * REST-controller for fulltekstsøk i innlegg.
+ * <p>
+ * Bygger på {@link PostSearchService}; treffene rangeres etter tekstrelevans,
+ * engasjement (likes/kommentarer) og ferskhet, med keyset pagination.
+ */
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    private final PostSearchService search;
+    private final UserRepository users;
+
+    public SearchController(PostSearchService search, UserRepository users) {
+        this.search = search;
+        this.users = users;
+    }
+
+    /**
+     * Henter viewerId fra Principal (kan være null hvis ikke innlogget).
+     */
+    private UUID viewerId(Principal principal) {
+        if (principal == null) return null;
+        return users.findByEmail(principal.getName())
+                .map(User::getId)
+                .orElse(null);
+    }
+
+    /**
+     * Søker i innlegg.
+     * <p>
+     * GET /api/search/posts?q=ferie&limit=20
+     * <p>
+     * - q: søkestreng (min 2 tegn); støtter "frase", -utelat og or
+     * - limit: maks antall treff (1–50, default 20)
+     * - cursorRank, cursorCreatedAt, cursorId: brukes for keyset pagination
+     *
+     * @param q               søkestreng
+     * @param limit           maks antall resultater
+     * @param cursorRank      rank til siste treff fra forrige side
+     * @param cursorCreatedAt tidspunkt til siste treff fra forrige side
+     * @param cursorId        id til siste treff fra forrige side
+     * @param principal       innlogget bruker (kan være null)
+     * @return en side med treff + cursor til neste side
+     */
+    @GetMapping(value = "/posts", produces = MediaType.APPLICATION_JSON_VALUE)
+    public SearchPostsPageDto posts(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) Double cursorRank,
+            @RequestParam(required = false) String cursorCreatedAt,
+            @RequestParam(required = false) UUID cursorId,
+            Principal principal
+    ) {
+        Instant createdAt = (cursorCreatedAt != null ? Instant.parse(cursorCreatedAt) : null);
+        return search.search(q, limit, cursorRank, createdAt, cursorId, viewerId(principal));
+    }
+}
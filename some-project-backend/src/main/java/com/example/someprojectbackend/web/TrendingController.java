@@ -0,0 +1,38 @@
+package com.example.someprojectbackend.web;
+
+import com.example.someprojectbackend.trending.TrendingEngine;
+import com.example.someprojectbackend.web.dto.trending.TrendingTagDto;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST-controller for trendende tagger.
+ * <p>
+ * Svarer fra {@link TrendingEngine} i minnet; ingen databasekall.
+ */
+@RestController
+@RequestMapping("/api")
+public class TrendingController {
+
+    private final TrendingEngine trending;
+
+    public TrendingController(TrendingEngine trending) {
+        this.trending = trending;
+    }
+
+    /**
+     * Henter tagger som brukes uvanlig mye akkurat nå.
+     * <p>
+     * GET /api/trending?limit=10
+     *
+     * @param limit maks antall tagger (1–50, default 10)
+     * @return trendende tagger, sterkest først
+     */
+    @GetMapping(value = "/trending", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<TrendingTagDto> trending(@RequestParam(defaultValue = "10") int limit) {
+        int safeLimit = Math.max(1, Math.min(limit, 50));
+        return trending.top(safeLimit).stream().map(TrendingTagDto::from).toList();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.someprojectbackend.web;
+
+import com.example.someprojectbackend.domain.User;
+import com.example.someprojectbackend.repo.UserRepository;
+import com.example.someprojectbackend.service.UploadService;
+import com.example.someprojectbackend.web.dto.upload.CreateUploadRequest;
+import com.example.someprojectbackend.web.dto.upload.UploadSessionDto;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.util.UUID;
+
+/**
+ * REST-controller for gjenopptakbare opplastinger (bilder til innlegg).
+ * <p>
+ * Protokoll:
+ *  1. {@code POST /api/uploads} med størrelse og type → sesjon med {@code id} og {@code chunkSize}
+ *  2. {@code PUT /api/uploads/{id}?offset=N} med rå bytes (maks {@code chunkSize}) → ny {@code offset}
+ *  3. ved brudd: {@code GET /api/uploads/{id}} gir {@code offset} å fortsette fra
+ *  4. {@code POST /api/uploads/{id}/complete} → {@code url} til bildet
+ *  5. {@code POST /api/posts} med {@code uploadId} knytter bildet til innlegget
+ */
+@RestController
+@RequestMapping("/api/uploads")
+public class UploadController {
+
+    private final UploadService uploads;
+    private final UserRepository userRepository;
+
+    public UploadController(UploadService uploads, UserRepository userRepository) {
+        this.uploads = uploads;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Henter innlogget bruker fra {@link Principal}.
+     */
+    private User current(Principal principal) {
+        if (principal == null) throw new RuntimeException("Authentication required");
+        return userRepository.findByEmail(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    /**
+     * Starter en ny opplasting.
+     * <p>
+     * POST /api/uploads
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public UploadSessionDto create(@RequestBody CreateUploadRequest req, Principal principal) {
+        return uploads.create(current(principal), req.size(), req.contentType());
+    }
+
+    /**
+     * Henter status (mottatt offset) for en opplasting.
+     * <p>
+     * GET /api/uploads/{id}
+     */
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public UploadSessionDto status(@PathVariable UUID id, Principal principal) {
+        return uploads.status(id, current(principal));
+    }
+
+    /**
+     * Sender én bit av filen. Body er rå bytes.
+     * <p>
+     * PUT /api/uploads/{id}?offset=N
+     */
+    @PutMapping(value = "/{id}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public UploadSessionDto append(@PathVariable UUID id,
+                                   @RequestParam long offset,
+                                   HttpServletRequest request,
+                                   Principal principal) throws IOException {
+        return uploads.append(id, current(principal), offset, request.getInputStream());
+    }
+
+    /**
+     * Fullfører opplastingen.
+     * <p>
+     * POST /api/uploads/{id}/complete
+     */
+    @PostMapping(value = "/{id}/complete", produces = MediaType.APPLICATION_JSON_VALUE)
+    public UploadSessionDto complete(@PathVariable UUID id, Principal principal) throws IOException {
+        return uploads.complete(id, current(principal));
+    }
+}
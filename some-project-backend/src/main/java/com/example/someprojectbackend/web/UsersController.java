@@ -1,14 +1,22 @@
 package com.example.someprojectbackend.web;
 
+import com.example.someprojectbackend.cache.VersionCounters;
 import com.example.someprojectbackend.repo.UserRepository;
+import com.example.someprojectbackend.search.UserDirectory;
+import com.example.someprojectbackend.search.UserSearchIndex;
+import com.example.someprojectbackend.service.ProfileService;
 import com.example.someprojectbackend.web.dto.user.UserProfileDto;
 import com.example.someprojectbackend.web.dto.user.UserSearchDto;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
@@ -24,10 +32,24 @@ import java.util.Map;
 @RequestMapping("/api/users")
 public class UsersController {
 
+    /** Profiler endres sjelden; revalider, men vis gammel versjon i opptil et minutt mens det skjer. */
+    private static final CacheControl PROFILE_CACHE =
+            CacheControl.maxAge(Duration.ZERO).staleWhileRevalidate(Duration.ofSeconds(60));
+
     private final UserRepository users;
+    private final UserSearchIndex searchIndex;
+    private final UserDirectory directory;
+    private final ProfileService profiles;
+    private final VersionCounters versions;
 
-    public UsersController(UserRepository users) {
+    public UsersController(UserRepository users, UserSearchIndex searchIndex,
+                           UserDirectory directory, ProfileService profiles,
+                           VersionCounters versions) {
         this.users = users;
+        this.searchIndex = searchIndex;
+        this.directory = directory;
+        this.profiles = profiles;
+        this.versions = versions;
     }
 
     /**
@@ -37,23 +59,45 @@ public class UsersController {
      * <p>
      * - Minimum 2 tegn i søkestrengen (ellers returneres tom liste for å unngå full table scan).
      * - Maks limit = 20.
+     * - Besvares fra {@link UserSearchIndex} i minnet; navn som starter med søket rangeres først,
+     *   deretter etter antall følgere.
+     * - Finnes flere treff settes {@code X-Next-Cursor}; send den tilbake som {@code cursor} for neste side.
+     * - Mens indeksen bygges ved oppstart brukes databasen (kun første side).
      *
-     * @param q     søkestreng (min 2 tegn)
-     * @param limit maks antall resultater (default 8, max 20)
+     * @param q      søkestreng (min 2 tegn)
+     * @param limit  maks antall resultater (default 8, max 20)
+     * @param cursor cursor fra forrige side (valgfri)
      * @return liste med brukere som matcher
      */
     @GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
     public List<UserSearchDto> search(
             @RequestParam(name = "q", required = false) String q,
-            @RequestParam(name = "limit", defaultValue = "8") int limit
+            @RequestParam(name = "limit", defaultValue = "8") int limit,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            HttpServletResponse response
     ) {
         if (q == null || q.trim().length() < 2) {
             return List.of();
         }
         int safeLimit = Math.max(1, Math.min(limit, 20));
-        var page = PageRequest.of(0, safeLimit);
 
-        return users.searchByDisplayName(q.trim(), page).stream()
+        if (!searchIndex.isReady()) {
+            if (cursor != null) return List.of();
+            return users.searchByDisplayName(q.trim(), PageRequest.of(0, safeLimit)).stream()
+                    .map(UserSearchDto::from)
+                    .toList();
+        }
+
+        UserSearchIndex.Page page;
+        try {
+            page = searchIndex.search(q.trim(), safeLimit, cursor);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+        if (page.nextCursor() != null) {
+            response.setHeader("X-Next-Cursor", page.nextCursor());
+        }
+        return page.hits().stream()
                 .map(UserSearchDto::from)
                 .toList();
     }
@@ -64,13 +108,19 @@ public class UsersController {
      * GET /api/users/{displayName}
      *
      * @param displayName visningsnavn til brukeren
+     * @param request     for {@code If-None-Match}; 304 uten databasekall når profilen er uendret
      * @return brukerprofil
      * @throws ResponseStatusException hvis brukeren ikke finnes (404)
      */
     @GetMapping(value = "/{displayName:^(?!me$|search$).+}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public UserProfileDto getByDisplayName(@PathVariable String displayName) {
-        final var dn = displayName == null ? "" : displayName.trim();
-        var user = users.findByDisplayNameCaseInsensitive(dn)
+    public UserProfileDto getByDisplayName(@PathVariable String displayName, ServletWebRequest request) {
+        var id = directory.resolve(displayName)
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND, "User not found with name " + displayName));
+        if (ConditionalGet.notModified(request, versions.etag(null, "user", versions.user(id)), PROFILE_CACHE)) {
+            return null;
+        }
+        var user = users.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.NOT_FOUND, "User not found with name " + displayName));
         return UserProfileDto.from(user);
@@ -100,8 +150,8 @@ public class UsersController {
         bio = (bio == null) ? "" : bio.trim();
         if (bio.length() > 280) bio = bio.substring(0, 280);
 
+        profiles.updateBio(me.getId(), bio);
         me.setBio(bio);
-        users.save(me);
         return UserProfileDto.from(me);
     }
 }
@@ -1,6 +1,8 @@
 package com.example.someprojectbackend.web.dto.comment;
 
+import com.example.someprojectbackend.cache.UserSummary;
 import com.example.someprojectbackend.domain.Comment;
+import com.example.someprojectbackend.media.AvatarVariant;
 
 import java.time.Instant;
 import java.util.UUID;
@@ -14,7 +16,7 @@ import java.util.UUID;
  * Felter:
  * - id: unik kommentar-ID (UUID)
  * - author: visningsnavn til forfatteren
- * - authorAvatarUrl: URL/sti til forfatterens avatar
+ * - authorAvatarUrl: URL/sti til forfatterens avatar (96 px-variant)
  * - content: selve kommentarteksten
  * - createdAt: tidspunkt da kommentaren ble opprettet
  */
@@ -28,15 +30,15 @@ public record CommentDto(
     /**
      * Mapper en {@link Comment}-entitet til en {@link CommentDto}.
      *
-     * @param c kommentar-entitet
+     * @param c      kommentar-entitet
+     * @param author forfatterens sammendrag (fra {@code UserSummaryCache})
      * @return en DTO med forfatterinfo, innhold og metadata
      */
-    public static CommentDto from(Comment c) {
-        var u = c.getAuthor();
+    public static CommentDto from(Comment c, UserSummary author) {
         return new CommentDto(
                 c.getId(),
-                u.getDisplayName(),
-                u.getAvatarKey(),
+                author.displayName(),
+                AvatarVariant.MEDIUM.url(author.avatarKey()),
                 c.getContent(),
                 c.getCreatedAt()
         );
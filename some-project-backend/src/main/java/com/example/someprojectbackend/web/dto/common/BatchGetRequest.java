@@ -0,0 +1,18 @@
+package com.example.someprojectbackend.web.dto.common;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Request-body for batch-oppslag på ID.
+ * <p>
+ * Brukes i {@code POST /api/posts:batchGet} og {@code POST /api/users:batchGet}
+ * (maks 100 ID-er per kall). Duplikater er tillatt.
+ * <p>
+ * Felter:
+ * - ids: ID-ene som skal slås opp, i ønsket rekkefølge
+ */
+public record BatchGetRequest(
+        List<UUID> ids
+) {
+}
@@ -0,0 +1,18 @@
+package com.example.someprojectbackend.web.dto.event;
+
+import java.util.UUID;
+
+/**
+ * Én analysehendelse i {@link EventsRequest}.
+ * <p>
+ * Felter:
+ * - type: "impression", "dwell" eller "click"
+ * - postId: innlegget hendelsen gjelder
+ * - value: dwell-tid i millisekunder (ignoreres for andre typer)
+ */
+public record EventDto(
+        String type,
+        UUID postId,
+        Long value
+) {
+}
@@ -0,0 +1,17 @@
+package com.example.someprojectbackend.web.dto.event;
+
+import java.util.List;
+
+/**
+ * Request-body for å sende analysehendelser.
+ * <p>
+ * Brukes i {@code POST /api/events}. Frontend samler hendelser og sender dem
+ * samlet (maks 500 per kall).
+ * <p>
+ * Felter:
+ * - events: hendelsene, i rekkefølge
+ */
+public record EventsRequest(
+        List<EventDto> events
+) {
+}
@@ -1,6 +1,8 @@
 package com.example.someprojectbackend.web.dto.popular;
 
 import com.example.someprojectbackend.web.dto.post.PostDto;
+import com.example.someprojectbackend.web.dto.post.PostFields;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import java.util.List;
 
@@ -12,6 +14,7 @@ import java.util.List;
  * Felter:
  * - posts: liste med {@link PostDto} (populære innlegg)
  * - nextCursor: peker til neste side (kan være {@code null} hvis ingen flere innlegg)
+ * - fields: hvilke innleggsfelt som skrives ut (ikke selv en del av svaret, se {@link PostFields})
  * <p>
  * Dette muliggjør effektiv keyset pagination i "popular"-feed:
  * klienten sender med {@link PopularCursorDto}-feltene i neste request
@@ -19,6 +22,10 @@ import java.util.List;
  */
 public record PopularPostsPageDto(
         List<PostDto> posts,
-        PopularCursorDto nextCursor
+        PopularCursorDto nextCursor,
+        @JsonIgnore PostFields fields
 ) {
+    public PopularPostsPageDto(List<PostDto> posts, PopularCursorDto nextCursor) {
+        this(posts, nextCursor, PostFields.ALL);
+    }
 }
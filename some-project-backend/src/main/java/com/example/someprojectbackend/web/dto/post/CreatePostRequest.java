@@ -1,5 +1,7 @@
 package com.example.someprojectbackend.web.dto.post;
 
+import java.util.UUID;
+
 /**
  * Request-body for å opprette et nytt innlegg (post).
  * <p>
@@ -10,10 +12,13 @@ package com.example.someprojectbackend.web.dto.post;
  * basert på innlogget bruker, så dette feltet kan ignoreres på backend.
  * - content: selve innleggets tekst (påkrevd)
  * - imageUrl: URL eller sti til et eventuelt bilde (kan være null)
+ * - uploadId: ID til en fullført opplasting fra {@code /api/uploads} (kan være null);
+ *   overstyrer imageUrl når den er satt
  */
 public record CreatePostRequest(
         String author,
         String content,
-        String imageUrl
+        String imageUrl,
+        UUID uploadId
 ) {
 }
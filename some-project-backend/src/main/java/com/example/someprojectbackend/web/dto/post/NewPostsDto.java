@@ -0,0 +1,33 @@
+package com.example.someprojectbackend.web.dto.post;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO for "nye innlegg siden"-merket i feeden.
+ * <p>
+ * Brukes i {@code GET /api/posts/since} og {@code GET /api/home/since}.
+ * <p>
+ * Felter:
+ * - count: antall nyere innlegg, høyst {@link #CAP}
+ * - more: true hvis det finnes flere enn {@link #CAP} (vises som "99+")
+ * - ids: ID-ene til de nyere innleggene, nyeste først (bare med {@code ids=true}, ellers null)
+ */
+public record NewPostsDto(
+        int count,
+        boolean more,
+        List<UUID> ids
+) {
+    /** Høyeste antall som telles. */
+    public static final int CAP = 99;
+
+    /**
+     * @param newer   ID-er til nyere innlegg, nyeste først (hentet med grense {@code CAP + 1})
+     * @param withIds om ID-ene skal med i svaret
+     * @return DTO med avkortet antall
+     */
+    public static NewPostsDto of(List<UUID> newer, boolean withIds) {
+        int count = Math.min(newer.size(), CAP);
+        return new NewPostsDto(count, newer.size() > CAP, withIds ? List.copyOf(newer.subList(0, count)) : null);
+    }
+}
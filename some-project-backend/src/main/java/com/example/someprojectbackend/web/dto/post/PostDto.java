@@ -1,6 +1,10 @@
 package com.example.someprojectbackend.web.dto.post;
 
+import com.example.someprojectbackend.cache.UserSummary;
 import com.example.someprojectbackend.domain.Post;
+import com.example.someprojectbackend.domain.PostData;
+import com.example.someprojectbackend.media.AvatarVariant;
+import com.example.someprojectbackend.media.RenditionCache;
 
 import java.time.Instant;
 import java.util.UUID;
@@ -14,12 +18,14 @@ import java.util.UUID;
  * Felter:
  * - id: unik post-ID (UUID)
  * - author: visningsnavn til forfatteren
- * - authorAvatarUrl: avatar-bilde til forfatteren (kan være null)
+ * - authorAvatarUrl: avatar-bilde til forfatteren, 96 px-variant (kan være null)
  * - content: tekstinnholdet i innlegget
- * - imageUrl: evt. bilde knyttet til innlegget (kan være null)
+ * - imageUrl: evt. bilde knyttet til innlegget, i full oppløsning (kan være null)
+ * - imageThumbUrl: nedskalert versjon av bildet for feeden (kan være null)
  * - createdAt: tidspunkt da posten ble opprettet
  * - likeCount: antall likes
  * - commentCount: antall kommentarer
+ * - viewCount: estimert antall unike seere (se {@code ViewCounter})
  * - likedByMe: true hvis innlogget bruker har likt innlegget
  */
 public record PostDto(
@@ -28,34 +34,42 @@ public record PostDto(
         String authorAvatarUrl,
         String content,
         String imageUrl,
+        String imageThumbUrl,
         Instant createdAt,
         long likeCount,
         long commentCount,
+        long viewCount,
         boolean likedByMe
 ) {
     /**
-     * Mapper en {@link Post}-entitet til en {@link PostDto}.
+     * Mapper et innlegg ({@link Post}-entitet eller feed-projeksjon) til en {@link PostDto}.
      *
      * @param p            selve innlegget
+     * @param author       forfatterens sammendrag (fra {@code UserSummaryCache}), eller null når
+     *                     forfatteren ikke er bedt om
      * @param likeCount    antall likes
      * @param commentCount antall kommentarer
+     * @param viewCount    estimert antall unike seere
      * @param likedByMe    true hvis innlogget bruker har likt posten
      * @return DTO med ferdig aggregert data
      */
-    public static PostDto from(Post p,
+    public static PostDto from(PostData p,
+                               UserSummary author,
                                long likeCount,
                                long commentCount,
+                               long viewCount,
                                boolean likedByMe) {
-        var u = p.getAuthor();
         return new PostDto(
                 p.getId(),
-                u.getDisplayName(),
-                u.getAvatarKey(),
+                author != null ? author.displayName() : null,
+                author != null ? AvatarVariant.MEDIUM.url(author.avatarKey()) : null,
                 p.getContent(),
                 p.getImageUrl(),
+                RenditionCache.url(p.getImageUrl(), RenditionCache.FEED_WIDTH),
                 p.getCreatedAt(),
                 likeCount,
                 commentCount,
+                viewCount,
                 likedByMe
         );
     }
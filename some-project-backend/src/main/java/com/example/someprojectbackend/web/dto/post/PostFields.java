@@ -0,0 +1,136 @@
+package com.example.someprojectbackend.web.dto.post;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Hvilke felt i {@link PostDto} klienten har bedt om ({@code ?fields=id,author,likeCount,preview}).
+ * <p>
+ * Brukes både til å droppe felt i svaret og til å la være å hente data ingen har bedt om:
+ * innholdet kortes ned allerede i SQL, og tellere, likt-av-meg og forfattere slås bare opp
+ * når de trengs (se {@code PostHydrator}).
+ * <p>
+ * {@code id} tas alltid med. {@code preview} er ikke en del av standardsvaret; det er
+ * innholdet forkortet til {@link #PREVIEW_LENGTH} tegn, for lister som ikke viser hele teksten.
+ */
+public final class PostFields {
+
+    /** Felt som kan velges, i den rekkefølgen de skrives. */
+    public enum Field {
+        ID("id"),
+        AUTHOR("author"),
+        AUTHOR_AVATAR_URL("authorAvatarUrl"),
+        CONTENT("content"),
+        PREVIEW("preview"),
+        IMAGE_URL("imageUrl"),
+        IMAGE_THUMB_URL("imageThumbUrl"),
+        CREATED_AT("createdAt"),
+        LIKE_COUNT("likeCount"),
+        COMMENT_COUNT("commentCount"),
+        VIEW_COUNT("viewCount"),
+        LIKED_BY_ME("likedByMe");
+
+        private final String jsonName;
+
+        Field(String jsonName) {
+            this.jsonName = jsonName;
+        }
+
+        public String jsonName() {
+            return jsonName;
+        }
+    }
+
+    /** Antall tegn (kodepunkter) i {@code preview}. */
+    public static final int PREVIEW_LENGTH = 140;
+
+    /** Standardsvaret: alle felt unntatt {@code preview}. */
+    public static final PostFields ALL = new PostFields(EnumSet.complementOf(EnumSet.of(Field.PREVIEW)));
+
+    private final Set<Field> fields;
+
+    private PostFields(EnumSet<Field> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Tolker {@code fields}-parameteren.
+     *
+     * @param csv kommaseparerte feltnavn som i JSON (f.eks. {@code "id,author,likeCount"}), eller null
+     * @return valgte felt; {@link #ALL} hvis parameteren mangler eller er tom
+     * @throws ResponseStatusException 400 ved ukjent feltnavn
+     */
+    public static PostFields parse(String csv) {
+        if (csv == null || csv.isBlank()) return ALL;
+        var set = EnumSet.of(Field.ID);
+        for (String part : csv.split(",")) {
+            String name = part.trim();
+            if (name.isEmpty()) continue;
+            set.add(byName(name));
+        }
+        return set.equals(ALL.fields) ? ALL : new PostFields(set);
+    }
+
+    private static Field byName(String name) {
+        for (Field f : Field.values()) {
+            if (f.jsonName.equalsIgnoreCase(name)) return f;
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown field: " + name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * @param field felt
+     * @return true hvis feltet skal med i svaret
+     */
+    public boolean has(Field field) {
+        return fields.contains(field);
+    }
+
+    /** @return true hvis forfatternavn eller avatar skal med (krever oppslag i brukercachen) */
+    public boolean needsAuthor() {
+        return has(Field.AUTHOR) || has(Field.AUTHOR_AVATAR_URL);
+    }
+
+    /**
+     * Hvor mye av innholdet spørringen trenger å hente.
+     *
+     * @return {@link Integer#MAX_VALUE} for hele teksten, {@link #PREVIEW_LENGTH} for bare
+     *         forhåndsvisning, 0 når innholdet ikke skal med
+     */
+    public int contentLength() {
+        if (has(Field.CONTENT)) return Integer.MAX_VALUE;
+        return has(Field.PREVIEW) ? PREVIEW_LENGTH : 0;
+    }
+
+    /**
+     * Forkorter en tekst til {@link #PREVIEW_LENGTH} kodepunkter (samme telling som
+     * {@code substring} i Postgres, så det ikke deles midt i et surrogatpar).
+     *
+     * @param content innhold (kan være null)
+     * @return forkortet innhold
+     */
+    public static String preview(String content) {
+        if (content == null || content.length() <= PREVIEW_LENGTH) return content;
+        if (content.codePointCount(0, content.length()) <= PREVIEW_LENGTH) return content;
+        return content.substring(0, content.offsetByCodePoints(0, PREVIEW_LENGTH));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PostFields other && fields.equals(other.fields);
+    }
+
+    @Override
+    public int hashCode() {
+        return fields.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return fields.toString();
+    }
+}
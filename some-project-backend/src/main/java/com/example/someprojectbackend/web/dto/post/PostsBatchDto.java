@@ -0,0 +1,14 @@
+package com.example.someprojectbackend.web.dto.post;
+
+import java.util.List;
+
+/**
+ * DTO for svaret på {@code POST /api/posts:batchGet}.
+ * <p>
+ * Felter:
+ * - posts: ett element per ID i requesten, i samme rekkefølge; {@code null} der innlegget ikke finnes
+ */
+public record PostsBatchDto(
+        List<PostDto> posts
+) {
+}
@@ -1,6 +1,7 @@
 package com.example.someprojectbackend.web.dto.post;
 
 import com.example.someprojectbackend.web.dto.common.CursorDto;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import java.util.List;
 
@@ -15,12 +16,17 @@ import java.util.List;
  * Felter:
  * - posts: liste med {@link PostDto}
  * - nextCursor: peker til neste side (eller {@code null} hvis ingen flere resultater)
+ * - fields: hvilke innleggsfelt som skrives ut (ikke selv en del av svaret, se {@link PostFields})
  * <p>
  * Gir effektiv keyset pagination, der klienten sender med cursor
  * fra forrige side for å hente neste.
  */
 public record PostsPageDto(
         List<PostDto> posts,
-        CursorDto nextCursor
+        CursorDto nextCursor,
+        @JsonIgnore PostFields fields
 ) {
+    public PostsPageDto(List<PostDto> posts, CursorDto nextCursor) {
+        this(posts, nextCursor, PostFields.ALL);
+    }
 }
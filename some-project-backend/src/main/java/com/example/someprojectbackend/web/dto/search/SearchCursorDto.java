@@ -0,0 +1,21 @@
+package com.example.someprojectbackend.web.dto.search;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Cursor-DTO for paginering i søkeresultater.
+ * <p>
+ * Brukes i {@code GET /api/search/posts}.
+ * <p>
+ * Felter:
+ * - rank: rangeringen til siste treff (tekstrelevans + engasjement + ferskhet)
+ * - createdAt: tidspunkt da innlegget ble opprettet
+ * - id: unik ID (UUID) til innlegget (skiller treff med lik rank og tidspunkt)
+ */
+public record SearchCursorDto(
+        double rank,
+        Instant createdAt,
+        UUID id
+) {
+}
@@ -0,0 +1,20 @@
+package com.example.someprojectbackend.web.dto.search;
+
+import com.example.someprojectbackend.web.dto.post.PostDto;
+
+import java.util.List;
+
+/**
+ * DTO som representerer en side med søketreff.
+ * <p>
+ * Brukes i {@code GET /api/search/posts}.
+ * <p>
+ * Felter:
+ * - posts: liste med {@link PostDto}, best rangert først
+ * - nextCursor: peker til neste side (kan være {@code null} hvis ingen flere treff)
+ */
+public record SearchPostsPageDto(
+        List<PostDto> posts,
+        SearchCursorDto nextCursor
+) {
+}
@@ -0,0 +1,29 @@
+package com.example.someprojectbackend.web.dto.trending;
+
+import com.example.someprojectbackend.trending.TrendingEngine;
+
+/**
+ * DTO for en trendende tagg.
+ * <p>
+ * Brukes i {@code GET /api/trending}.
+ * <p>
+ * Felter:
+ * - tag: taggen (uten {@code #}, små bokstaver)
+ * - count: estimert antall innlegg med taggen i trendvinduet
+ * - velocity: hvor mye oftere taggen brukes nå enn normalt (1.0 = som vanlig)
+ */
+public record TrendingTagDto(
+        String tag,
+        long count,
+        double velocity
+) {
+    /**
+     * Mapper en {@link TrendingEngine.Trend} til en {@link TrendingTagDto}.
+     *
+     * @param t trend fra motoren
+     * @return DTO
+     */
+    public static TrendingTagDto from(TrendingEngine.Trend t) {
+        return new TrendingTagDto(t.tag(), t.count(), Math.round(t.velocity() * 100) / 100.0);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.someprojectbackend.web.dto.upload;
+
+/**
+ * Request-body for å starte en gjenopptakbar opplasting.
+ * <p>
+ * Brukes i {@code POST /api/uploads}.
+ * <p>
+ * Felter:
+ * - size: total filstørrelse i bytes
+ * - contentType: MIME-type (image/jpeg, image/png eller image/gif)
+ */
+public record CreateUploadRequest(
+        long size,
+        String contentType
+) {
+}
@@ -0,0 +1,27 @@
+package com.example.someprojectbackend.web.dto.upload;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * DTO som beskriver tilstanden til en gjenopptakbar opplasting.
+ * <p>
+ * Felter:
+ * - id: sesjons-ID (brukes som {@code uploadId} når innlegget opprettes)
+ * - size: total filstørrelse
+ * - offset: antall bytes mottatt; neste bit skal sendes fra denne posisjonen
+ * - complete: true når opplastingen er fullført og kan knyttes til et innlegg
+ * - url: URL til filen (kun når complete er true)
+ * - chunkSize: maks størrelse per bit
+ * - expiresAt: når sesjonen slettes hvis den ikke er brukt
+ */
+public record UploadSessionDto(
+        UUID id,
+        long size,
+        long offset,
+        boolean complete,
+        String url,
+        long chunkSize,
+        Instant expiresAt
+) {
+}
@@ -7,7 +7,7 @@ package com.example.someprojectbackend.web.dto.user;
  * <p>
  * Felter:
  * - displayName: brukerens visningsnavn
- * - avatarUrl: URL/sti til brukerens avatar
+ * - avatarUrl: URL/sti til brukerens avatar (256 px-variant)
  * - followers: antall følgere
  * - following: antall brukere denne følger
  * - followingByMe: true hvis den innloggede brukeren følger denne
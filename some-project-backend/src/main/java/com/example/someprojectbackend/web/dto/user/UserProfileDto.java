@@ -1,6 +1,7 @@
 package com.example.someprojectbackend.web.dto.user;
 
 import com.example.someprojectbackend.domain.User;
+import com.example.someprojectbackend.media.AvatarVariant;
 
 import java.util.UUID;
 
@@ -14,7 +15,7 @@ import java.util.UUID;
  * - id: unik bruker-ID (UUID)
  * - displayName: brukerens visningsnavn (unikt)
  * - email: e-postadresse (kan være vist kun til eieren av profilen)
- * - avatarUrl: sti/URL til brukerens avatar (kan være null)
+ * - avatarUrl: sti/URL til brukerens avatar, 256 px-variant (kan være null)
  * - bio: kort biografi (maks 280 tegn, kan være null)
  */
 public record UserProfileDto(
@@ -35,7 +36,7 @@ public record UserProfileDto(
                 u.getId(),
                 u.getDisplayName(),
                 u.getEmail(),
-                u.getAvatarKey(),
+                AvatarVariant.LARGE.url(u.getAvatarKey()),
                 u.getBio()
         );
     }
@@ -1,6 +1,8 @@
 package com.example.someprojectbackend.web.dto.user;
 
 import com.example.someprojectbackend.domain.User;
+import com.example.someprojectbackend.media.AvatarVariant;
+import com.example.someprojectbackend.search.UserSearchIndex;
 
 import java.util.UUID;
 
@@ -12,7 +14,7 @@ import java.util.UUID;
  * Felter:
  * - id: unik bruker-ID (UUID)
  * - displayName: visningsnavn (unikt)
- * - avatarUrl: url til profilbilde
+ * - avatarUrl: url til profilbilde (48 px-variant)
  * <p>
  * Dette er en lettvektsrepresentasjon av en bruker
  * som egner seg for søkeresultat-lister, autocomplete osv.
@@ -32,6 +34,19 @@ public record UserSearchDto(
         return new UserSearchDto(
                 u.getId(),
                 u.getDisplayName(),
-                u.getAvatarKey());
+                AvatarVariant.SMALL.url(u.getAvatarKey()));
+    }
+
+    /**
+     * Mapper et treff fra søkeindeksen til en {@link UserSearchDto}.
+     *
+     * @param h treff fra {@link UserSearchIndex}
+     * @return DTO med id, displayName og avatar-URL
+     */
+    public static UserSearchDto from(UserSearchIndex.Hit h) {
+        return new UserSearchDto(
+                h.id(),
+                h.displayName(),
+                AvatarVariant.SMALL.url(h.avatarKey()));
     }
 }
@@ -0,0 +1,30 @@
+package com.example.someprojectbackend.web.dto.user;
+
+import com.example.someprojectbackend.cache.UserSummary;
+import com.example.someprojectbackend.media.AvatarVariant;
+
+import java.util.UUID;
+
+/**
+ * DTO med det en liste trenger om en bruker (varsler, likes, følgere).
+ * <p>
+ * Felter:
+ * - id: unik bruker-ID (UUID)
+ * - displayName: visningsnavn
+ * - avatarUrl: url til profilbilde (96 px-variant, kan være null)
+ */
+public record UserSummaryDto(
+        UUID id,
+        String displayName,
+        String avatarUrl
+) {
+    /**
+     * Mapper et {@link UserSummary} fra cachen til en {@link UserSummaryDto}.
+     *
+     * @param s sammendrag
+     * @return DTO
+     */
+    public static UserSummaryDto from(UserSummary s) {
+        return new UserSummaryDto(s.id(), s.displayName(), AvatarVariant.MEDIUM.url(s.avatarKey()));
+    }
+}
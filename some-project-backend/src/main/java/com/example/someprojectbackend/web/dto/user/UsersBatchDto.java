@@ -0,0 +1,14 @@
+package com.example.someprojectbackend.web.dto.user;
+
+import java.util.List;
+
+/**
+ * DTO for svaret på {@code POST /api/users:batchGet}.
+ * <p>
+ * Felter:
+ * - users: ett element per ID i requesten, i samme rekkefølge; {@code null} der brukeren ikke finnes
+ */
+public record UsersBatchDto(
+        List<UserSummaryDto> users
+) {
+}
@@ -0,0 +1,18 @@
+package com.example.someprojectbackend.web.dto.view;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Request-body for å registrere visninger av innlegg.
+ * <p>
+ * Brukes i {@code POST /api/impressions}. Frontend samler innleggene som har vært
+ * synlige i feeden og sender dem samlet (maks 100 per kall).
+ * <p>
+ * Felter:
+ * - postIds: ID-ene til innleggene som er vist
+ */
+public record ImpressionsRequest(
+        List<UUID> postIds
+) {
+}
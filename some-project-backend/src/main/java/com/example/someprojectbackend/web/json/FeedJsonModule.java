@@ -0,0 +1,353 @@
+package com.example.someprojectbackend.web.json;
+
+import com.example.someprojectbackend.web.dto.comment.CommentDto;
+import com.example.someprojectbackend.web.dto.comment.CommentsPageDto;
+import com.example.someprojectbackend.web.dto.common.CursorDto;
+import com.example.someprojectbackend.web.dto.popular.PopularCursorDto;
+import com.example.someprojectbackend.web.dto.popular.PopularPostsPageDto;
+import com.example.someprojectbackend.web.dto.post.PostDto;
+import com.example.someprojectbackend.web.dto.post.PostFields;
+import com.example.someprojectbackend.web.dto.post.PostFields.Field;
+import com.example.someprojectbackend.web.dto.post.PostsPageDto;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Jackson-modul med håndskrevne serializere for de hete side-DTO-ene
+ * ({@link PostsPageDto}, {@link PopularPostsPageDto}, {@link CommentsPageDto}).
+ * <p>
+ * Serializerne skriver feltene direkte til {@link JsonGenerator} i fast rekkefølge, med
+ * feltnavn som er kodet på forhånd ({@link SerializedString}), i stedet for å slå opp
+ * record-komponentene med refleksjon og gå via Jacksons generiske bean-serializer.
+ * UUID-er og tidspunkter formateres inn i en gjenbrukt {@code char[]} per side i stedet for
+ * via {@code toString()}. Utdata er byte for byte lik den generiske serialiseringen.
+ * <p>
+ * Innleggssidene skriver bare feltene i sidens {@link PostFields} ({@code ?fields=}); med
+ * standardutvalget er svaret det samme som før.
+ * <p>
+ * Serializerne bruker bare generator-API-et, så de virker like godt for CBOR
+ * (se {@link com.example.someprojectbackend.config.JacksonConfig}). Spring Boot registrerer
+ * modulen i den globale {@code ObjectMapper}-en fordi den er en bønne.
+ */
+@Component
+public class FeedJsonModule extends SimpleModule {
+
+    private static final SerializableString POSTS = new SerializedString("posts");
+    private static final SerializableString COMMENTS = new SerializedString("comments");
+    private static final SerializableString NEXT_CURSOR = new SerializedString("nextCursor");
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString AUTHOR = new SerializedString("author");
+    private static final SerializableString AUTHOR_AVATAR_URL = new SerializedString("authorAvatarUrl");
+    private static final SerializableString CONTENT = new SerializedString("content");
+    private static final SerializableString PREVIEW = new SerializedString("preview");
+    private static final SerializableString IMAGE_URL = new SerializedString("imageUrl");
+    private static final SerializableString IMAGE_THUMB_URL = new SerializedString("imageThumbUrl");
+    private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializableString LIKE_COUNT = new SerializedString("likeCount");
+    private static final SerializableString COMMENT_COUNT = new SerializedString("commentCount");
+    private static final SerializableString VIEW_COUNT = new SerializedString("viewCount");
+    private static final SerializableString LIKED_BY_ME = new SerializedString("likedByMe");
+    private static final SerializableString SCORE = new SerializedString("score");
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /** År 0000–9999: her gir Instant.toString() alltid fire sifre uten fortegn. */
+    private static final long MIN_SECONDS = -62_167_219_200L;
+    private static final long MAX_SECONDS = 253_402_300_800L;
+
+    public FeedJsonModule() {
+        super("FeedJsonModule");
+        addSerializer(PostDto.class, new PostSerializer());
+        addSerializer(PostsPageDto.class, new PostsPageSerializer());
+        addSerializer(PopularPostsPageDto.class, new PopularPostsPageSerializer());
+        addSerializer(CommentDto.class, new CommentSerializer());
+        addSerializer(CommentsPageDto.class, new CommentsPageSerializer());
+    }
+
+    // --- Serializere ---
+
+    static final class PostSerializer extends StdSerializer<PostDto> {
+        PostSerializer() {
+            super(PostDto.class);
+        }
+
+        @Override
+        public void serialize(PostDto p, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writePost(p, gen, new Scratch(), PostFields.ALL);
+        }
+    }
+
+    static final class PostsPageSerializer extends StdSerializer<PostsPageDto> {
+        PostsPageSerializer() {
+            super(PostsPageDto.class);
+        }
+
+        @Override
+        public void serialize(PostsPageDto page, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            var scratch = new Scratch();
+            gen.writeStartObject(page);
+            writePosts(page.posts(), gen, scratch, page.fields());
+            gen.writeFieldName(NEXT_CURSOR);
+            writeCursor(page.nextCursor(), gen, scratch);
+            gen.writeEndObject();
+        }
+    }
+
+    static final class PopularPostsPageSerializer extends StdSerializer<PopularPostsPageDto> {
+        PopularPostsPageSerializer() {
+            super(PopularPostsPageDto.class);
+        }
+
+        @Override
+        public void serialize(PopularPostsPageDto page, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            var scratch = new Scratch();
+            gen.writeStartObject(page);
+            writePosts(page.posts(), gen, scratch, page.fields());
+            gen.writeFieldName(NEXT_CURSOR);
+            PopularCursorDto c = page.nextCursor();
+            if (c == null) {
+                gen.writeNull();
+            } else {
+                gen.writeStartObject(c);
+                gen.writeFieldName(SCORE);
+                gen.writeNumber(c.score());
+                instant(gen, CREATED_AT, c.createdAt(), scratch);
+                uuid(gen, ID, c.id(), scratch);
+                gen.writeEndObject();
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    static final class CommentSerializer extends StdSerializer<CommentDto> {
+        CommentSerializer() {
+            super(CommentDto.class);
+        }
+
+        @Override
+        public void serialize(CommentDto c, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeComment(c, gen, new Scratch());
+        }
+    }
+
+    static final class CommentsPageSerializer extends StdSerializer<CommentsPageDto> {
+        CommentsPageSerializer() {
+            super(CommentsPageDto.class);
+        }
+
+        @Override
+        public void serialize(CommentsPageDto page, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            var scratch = new Scratch();
+            gen.writeStartObject(page);
+            gen.writeFieldName(COMMENTS);
+            List<CommentDto> comments = page.comments();
+            if (comments == null) {
+                gen.writeNull();
+            } else {
+                gen.writeStartArray(comments, comments.size());
+                for (CommentDto c : comments) writeComment(c, gen, scratch);
+                gen.writeEndArray();
+            }
+            gen.writeFieldName(NEXT_CURSOR);
+            writeCursor(page.nextCursor(), gen, scratch);
+            gen.writeEndObject();
+        }
+    }
+
+    // --- Felles skriving ---
+
+    private static void writePosts(List<PostDto> posts, JsonGenerator gen, Scratch scratch, PostFields fields)
+            throws IOException {
+        gen.writeFieldName(POSTS);
+        if (posts == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartArray(posts, posts.size());
+        for (PostDto p : posts) writePost(p, gen, scratch, fields);
+        gen.writeEndArray();
+    }
+
+    private static void writePost(PostDto p, JsonGenerator gen, Scratch scratch, PostFields fields) throws IOException {
+        if (p == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject(p);
+        uuid(gen, ID, p.id(), scratch);
+        if (fields.has(Field.AUTHOR)) string(gen, AUTHOR, p.author());
+        if (fields.has(Field.AUTHOR_AVATAR_URL)) string(gen, AUTHOR_AVATAR_URL, p.authorAvatarUrl());
+        if (fields.has(Field.CONTENT)) string(gen, CONTENT, p.content());
+        if (fields.has(Field.PREVIEW)) string(gen, PREVIEW, PostFields.preview(p.content()));
+        if (fields.has(Field.IMAGE_URL)) string(gen, IMAGE_URL, p.imageUrl());
+        if (fields.has(Field.IMAGE_THUMB_URL)) string(gen, IMAGE_THUMB_URL, p.imageThumbUrl());
+        if (fields.has(Field.CREATED_AT)) instant(gen, CREATED_AT, p.createdAt(), scratch);
+        if (fields.has(Field.LIKE_COUNT)) {
+            gen.writeFieldName(LIKE_COUNT);
+            gen.writeNumber(p.likeCount());
+        }
+        if (fields.has(Field.COMMENT_COUNT)) {
+            gen.writeFieldName(COMMENT_COUNT);
+            gen.writeNumber(p.commentCount());
+        }
+        if (fields.has(Field.VIEW_COUNT)) {
+            gen.writeFieldName(VIEW_COUNT);
+            gen.writeNumber(p.viewCount());
+        }
+        if (fields.has(Field.LIKED_BY_ME)) {
+            gen.writeFieldName(LIKED_BY_ME);
+            gen.writeBoolean(p.likedByMe());
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeComment(CommentDto c, JsonGenerator gen, Scratch scratch) throws IOException {
+        gen.writeStartObject(c);
+        uuid(gen, ID, c.id(), scratch);
+        string(gen, AUTHOR, c.author());
+        string(gen, AUTHOR_AVATAR_URL, c.authorAvatarUrl());
+        string(gen, CONTENT, c.content());
+        instant(gen, CREATED_AT, c.createdAt(), scratch);
+        gen.writeEndObject();
+    }
+
+    private static void writeCursor(CursorDto c, JsonGenerator gen, Scratch scratch) throws IOException {
+        if (c == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject(c);
+        instant(gen, CREATED_AT, c.createdAt(), scratch);
+        uuid(gen, ID, c.id(), scratch);
+        gen.writeEndObject();
+    }
+
+    private static void string(JsonGenerator gen, SerializableString name, String value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) gen.writeNull();
+        else gen.writeString(value);
+    }
+
+    /** UUID som tekst, eller som 16 bytes i binære formater (samme som Jacksons {@code UUIDSerializer}). */
+    private static void uuid(JsonGenerator gen, SerializableString name, UUID value, Scratch scratch) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+            return;
+        }
+        long msb = value.getMostSignificantBits();
+        long lsb = value.getLeastSignificantBits();
+        if (gen.canWriteBinaryNatively()) {
+            byte[] b = scratch.bytes;
+            for (int i = 0; i < 8; i++) {
+                b[i] = (byte) (msb >>> (56 - 8 * i));
+                b[8 + i] = (byte) (lsb >>> (56 - 8 * i));
+            }
+            gen.writeBinary(b, 0, 16);
+            return;
+        }
+        char[] c = scratch.chars;
+        hex(c, 0, msb >>> 32, 8);
+        c[8] = '-';
+        hex(c, 9, msb >>> 16, 4);
+        c[13] = '-';
+        hex(c, 14, msb, 4);
+        c[18] = '-';
+        hex(c, 19, lsb >>> 48, 4);
+        c[23] = '-';
+        hex(c, 24, lsb, 12);
+        gen.writeString(c, 0, 36);
+    }
+
+    /**
+     * Instant som ISO-8601 i UTC, likt {@link Instant#toString()} (brøkdelen i grupper på 3 sifre),
+     * skrevet rett fra epoke-sekundene uten mellomliggende objekter.
+     */
+    private static void instant(JsonGenerator gen, SerializableString name, Instant value, Scratch scratch)
+            throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+            return;
+        }
+        long seconds = value.getEpochSecond();
+        if (seconds < MIN_SECONDS || seconds >= MAX_SECONDS) {
+            gen.writeString(value.toString());
+            return;
+        }
+        long days = Math.floorDiv(seconds, 86_400);
+        int secondOfDay = (int) Math.floorMod(seconds, 86_400);
+
+        // Sivil dato fra dager siden 1970-01-01 (H. Hinnants "civil_from_days")
+        long z = days + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        int doe = (int) (z - era * 146_097);
+        int yoe = (doe - doe / 1460 + doe / 36_524 - doe / 146_096) / 365;
+        int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        int mp = (5 * doy + 2) / 153;
+        int day = doy - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = (int) (yoe + era * 400) + (month <= 2 ? 1 : 0);
+
+        char[] c = scratch.chars;
+        digits(c, 0, year, 4);
+        c[4] = '-';
+        digits(c, 5, month, 2);
+        c[7] = '-';
+        digits(c, 8, day, 2);
+        c[10] = 'T';
+        digits(c, 11, secondOfDay / 3600, 2);
+        c[13] = ':';
+        digits(c, 14, secondOfDay / 60 % 60, 2);
+        c[16] = ':';
+        digits(c, 17, secondOfDay % 60, 2);
+        int len = 19;
+        int nanos = value.getNano();
+        if (nanos > 0) {
+            c[len++] = '.';
+            if (nanos % 1_000_000 == 0) {
+                digits(c, len, nanos / 1_000_000, 3);
+                len += 3;
+            } else if (nanos % 1_000 == 0) {
+                digits(c, len, nanos / 1_000, 6);
+                len += 6;
+            } else {
+                digits(c, len, nanos, 9);
+                len += 9;
+            }
+        }
+        c[len++] = 'Z';
+        gen.writeString(c, 0, len);
+    }
+
+    private static void hex(char[] out, int offset, long value, int count) {
+        for (int i = offset + count - 1; i >= offset; i--) {
+            out[i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    private static void digits(char[] out, int offset, int value, int count) {
+        for (int i = offset + count - 1; i >= offset; i--) {
+            out[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    /** Gjenbrukbare buffere for én serialisering (én side). */
+    private static final class Scratch {
+        final char[] chars = new char[40];
+        final byte[] bytes = new byte[16];
+    }
+}
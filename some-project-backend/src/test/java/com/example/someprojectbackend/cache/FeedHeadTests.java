@@ -0,0 +1,66 @@
+package com.example.someprojectbackend.cache;
+
+import com.example.someprojectbackend.repo.PostRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FeedHeadTests {
+
+    private static final Instant T = Instant.parse("2025-01-01T12:00:00Z");
+    private static final UUID ALICE = new UUID(0, 1);
+    private static final UUID BOB = new UUID(0, 2);
+
+    private static FeedHead emptyHead(int capacity) {
+        var posts = mock(PostRepository.class);
+        when(posts.findHead(any())).thenReturn(List.of());
+        var head = new FeedHead(posts, capacity);
+        head.load();
+        return head;
+    }
+
+    @Test
+    void countsNewerPostsNewestFirstWithAuthorFilter() {
+        var head = emptyHead(100);
+        for (int i = 1; i <= 5; i++) head.add(new UUID(0, i), i % 2 == 0 ? BOB : ALICE, T.plusSeconds(i));
+
+        assertThat(head.newerThan(T.plusSeconds(2), new UUID(0, 2), null, 100))
+                .containsExactly(new UUID(0, 5), new UUID(0, 4), new UUID(0, 3));
+        assertThat(head.newerThan(T.plusSeconds(2), new UUID(0, 2), Set.of(BOB), 100))
+                .containsExactly(new UUID(0, 4));
+        assertThat(head.newerThan(T, new UUID(0, 0), null, 2)).hasSize(2);
+
+        head.remove(new UUID(0, 5));
+        assertThat(head.newerThan(T.plusSeconds(4), new UUID(0, 4), null, 100)).isEmpty();
+    }
+
+    @Test
+    void cursorOlderThanTheHeadIsLeftToTheDatabase() {
+        var head = emptyHead(2);
+        for (int i = 1; i <= 3; i++) head.add(new UUID(0, i), ALICE, T.plusSeconds(i));
+
+        assertThat(head.size()).isEqualTo(2);
+        assertThat(head.newerThan(T.plusSeconds(1), new UUID(0, 1), null, 100)).isNull();
+        assertThat(head.newerThan(T.plusSeconds(2), new UUID(0, 2), null, 100)).containsExactly(new UUID(0, 3));
+    }
+
+    @Test
+    void idsOrderLikePostgresUuids() {
+        var head = emptyHead(100);
+        var high = new UUID(0xF000_0000_0000_0000L, 0); // negativ som long, men størst i Postgres
+        var low = new UUID(0x1000_0000_0000_0000L, 0);
+        head.add(high, ALICE, T);
+        head.add(low, ALICE, T);
+
+        assertThat(head.newerThan(T, low, null, 100)).containsExactly(high);
+        assertThat(head.newerThan(T, high, null, 100)).isEmpty();
+    }
+}
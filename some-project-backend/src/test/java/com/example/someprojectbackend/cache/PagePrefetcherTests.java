@@ -0,0 +1,97 @@
+package com.example.someprojectbackend.cache;
+
+import com.example.someprojectbackend.limit.ConcurrencyLimitFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PagePrefetcherTests {
+
+    /** Side n med cursor til neste side (bare side 0 har en). */
+    record Page(int n, Integer next) {
+    }
+
+    private static final PlatformTransactionManager NO_TX = new PlatformTransactionManager() {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    };
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    private final Map<Integer, AtomicInteger> loads = new ConcurrentHashMap<>();
+    private final CountDownLatch prefetched = new CountDownLatch(1);
+
+    private PagePrefetcher prefetcher(double maxUtilization) {
+        executor.setCorePoolSize(1);
+        executor.setQueueCapacity(4);
+        executor.initialize();
+        var limits = new ConcurrencyLimitFilter(registry, 20, 100, 50, 200, 10, 50, 1.5);
+        return new PagePrefetcher(executor, limits, NO_TX, registry, Clock.systemUTC(),
+                true, 60_000, 5_000, 100, maxUtilization);
+    }
+
+    private Page load(Integer cursor) {
+        int n = cursor == null ? 0 : cursor;
+        loads.computeIfAbsent(n, k -> new AtomicInteger()).incrementAndGet();
+        if (n == 1) prefetched.countDown();
+        return new Page(n, n == 0 ? 1 : null);
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void nextPageIsServedFromPrefetch() throws Exception {
+        var prefetcher = prefetcher(0.5);
+
+        assertThat(prefetcher.page("feed", null, null, "p", this::load, Page::next).n()).isZero();
+        assertThat(prefetched.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(prefetcher.page("feed", null, 1, "p", this::load, Page::next).n()).isEqualTo(1);
+        assertThat(loads.get(1).get()).isEqualTo(1);
+        assertThat(registry.counter("prefetch.requests", "feed", "feed", "outcome", "hit").count()).isEqualTo(1);
+
+        // Hver side brukes bare én gang; andre parametre er en annen nøkkel
+        prefetcher.page("feed", null, 1, "p", this::load, Page::next);
+        prefetcher.page("feed", null, 1, "other", this::load, Page::next);
+        assertThat(loads.get(1).get()).isEqualTo(3);
+    }
+
+    @Test
+    void nothingIsPrefetchedUnderLoad() {
+        var prefetcher = prefetcher(-1); // alltid "overbelastet"
+
+        prefetcher.page("feed", null, null, "p", this::load, Page::next);
+        assertThat(prefetcher.page("feed", null, 1, "p", this::load, Page::next).n()).isEqualTo(1);
+
+        assertThat(loads.get(1).get()).isEqualTo(1); // hentet av forespørselen, ikke i bakgrunnen
+        assertThat(registry.counter("prefetch.requests", "feed", "feed", "outcome", "miss").count()).isEqualTo(1);
+        assertThat(registry.counter("prefetch.shed").count()).isEqualTo(1);
+    }
+}
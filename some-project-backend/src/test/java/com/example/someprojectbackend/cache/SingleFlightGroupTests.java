@@ -0,0 +1,73 @@
+package com.example.someprojectbackend.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightGroupTests {
+
+    @Test
+    void concurrentCallersWithSameKeyShareOneExecution() throws Exception {
+        var registry = new SimpleMeterRegistry();
+        var group = new SingleFlightGroup("test", registry);
+        var executions = new AtomicInteger();
+        var release = new CountDownLatch(1);
+        int callers = 32;
+
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            var results = new ArrayList<Future<String>>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> execute(group, () -> {
+                    executions.incrementAndGet();
+                    release.await(5, TimeUnit.SECONDS);
+                    return "value";
+                })));
+            }
+            // Vent til alle kallerne har sluttet seg til utførelsen før den slippes
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (registry.counter("singleflight.shared", "name", "test").count() < callers - 1
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (var r : results) assertThat(r.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(registry.summary("singleflight.callers", "name", "test").max()).isEqualTo(callers);
+        assertThat(group.inFlight()).isZero();
+    }
+
+    private static String execute(SingleFlightGroup group, SingleFlightGroup.Call<String> call) throws Exception {
+        try {
+            return group.execute("post-1", call);
+        } catch (Exception | Error ex) {
+            throw ex;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    @Test
+    void failuresAreSharedAndNotRemembered() throws Throwable {
+        var group = new SingleFlightGroup("test", new SimpleMeterRegistry());
+        assertThatThrownBy(() -> group.execute("k", () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat((String) group.execute("k", () -> "ok")).isEqualTo("ok");
+    }
+}
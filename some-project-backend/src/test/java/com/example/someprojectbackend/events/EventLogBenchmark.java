@@ -0,0 +1,79 @@
+package com.example.someprojectbackend.events;
+
+import java.nio.file.Files;
+import java.time.Clock;
+import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Gjennomstrømning for {@link EventLog}: flere produsenttråder sender batcher slik
+ * request-trådene gjør, og én skrivetråd skriver til minnemappede segmenter.
+ * Kjøres manuelt (ikke en del av testene):
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *     com.example.someprojectbackend.events.EventLogBenchmark [antall] [none|interval|always]
+ * </pre>
+ */
+public final class EventLogBenchmark {
+
+    private static final int PRODUCERS = 8;
+    private static final int BATCH = 50;
+
+    public static void main(String[] args) throws Exception {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        String fsync = args.length > 1 ? args[1] : "interval";
+        var root = Files.createTempDirectory("event-log-bench");
+        var log = new EventLog(root.toString(), Clock.systemUTC(), 64 << 20, fsync, 1000, 3_600_000, 4096);
+
+        int perProducer = total / PRODUCERS / BATCH;
+        long start = System.nanoTime();
+        var threads = new ArrayList<Thread>();
+        for (int t = 0; t < PRODUCERS; t++) {
+            var thread = new Thread(() -> {
+                var random = ThreadLocalRandom.current();
+                for (int b = 0; b < perProducer; b++) {
+                    List<Event> batch = new ArrayList<>(BATCH);
+                    for (int i = 0; i < BATCH; i++) {
+                        batch.add(new Event(EventType.IMPRESSION, new UUID(0, random.nextInt(1_000_000)), 0, System.currentTimeMillis()));
+                    }
+                    // Som en request: vent til batchen er skrevet før neste sendes
+                    while (true) {
+                        var f = log.append(batch);
+                        try {
+                            f.join();
+                            break;
+                        } catch (RuntimeException full) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (var thread : threads) thread.join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        log.close();
+
+        long written = log.appendedCount();
+        long read = 0;
+        long readStart = System.nanoTime();
+        try (var files = Files.list(root)) {
+            for (var p : files.sorted().toList()) read += EventLog.read(p, e -> { });
+        }
+        double readSeconds = (System.nanoTime() - readStart) / 1e9;
+
+        System.out.printf("fsync=%s producers=%d batch=%d%n", fsync, PRODUCERS, BATCH);
+        System.out.printf("written=%d in %.2f s → %.0f events/s (rejected retries: %d)%n",
+                written, seconds, written / seconds, log.rejectedCount());
+        System.out.printf("read back=%d in %.2f s → %.0f events/s%n", read, readSeconds, read / readSeconds);
+
+        try (var files = Files.walk(root)) {
+            for (var p : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.someprojectbackend.idempotency;
+
+import com.example.someprojectbackend.idempotency.IdempotencyStore.Outcome;
+import com.example.someprojectbackend.idempotency.IdempotencyStore.StoredResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemoryIdempotencyStoreTests {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    void duplicateWaitsForFirstResponseAndReplaysIt() throws Exception {
+        var store = new MemoryIdempotencyStore(CLOCK, Duration.ofHours(1), 100);
+        assertThat(store.claim("k", "f", Duration.ZERO).outcome()).isEqualTo(Outcome.ACQUIRED);
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            var duplicate = pool.submit(() -> store.claim("k", "f", Duration.ofSeconds(5)));
+            Thread.sleep(50);
+            assertThat(duplicate.isDone()).isFalse();
+
+            store.complete("k", new StoredResponse(201, "application/json", "{}".getBytes()));
+            var claim = duplicate.get(5, TimeUnit.SECONDS);
+            assertThat(claim.outcome()).isEqualTo(Outcome.REPLAY);
+            assertThat(claim.response().status()).isEqualTo(201);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(store.claim("k", "other", Duration.ZERO).outcome()).isEqualTo(Outcome.MISMATCH);
+    }
+
+    @Test
+    void releasedKeyCanBeTakenAgainAndStoreIsBounded() throws Exception {
+        var store = new MemoryIdempotencyStore(CLOCK, Duration.ofHours(1), 2);
+        assertThat(store.claim("a", "f", Duration.ZERO).outcome()).isEqualTo(Outcome.ACQUIRED);
+        assertThat(store.claim("a", "f", Duration.ZERO).outcome()).isEqualTo(Outcome.IN_PROGRESS);
+
+        store.release("a");
+        assertThat(store.claim("a", "f", Duration.ZERO).outcome()).isEqualTo(Outcome.ACQUIRED);
+
+        store.claim("b", "f", Duration.ZERO);
+        store.claim("c", "f", Duration.ZERO);
+        assertThat(store.size()).isEqualTo(2);
+    }
+}
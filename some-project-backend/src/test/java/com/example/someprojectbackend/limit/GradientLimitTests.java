@@ -0,0 +1,102 @@
+package com.example.someprojectbackend.limit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GradientLimitTests {
+
+    private static final long MS = 1_000_000;
+
+    /** Fyller grensen (full utnyttelse), fullfører ett kall med gitt latens og frigjør resten. */
+    private static void saturated(GradientLimit limit, long rttNanos) {
+        int acquired = 0;
+        while (limit.tryAcquire()) acquired++;
+        limit.onComplete(rttNanos, true);
+        for (int i = 1; i < acquired; i++) limit.release();
+    }
+
+    @Test
+    void initialLimitIsClamped() {
+        assertThat(new GradientLimit(500, 1, 50, 1.5).getLimit()).isEqualTo(50);
+        assertThat(new GradientLimit(0, 4, 50, 1.5).getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void tryAcquireStopsAtLimit() {
+        var limit = new GradientLimit(3, 1, 10, 1.5);
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+        assertThat(limit.getInFlight()).isEqualTo(3);
+
+        limit.release();
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void stableLatencyGrowsByQueueSize() {
+        var limit = new GradientLimit(100, 1, 1000, 1.5);
+        // Første måling setter begge EMA-ene; gradient = min(1, 1.5 * 1) = 1
+        // neste = 100 * 1 + sqrt(100) = 110, glattet: 0.8 * 100 + 0.2 * 110 = 102
+        saturated(limit, MS);
+        assertThat(limit.getLimit()).isEqualTo(102);
+    }
+
+    @Test
+    void latencySpikeShrinksLimit() {
+        var limit = new GradientLimit(100, 1, 1000, 1.5);
+        saturated(limit, MS); // 102
+        // kort EMA (alpha 2/11): 1 + 9 * 2/11 = 2.64 ms; lang EMA (alpha 2/601): 1 + 9 * 2/601 = 1.03 ms
+        // gradient = 1.5 * 1.03 / 2.64 = 0.586; neste = 102 * 0.586 + sqrt(102) = 69.9
+        // glattet: 0.8 * 102 + 0.2 * 69.9 = 95.6
+        saturated(limit, 10 * MS);
+        assertThat(limit.getLimit()).isEqualTo(95);
+
+        for (int i = 0; i < 100; i++) saturated(limit, 10 * MS);
+        assertThat(limit.getLimit()).isLessThan(40);
+    }
+
+    @Test
+    void recoversWhenLatencyReturnsToBaseline() {
+        var limit = new GradientLimit(100, 1, 1000, 1.5);
+        saturated(limit, MS);
+        for (int i = 0; i < 100; i++) saturated(limit, 10 * MS);
+        int shrunk = limit.getLimit();
+
+        for (int i = 0; i < 100; i++) saturated(limit, MS);
+        assertThat(limit.getLimit()).isGreaterThan(shrunk);
+    }
+
+    @Test
+    void failureShrinksMultiplicatively() {
+        var limit = new GradientLimit(100, 1, 1000, 1.5);
+        assertThat(limit.tryAcquire()).isTrue();
+        limit.onComplete(MS, false);
+        assertThat(limit.getLimit()).isEqualTo(90);
+        assertThat(limit.getInFlight()).isZero();
+    }
+
+    @Test
+    void doesNotGrowWhenUnderused() {
+        var limit = new GradientLimit(100, 1, 1000, 1.5);
+        // 1 pågående av 100: under halvparten, så grensen står stille
+        assertThat(limit.tryAcquire()).isTrue();
+        limit.onComplete(MS, true);
+        assertThat(limit.getLimit()).isEqualTo(100);
+    }
+
+    @Test
+    void staysWithinBounds() {
+        var limit = new GradientLimit(40, 10, 50, 1.5);
+        for (int i = 0; i < 200; i++) saturated(limit, MS);
+        assertThat(limit.getLimit()).isEqualTo(50);
+
+        for (int i = 0; i < 200; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+            limit.onComplete(MS, false);
+        }
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+}
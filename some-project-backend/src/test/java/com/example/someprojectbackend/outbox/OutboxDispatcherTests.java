@@ -0,0 +1,192 @@
+package com.example.someprojectbackend.outbox;
+
+import com.example.someprojectbackend.domain.OutboxEvent;
+import com.example.someprojectbackend.repo.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OutboxDispatcherTests {
+
+    private static final Instant T = Instant.parse("2025-01-01T12:00:00Z");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** Committede rader, slik en annen node ser dem. */
+    private final TreeMap<Long, OutboxEvent> committed = new TreeMap<>();
+    private final OutboxEventRepository repo = mock(OutboxEventRepository.class);
+    private final Clock clock = mock(Clock.class);
+    private Instant now = T;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(clock.instant()).thenAnswer(inv -> now);
+        when(repo.maxId()).thenAnswer(inv -> committed.isEmpty() ? 0L : committed.lastKey());
+        when(repo.findIdsAfter(anyLong())).thenAnswer(inv ->
+                new ArrayList<>(committed.tailMap(inv.<Long>getArgument(0), false).keySet()));
+        when(repo.findByIdGreaterThanOrderByIdAsc(anyLong(), any())).thenAnswer(inv ->
+                committed.tailMap(inv.<Long>getArgument(0), false).values().stream()
+                        .limit(inv.<Pageable>getArgument(1).getPageSize()).toList());
+        when(repo.findAllById(any())).thenAnswer(inv -> ((Collection<Long>) inv.getArgument(0)).stream()
+                .filter(committed::containsKey).map(committed::get).toList());
+    }
+
+    private void commit(long id) throws Exception {
+        var row = new OutboxEvent();
+        ReflectionTestUtils.setField(row, "id", id);
+        row.setType("PostDeleted");
+        row.setPayload(MAPPER.writeValueAsString(new DomainEvent.PostDeleted(new UUID(0, id), new UUID(0, 0))));
+        row.setCreatedAt(now);
+        committed.put(id, row);
+    }
+
+    private OutboxDispatcher dispatcher(OutboxSubscriber... subscribers) {
+        var outbox = new Outbox(repo, MAPPER, clock);
+        return new OutboxDispatcher(outbox, repo, List.of(subscribers), clock, 3, 1000, 60_000, 3, 600_000);
+    }
+
+    @Test
+    void everyNodeReadsFromItsStartPointInOrder() throws Exception {
+        commit(1);
+        commit(2);
+        var local = new Recorder();
+        var dispatcher = dispatcher(local);
+        assertThat(dispatcher.markStart()).isEqualTo(2);
+
+        for (long id = 3; id <= 7; id++) commit(id);
+        assertThat(dispatcher.drainOnce()).isEqualTo(3);
+        assertThat(dispatcher.drainOnce()).isEqualTo(2);
+        assertThat(dispatcher.drainOnce()).isZero();
+
+        assertThat(local.posts).containsExactly(3L, 4L, 5L, 6L, 7L);
+    }
+
+    @Test
+    void idsCommittedOutOfOrderAreDeliveredLate() throws Exception {
+        var local = new Recorder();
+        var dispatcher = dispatcher(local);
+        dispatcher.markStart();
+
+        // 2 er tildelt, men transaksjonen har ikke committet ennå
+        commit(1);
+        commit(3);
+        dispatcher.drainOnce();
+        assertThat(local.posts).containsExactly(1L, 3L);
+
+        commit(2);
+        commit(4);
+        dispatcher.drainOnce();
+        assertThat(local.posts).containsExactly(1L, 3L, 2L, 4L);
+
+        // Hullet er fylt og leses ikke igjen
+        dispatcher.drainOnce();
+        assertThat(local.posts).hasSize(4);
+    }
+
+    @Test
+    void gapsFromBeforeStartAreTrackedAndGivenUpAfterTheLease() throws Exception {
+        commit(1);
+        commit(4);
+        var local = new Recorder();
+        var dispatcher = dispatcher(local);
+        dispatcher.markStart();
+
+        commit(2);
+        dispatcher.drainOnce();
+        assertThat(local.posts).containsExactly(2L);
+
+        // 3 ble rullet tilbake; etter leasen slutter noden å spørre etter den
+        now = T.plusSeconds(61);
+        dispatcher.drainOnce();
+        commit(3);
+        dispatcher.drainOnce();
+        assertThat(local.posts).containsExactly(2L);
+    }
+
+    @Test
+    void failingSubscriberGetsTheSameEventsAgainInOrderWithoutBlockingOthers() throws Exception {
+        var flaky = new Recorder();
+        var healthy = new Recorder();
+        var dispatcher = dispatcher(flaky, healthy);
+        dispatcher.markStart();
+
+        flaky.failures = 2;
+        commit(1);
+        dispatcher.drainOnce();
+        assertThat(healthy.posts).containsExactly(1L);
+        assertThat(flaky.posts).isEmpty();
+
+        // Under backoff (2 s etter første feil) venter nye hendelser bak de feilede
+        commit(2);
+        now = T.plusSeconds(1);
+        dispatcher.drainOnce();
+        assertThat(flaky.calls).isEqualTo(1);
+        assertThat(healthy.posts).containsExactly(1L, 2L);
+
+        now = T.plusSeconds(2);
+        dispatcher.drainOnce(); // andre feil, neste forsøk om 4 s
+        now = T.plusSeconds(6);
+        dispatcher.drainOnce();
+        assertThat(flaky.posts).containsExactly(1L, 2L);
+        assertThat(flaky.calls).isEqualTo(3);
+
+        // Køen er tom igjen: nye hendelser leveres med en gang
+        commit(3);
+        dispatcher.drainOnce();
+        assertThat(flaky.posts).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() throws Exception {
+        var broken = new Recorder();
+        var dispatcher = dispatcher(broken);
+        dispatcher.markStart();
+
+        broken.failures = Integer.MAX_VALUE;
+        commit(1);
+        for (int i = 0; i < 3; i++) {
+            dispatcher.drainOnce();
+            now = now.plusSeconds(60);
+        }
+        assertThat(broken.calls).isEqualTo(3);
+
+        broken.failures = 0;
+        commit(2);
+        dispatcher.drainOnce();
+        assertThat(broken.posts).containsExactly(2L);
+    }
+
+    private static final class Recorder implements OutboxSubscriber {
+        private final List<Long> posts = new ArrayList<>();
+        private int failures;
+        private int calls;
+
+        @Override
+        public void handle(List<DomainEvent> events) {
+            calls++;
+            if (failures > 0) {
+                failures--;
+                throw new IllegalStateException("nede");
+            }
+            for (var e : events) {
+                if (e instanceof DomainEvent.PostDeleted d) posts.add(d.postId().getLeastSignificantBits());
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.someprojectbackend.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TagScannerTests {
+
+    @Test
+    void extractsTagsAndMentionsInOrder() {
+        var r = TagScanner.scan("Tur med @Kari i dag #Fjelltur #blåbær (#2024) @per.hansen!");
+
+        assertThat(r.tags()).containsExactly("fjelltur", "blåbær", "2024");
+        assertThat(r.mentions()).containsExactly("Kari", "per.hansen");
+    }
+
+    @Test
+    void prefixMustStartAWord() {
+        var r = TagScanner.scan("Send til e@post.no, a#b og x_#y");
+
+        assertThat(r.tags()).isEmpty();
+        assertThat(r.mentions()).isEmpty();
+    }
+
+    @Test
+    void tagStopsAtNextPrefixWithoutStartingANewOne() {
+        assertThat(TagScanner.scan("#en#to").tags()).containsExactly("en");
+        assertThat(TagScanner.scan("##dobbel").tags()).containsExactly("dobbel");
+    }
+
+    @Test
+    void mentionsDropTrailingDotsAndDashes() {
+        var r = TagScanner.scan("Takk @kari. Og @ola-nordmann-. Og @.- og @");
+
+        assertThat(r.mentions()).containsExactly("kari", "ola-nordmann");
+    }
+
+    @Test
+    void tagsDoNotIncludeDotsOrDashes() {
+        assertThat(TagScanner.scan("#spring-boot #v1.2").tags()).containsExactly("spring", "v1");
+    }
+
+    @Test
+    void tagsAreDeduplicatedCaseInsensitively() {
+        assertThat(TagScanner.scan("#Java #java #JAVA").tags()).containsExactly("java");
+    }
+
+    @Test
+    void tokensLongerThanMaxLengthAreDropped() {
+        String max = "a".repeat(TagScanner.MAX_LENGTH);
+        String tooLong = "b".repeat(TagScanner.MAX_LENGTH + 1);
+        var r = TagScanner.scan("#" + max + " #" + tooLong + " @" + tooLong + " #kort");
+
+        assertThat(r.tags()).containsExactly(max, "kort");
+        assertThat(r.mentions()).isEmpty();
+    }
+
+    @Test
+    void capsTagsAndMentionsPerPost() {
+        var sb = new StringBuilder();
+        for (int i = 0; i < TagScanner.MAX_PER_POST + 5; i++) sb.append("#t").append(i).append(" @u").append(i).append(' ');
+        var r = TagScanner.scan(sb.toString());
+
+        assertThat(r.tags()).hasSize(TagScanner.MAX_PER_POST).startsWith("t0").endsWith("t19");
+        assertThat(r.mentions()).hasSize(TagScanner.MAX_PER_POST).startsWith("u0").endsWith("u19");
+    }
+
+    @Test
+    void nullAndEmptyContentGiveNothing() {
+        assertThat(TagScanner.scan(null).tags()).isEmpty();
+        assertThat(TagScanner.scan("").mentions()).isEmpty();
+        assertThat(TagScanner.scan("#").tags()).isEmpty();
+    }
+
+    @Test
+    void normalizeTagStripsHashAndLowercases() {
+        assertThat(TagScanner.normalizeTag("  #Fjelltur ")).isEqualTo("fjelltur");
+        assertThat(TagScanner.normalizeTag("Blåbær")).isEqualTo("blåbær");
+    }
+}
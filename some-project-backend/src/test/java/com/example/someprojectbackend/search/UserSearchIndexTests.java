@@ -0,0 +1,155 @@
+package com.example.someprojectbackend.search;
+
+import com.example.someprojectbackend.repo.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserSearchIndexTests {
+
+    private static UserRepository.SearchIndexRow row(UUID id, String name, String avatar, long followers) {
+        return new UserRepository.SearchIndexRow() {
+            public UUID getId() {
+                return id;
+            }
+
+            public String getDisplayName() {
+                return name;
+            }
+
+            public String getAvatarKey() {
+                return avatar;
+            }
+
+            public long getFollowers() {
+                return followers;
+            }
+        };
+    }
+
+    private static UserSearchIndex index(UserRepository.SearchIndexRow... rows) {
+        var users = mock(UserRepository.class);
+        when(users.findAllForSearchIndex()).thenReturn(List.of(rows));
+        var index = new UserSearchIndex(users);
+        index.rebuild();
+        return index;
+    }
+
+    private static List<String> names(UserSearchIndex.Page page) {
+        return page.hits().stream().map(UserSearchIndex.Hit::displayName).toList();
+    }
+
+    @Test
+    void prefixMatchesRankAboveContainsThenFollowers() {
+        var index = index(
+                row(new UUID(0, 1), "Karoline", null, 100),
+                row(new UUID(0, 2), "Ola", null, 1),
+                row(new UUID(0, 3), "Olav", null, 5),
+                row(new UUID(0, 4), "Nils", null, 1000));
+
+        var page = index.search("OLA", 10, null);
+        assertThat(names(page)).containsExactly("Olav", "Ola");
+        assertThat(page.nextCursor()).isNull();
+
+        // "ol": prefiks først (Olav har flere følgere enn Ola), deretter "contains"
+        assertThat(names(index.search("ol", 10, null))).containsExactly("Olav", "Ola", "Karoline");
+    }
+
+    @Test
+    void twoCharacterQueriesUseBigramsAndShorterReturnNothing() {
+        var index = index(
+                row(new UUID(0, 1), "Åse", null, 0),
+                row(new UUID(0, 2), "Tore", null, 0),
+                row(new UUID(0, 3), "Ingrid", null, 0));
+
+        assertThat(names(index.search("åS", 10, null))).containsExactly("Åse");
+        assertThat(names(index.search("re", 10, null))).containsExactly("Tore");
+        assertThat(index.search("r", 10, null).hits()).isEmpty();
+    }
+
+    @Test
+    void trigramIntersectionIsVerifiedWithContains() {
+        // "nnannn" har begge trigrammene i "anna" ("ann", "nna"), men inneholder ikke "anna"
+        var index = index(
+                row(new UUID(0, 1), "Anna", null, 0),
+                row(new UUID(0, 2), "Nnannn", null, 0),
+                row(new UUID(0, 3), "Hanna", null, 0));
+
+        assertThat(names(index.search("anna", 10, null))).containsExactly("Anna", "Hanna");
+    }
+
+    @Test
+    void pagingAcrossTiesVisitsEveryHitOnce() {
+        var rows = new ArrayList<UserRepository.SearchIndexRow>();
+        for (int i = 0; i < 7; i++) {
+            // Samme navn og følgere: kun ID-en skiller dem
+            rows.add(row(new UUID(0, 7 - i), "Kari", null, 3));
+        }
+        rows.add(row(new UUID(0, 100), "Karianne", null, 3));
+        var index = index(rows.toArray(UserRepository.SearchIndexRow[]::new));
+
+        var all = index.search("kari", 100, null).hits();
+        assertThat(all).hasSize(8);
+
+        var paged = new ArrayList<UserSearchIndex.Hit>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var page = index.search("kari", 3, cursor);
+            paged.addAll(page.hits());
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(paged).containsExactlyElementsOf(all);
+    }
+
+    @Test
+    void invalidCursorIsRejected() {
+        var index = index(row(new UUID(0, 1), "Ola", null, 0));
+
+        assertThatThrownBy(() -> index.search("ola", 10, "not base64!"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index.search("ola", 10, "MTpmZW0"))  // "1:fem"
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index.search("ola", 10, "MTo1Omlra2UtdXVpZDpPbGE")) // "1:5:ikke-uuid:Ola"
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void updatesDuringRebuildAreNotOverwrittenByTheStartupSnapshot() {
+        var ola = new UUID(0, 1);
+        var kari = new UUID(0, 2);
+        var users = mock(UserRepository.class);
+        var index = new UserSearchIndex(users);
+
+        when(users.findAllForSearchIndex()).thenAnswer(inv -> {
+            // Kommer mens spørringen kjører: ny avatar og en ny følger
+            index.upsert(ola, "Ola", "new-avatar");
+            index.adjustFollowers(ola, 1);
+            return List.of(row(ola, "Ola", "old-avatar", 0), row(kari, "Olakari", null, 1));
+        });
+        when(users.findForSearchIndex(any())).thenReturn(List.of(row(ola, "Ola", "new-avatar", 2)));
+        index.rebuild();
+
+        assertThat(index.isReady()).isTrue();
+        var hits = index.search("ola", 10, null).hits();
+        assertThat(hits).extracting(UserSearchIndex.Hit::avatarKey).containsExactly("new-avatar", null);
+        // Ola har 2 følgere etter ny lesing og rangeres over Olakari (1)
+        assertThat(hits).extracting(UserSearchIndex.Hit::id).containsExactly(ola, kari);
+
+        // Etter gjenoppbyggingen gjelder oppdateringer direkte
+        index.adjustFollowers(kari, 5);
+        assertThat(index.search("ola", 10, null).hits()).extracting(UserSearchIndex.Hit::id)
+                .containsExactly(kari, ola);
+    }
+}
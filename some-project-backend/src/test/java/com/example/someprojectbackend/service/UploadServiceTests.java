@@ -0,0 +1,144 @@
+package com.example.someprojectbackend.service;
+
+import com.example.someprojectbackend.domain.UploadSession;
+import com.example.someprojectbackend.domain.User;
+import com.example.someprojectbackend.repo.UploadSessionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UploadServiceTests {
+
+    private static final Instant T = Instant.parse("2025-01-01T12:00:00Z");
+    private static final String HASH = "a".repeat(64);
+
+    @TempDir
+    Path partialDir;
+
+    private final UploadSessionRepository sessions = mock(UploadSessionRepository.class);
+    private final BlobService blobs = mock(BlobService.class);
+    private final TransactionTemplate tx = mock(TransactionTemplate.class);
+
+    private UploadService service() {
+        doAnswer(inv -> {
+            inv.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(tx).executeWithoutResult(any());
+        return new UploadService(sessions, blobs, tx, Clock.fixed(T, ZoneOffset.UTC), partialDir.toString(),
+                1000, 100, 1000, 60_000);
+    }
+
+    private static User user(long id) {
+        var u = new User();
+        ReflectionTestUtils.setField(u, "id", new UUID(0, id));
+        return u;
+    }
+
+    private static UploadSession session(UUID id, User owner, String blobHash, Instant expiresAt) {
+        var s = new UploadSession();
+        ReflectionTestUtils.setField(s, "id", id);
+        s.setOwnerId(owner.getId());
+        s.setSize(10);
+        s.setContentType("image/png");
+        s.setBlobHash(blobHash);
+        s.setExpiresAt(expiresAt);
+        return s;
+    }
+
+    private static Map<?, ?> states(UploadService service) {
+        return (Map<?, ?>) ReflectionTestUtils.getField(service, "states");
+    }
+
+    private static HttpStatus status(ResponseStatusException ex) {
+        return HttpStatus.valueOf(ex.getStatusCode().value());
+    }
+
+    @Test
+    void unknownOrForeignSessionsLeaveNoState() {
+        var service = service();
+        var owner = user(1);
+        var other = user(2);
+        var id = UUID.randomUUID();
+        when(sessions.findById(id)).thenReturn(Optional.of(session(id, owner, null, T.plusSeconds(60))));
+
+        for (var target : List.of(UUID.randomUUID(), id)) {
+            assertThatThrownBy(() -> service.append(target, other, 0, new ByteArrayInputStream(new byte[1])))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            ex -> assertThat(status(ex)).isEqualTo(HttpStatus.NOT_FOUND));
+            assertThatThrownBy(() -> service.complete(target, other))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            ex -> assertThat(status(ex)).isEqualTo(HttpStatus.NOT_FOUND));
+        }
+        assertThat(states(service)).isEmpty();
+    }
+
+    @Test
+    void collectorReleasesOnlySessionsItActuallyDeleted() {
+        var service = service();
+        var owner = user(1);
+        var attached = session(UUID.randomUUID(), owner, HASH, T.minusSeconds(1));
+        var unused = session(UUID.randomUUID(), owner, "b".repeat(64), T.minusSeconds(1));
+        when(sessions.findExpired(eq(T), any())).thenReturn(List.of(attached, unused));
+        // Den første ble knyttet til et innlegg etter at batchen ble lest
+        when(sessions.deleteExpired(attached.getId(), T)).thenReturn(0);
+        when(sessions.deleteExpired(unused.getId(), T)).thenReturn(1);
+
+        service.collectExpired();
+
+        verify(blobs, never()).release(HASH);
+        verify(blobs).release("b".repeat(64));
+    }
+
+    @Test
+    void attachRejectsExpiredSessions() {
+        var service = service();
+        var owner = user(1);
+        var id = UUID.randomUUID();
+        when(sessions.findById(id)).thenReturn(Optional.of(session(id, owner, HASH, T.minusSeconds(1))));
+        when(sessions.deleteUnexpired(id, T)).thenReturn(0);
+
+        assertThatThrownBy(() -> service.attach(id, owner))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(status(ex)).isEqualTo(HttpStatus.GONE));
+    }
+
+    @Test
+    void attachTakesOverTheReference() {
+        var service = service();
+        var owner = user(1);
+        var id = UUID.randomUUID();
+        when(sessions.findById(id)).thenReturn(Optional.of(session(id, owner, HASH, T.plusSeconds(60))));
+        when(sessions.deleteUnexpired(id, T)).thenReturn(1);
+
+        var attached = service.attach(id, owner);
+
+        assertThat(attached.blobHash()).isEqualTo(HASH);
+        assertThat(attached.url()).isEqualTo("/files/blobs/" + HASH + ".png");
+        verify(blobs, never()).release(any());
+    }
+}
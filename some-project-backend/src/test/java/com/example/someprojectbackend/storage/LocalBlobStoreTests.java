@@ -0,0 +1,45 @@
+package com.example.someprojectbackend.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalBlobStoreTests {
+
+    @TempDir
+    Path root;
+
+    @TempDir
+    Path elsewhere;
+
+    @Test
+    void stagedBlobIsMovedIntoPlace() throws Exception {
+        var store = new LocalBlobStore(root);
+        try (var staged = store.stage(new ByteArrayInputStream("hei".getBytes(StandardCharsets.UTF_8)), "text/plain")) {
+            store.commit(staged);
+            assertThat(Files.readString(store.localPath(staged.hash()))).isEqualTo("hei");
+            assertThat(staged.file()).doesNotExist();
+        }
+    }
+
+    @Test
+    void fileOutsideTmpIsCopiedBeforeTheMove() throws Exception {
+        var store = new LocalBlobStore(root);
+        Path part = Files.writeString(elsewhere.resolve("upload.part"), "delfil");
+        String hash = "c".repeat(64);
+
+        store.commit(new StagedBlob(hash, 6, "image/png", part));
+
+        assertThat(Files.readString(store.localPath(hash))).isEqualTo("delfil");
+        assertThat(part).exists(); // kaller sletter delfilen selv
+        try (var tmp = Files.list(root.resolve("blobs").resolve("tmp"))) {
+            assertThat(tmp).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.someprojectbackend.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrendingSketchTests {
+
+    @Test
+    void countMinSketchNeverUnderestimatesAndStaysWithinBound() {
+        var sketch = new CountMinSketch(4, 1024);
+        var exact = new int[5000];
+        var random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            int key = (int) (Math.pow(random.nextDouble(), 3) * exact.length);
+            exact[key]++;
+            sketch.add("tag" + key, 1);
+        }
+
+        long bound = 2 * sketch.total() / 1024;
+        int withinBound = 0;
+        for (int key = 0; key < exact.length; key++) {
+            int estimate = sketch.estimate("tag" + key);
+            assertThat(estimate).isGreaterThanOrEqualTo(exact[key]);
+            if (estimate - exact[key] <= bound) withinBound++;
+        }
+        assertThat(withinBound).isGreaterThan(exact.length * 9 / 10);
+    }
+
+    @Test
+    void spaceSavingKeepsHeavyHitters() {
+        var top = new SpaceSaving(20);
+        var random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            if (i % 4 == 0) top.add("hot", 1);
+            else if (i % 10 == 1) top.add("warm", 1);
+            else top.add("noise" + random.nextInt(10_000), 1);
+        }
+
+        var result = top.top(2);
+        assertThat(result).extracting(SpaceSaving.Entry::key).containsExactly("hot", "warm");
+        assertThat(result.get(0).count()).isGreaterThanOrEqualTo(5000);
+        assertThat(top.size()).isEqualTo(20);
+    }
+
+    @Test
+    void sketchesSurviveCheckpointRoundTrip() throws Exception {
+        var sketch = new CountMinSketch(3, 64);
+        var top = new SpaceSaving(4);
+        sketch.add("java", 5);
+        top.add("java", 5);
+
+        var bytes = new ByteArrayOutputStream();
+        var out = new DataOutputStream(bytes);
+        sketch.writeTo(out);
+        top.writeTo(out);
+
+        var in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        var sketchCopy = new CountMinSketch(3, 64);
+        var topCopy = new SpaceSaving(4);
+        sketchCopy.readFrom(in);
+        topCopy.readFrom(in);
+
+        assertThat(sketchCopy.estimate("java")).isEqualTo(5);
+        assertThat(sketchCopy.total()).isEqualTo(5);
+        assertThat(topCopy.top(1).get(0).count()).isEqualTo(5);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.someprojectbackend.views;
+
+import java.util.Random;
+
+/**
+ * Nøyaktighet og minnebruk for {@link HyperLogLog} med én HLL per innlegg.
+ * <p>
+ * Simulerer 1M innlegg der antall unike seere per innlegg er skjevfordelt
+ * (de fleste har få seere, noen få har titusener), og skriver ut relativ feil
+ * samt minne- og lagringsbruk. Kjøres manuelt (ikke en del av testene):
+ * <pre>
+ * mvn -q test-compile
+ * java -cp target/classes:target/test-classes com.example.someprojectbackend.views.HyperLogLogBenchmark 1000000
+ * </pre>
+ */
+public final class HyperLogLogBenchmark {
+
+    public static void main(String[] args) {
+        int posts = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        var random = new Random(1);
+
+        long memory = 0;
+        long stored = 0;
+        long totalViewers = 0;
+        int sparse = 0;
+        double sumSquaredError = 0;
+        double maxError = 0;
+        int measured = 0;
+        long start = System.nanoTime();
+
+        for (int post = 0; post < posts; post++) {
+            // Pareto-lignende fordeling: median ~3 seere, lang hale opp til 100k
+            int viewers = (int) Math.min(100_000, Math.floor(1 / Math.pow(1 - random.nextDouble(), 1.2)));
+            var hll = new HyperLogLog();
+            for (int v = 0; v < viewers; v++) {
+                hll.add(HyperLogLog.hash(v, post));
+            }
+            totalViewers += viewers;
+            memory += hll.memoryBytes();
+            stored += hll.toBytes().length;
+            if (hll.isSparse()) sparse++;
+
+            if (viewers >= 100) {
+                double error = Math.abs(hll.estimate() - viewers) / (double) viewers;
+                sumSquaredError += error * error;
+                maxError = Math.max(maxError, error);
+                measured++;
+            }
+        }
+
+        long ms = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("posts=%d viewers=%d time=%d ms%n", posts, totalViewers, ms);
+        System.out.printf("sparse=%d (%.1f %%) dense=%d%n", sparse, 100.0 * sparse / posts, posts - sparse);
+        System.out.printf("registers in memory=%.1f MB (%.0f B/post), stored=%.1f MB (%.0f B/post)%n",
+                memory / 1e6, (double) memory / posts, stored / 1e6, (double) stored / posts);
+        System.out.printf("exact int-set equivalent ≈ %.1f MB%n", totalViewers * 4 / 1e6);
+        if (measured > 0) {
+            System.out.printf("relative error (posts with ≥100 viewers, n=%d): rms=%.2f %% max=%.2f %%%n",
+                    measured, 100 * Math.sqrt(sumSquaredError / measured), 100 * maxError);
+        }
+    }
+}
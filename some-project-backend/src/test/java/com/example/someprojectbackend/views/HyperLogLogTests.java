@@ -0,0 +1,72 @@
+package com.example.someprojectbackend.views;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+class HyperLogLogTests {
+
+    @Test
+    void estimatesStayWithinFewStandardErrors() {
+        var random = new Random(11);
+        for (int n : new int[]{10, 1_000, 50_000, 500_000}) {
+            var hll = new HyperLogLog();
+            for (int i = 0; i < n; i++) hll.add(HyperLogLog.hash(random.nextLong(), random.nextLong()));
+            // Standardfeil er 1,04 / sqrt(4096) ≈ 1,6 %
+            assertThat((double) hll.estimate()).isCloseTo(n, offset(Math.max(2, n * 0.05)));
+        }
+    }
+
+    @Test
+    void repeatedViewersAreCountedOnce() {
+        var hll = new HyperLogLog();
+        for (int round = 0; round < 5; round++) {
+            for (long viewer = 0; viewer < 300; viewer++) hll.add(HyperLogLog.hash(viewer, 1));
+        }
+        assertThat(hll.estimate()).isBetween(290L, 310L);
+        assertThat(hll.isSparse()).isTrue();
+    }
+
+    @Test
+    void mergeEqualsUnion() {
+        var a = new HyperLogLog();
+        var b = new HyperLogLog();
+        var all = new HyperLogLog();
+        for (long i = 0; i < 20_000; i++) {
+            long h = HyperLogLog.hash(i, 7);
+            if (i % 3 == 0) a.add(h); else b.add(h);
+            if (i % 5 == 0) a.add(h); // overlapp
+            all.add(h);
+        }
+        a.merge(b);
+        assertThat(a.estimate()).isEqualTo(all.estimate());
+    }
+
+    @Test
+    void roundTripsSparseAndDense() {
+        var sparse = new HyperLogLog();
+        for (long i = 0; i < 100; i++) sparse.add(HyperLogLog.hash(i, 3));
+        var dense = new HyperLogLog();
+        for (long i = 0; i < 100_000; i++) dense.add(HyperLogLog.hash(i, 3));
+
+        byte[] sparseBytes = sparse.toBytes();
+        byte[] denseBytes = dense.toBytes();
+        assertThat(sparseBytes.length).isLessThan(300);
+        assertThat(denseBytes.length).isEqualTo(1 + HyperLogLog.M * 6 / 8);
+
+        var sparseCopy = HyperLogLog.fromBytes(sparseBytes);
+        var denseCopy = HyperLogLog.fromBytes(denseBytes);
+        assertThat(sparseCopy.isSparse()).isTrue();
+        assertThat(sparseCopy.estimate()).isEqualTo(sparse.estimate());
+        assertThat(denseCopy.isSparse()).isFalse();
+        assertThat(denseCopy.estimate()).isEqualTo(dense.estimate());
+        assertThat(denseCopy.toBytes()).isEqualTo(denseBytes);
+
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[]{2, 0}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.someprojectbackend.web;
+
+import com.example.someprojectbackend.media.RenditionCache;
+import com.example.someprojectbackend.storage.LocalBlobStore;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.startup.Tomcat;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gjennomstrømning for {@code /files/**}: {@link FileServingController} mot den gamle
+ * resource-handleren ({@code StaticFiles}: {@link ResourceHttpRequestHandler} med
+ * {@code setCachePeriod(3600)}).
+ * <p>
+ * Begge kjøres i samme innebygde Tomcat (NIO, sendfile på) over ekte sockets, og serverer de
+ * samme filene. Klienttrådene henter filene i en løkke, enten fullt (200) eller som
+ * revalidering (304: {@code If-None-Match} for den nye, {@code If-Modified-Since} for den gamle).
+ * Kjøres manuelt (ikke en del av testene):
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *     com.example.someprojectbackend.web.FileServingBenchmark [klienter] [sekunder per kjøring]
+ * </pre>
+ */
+public final class FileServingBenchmark {
+
+    /** Avatarstørrelse (96 px JPEG) og et stort innleggsbilde. */
+    private static final int[] SIZES = {8 * 1024, 1024 * 1024};
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        var root = Files.createTempDirectory("file-serving-bench");
+        var names = new ArrayList<String>();
+        for (int size : SIZES) names.add(write(root, size));
+
+        var tomcat = start(root);
+        int port = tomcat.getConnector().getLocalPort();
+        var http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        try {
+            System.out.printf("%d clients, %d s per run%n", clients, seconds);
+            System.out.printf("%-10s %-8s %-12s %12s %10s%n", "handler", "size", "request", "req/s", "MB/s");
+            for (int i = 0; i < SIZES.length; i++) {
+                String name = names.get(i);
+                for (boolean revalidate : new boolean[]{false, true}) {
+                    run(http, port, "old", "/old/" + name, revalidate, clients, seconds, SIZES[i]);
+                    run(http, port, "new", "/files/" + name, revalidate, clients, seconds, SIZES[i]);
+                }
+            }
+        } finally {
+            tomcat.stop();
+            tomcat.destroy();
+            try (var files = Files.walk(root)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    /** Skriver en fil med tilfeldig innhold og innholdsadressert navn, som en avatarvariant. */
+    private static String write(Path root, int size) throws Exception {
+        byte[] bytes = new byte[size];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        Path file = root.resolve("avatars").resolve("bench").resolve(hash + "_96.jpg");
+        Files.createDirectories(file.getParent());
+        Files.write(file, bytes);
+        return root.relativize(file).toString().replace('\\', '/');
+    }
+
+    private static Tomcat start(Path root) throws Exception {
+        var renditions = new RenditionCache(root, new ThreadPoolTaskExecutor(),
+                1 << 20, List.of(320), 40_000_000, 10_000);
+        var controller = new FileServingController(root, new LocalBlobStore(root), renditions, 256);
+
+        var old = new ResourceHttpRequestHandler();
+        old.setLocations(List.of(new FileSystemResource(root.toString() + "/")));
+        old.setCacheSeconds(3600);
+        old.afterPropertiesSet();
+
+        var tomcat = new Tomcat();
+        tomcat.setBaseDir(Files.createTempDirectory("file-serving-bench-tomcat").toString());
+        tomcat.setPort(0);
+        tomcat.getConnector();
+        var context = tomcat.addContext("", null);
+
+        Tomcat.addServlet(context, "new", new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                controller.serve(req, res);
+            }
+        });
+        context.addServletMappingDecoded("/files/*", "new");
+
+        Tomcat.addServlet(context, "old", new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res)
+                    throws IOException, jakarta.servlet.ServletException {
+                req.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, req.getPathInfo().substring(1));
+                old.handleRequest(req, res);
+            }
+        });
+        context.addServletMappingDecoded("/old/*", "old");
+
+        tomcat.start();
+        return tomcat;
+    }
+
+    private static void run(HttpClient http, int port, String handler, String path, boolean revalidate,
+                            int clients, int seconds, int size) throws Exception {
+        URI uri = URI.create("http://localhost:" + port + path);
+        var first = http.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding());
+        if (first.statusCode() != 200) {
+            throw new IllegalStateException(handler + " returned " + first.statusCode() + " for " + path);
+        }
+        var builder = HttpRequest.newBuilder(uri);
+        if (revalidate) {
+            first.headers().firstValue("ETag").ifPresent(v -> builder.header("If-None-Match", v));
+            first.headers().firstValue("Last-Modified").ifPresent(v -> builder.header("If-Modified-Since", v));
+        }
+        var request = builder.build();
+        int expected = revalidate ? 304 : 200;
+
+        // Oppvarming
+        loop(http, request, expected, clients, Math.max(1, seconds / 3) * 1_000_000_000L, new LongAdder());
+
+        var done = new LongAdder();
+        long start = System.nanoTime();
+        loop(http, request, expected, clients, seconds * 1_000_000_000L, done);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        double rps = done.sum() / elapsed;
+        double mbps = revalidate ? 0 : rps * size / (1024.0 * 1024.0);
+        System.out.printf("%-10s %-8s %-12s %12.0f %10.1f%n", handler, size / 1024 + " KB",
+                revalidate ? "304" : "200", rps, mbps);
+    }
+
+    private static void loop(HttpClient http, HttpRequest request, int expected, int clients,
+                             long durationNs, LongAdder done) throws InterruptedException {
+        long deadline = System.nanoTime() + durationNs;
+        var threads = new ArrayList<Thread>();
+        for (int t = 0; t < clients; t++) {
+            var thread = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        var res = http.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (res.statusCode() != expected) {
+                            throw new IllegalStateException("Unexpected status " + res.statusCode());
+                        }
+                        done.increment();
+                    }
+                } catch (IOException | InterruptedException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (var thread : threads) thread.join();
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.someprojectbackend.web.json;
+
+import com.example.someprojectbackend.web.dto.comment.CommentDto;
+import com.example.someprojectbackend.web.dto.comment.CommentsPageDto;
+import com.example.someprojectbackend.web.dto.common.CursorDto;
+import com.example.someprojectbackend.web.dto.popular.PopularCursorDto;
+import com.example.someprojectbackend.web.dto.popular.PopularPostsPageDto;
+import com.example.someprojectbackend.web.dto.post.PostDto;
+import com.example.someprojectbackend.web.dto.post.PostFields;
+import com.example.someprojectbackend.web.dto.post.PostsPageDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FeedJsonModuleTests {
+
+    // Samme datoformat som Spring Boots ObjectMapper (ISO-8601)
+    static Jackson2ObjectMapperBuilder builder() {
+        return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static final ObjectMapper GENERIC = builder().build();
+    private static final ObjectMapper STREAMING = builder().modulesToInstall(new FeedJsonModule()).build();
+
+    static PostDto post(int i, String imageUrl) {
+        return new PostDto(new UUID(i, i), "user" + i, "/files/avatars/a" + i + "_128.jpg",
+                "Innlegg nr. " + i + " med \"sitat\" og æøå", imageUrl, imageUrl,
+                Instant.parse("2025-01-01T12:00:00.123456Z").plusSeconds(i), 10L * i, i, 100L * i, i % 2 == 0);
+    }
+
+    @Test
+    void streamingOutputMatchesGenericSerializer() throws Exception {
+        var posts = List.of(post(1, null), post(2, "/files/x.jpg"));
+        var cursor = new CursorDto(Instant.parse("2025-01-01T00:00:00Z"), new UUID(9, 9));
+        Object[] pages = {
+                new PostsPageDto(posts, cursor),
+                new PostsPageDto(List.of(), null),
+                new PopularPostsPageDto(posts, new PopularCursorDto(42, Instant.EPOCH, new UUID(1, 2))),
+                new CommentsPageDto(List.of(new CommentDto(new UUID(3, 3), "a", null, "hei", Instant.EPOCH)), cursor)
+        };
+        for (Object page : pages) {
+            assertThat(STREAMING.writeValueAsString(page)).isEqualTo(GENERIC.writeValueAsString(page));
+        }
+    }
+
+    @Test
+    void sparseFieldsetWritesOnlyRequestedFields() throws Exception {
+        var longPost = new PostDto(new UUID(1, 1), "user1", null, "😀".repeat(PostFields.PREVIEW_LENGTH + 5),
+                null, null, Instant.EPOCH, 3, 4, 5, true);
+        var page = new PostsPageDto(List.of(longPost), null, PostFields.parse("author, likeCount,preview"));
+
+        var node = GENERIC.readTree(STREAMING.writeValueAsString(page)).get("posts").get(0);
+        assertThat(node.properties()).extracting(Map.Entry::getKey)
+                .containsExactly("id", "author", "preview", "likeCount");
+        assertThat(node.get("preview").asText()).isEqualTo("😀".repeat(PostFields.PREVIEW_LENGTH));
+        assertThat(PostFields.parse(" ")).isSameAs(PostFields.ALL);
+    }
+
+    @Test
+    void cborOutputMatchesGenericSerializer() throws Exception {
+        var generic = builder().factory(new CBORFactory()).build();
+        var streaming = builder().factory(new CBORFactory()).modulesToInstall(new FeedJsonModule()).build();
+        var page = new PostsPageDto(List.of(post(1, null), post(2, "/files/x.jpg")), null);
+
+        byte[] bytes = streaming.writeValueAsBytes(page);
+        assertThat(bytes).isEqualTo(generic.writeValueAsBytes(page));
+        assertThat(bytes.length).isLessThan(GENERIC.writeValueAsBytes(page).length);
+    }
+
+    @Test
+    void timestampsAndIdsFormatLikeToString() throws Exception {
+        var random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            // Hele 0000–9999 og typiske presisjoner (sekunder, millis, mikros, nanos)
+            long seconds = -62_167_219_200L + (long) (random.nextDouble() * 315_569_520_000L);
+            int nanos = switch (i % 4) {
+                case 0 -> 0;
+                case 1 -> random.nextInt(1000) * 1_000_000;
+                case 2 -> random.nextInt(1_000_000) * 1_000;
+                default -> random.nextInt(1_000_000_000);
+            };
+            var cursor = new CursorDto(Instant.ofEpochSecond(seconds, nanos), new UUID(random.nextLong(), random.nextLong()));
+            var page = new PostsPageDto(List.of(), cursor);
+            assertThat(STREAMING.writeValueAsString(page)).isEqualTo(GENERIC.writeValueAsString(page));
+        }
+    }
+}
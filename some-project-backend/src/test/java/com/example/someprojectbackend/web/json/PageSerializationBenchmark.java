@@ -0,0 +1,87 @@
+package com.example.someprojectbackend.web.json;
+
+import com.example.someprojectbackend.web.dto.common.CursorDto;
+import com.example.someprojectbackend.web.dto.post.PostDto;
+import com.example.someprojectbackend.web.dto.post.PostsPageDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.UUID;
+
+/**
+ * Bytes, allokering og tid per side for {@link PostsPageDto}: generisk Jackson-serialisering
+ * mot {@link FeedJsonModule}, som JSON og CBOR.
+ * <p>
+ * Skriver til en strøm som bare teller bytes (som en respons-strøm), og måler allokering
+ * per tråd med {@code com.sun.management.ThreadMXBean}. Kjøres manuelt (ikke en del av testene):
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *     com.example.someprojectbackend.web.json.PageSerializationBenchmark 50
+ * </pre>
+ */
+public final class PageSerializationBenchmark {
+
+    private static final int WARMUP = 50_000;
+    private static final int ITERATIONS = 200_000;
+
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        var posts = new ArrayList<PostDto>(size);
+        for (int i = 0; i < size; i++) {
+            posts.add(FeedJsonModuleTests.post(i, i % 3 == 0 ? "/files/ab/" + UUID.randomUUID() + ".jpg" : null));
+        }
+        var page = new PostsPageDto(posts, new CursorDto(Instant.now(), UUID.randomUUID()));
+
+        ObjectMapper generic = FeedJsonModuleTests.builder().build();
+        ObjectMapper streaming = FeedJsonModuleTests.builder().modulesToInstall(new FeedJsonModule()).build();
+        ObjectMapper genericCbor = FeedJsonModuleTests.builder().factory(new CBORFactory()).build();
+        ObjectMapper streamingCbor = FeedJsonModuleTests.builder().factory(new CBORFactory())
+                .modulesToInstall(new FeedJsonModule()).build();
+
+        System.out.printf("page size=%d posts, %d iterations%n", size, ITERATIONS);
+        System.out.printf("%-16s %10s %14s %10s%n", "serializer", "bytes/page", "alloc B/page", "ns/page");
+        run("json generic", generic, page);
+        run("json streaming", streaming, page);
+        run("cbor generic", genericCbor, page);
+        run("cbor streaming", streamingCbor, page);
+    }
+
+    private static void run(String name, ObjectMapper mapper, Object page) throws IOException {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        var out = new CountingOutputStream();
+
+        for (int i = 0; i < WARMUP; i++) mapper.writeValue(out, page);
+        out.count = 0;
+
+        long allocBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) mapper.writeValue(out, page);
+        long ns = System.nanoTime() - start;
+        long alloc = threads.getThreadAllocatedBytes(thread) - allocBefore;
+
+        System.out.printf("%-16s %10d %14d %10d%n", name,
+                out.count / ITERATIONS, alloc / ITERATIONS, ns / ITERATIONS);
+    }
+
+    /** Strøm som kun teller bytes. */
+    private static final class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -18,9 +18,11 @@ type Post = {
   authorAvatarUrl?: string | null;
   content: string;
   imageUrl?: string | null;
+  imageThumbUrl?: string | null;
   createdAt: string;
   likeCount: number;
   commentCount: number;
+  viewCount: number;
   likedByMe: boolean;
 };
 
@@ -63,6 +65,35 @@ async function authedFetch(url: string, opts: RequestInit = {}) {
   });
 }
 
+/**
+ * POST with an Idempotency-Key: the same key is reused for every attempt, so the
+ * server runs the request at most once. Short per-attempt timeout, retried on
+ * network errors, timeouts, 409 (still in progress) and 5xx.
+ */
+async function idempotentPost(url: string, body: unknown, { timeoutMs = 5000, attempts = 3 } = {}) {
+  const key = crypto.randomUUID();
+  let last: Response | null = null;
+  for (let i = 0; i < attempts; i++) {
+    const ctrl = new AbortController();
+    const timer = setTimeout(() => ctrl.abort(), timeoutMs);
+    try {
+      last = await authedFetch(url, {
+        method: "POST",
+        headers: { "Idempotency-Key": key },
+        body: JSON.stringify(body),
+        signal: ctrl.signal,
+      });
+      if (last.status !== 409 && last.status < 500) return last;
+    } catch (err) {
+      if (i === attempts - 1) throw err;
+    } finally {
+      clearTimeout(timer);
+    }
+    await new Promise((r) => setTimeout(r, 250 * 2 ** i));
+  }
+  return last!;
+}
+
 const PAGE_SIZE = 10;
 
 /* ============================
@@ -110,17 +141,11 @@ export function Composer() {
     const content = (form.elements.namedItem("content") as HTMLTextAreaElement).value.trim();
     if (!content) return;
 
-    const token = getToken();
-    const res = await fetch(`${API_BASE}/api/posts`, {
-      method: "POST",
-      headers: {
-        "Content-Type": "application/json",
-        ...(token ? { Authorization: `Bearer ${token}` } : {}),
-      },
-      body: JSON.stringify({ author: "anonymous", content, imageUrl: null }),
-    });
+    const res = await idempotentPost(`${API_BASE}/api/posts`, { author: "anonymous", content, imageUrl: null }).catch(
+      () => null
+    );
 
-    if (res.ok) form.reset();
+    if (res?.ok) form.reset();
     else alert("Du må være innlogget for å publisere.");
   }
 
@@ -169,12 +194,9 @@ function Comments({ postId, onClose }: { postId: string; onClose: () => void })
       return clone;
     }, false);
 
-    const res = await authedFetch(`${API_BASE}/api/posts/${postId}/comments`, {
-      method: "POST",
-      body: JSON.stringify({ content }),
-    });
+    const res = await idempotentPost(`${API_BASE}/api/posts/${postId}/comments`, { content }).catch(() => null);
 
-    if (res.ok) {
+    if (res?.ok) {
       const real = await res.json();
       mutate((pages) => {
         if (!pages || pages.length === 0) return pages;
@@ -297,6 +319,23 @@ export default function Feed({ displayName, mode = "global" }: { displayName?: s
 
   const posts = useMemo(() => (data ? data.flatMap((d) => d.posts) : []), [data]);
 
+  // Impressions — report each loaded post once, batched
+  const reportedRef = useRef<Set<string>>(new Set());
+  useEffect(() => {
+    const fresh = posts.map((p) => p.id).filter((id) => !reportedRef.current.has(id));
+    if (fresh.length === 0) return;
+    const timer = setTimeout(() => {
+      const ids = fresh.filter((id) => !reportedRef.current.has(id)).slice(0, 100);
+      if (ids.length === 0) return;
+      ids.forEach((id) => reportedRef.current.add(id));
+      authedFetch(`${API_BASE}/api/impressions`, {
+        method: "POST",
+        body: JSON.stringify({ postIds: ids }),
+      }).catch(() => {});
+    }, 1000);
+    return () => clearTimeout(timer);
+  }, [posts]);
+
   // End-of-list detection
   const isEnd = useMemo(() => {
     if (!data || data.length === 0) return false;
@@ -351,7 +390,8 @@ export default function Feed({ displayName, mode = "global" }: { displayName?: s
           for (const page of clone) {
             const idx = page.posts.findIndex((p) => p.id === post.id);
             if (idx !== -1) {
-              page.posts[idx] = post;
+              // SSE-innhold er uten seerinfo; behold egen likedByMe
+              page.posts[idx] = { ...post, likedByMe: page.posts[idx].likedByMe };
               found = true;
               break;
             }
@@ -537,7 +577,7 @@ export default function Feed({ displayName, mode = "global" }: { displayName?: s
             {p.imageUrl && (
               <Image
                 className={`${styles.postMedia} ${styles.postMediaCover}`}
-                src={p.imageUrl}
+                src={p.imageThumbUrl ?? p.imageUrl}
                 alt="Innleggsbilde"
                 width={1280}
                 height={720}
@@ -551,6 +591,9 @@ export default function Feed({ displayName, mode = "global" }: { displayName?: s
               <button className="btn-ghost" onClick={() => openComments(p.id)}>
                 💬 {p.commentCount}
               </button>
+              <span className={styles.postMeta} title="Sett av omtrent så mange personer">
+                👁️ {p.viewCount ?? 0}
+              </span>
 
               {canDelete && (
                 <button className="btn-ghost" onClick={() => deletePost(p.id)} title="Slett innlegg">